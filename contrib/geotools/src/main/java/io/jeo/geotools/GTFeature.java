@@ -46,6 +46,11 @@ public class GTFeature implements Feature {
         return feature.getAttribute(key);
     }
 
+    @Override
+    public Object get(int index) {
+        return feature.getAttribute(index);
+    }
+
     @Override
     public Geometry geometry() {
         return (Geometry) feature.getDefaultGeometry();
@@ -57,6 +62,12 @@ public class GTFeature implements Feature {
         return this;
     }
 
+    @Override
+    public Feature put(int index, Object val) {
+        feature.setAttribute(index, val);
+        return this;
+    }
+
     @Override
     public Feature put(Geometry g) {
         feature.setDefaultGeometry(g);
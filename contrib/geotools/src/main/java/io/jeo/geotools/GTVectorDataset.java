@@ -151,12 +151,13 @@ public class GTVectorDataset implements VectorDataset {
                 qp.fields();
             }
 
-            if (q.limit() != null) {
+            // limit and offset are left to the query plan when sorting
+            if (q.limit() != null && q.sort() == null) {
                 gtq.setMaxFeatures(q.limit());
                 qp.limited();
             }
 
-            if (q.offset() != null) {
+            if (q.offset() != null && q.sort() == null) {
                 gtq.setStartIndex(q.offset());
                 qp.offsetted();
             }
@@ -165,7 +165,8 @@ public class LuceneDataset implements VectorDataset, FileData {
             lq = createQuery(q, qp);
         }
 
-        return qp.apply(cursor(lq, q.limit()));
+        // limit only applies natively when no sorting is required
+        return qp.apply(cursor(lq, q.sort() == null ? q.limit() : null), schema());
     }
 
     @Override
@@ -242,7 +243,9 @@ public class LuceneDataset implements VectorDataset, FileData {
             }
         }
 
-        qp.limited();
+        if (q.sort() == null) {
+            qp.limited();
+        }
         return rq;
     }
 
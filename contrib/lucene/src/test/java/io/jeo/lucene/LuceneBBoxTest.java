@@ -42,4 +42,9 @@ public class LuceneBBoxTest extends VectorApiTestBase {
     protected VectorDataset createVectorData() throws Exception {
         return data;
     }
+
+    @Override
+    public void testCursorSimplify() throws Exception {
+        // ignore, bbox fields store only the envelope of the original geometry
+    }
 }
@@ -124,14 +124,15 @@ public class MongoDataset implements VectorDataset {
             dbcol.find(encodeBboxQuery(q.bounds())) : dbcol.find();
         qp.bounded();
 
+        // offset and limit are left to the query plan when sorting
         Integer offset = q.offset();
-        if (offset != null) {
+        if (offset != null && q.sort() == null) {
             dbCursor.skip(offset);
             qp.offsetted();
         }
 
         Integer limit = q.limit();
-        if (limit != null) {
+        if (limit != null && q.sort() == null) {
             dbCursor.limit(limit);
             qp.limited();
         }
@@ -73,6 +73,11 @@ public class MongoFeature implements Feature {
         return find(mapping.getPropertyPath().append(key));
     }
 
+    @Override
+    public Object get(int index) {
+        throw new UnsupportedOperationException("Positional access requires a schema");
+    }
+
     @Override
     public Geometry geometry() {
         if (!mapping.getGeometryPaths().isEmpty()) {
@@ -90,6 +95,11 @@ public class MongoFeature implements Feature {
         throw new IllegalArgumentException("No geometry for feature");
     }
 
+    @Override
+    public Feature put(int index, Object val) {
+        throw new UnsupportedOperationException("Positional access requires a schema");
+    }
+
     @Override
     public Feature put(String key, Object val) {
         Object dbval = val;
@@ -32,7 +32,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -174,13 +173,17 @@ public class FeatureHandler extends Handler {
             }
         }
 
+        // optional number of decimals to write coordinates with
+        final int precision = parsePrecision(request);
+
         return new Response(HTTP_OK, MIME_JSON, new Response.Content() {
 
             GeoJSONWriter w;
 
             @Override
             public void write(OutputStream output) throws IOException {
-                w = new GeoJSONWriter(new OutputStreamWriter(output, Charset.forName("UTF-8")));
+                w = new GeoJSONWriter(output);
+                w.precision(precision);
                 w.featureCollection(c);
                 w.flush();
             }
@@ -239,6 +242,10 @@ public class FeatureHandler extends Handler {
             q.filter(parseFilter(p.getProperty("filter")));
         }
 
+        if (p.containsKey("simplify")) {
+            q.simplify(Double.parseDouble(p.getProperty("simplify")));
+        }
+
         return q;
     }
 
@@ -543,6 +550,22 @@ public class FeatureHandler extends Handler {
         return m.group(3) != null ? m.group(3) : null;
     }
 
+    int parsePrecision(Request request) {
+        String precision = request.getParms().getProperty("precision");
+        if (precision == null) {
+            return -1;
+        }
+        try {
+            int p = Integer.parseInt(precision);
+            if (p <= GeoJSONWriter.MAX_PRECISION) {
+                return p;
+            }
+        }
+        catch(NumberFormatException e) {
+        }
+        throw new HttpException(HTTP_BADREQUEST, "Invalid precision: " + precision);
+    }
+
     Bounds parseBBOX(String bbox) {
         String[] split = bbox.split(",");
         return new Bounds(Double.parseDouble(split[0]), Double.parseDouble(split[2]),
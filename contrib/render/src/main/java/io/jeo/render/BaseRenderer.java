@@ -41,6 +41,7 @@ import io.jeo.raster.RasterQuery;
 import io.jeo.raster.Stats;
 import io.jeo.tile.TileDataset;
 import io.jeo.util.Function;
+import io.jeo.util.Key;
 import io.jeo.vector.Feature;
 import io.jeo.filter.Filter;
 import io.jeo.filter.Filters;
@@ -63,6 +64,11 @@ public abstract class BaseRenderer implements Renderer {
 
     static final Logger LOG = LoggerFactory.getLogger(BaseRenderer.class);
 
+    /**
+     * Tolerance in pixels with which to simplify vector geometries, 0 to disable.
+     */
+    public static final Key<Double> SIMPLIFY = new Key<>("simplify", Double.class, 1d);
+
     protected View view;
     protected java.util.Map<?, Object> opts;
 
@@ -183,6 +189,12 @@ public abstract class BaseRenderer implements Renderer {
             q.filter(filter);
         }
 
+        // simplify to the size of a pixel, features are read in the crs of the view
+        Double px = SIMPLIFY.get(opts);
+        if (px != null && px > 0) {
+            q.simplify(px * Math.min(view.iscaleX(), view.iscaleY()));
+        }
+
         // compute query fields to reduce overhead
         // always want the geometry
         q.fields(data.schema() == null ? "geometry" : data.schema().geometry().name());
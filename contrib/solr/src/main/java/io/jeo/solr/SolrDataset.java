@@ -16,6 +16,7 @@ package io.jeo.solr;
 
 import com.vividsolutions.jts.geom.Geometry;
 import io.jeo.data.Driver;
+import io.jeo.data.Sort;
 import io.jeo.filter.Filter;
 import io.jeo.filter.FilterSplitter;
 import io.jeo.filter.Filters;
@@ -164,14 +165,20 @@ public class SolrDataset implements VectorDataset {
             encodeQuery(sq, q, qp);
         }
 
+        if (q.sort() != null) {
+            encodeSort(sq, q, qp);
+        }
+
         // TODO: use cursors for paging?
 
-        if (q.offset() != null) {
+        // offset and limit only apply natively if the results are sorted natively as well
+        boolean page = q.sort() == null || qp.isSorted();
+        if (q.offset() != null && page) {
             sq.setStart(q.offset());
             qp.offsetted();
         }
 
-        if (q.limit() != null) {
+        if (q.limit() != null && page) {
             sq.setRows(q.limit());
             qp.limited();
         }
@@ -212,6 +219,21 @@ public class SolrDataset implements VectorDataset {
         throw new UnsupportedOperationException();
     }
 
+    void encodeSort(SolrQuery sq, VectorQuery q, VectorQueryPlan qp) throws IOException {
+        Schema schema = schema();
+        for (Sort s : q.sort()) {
+            Field f = schema.field(s.getProperty());
+            if (f == null || f.geometry()) {
+                return;
+            }
+        }
+
+        for (Sort s : q.sort()) {
+            sq.addSort(s.getProperty(), s.isAscending() ? SolrQuery.ORDER.asc : SolrQuery.ORDER.desc);
+        }
+        qp.sorted();
+    }
+
     void encodeQuery(SolrQuery sq, VectorQuery q, VectorQueryPlan qp) throws IOException {
         if (!Bounds.isNull(q.bounds())) {
             Bounds e = q.bounds();
@@ -14,6 +14,13 @@
  */
 package io.jeo.data;
 
+/**
+ * Sort criteria for a single property.
+ * <p>
+ * The property name may be prefixed with <tt>-</tt> to specify descending order, or <tt>+</tt> to
+ * explicitly specify ascending order, the default.
+ * </p>
+ */
 public class Sort {
 
     String property;
@@ -39,4 +46,37 @@ public class Sort {
     public boolean isAscending() {
         return ascending;
     }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + (ascending ? 1231 : 1237);
+        result = prime * result + ((property == null) ? 0 : property.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        Sort other = (Sort) obj;
+        if (ascending != other.ascending)
+            return false;
+        if (property == null) {
+            if (other.property != null)
+                return false;
+        } else if (!property.equals(other.property))
+            return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return (ascending ? "" : "-") + property;
+    }
 }
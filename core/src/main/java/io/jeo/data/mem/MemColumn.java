@@ -0,0 +1,395 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.data.mem;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import io.jeo.util.Convert;
+import io.jeo.util.Optional;
+import io.jeo.vector.Field;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column of values of {@link MemColumnarDataset}.
+ * <p>
+ * Values are stored in primitive arrays for int, long, double and boolean fields, strings are
+ * dictionary encoded, and points are stored as packed coordinates. Values of any other type are
+ * stored as objects.
+ * </p>
+ */
+abstract class MemColumn {
+
+    /**
+     * Creates the column for a field.
+     */
+    static MemColumn create(Field fld) {
+        Class<?> type = fld.type();
+        if (type == Integer.class) {
+            return new Ints();
+        }
+        if (type == Long.class) {
+            return new Longs();
+        }
+        if (type == Double.class) {
+            return new Doubles();
+        }
+        if (type == Boolean.class) {
+            return new Booleans();
+        }
+        if (type == String.class) {
+            return new Strings();
+        }
+        if (type == Point.class) {
+            return new Points();
+        }
+        return new Objects(type);
+    }
+
+    /**
+     * Grows an array capacity to hold the specified number of values.
+     */
+    static int grow(int capacity, int size) {
+        return Math.max(size, capacity + (capacity >> 1) + 16);
+    }
+
+    /**
+     * Converts a value to the type of the column.
+     */
+    static <T> T convert(Object val, Class<T> type) {
+        if (val == null) {
+            return null;
+        }
+        Optional<T> converted = Convert.to(val, type);
+        if (!converted.isPresent()) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT,
+                "Unable to convert %s to %s", val, type.getSimpleName()));
+        }
+        return converted.get();
+    }
+
+    /**
+     * Ensures the column can hold the specified number of rows.
+     */
+    abstract void ensureCapacity(int size);
+
+    /**
+     * The value of a row.
+     */
+    abstract Object get(int row);
+
+    /**
+     * Sets the value of a row, the capacity of the column must already hold the row.
+     */
+    abstract void set(int row, Object val);
+
+    /**
+     * Column of int values.
+     */
+    static class Ints extends MemColumn {
+        int[] values = new int[0];
+        BitSet nulls = new BitSet();
+
+        @Override
+        void ensureCapacity(int size) {
+            if (size > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, size));
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        void set(int row, Object val) {
+            Integer i = convert(val, Integer.class);
+            nulls.set(row, i == null);
+            values[row] = i != null ? i : 0;
+        }
+    }
+
+    /**
+     * Column of long values.
+     */
+    static class Longs extends MemColumn {
+        long[] values = new long[0];
+        BitSet nulls = new BitSet();
+
+        @Override
+        void ensureCapacity(int size) {
+            if (size > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, size));
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        void set(int row, Object val) {
+            Long l = convert(val, Long.class);
+            nulls.set(row, l == null);
+            values[row] = l != null ? l : 0;
+        }
+    }
+
+    /**
+     * Column of double values.
+     */
+    static class Doubles extends MemColumn {
+        double[] values = new double[0];
+        BitSet nulls = new BitSet();
+
+        @Override
+        void ensureCapacity(int size) {
+            if (size > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, size));
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        void set(int row, Object val) {
+            Double d = convert(val, Double.class);
+            nulls.set(row, d == null);
+            values[row] = d != null ? d : 0;
+        }
+    }
+
+    /**
+     * Column of boolean values, stored as bits.
+     */
+    static class Booleans extends MemColumn {
+        BitSet values = new BitSet();
+        BitSet nulls = new BitSet();
+
+        @Override
+        void ensureCapacity(int size) {
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values.get(row);
+        }
+
+        @Override
+        void set(int row, Object val) {
+            Boolean b = convert(val, Boolean.class);
+            nulls.set(row, b == null);
+            values.set(row, b != null && b);
+        }
+    }
+
+    /**
+     * Column of string values, stored as codes into a dictionary of distinct values.
+     */
+    static class Strings extends MemColumn {
+        int[] codes = new int[0];
+        List<String> dict = new ArrayList<>();
+        Map<String,Integer> lookup = new HashMap<>();
+
+        @Override
+        void ensureCapacity(int size) {
+            if (size > codes.length) {
+                codes = Arrays.copyOf(codes, grow(codes.length, size));
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            int code = codes[row];
+            return code > 0 ? dict.get(code - 1) : null;
+        }
+
+        @Override
+        void set(int row, Object val) {
+            String s = convert(val, String.class);
+            codes[row] = s != null ? encode(s) : 0;
+        }
+
+        int encode(String s) {
+            Integer code = lookup.get(s);
+            if (code == null) {
+                dict.add(s);
+                code = dict.size();
+                lookup.put(s, code);
+            }
+            return code;
+        }
+    }
+
+    /**
+     * Column of point values, stored as packed x/y ordinates.
+     * <p>
+     * Null points are stored as a NaN x ordinate, empty points are stored as null.
+     * </p>
+     */
+    static class Points extends MemColumn {
+        static final GeometryFactory FACTORY = new GeometryFactory();
+
+        double[] xy = new double[0];
+
+        @Override
+        void ensureCapacity(int size) {
+            if (2 * size > xy.length) {
+                xy = Arrays.copyOf(xy, 2 * grow(xy.length / 2, size));
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            double x = xy[2*row];
+            return Double.isNaN(x) ? null : FACTORY.createPoint(new Coordinate(x, xy[2*row+1]));
+        }
+
+        @Override
+        void set(int row, Object val) {
+            Point p = convert(val, Point.class);
+            if (p == null || p.isEmpty()) {
+                xy[2*row] = Double.NaN;
+                xy[2*row+1] = Double.NaN;
+            }
+            else {
+                xy[2*row] = p.getX();
+                xy[2*row+1] = p.getY();
+            }
+        }
+
+        /**
+         * Expands an envelope to include the point of a row.
+         *
+         * @return False if the point of the row is null.
+         */
+        boolean expand(int row, Envelope e) {
+            double x = xy[2*row];
+            if (Double.isNaN(x)) {
+                return false;
+            }
+            e.expandToInclude(x, xy[2*row+1]);
+            return true;
+        }
+    }
+
+    /**
+     * Column of arbitrary objects.
+     */
+    static class Objects extends MemColumn {
+        Class<?> type;
+        Object[] values = new Object[0];
+
+        Objects(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        void ensureCapacity(int size) {
+            if (size > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, size));
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        void set(int row, Object val) {
+            values[row] = Geometry.class.isAssignableFrom(type) || type == Object.class
+                ? val : convert(val, type);
+        }
+    }
+
+    /**
+     * Column of feature identifiers.
+     * <p>
+     * Identifiers are stored as longs for as long as all identifiers are canonical integer
+     * strings, and as strings once one that is not has been added.
+     * </p>
+     */
+    static class Ids {
+        long[] longs = new long[0];
+        String[] strings;
+
+        void ensureCapacity(int size) {
+            if (strings != null) {
+                if (size > strings.length) {
+                    strings = Arrays.copyOf(strings, grow(strings.length, size));
+                }
+            }
+            else if (size > longs.length) {
+                longs = Arrays.copyOf(longs, grow(longs.length, size));
+            }
+        }
+
+        String get(int row) {
+            return strings != null ? strings[row] : Long.toString(longs[row]);
+        }
+
+        void set(int row, String id, int size) {
+            if (strings == null) {
+                Long l = parse(id);
+                if (l != null) {
+                    longs[row] = l;
+                    return;
+                }
+
+                // switch to strings
+                strings = new String[Math.max(longs.length, size)];
+                for (int i = 0; i < size; i++) {
+                    strings[i] = Long.toString(longs[i]);
+                }
+                longs = null;
+            }
+            strings[row] = id;
+        }
+
+        static Long parse(String id) {
+            int n = id.length();
+            if (n == 0 || n > 19) {
+                return null;
+            }
+            for (int i = 0; i < n; i++) {
+                char c = id.charAt(i);
+                if (c < '0' || c > '9' || (c == '0' && i == 0 && n > 1)) {
+                    return null;
+                }
+            }
+            try {
+                return Long.parseLong(id);
+            }
+            catch(NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
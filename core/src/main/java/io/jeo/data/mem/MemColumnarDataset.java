@@ -0,0 +1,436 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.data.mem;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import io.jeo.geom.Bounds;
+import io.jeo.geom.PackedRTree;
+import io.jeo.util.Key;
+import io.jeo.vector.DiffFeature;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.FeatureWriteCursor;
+import io.jeo.vector.Field;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
+import io.jeo.vector.VectorDataset;
+import io.jeo.vector.VectorQuery;
+import io.jeo.vector.VectorQueryPlan;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * In memory vector dataset that stores features column wise.
+ * <p>
+ * Compared to {@link MemVectorDataset} which stores every feature as an object this dataset
+ * stores each field as a {@link MemColumn}: int, long, double and boolean values in primitive
+ * arrays, strings dictionary encoded, and point geometries as packed coordinates. Features read
+ * from the dataset are lightweight views of a row that read and write the columns directly.
+ * The layout is well suited to large read mostly datasets, especially datasets of points.
+ * </p>
+ * <p>
+ * Features are spatially indexed with a {@link PackedRTree} that is built lazily and rebuilt
+ * after modifications, which suits read mostly data better than it does frequent updates. The
+ * dataset is not safe for concurrent modification.
+ * </p>
+ */
+public class MemColumnarDataset implements VectorDataset {
+
+    /**
+     * Loads a dataset from a cursor, building the spatial index up front.
+     *
+     * @param schema The schema of the dataset.
+     * @param cursor The features to load, the cursor is closed by this method.
+     */
+    public static MemColumnarDataset load(Schema schema, FeatureCursor cursor) throws IOException {
+        MemColumnarDataset data = new MemColumnarDataset(schema);
+        try {
+            for (Feature f : cursor) {
+                data.add(f);
+            }
+        }
+        finally {
+            cursor.close();
+        }
+
+        data.index();
+        return data;
+    }
+
+    final Schema schema;
+    final MemColumn[] columns;
+    final MemColumn.Ids ids;
+    final int geometry;
+
+    /** number of rows, including removed ones */
+    int rows;
+    final BitSet removed = new BitSet();
+
+    volatile Index index;
+
+    public MemColumnarDataset(Schema schema) {
+        this.schema = schema;
+
+        columns = new MemColumn[schema.size()];
+        int i = 0;
+        for (Field fld : schema) {
+            columns[i++] = MemColumn.create(fld);
+        }
+
+        ids = new MemColumn.Ids();
+        geometry = schema.geometry() != null ? schema.indexOf(schema.geometry().name()) : -1;
+    }
+
+    @Override
+    public Memory driver() {
+        return new Memory();
+    }
+
+    @Override
+    public Map<Key<?>,Object> driverOptions() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public String name() {
+        return schema.name();
+    }
+
+    @Override
+    public CoordinateReferenceSystem crs() {
+        return schema.crs();
+    }
+
+    @Override
+    public Schema schema() {
+        return schema;
+    }
+
+    /**
+     * The number of features in the dataset.
+     */
+    public int size() {
+        return rows - removed.cardinality();
+    }
+
+    @Override
+    public Bounds bounds() throws IOException {
+        if (geometry == -1) {
+            return null;
+        }
+
+        Bounds e = new Bounds();
+        e.setToNull();
+
+        MemColumn col = columns[geometry];
+        for (int i = 0; i < rows; i++) {
+            if (removed.get(i)) {
+                continue;
+            }
+            if (col instanceof MemColumn.Points) {
+                ((MemColumn.Points) col).expand(i, e);
+            }
+            else {
+                Geometry g = (Geometry) col.get(i);
+                if (g != null) {
+                    e.expandToInclude(g.getEnvelopeInternal());
+                }
+            }
+        }
+        return e;
+    }
+
+    @Override
+    public long count(VectorQuery q) throws IOException {
+        if (q.isAll()) {
+            return q.adjustCount(size());
+        }
+        return read(q).count();
+    }
+
+    @Override
+    public FeatureCursor read(VectorQuery q) throws IOException {
+        VectorQueryPlan qp = new VectorQueryPlan(q);
+
+        FeatureCursor cursor;
+        if (!Bounds.isNull(q.bounds())) {
+            cursor = index().query(q.bounds());
+            qp.bounded();
+        }
+        else {
+            cursor = new ScanCursor();
+        }
+
+        return qp.apply(cursor, schema);
+    }
+
+    @Override
+    public FeatureWriteCursor update(VectorQuery q) throws IOException {
+        return new UpdateCursor(read(q));
+    }
+
+    @Override
+    public FeatureAppendCursor append(VectorQuery q) throws IOException {
+        return new AppendCursor();
+    }
+
+    /**
+     * Adds a feature to the dataset, copying its values into the columns.
+     */
+    public void add(Feature f) {
+        int row = rows;
+        for (MemColumn col : columns) {
+            col.ensureCapacity(row + 1);
+        }
+        ids.ensureCapacity(row + 1);
+
+        // values can be read by position only if the feature has the same field order
+        boolean positional = f instanceof ListFeature && schema.equals(((ListFeature) f).schema())
+            || f instanceof MemColumnarFeature && schema.equals(((MemColumnarFeature) f).dataset.schema);
+
+        int i = 0;
+        for (Field fld : schema) {
+            columns[i].set(row, positional ? f.get(i) : f.get(fld.name()));
+            i++;
+        }
+
+        ids.set(row, f.id() != null ? f.id() : String.valueOf(row), row);
+        rows++;
+        index = null;
+    }
+
+    /**
+     * Removes a feature from the dataset.
+     */
+    public void remove(Feature f) {
+        int row = row(f);
+        if (row > -1) {
+            removed.set(row);
+            index = null;
+        }
+    }
+
+    int row(Feature f) {
+        if (f instanceof DiffFeature) {
+            f = ((DiffFeature) f).getDelegate();
+        }
+        if (f instanceof MemColumnarFeature && ((MemColumnarFeature) f).dataset == this) {
+            return ((MemColumnarFeature) f).row;
+        }
+
+        String id = f.id();
+        for (int i = 0; i < rows; i++) {
+            if (!removed.get(i) && ids.get(i).equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    void set(int row, int col, Object val) {
+        columns[col].set(row, val);
+        if (col == geometry) {
+            index = null;
+        }
+    }
+
+    /**
+     * Returns the spatial index, building it if the dataset has been modified since the last
+     * time it was built.
+     */
+    Index index() {
+        Index idx = index;
+        if (idx == null) {
+            synchronized (this) {
+                idx = index;
+                if (idx == null) {
+                    index = idx = new Index();
+                }
+            }
+        }
+        return idx;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Packed tree over the rows with a geometry.
+     */
+    class Index {
+
+        final int[] items;
+        final PackedRTree tree;
+
+        Index() {
+            int[] items = new int[size()];
+            PackedRTree.Builder b = PackedRTree.build(items.length);
+
+            int n = 0;
+            if (geometry > -1) {
+                MemColumn col = columns[geometry];
+                for (int i = 0; i < rows; i++) {
+                    if (removed.get(i)) {
+                        continue;
+                    }
+
+                    if (col instanceof MemColumn.Points) {
+                        double[] xy = ((MemColumn.Points) col).xy;
+                        double x = xy[2*i];
+                        double y = xy[2*i+1];
+                        if (Double.isNaN(x)) {
+                            continue;
+                        }
+                        b.add(x, y, x, y);
+                    }
+                    else {
+                        Geometry g = (Geometry) col.get(i);
+                        if (g == null || g.isEmpty()) {
+                            continue;
+                        }
+                        b.add(g.getEnvelopeInternal());
+                    }
+                    items[n++] = i;
+                }
+            }
+
+            this.items = items;
+            this.tree = b.finish();
+        }
+
+        FeatureCursor query(Envelope bounds) {
+            final PackedRTree.Hits hits = tree.query(bounds);
+            return new FeatureCursor() {
+                MemColumnarFeature next;
+
+                @Override
+                public boolean hasNext() throws IOException {
+                    while (next == null && hits.hasNext()) {
+                        int row = items[hits.next()];
+                        if (!removed.get(row)) {
+                            next = new MemColumnarFeature(MemColumnarDataset.this, row);
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Feature next() throws IOException {
+                    try {
+                        return hasNext() ? next : null;
+                    }
+                    finally {
+                        next = null;
+                    }
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+
+    /**
+     * Cursor over all rows.
+     */
+    class ScanCursor extends FeatureCursor {
+
+        int row = -1;
+
+        @Override
+        public boolean hasNext() throws IOException {
+            return removed.nextClearBit(row + 1) < rows;
+        }
+
+        @Override
+        public Feature next() throws IOException {
+            int next = removed.nextClearBit(row + 1);
+            if (next >= rows) {
+                return null;
+            }
+            row = next;
+            return new MemColumnarFeature(MemColumnarDataset.this, row);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    class UpdateCursor extends FeatureWriteCursor {
+
+        FeatureCursor cursor;
+        DiffFeature curr;
+
+        UpdateCursor(FeatureCursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            return cursor.hasNext();
+        }
+
+        @Override
+        public Feature next() throws IOException {
+            return curr = new DiffFeature(cursor.next(), schema);
+        }
+
+        @Override
+        public UpdateCursor write() throws IOException {
+            curr.apply();
+            return this;
+        }
+
+        @Override
+        public UpdateCursor remove() throws IOException {
+            MemColumnarDataset.this.remove(curr);
+            return this;
+        }
+
+        @Override
+        public void close() throws IOException {
+            cursor.close();
+        }
+    }
+
+    class AppendCursor extends FeatureAppendCursor {
+
+        Feature curr;
+
+        @Override
+        public Feature next() throws IOException {
+            return curr = new ListFeature(String.valueOf(rows), schema);
+        }
+
+        @Override
+        public AppendCursor write() throws IOException {
+            add(curr);
+            return this;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.data.mem;
+
+import com.vividsolutions.jts.geom.Geometry;
+import io.jeo.vector.Feature;
+import io.jeo.vector.Features;
+import io.jeo.vector.Field;
+import io.jeo.vector.Schema;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Feature view of a row of a {@link MemColumnarDataset}.
+ * <p>
+ * The view holds no values, reads and writes go straight to the columns of the dataset.
+ * </p>
+ */
+class MemColumnarFeature implements Feature {
+
+    final MemColumnarDataset dataset;
+    final int row;
+
+    MemColumnarFeature(MemColumnarDataset dataset, int row) {
+        this.dataset = dataset;
+        this.row = row;
+    }
+
+    @Override
+    public String id() {
+        return dataset.ids.get(row);
+    }
+
+    @Override
+    public boolean has(String key) {
+        return dataset.schema.indexOf(key) > -1;
+    }
+
+    @Override
+    public Object get(String key) {
+        int i = dataset.schema.indexOf(key);
+        return i > -1 ? dataset.columns[i].get(row) : null;
+    }
+
+    @Override
+    public Object get(int index) {
+        return dataset.columns[index].get(row);
+    }
+
+    @Override
+    public Geometry geometry() {
+        int i = dataset.geometry;
+        return i > -1 ? (Geometry) dataset.columns[i].get(row) : null;
+    }
+
+    @Override
+    public Feature put(String key, Object val) {
+        int i = dataset.schema.indexOf(key);
+        if (i == -1) {
+            throw new IllegalArgumentException("No such key " + key);
+        }
+        return put(i, val);
+    }
+
+    @Override
+    public Feature put(int index, Object val) {
+        dataset.set(row, index, val);
+        return this;
+    }
+
+    @Override
+    public Feature put(Geometry g) {
+        int i = dataset.geometry;
+        if (i == -1) {
+            throw new IllegalArgumentException("No geometry field, use put(String,Object)");
+        }
+        return put(i, g);
+    }
+
+    @Override
+    public Map<String, Object> map() {
+        Schema schema = dataset.schema;
+        Map<String,Object> map = new LinkedHashMap<>();
+        int i = 0;
+        for (Field fld : schema) {
+            map.put(fld.name(), dataset.columns[i++].get(row));
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return Features.toString(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof Feature) {
+            return Features.equals(this, (Feature) obj);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Features.hashCode(this);
+    }
+}
@@ -15,19 +15,23 @@
 package io.jeo.data.mem;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import com.vividsolutions.jts.geom.Envelope;
 import io.jeo.geom.Bounds;
+import io.jeo.geom.PackedRTree;
 import io.jeo.vector.DiffFeature;
 import io.jeo.vector.FeatureAppendCursor;
 import io.jeo.vector.FeatureCursor;
 import io.jeo.vector.FeatureWriteCursor;
-import io.jeo.vector.Field;
 import io.jeo.vector.VectorQueryPlan;
 import io.jeo.vector.VectorQuery;
 import io.jeo.vector.VectorDataset;
@@ -40,11 +44,53 @@ import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.index.SpatialIndex;
 import com.vividsolutions.jts.index.quadtree.Quadtree;
 
+/**
+ * In memory vector dataset.
+ * <p>
+ * Bounded queries are answered by a tightly packed {@link PackedRTree}. Modifying the dataset
+ * invalidates the packed tree, and while modifications are ongoing bounded queries fall back to a
+ * {@link Quadtree} that is updated incrementally. The packed tree is rebuilt lazily by the next
+ * bounded query once modifications have stopped, that is when no modification happened since the
+ * previous bounded query, or once {@link #REPACK} modifications have piled up.
+ * </p>
+ */
 public class MemVectorDataset implements VectorDataset {
 
+    /**
+     * Number of modifications after which a bounded query rebuilds the packed tree even if
+     * modifications are ongoing, configured with the <tt>jeo.mem.repack</tt> system property.
+     */
+    static final int REPACK = Integer.getInteger("jeo.mem.repack", 1024);
+
+    /**
+     * Loads a dataset from a cursor, building the spatial index up front.
+     *
+     * @param schema The schema of the dataset.
+     * @param cursor The features to load, the cursor is closed by this method.
+     */
+    public static MemVectorDataset load(Schema schema, FeatureCursor cursor) throws IOException {
+        MemVectorDataset data = new MemVectorDataset(schema);
+        try {
+            for (Feature f : cursor) {
+                data.add(f);
+            }
+        }
+        finally {
+            cursor.close();
+        }
+
+        data.pack();
+        return data;
+    }
+
     Schema schema;
     Map<String,Feature> features = new LinkedHashMap<>();
-    SpatialIndex index;
+    SpatialIndex index = new Quadtree();
+    volatile Index packed;
+
+    /** modifications since the packed tree was built, and their number at the last bounded query */
+    int writes;
+    int queried = -1;
 
     public MemVectorDataset() {
         this(Schema.build("feature").schema());
@@ -52,7 +98,6 @@ public class MemVectorDataset implements VectorDataset {
 
     public MemVectorDataset(Schema schema) {
         this.schema = schema;
-        index = new Quadtree();
     }
 
     public Memory driver() {
@@ -112,20 +157,25 @@ public class MemVectorDataset implements VectorDataset {
 
     @Override
     public FeatureCursor read(VectorQuery q) throws IOException {
+        return read(q, features());
+    }
+
+    FeatureCursor read(VectorQuery q, Iterable<Feature> features) throws IOException {
         VectorQueryPlan qp = new VectorQueryPlan(q);
 
-        Iterable<Feature> features = features();
         if (!Bounds.isNull(q.bounds())) {
             features = query(q.bounds());
             qp.bounded();
         }
 
-        return qp.apply(new MemFeatureCursor(features));
+        return qp.apply(new MemFeatureCursor(features), schema);
     }
 
     @Override
     public FeatureWriteCursor update(VectorQuery q) throws IOException {
-        return new MemFeatureWriteCursor(read(q).iterator(), this);
+        // iterate over a copy since the cursor modifies the dataset
+        return new MemFeatureWriteCursor(
+            read(q, new ArrayList<>(features.values())).iterator(), this);
     }
 
     @Override
@@ -133,7 +183,17 @@ public class MemVectorDataset implements VectorDataset {
         return new MemFeatureAppendCursor(this);
     }
 
-    List<Feature> query(Envelope bounds) {
+    Iterable<Feature> query(final Envelope bounds) {
+        final Index idx = packed();
+        if (idx != null) {
+            return new Iterable<Feature>() {
+                @Override
+                public Iterator<Feature> iterator() {
+                    return idx.query(bounds);
+                }
+            };
+        }
+
         List<Feature> features = index.query(bounds);
         for (Iterator<Feature> it = features.iterator(); it.hasNext(); ) {
             Feature f = it.next();
@@ -141,51 +201,142 @@ public class MemVectorDataset implements VectorDataset {
                 it.remove();
             }
         }
-
         return features;
     }
 
-    public void add(Feature f) {
-        features.put(f.id(), f);
-
-        Geometry g = f.geometry();
-        if (g != null) {
-            index.insert(g.getEnvelopeInternal(), f);
+    /**
+     * Returns the packed tree for a bounded query, rebuilding it if modifications have stopped or
+     * piled up, or <code>null</code> if the query should use the quadtree.
+     */
+    Index packed() {
+        Index idx = packed;
+        if (idx == null) {
+            synchronized (this) {
+                idx = packed;
+                if (idx == null) {
+                    if (writes == queried || writes >= REPACK) {
+                        pack();
+                        idx = packed;
+                    }
+                    else {
+                        queried = writes;
+                    }
+                }
+            }
         }
+        return idx;
     }
 
-    public void remove(Feature f) {
-        features.remove(f.id());
+    /**
+     * Packs the features into a {@link PackedRTree} that answers bounded queries until the next
+     * modification.
+     */
+    synchronized void pack() {
+        packed = new Index(features.values());
+        writes = 0;
+        queried = -1;
+    }
 
-        Geometry g = f.geometry();
-        if (g != null) {
-            index.remove(g.getEnvelopeInternal(), f);
+    /**
+     * Invalidates the packed tree after a modification.
+     */
+    synchronized void modified() {
+        packed = null;
+        writes++;
+    }
+
+    public void add(Feature f) {
+        Feature old = features.put(f.id(), f);
+        if (old != null) {
+            unindex(old, old.geometry());
         }
+        index(f, f.geometry());
+        modified();
+    }
+
+    public void remove(Feature f) {
+        Feature old = features.remove(f.id());
+        unindex(old != null ? old : f, f.geometry());
+        modified();
     }
 
     void modify(DiffFeature f) {
         Feature pre = f.getDelegate();
+        Geometry g1 = pre.geometry();
 
-        Field geo = schema.geometry();
-        if (geo != null && f.changed().containsKey(geo.name())) {
-            Geometry g1 = pre.geometry();
-            Geometry g2 = f.geometry();
+        f.apply();
+        features.put(pre.id(), pre);
 
-            if (g1 != null) {
-                index.remove(g1.getEnvelopeInternal(), pre);
-            }
+        Geometry g2 = pre.geometry();
+        if (g1 != g2) {
+            unindex(pre, g1);
+            index(pre, g2);
+        }
+        modified();
+    }
 
-            if (g2 != null) {
-                index.insert(g2.getEnvelopeInternal(), pre);
-            }
+    void index(Feature f, Geometry g) {
+        if (g != null && !g.isEmpty()) {
+            index.insert(g.getEnvelopeInternal(), f);
         }
+    }
 
-        f.apply();
-        add(f.getDelegate());
+    void unindex(Feature f, Geometry g) {
+        if (g != null && !g.isEmpty()) {
+            index.remove(g.getEnvelopeInternal(), f);
+        }
     }
 
     @Override
     public void close() {
     }
 
+    /**
+     * Snapshot of the features with a geometry, indexed by a packed tree.
+     */
+    static class Index {
+
+        final Feature[] items;
+        final PackedRTree tree;
+
+        Index(Collection<Feature> features) {
+            Feature[] items = new Feature[features.size()];
+            PackedRTree.Builder b = PackedRTree.build(items.length);
+
+            int n = 0;
+            for (Feature f : features) {
+                Geometry g = f.geometry();
+                if (g != null && !g.isEmpty()) {
+                    b.add(g.getEnvelopeInternal());
+                    items[n++] = f;
+                }
+            }
+
+            this.items = n < items.length ? Arrays.copyOf(items, n) : items;
+            this.tree = b.finish();
+        }
+
+        Iterator<Feature> query(Envelope bounds) {
+            final PackedRTree.Hits hits = tree.query(bounds);
+            return new Iterator<Feature>() {
+                @Override
+                public boolean hasNext() {
+                    return hits.hasNext();
+                }
+
+                @Override
+                public Feature next() {
+                    if (!hits.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return items[hits.next()];
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
 }
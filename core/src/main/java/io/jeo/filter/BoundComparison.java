@@ -0,0 +1,46 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.filter;
+
+/**
+ * Comparison of a bound property against a literal that has been converted up front to the type
+ * of the property field.
+ * <p>
+ * Whenever the property value is of the field type the converted literal is compared directly,
+ * avoiding a conversion per evaluation. Other values are compared against the original literal
+ * as {@link Comparison} would.
+ * </p>
+ *
+ * @see Filters#bind(Filter, io.jeo.vector.Schema)
+ */
+class BoundComparison<T> extends Comparison<T> {
+
+    final Object value;
+
+    BoundComparison(Type type, BoundProperty left, Literal right, Object value) {
+        super(type, left, right);
+        this.value = value;
+    }
+
+    @Override
+    public boolean test(T obj) {
+        Object o1 = left.evaluate(obj);
+        if (o1 != null && o1.getClass() == value.getClass()) {
+            return compareValues(o1, value);
+        }
+
+        return compare(o1, right.evaluate(obj));
+    }
+}
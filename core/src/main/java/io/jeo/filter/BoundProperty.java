@@ -0,0 +1,64 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.filter;
+
+import io.jeo.vector.Field;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
+
+/**
+ * Property that has been resolved to the position of a field in a schema.
+ * <p>
+ * Features of the bound schema are evaluated by position, anything else falls back to the regular
+ * name based lookup.
+ * </p>
+ *
+ * @see Filters#bind(Filter, Schema)
+ */
+class BoundProperty extends Property {
+
+    final Schema schema;
+    final int index;
+
+    BoundProperty(String property, Schema schema, int index) {
+        super(property);
+        this.schema = schema;
+        this.index = index;
+    }
+
+    /**
+     * The field the property is bound to.
+     */
+    Field field() {
+        return schema.fields().get(index);
+    }
+
+    @Override
+    public boolean has(Object obj) {
+        return isBound(obj) || super.has(obj);
+    }
+
+    @Override
+    protected Object resolve(Object obj) {
+        if (isBound(obj)) {
+            return ((ListFeature) obj).get(index);
+        }
+        return super.resolve(obj);
+    }
+
+    boolean isBound(Object obj) {
+        return obj instanceof ListFeature && ((ListFeature) obj).schema() == schema;
+    }
+}
@@ -110,6 +110,13 @@ public class Comparison<T> extends BinaryFilter<T> {
             }
         }
 
+        return compareValues(o1, o2);
+    }
+
+    /**
+     * Compares two values that have already been converted to a common type.
+     */
+    protected boolean compareValues(Object o1, Object o2) {
         // if either is NaN, shortcut here as Double.compareTo has different
         // behavior than expected (adheres to Object.equals ordering)
         if (isNaN(o1) || isNaN(o2)) {
@@ -0,0 +1,174 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.filter;
+
+import io.jeo.util.Convert;
+import io.jeo.util.Optional;
+import io.jeo.vector.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Visitor that rebuilds a filter against a schema, replacing property references with
+ * {@link BoundProperty} and comparisons of a property with a literal with {@link BoundComparison}.
+ * <p>
+ * Expressions and filters that can't be rebuilt (functions for instance) are returned as is.
+ * </p>
+ *
+ * @see Filters#bind(Filter, Schema)
+ */
+class FilterBinder implements FilterVisitor<Object> {
+
+    final Schema schema;
+
+    FilterBinder(Schema schema) {
+        this.schema = schema;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Filter<T> bind(Filter<T> filter) {
+        return (Filter<T>) filter.accept(this, null);
+    }
+
+    Expression bind(Expression expr) {
+        return expr != null ? (Expression) expr.accept(this, null) : null;
+    }
+
+    List<Expression> bind(List<Expression> exprs) {
+        List<Expression> bound = new ArrayList<>(exprs.size());
+        for (Expression e : exprs) {
+            bound.add(bind(e));
+        }
+        return bound;
+    }
+
+    @Override
+    public Object visit(Self self, Object obj) {
+        return self;
+    }
+
+    @Override
+    public Object visit(Literal literal, Object obj) {
+        return literal;
+    }
+
+    @Override
+    public Object visit(Property property, Object obj) {
+        if (property instanceof BoundProperty) {
+            return property;
+        }
+
+        int i = schema.indexOf(property.property());
+        return i > -1 ? new BoundProperty(property.property(), schema, i) : property;
+    }
+
+    @Override
+    public Object visit(Function function, Object obj) {
+        return function;
+    }
+
+    @Override
+    public Object visit(Mixed mixed, Object obj) {
+        return new Mixed(bind(mixed.expressions()));
+    }
+
+    @Override
+    public Object visit(Math math, Object obj) {
+        return new Math(math.operator(), bind(math.left()), bind(math.right()));
+    }
+
+    @Override
+    public Object visit(Expression expr, Object obj) {
+        return expr;
+    }
+
+    @Override
+    public Object visit(All<?> all, Object obj) {
+        return all;
+    }
+
+    @Override
+    public Object visit(None<?> none, Object obj) {
+        return none;
+    }
+
+    @Override
+    public Object visit(Id<?> id, Object obj) {
+        return new Id<>(bind(id.ids()));
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Object visit(Logic<?> logic, Object obj) {
+        List<Filter<Object>> parts = new ArrayList<>(logic.parts().size());
+        for (Filter f : logic.parts()) {
+            parts.add(bind((Filter<Object>) f));
+        }
+        return new Logic<>(logic.type(), parts);
+    }
+
+    @Override
+    public Object visit(Comparison<?> compare, Object obj) {
+        Expression left = bind(compare.left());
+        Expression right = bind(compare.right());
+
+        // the per evaluation conversion only ever applies to the right operand so only a
+        // property on the left can have a literal on the right converted up front
+        if (left instanceof BoundProperty && right instanceof Literal) {
+            Class<?> type = ((BoundProperty) left).field().type();
+            Object value = ((Literal) right).evaluate(null);
+            if (value != null && type != Object.class) {
+                Optional<?> converted = Convert.to(value, type);
+                if (converted.isPresent() && converted.get().getClass() == type) {
+                    return new BoundComparison<>(compare.type(), (BoundProperty) left,
+                        (Literal) right, converted.get());
+                }
+            }
+        }
+        return new Comparison<>(compare.type(), left, right);
+    }
+
+    @Override
+    public Object visit(Spatial<?> spatial, Object obj) {
+        return new Spatial<>(spatial.type(), bind(spatial.left()), bind(spatial.right()),
+            bind(spatial.distance()));
+    }
+
+    @Override
+    public Object visit(TypeOf<?> inst, Object obj) {
+        return new TypeOf<>(bind(inst.expression()), inst.type());
+    }
+
+    @Override
+    public Object visit(In<?> in, Object obj) {
+        return new In<>((Property) bind(in.property()), bind(in.values()), in.negated());
+    }
+
+    @Override
+    public Object visit(Like<?> like, Object obj) {
+        return new Like<>((Property) bind(like.property()), like.match(), like.negated());
+    }
+
+    @Override
+    public Object visit(Null<?> isNull, Object obj) {
+        return new Null<>((Property) bind(isNull.property()), isNull.negated());
+    }
+
+    @Override
+    public Object visit(Filter<?> filter, Object obj) {
+        return filter;
+    }
+}
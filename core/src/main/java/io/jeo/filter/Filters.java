@@ -14,6 +14,8 @@
  */
 package io.jeo.filter;
 
+import io.jeo.vector.Schema;
+
 import java.util.HashSet;
 import java.util.Set;
 
@@ -82,6 +84,27 @@ public class Filters {
         return properties(f, new HashSet<String>());
     }
 
+    /**
+     * Binds a filter to a feature schema.
+     * <p>
+     * The returned filter is equivalent to the original but resolves property references once
+     * against the schema, so that features of that schema are evaluated by field position rather
+     * than by name. Literals compared to a property are also converted up front to the type of the
+     * field rather than for every evaluation. Features of any other schema are still evaluated by
+     * property name.
+     * </p>
+     * @param filter The filter to bind.
+     * @param schema The schema of the features the filter will be evaluated against.
+     *
+     * @return The bound filter.
+     */
+    public static <T> Filter<T> bind(Filter<T> filter, Schema schema) {
+        if (isTrueOrNull(filter) || filter instanceof None || schema == null) {
+            return filter;
+        }
+        return new FilterBinder(schema).bind(filter);
+    }
+
     static class PropertyCollector extends FilterWalker {
         public Set<String> collect(Filter f, Set<String> all) {
             f.accept(this, all);
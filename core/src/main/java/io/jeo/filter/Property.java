@@ -14,10 +14,14 @@
  */
 package io.jeo.filter;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import io.jeo.vector.Feature;
 import org.slf4j.Logger;
@@ -32,11 +36,32 @@ public class Property implements Expression {
 
     static Logger LOG = LoggerFactory.getLogger(Property.class);
 
+    /**
+     * Accessors resolved through reflection, cached by class and property name. Property names
+     * without an accessor map to {@link #NONE}.
+     */
+    static final ClassValue<ConcurrentMap<String,MethodHandle>> ACCESSORS =
+        new ClassValue<ConcurrentMap<String,MethodHandle>>() {
+            @Override
+            protected ConcurrentMap<String,MethodHandle> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+    static final MethodHandle NONE = MethodHandles.constant(Object.class, null);
+
+    /** type of the cached accessors */
+    static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
     String property;
 
+    /** property split into its nested parts */
+    String[] path;
+
     public Property(String property) {
         Objects.requireNonNull("property must not be null");
         this.property = property;
+        this.path = property.split("\\.");
     }
 
     public String property() {
@@ -56,7 +81,7 @@ public class Property implements Expression {
         if (obj instanceof Feature) {
             has = ((Feature) obj).has(property);
         } else {
-            has = resolveMethod(obj, property) != null;
+            has = accessor(obj, property) != null;
         }
         return has;
     }
@@ -78,11 +103,9 @@ public class Property implements Expression {
         }
 
         // fall back onto reflection
-        Iterator<String> parts = Arrays.asList(property.split("\\.")).iterator();
         Object target = obj;
-        
-        while(parts.hasNext() && target != null) {
-            target = get(target, parts.next());
+        for (int i = 0; i < path.length && target != null; i++) {
+            target = get(target, path[i]);
         }
 
         return target;
@@ -108,15 +131,50 @@ public class Property implements Expression {
         return found;
     }
 
+    /**
+     * Returns the cached accessor for a property of the target object, resolving it with
+     * {@link #resolveMethod(Object, String)} on first use.
+     *
+     * @return The accessor, or <code>null</code> if the target has no such property.
+     */
+    protected MethodHandle accessor(Object target, String prop) {
+        ConcurrentMap<String,MethodHandle> cache = ACCESSORS.get(target.getClass());
+
+        MethodHandle h = cache.get(prop);
+        if (h == null) {
+            h = NONE;
+
+            Method method = resolveMethod(target, prop);
+            if (method != null) {
+                try {
+                    h = MethodHandles.publicLookup().unreflect(method).asType(ACCESSOR_TYPE);
+                } catch (IllegalAccessException e) {
+                    if (LOG.isTraceEnabled()) {
+                        LOG.trace("Unable to access method: "+ method.getName() +" of class " + target.getClass().getName(), e);
+                    }
+                }
+            }
+
+            MethodHandle prev = cache.putIfAbsent(prop, h);
+            if (prev != null) {
+                h = prev;
+            }
+        }
+
+        return h != NONE ? h : null;
+    }
+
     protected Object get(Object target, String prop) {
         Object result = null;
-        Method method = resolveMethod(target, prop);
-        if (method != null) {
+        MethodHandle h = accessor(target, prop);
+        if (h != null) {
             try {
-                result = method.invoke(target);
-            } catch (Exception e) {
+                result = (Object) h.invokeExact(target);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
                 if (LOG.isTraceEnabled()) {
-                    LOG.trace("Error invoking method: "+ method.getName() +" of class " + target.getClass().getName(), e);
+                    LOG.trace("Error invoking property: "+ prop +" of class " + target.getClass().getName(), e);
                 }
             }
         }
@@ -16,17 +16,20 @@ package io.jeo.filter;
 
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
 import io.jeo.geom.Bounds;
+import io.jeo.geom.Geom;
 
 import java.util.Locale;
 import java.util.Objects;
 
 /**
  * Filter that applies a spatial comparison operator to two geometry expression operands.  
- * 
+ * <p>
+ * When one of the operands is a {@link Literal} geometry it is prepared once, on first use, and the
+ * prepared geometry is used to evaluate the operators that support it.
+ * </p>
  * @author Justin Deoliveira, OpenGeo
- * 
- * TODO: use prepared geometries
  */
 public class Spatial<T> extends BinaryFilter<T> {
 
@@ -68,6 +71,9 @@ public class Spatial<T> extends BinaryFilter<T> {
     final Type type;
     final Expression distance;
 
+    /** prepared literal operand, lazily created */
+    volatile Prepared prepared;
+
     public Spatial(Type type, Expression left, Expression right, Expression distance) {
         super(left, right);
         Objects.requireNonNull(type, "type must not be null");
@@ -124,6 +130,28 @@ public class Spatial<T> extends BinaryFilter<T> {
         Geometry g1 = toGeometry(o1);
         Geometry g2 = toGeometry(o2);
 
+        Boolean result = compareEnvelopes(g1.getEnvelopeInternal(), g2.getEnvelopeInternal(), d);
+        if (result != null) {
+            return result;
+        }
+
+        Prepared p = prepared();
+        if (p.geom != null && p.value == (p.left ? o1 : o2)) {
+            Geometry g = p.left ? g2 : g1;
+            switch(type) {
+            case INTERSECTS:
+                return p.geom.intersects(g);
+            case DISJOINT:
+                return p.geom.disjoint(g);
+            case COVERS:
+                return p.left ? p.geom.covers(g) : p.geom.coveredBy(g);
+            case WITHIN:
+                return p.left ? p.geom.within(g) : p.geom.contains(g);
+            case CONTAINS:
+                return p.left ? p.geom.contains(g) : p.geom.within(g);
+            }
+        }
+
         switch(type) {
         case EQUALS:
             return g1.equalsTopo(g2);
@@ -152,6 +180,60 @@ public class Spatial<T> extends BinaryFilter<T> {
         }
     }
 
+    /**
+     * Compares the envelopes of the two operands, returning <code>null</code> when the envelopes
+     * alone are not enough to determine the result.
+     */
+    Boolean compareEnvelopes(Envelope e1, Envelope e2, Number d) {
+        if (e1.isNull() || e2.isNull()) {
+            return null;
+        }
+
+        switch(type) {
+        case EQUALS:
+            return e1.equals(e2) ? null : false;
+        case INTERSECTS: case TOUCHES: case OVERLAPS: case CROSSES:
+            return e1.intersects(e2) ? null : false;
+        case DISJOINT:
+            return e1.intersects(e2) ? null : true;
+        case COVERS: case CONTAINS:
+            return e1.covers(e2) ? null : false;
+        case WITHIN:
+            return e2.covers(e1) ? null : false;
+        case DWITHIN:
+            return e1.distance(e2) > d.doubleValue() ? false : null;
+        case BEYOND:
+            return e1.distance(e2) > d.doubleValue() ? true : null;
+        default:
+            return null;
+        }
+    }
+
+    Prepared prepared() {
+        Prepared p = prepared;
+        if (p == null) {
+            // a race here only means the literal is prepared more than once
+            p = prepare();
+            prepared = p;
+        }
+        return p;
+    }
+
+    Prepared prepare() {
+        boolean l = left instanceof Literal;
+        boolean r = right instanceof Literal;
+        if (l == r) {
+            return Prepared.NONE;
+        }
+
+        Object value = (l ? left : right).evaluate(null);
+        if (!(value instanceof Geometry || value instanceof Envelope)) {
+            return Prepared.NONE;
+        }
+
+        return new Prepared(value, Geom.prepare(toGeometry(value)), l);
+    }
+
     protected Envelope toEnvelope(Object o) {
         if (o instanceof Envelope) {
             return (Envelope) o;
@@ -176,6 +258,29 @@ public class Spatial<T> extends BinaryFilter<T> {
         throw new IllegalArgumentException("Unable to convert " + o + " to geometry");
     }
 
+    /**
+     * Prepared form of a literal operand.
+     */
+    static class Prepared {
+
+        static final Prepared NONE = new Prepared(null, null, false);
+
+        /** original literal value */
+        final Object value;
+
+        /** the prepared geometry */
+        final PreparedGeometry geom;
+
+        /** whether the literal is the left operand */
+        final boolean left;
+
+        Prepared(Object value, PreparedGeometry geom, boolean left) {
+            this.value = value;
+            this.geom = geom;
+            this.left = left;
+        }
+    }
+
     @Override
     public <R> R accept(FilterVisitor<R> v, Object obj) {
         return v.visit(this, obj);
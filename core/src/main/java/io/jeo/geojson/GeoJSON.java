@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import io.jeo.util.Key;
 import io.jeo.vector.FileVectorDriver;
 import io.jeo.vector.Schema;
 
@@ -40,6 +41,17 @@ import static io.jeo.util.Util.set;
  */
 public class GeoJSON extends FileVectorDriver<GeoJSONDataset> {
 
+    /**
+     * Key specifying whether to maintain a sidecar index of the file, see {@link GeoJSONDataset}.
+     */
+    public static final Key<Boolean> INDEX = new Key<>("index", Boolean.class, false);
+
+    /**
+     * Key specifying whether the file is newline delimited GeoJSON, containing one feature per
+     * line rather than a feature collection, see {@link GeoJSONDataset}.
+     */
+    public static final Key<Boolean> LINES = new Key<>("lines", Boolean.class, false);
+
     /**
      * Opens a file containing encoded GeoJSON.
      */
@@ -52,6 +64,11 @@ public class GeoJSON extends FileVectorDriver<GeoJSONDataset> {
         return "GeoJSON";
     }
 
+    @Override
+    public List<Key<?>> keys() {
+        return (List) Arrays.asList(FILE, INDEX, LINES);
+    }
+
     @Override
     public List<String> aliases() {
         return Arrays.asList("json");
@@ -64,7 +81,8 @@ public class GeoJSON extends FileVectorDriver<GeoJSONDataset> {
 
     @Override
     public GeoJSONDataset open(File file, Map<?, Object> opts) throws IOException {
-        return new GeoJSONDataset(file);
+        return new GeoJSONDataset(file, Boolean.TRUE.equals(INDEX.get(opts)),
+            Boolean.TRUE.equals(LINES.get(opts)));
     }
 
     @Override
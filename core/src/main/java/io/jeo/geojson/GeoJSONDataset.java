@@ -20,15 +20,18 @@ import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import io.jeo.data.Driver;
 import io.jeo.data.FileData;
 import io.jeo.geojson.parser.CRSFinder;
 import io.jeo.geom.Bounds;
 import io.jeo.json.parser.ParseException;
+import io.jeo.util.Consumer;
 import io.jeo.util.Util;
+import io.jeo.vector.Feature;
 import io.jeo.vector.FeatureAppendCursor;
 import io.jeo.vector.FeatureCursor;
 import io.jeo.vector.FeatureWriteCursor;
@@ -43,12 +46,45 @@ import io.jeo.vector.VectorDataset;
 import io.jeo.vector.VectorQuery;
 import org.osgeo.proj4j.CoordinateReferenceSystem;
 
+/**
+ * GeoJSON feature collection file.
+ * <p>
+ * By default every read parses the file from the start. For large static files a sidecar index
+ * can be enabled with the {@link GeoJSON#INDEX} option. With the index bounded reads only parse
+ * the matching features, and unfiltered counts and bounds come straight from the index. The
+ * index is rebuilt whenever the size or modification time of the file changes.
+ * </p>
+ * <p>
+ * With the {@link GeoJSON#LINES} option the file is read as newline delimited GeoJSON, one
+ * feature per line in EPSG:4326. Such files are split into chunks that are parsed in parallel,
+ * and {@link #each(VectorQuery, Consumer)} hands features to a consumer without ordering them.
+ * </p>
+ */
 public class GeoJSONDataset implements VectorDataset, FileData {
 
     File file;
+    boolean indexed;
+    boolean lines;
+    int chunkSize = GeoJSONLines.CHUNK_SIZE;
+
+    GeoJSONIndex index;
+
+    /** crs of the file, along with the file size and modification time it was read at */
+    CoordinateReferenceSystem crs;
+    long crsSize, crsModified;
 
     public GeoJSONDataset(File file) {
+        this(file, false);
+    }
+
+    public GeoJSONDataset(File file, boolean indexed) {
+        this(file, indexed, false);
+    }
+
+    public GeoJSONDataset(File file, boolean indexed, boolean lines) {
         this.file = file;
+        this.indexed = indexed && !lines;
+        this.lines = lines;
     }
 
     @Override
@@ -58,7 +94,15 @@ public class GeoJSONDataset implements VectorDataset, FileData {
 
     @Override
     public Map<Key<?>, Object> driverOptions() {
-        return (Map) Collections.singletonMap(GeoJSON.FILE, file);
+        Map<Key<?>,Object> opts = new LinkedHashMap<>();
+        opts.put(GeoJSON.FILE, file);
+        if (indexed) {
+            opts.put(GeoJSON.INDEX, true);
+        }
+        if (lines) {
+            opts.put(GeoJSON.LINES, true);
+        }
+        return opts;
     }
 
     @Override
@@ -78,8 +122,29 @@ public class GeoJSONDataset implements VectorDataset, FileData {
 
     @Override
     public CoordinateReferenceSystem crs() throws IOException {
-        //TODO: probably should cache this
+        if (lines) {
+            return Proj.EPSG_4326;
+        }
+
+        GeoJSONIndex idx = index();
+        if (idx != null) {
+            return idx.crs();
+        }
+
+        long size = file.length();
+        long modified = file.lastModified();
+        if (crs == null || crsSize != size || crsModified != modified) {
+            crs = scanCRS();
+            crsSize = size;
+            crsModified = modified;
+        }
+        return crs;
+    }
 
+    /**
+     * Scans the file for the crs of the feature collection.
+     */
+    CoordinateReferenceSystem scanCRS() throws IOException {
         CoordinateReferenceSystem crs = null;
 
         //first scan for a crs property
@@ -104,17 +169,85 @@ public class GeoJSONDataset implements VectorDataset, FileData {
 
     @Override
     public Bounds bounds() throws IOException {
+        GeoJSONIndex idx = index();
+        if (idx != null) {
+            return idx.bounds();
+        }
         return read(new VectorQuery()).bounds();
     }
 
     @Override
     public long count(VectorQuery q) throws IOException {
+        GeoJSONIndex idx = index();
+        if (idx != null && q.isAll()) {
+            return q.adjustCount(idx.count());
+        }
+        if (lines && q.limit() == null && q.offset() == null) {
+            final AtomicLong count = new AtomicLong();
+            each(q, new Consumer<Feature>() {
+                @Override
+                public void accept(Feature f) {
+                    count.incrementAndGet();
+                }
+            });
+            return count.get();
+        }
         return read(q).count();
     }
 
     @Override
     public FeatureCursor read(VectorQuery q) throws IOException {
-        return new VectorQueryPlan(q).apply(new GeoJSONCursor(reader()));
+        if (lines) {
+            return GeoJSONLines.plan(q).apply(new GeoJSONLines(file, chunkSize).read(q));
+        }
+
+        VectorQueryPlan qp = new VectorQueryPlan(q);
+
+        GeoJSONIndex idx = index();
+        if (idx != null && !Bounds.isNull(q.bounds())) {
+            qp.bounded();
+            return qp.apply(idx.read(file, idx.query(q.bounds())));
+        }
+
+        return qp.apply(new GeoJSONCursor(reader()));
+    }
+
+    /**
+     * Hands every feature matching a query to a consumer.
+     * <p>
+     * For newline delimited files the features are parsed in parallel and the consumer is called
+     * concurrently, in no particular order. Otherwise this is equivalent to iterating over
+     * {@link #read(VectorQuery)}.
+     * </p>
+     */
+    public void each(VectorQuery q, Consumer<Feature> consumer) throws IOException {
+        if (lines) {
+            new GeoJSONLines(file, chunkSize).each(q, consumer);
+            return;
+        }
+
+        try (FeatureCursor c = read(q)) {
+            c.each(consumer);
+        }
+    }
+
+    /**
+     * Returns the sidecar index, or <code>null</code> if the dataset is not indexed, the file
+     * is empty, or the file is not a feature collection.
+     * <p>
+     * Only the features array of a collection is indexed, so an empty index means the root is a
+     * single feature or geometry (or the collection is empty), which is read by streaming.
+     * </p>
+     */
+    synchronized GeoJSONIndex index() throws IOException {
+        if (!indexed || Util.isEmpty(file)) {
+            return null;
+        }
+
+        if (index == null || !index.isValid(file)) {
+            index = GeoJSONIndex.open(this);
+        }
+        return index.count() > 0 ? index : null;
     }
 
     @Override
@@ -124,6 +257,9 @@ public class GeoJSONDataset implements VectorDataset, FileData {
 
     @Override
     public FeatureAppendCursor append(VectorQuery q) throws IOException {
+        if (lines) {
+            throw new IOException("Append not supported for newline delimited GeoJSON");
+        }
         if (!Util.isEmpty(file)) {
             throw new IOException("Can't append to non empty dataset");
         }
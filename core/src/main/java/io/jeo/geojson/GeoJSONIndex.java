@@ -0,0 +1,226 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import io.jeo.geojson.parser.FeatureHandler;
+import io.jeo.proj.Proj;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureIndex;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+
+/**
+ * Sidecar index of a GeoJSON feature collection file.
+ * <p>
+ * The index records the crs of the collection and the offset, length, and envelope of every
+ * feature in the file, see {@link FeatureIndex}.
+ * </p>
+ */
+class GeoJSONIndex extends FeatureIndex {
+
+    static final Charset UTF8 = Charset.forName("UTF8");
+
+    static final Format<GeoJSONDataset,GeoJSONIndex> FORMAT =
+        new Format<GeoJSONDataset,GeoJSONIndex>("GeoJSON", 0x4a454f49, 2) {
+            @Override
+            protected File data(GeoJSONDataset source) {
+                return source.file();
+            }
+
+            @Override
+            protected GeoJSONIndex build(GeoJSONDataset source) throws IOException {
+                return GeoJSONIndex.build(source.file(), source.scanCRS());
+            }
+
+            @Override
+            protected GeoJSONIndex read(Header header, DataInputStream in) throws IOException {
+                return new GeoJSONIndex(header, in);
+            }
+        };
+
+    /**
+     * Opens the index of a GeoJSON file, building and saving it if it does not exist or is
+     * stale.
+     */
+    static GeoJSONIndex open(GeoJSONDataset data) throws IOException {
+        return FORMAT.open(data);
+    }
+
+    /**
+     * Builds the index by scanning a GeoJSON file.
+     */
+    static GeoJSONIndex build(File json, CoordinateReferenceSystem crs) throws IOException {
+        Header header = FORMAT.header(json, crs);
+        try (InputStream in = new FileInputStream(json)) {
+            Scanner s = new Scanner();
+            s.scan(in);
+            return new GeoJSONIndex(header, s.index);
+        }
+    }
+
+    /**
+     * Reads a saved index.
+     */
+    static GeoJSONIndex read(File file) throws IOException {
+        return FORMAT.read(file);
+    }
+
+    GeoJSONIndex(Header header, Builder b) {
+        super(header, b);
+    }
+
+    GeoJSONIndex(Header header, DataInputStream in) throws IOException {
+        super(header, in);
+    }
+
+    @Override
+    protected Cursor cursor(FileChannel file, int[] features) {
+        final CoordinateReferenceSystem crs = crs();
+        return new Cursor(file, features) {
+            @Override
+            protected Feature parse(byte[] buf, int len, int fid) throws IOException {
+                Feature f = GeoJSONIndex.parse(buf, len, fid);
+                if (crs != null && f.geometry() != null) {
+                    Proj.crs(f.geometry(), crs, false);
+                }
+                return f;
+            }
+        };
+    }
+
+    /**
+     * Parses a single feature.
+     */
+    static Feature parse(byte[] buf, int len, int id) throws IOException {
+        return (Feature) new GeoJSONReader().parse(
+            new InputStreamReader(new ByteArrayInputStream(buf, 0, len), UTF8),
+            new FeatureHandler(id));
+    }
+
+    /**
+     * Scans the raw bytes of a feature collection for the features array, tracking only
+     * strings and nesting, and parses each feature to obtain its envelope.
+     */
+    static class Scanner {
+
+        static final byte[] FEATURES = "features".getBytes(UTF8);
+
+        FeatureIndex.Builder index = new FeatureIndex.Builder();
+        int count;
+
+        /** bytes of the current feature */
+        byte[] feature = new byte[8192];
+        int flen;
+        long fstart = -1;
+
+        void scan(InputStream in) throws IOException {
+            byte[] buf = new byte[65536];
+
+            long pos = 0;
+            int depth = 0;
+            boolean str = false, esc = false;
+
+            // last string at the top level, and whether the value of the last key is the
+            // features array
+            byte[] key = new byte[FEATURES.length + 1];
+            int klen = 0;
+            boolean isFeatures = false, inFeatures = false;
+
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                for (int i = 0; i < n; i++, pos++) {
+                    byte b = buf[i];
+                    if (fstart > -1) {
+                        append(b);
+                    }
+
+                    if (str) {
+                        if (esc) {
+                            esc = false;
+                        }
+                        else if (b == '\\') {
+                            esc = true;
+                        }
+                        else if (b == '"') {
+                            str = false;
+                        }
+                        else if (depth == 1 && klen < key.length) {
+                            key[klen++] = b;
+                        }
+                        continue;
+                    }
+
+                    switch(b) {
+                    case '"':
+                        str = true;
+                        klen = 0;
+                        break;
+                    case ':':
+                        if (depth == 1) {
+                            isFeatures = klen == FEATURES.length
+                                && Arrays.equals(FEATURES, Arrays.copyOf(key, klen));
+                        }
+                        break;
+                    case '[':
+                        if (++depth == 2 && isFeatures) {
+                            inFeatures = true;
+                        }
+                        break;
+                    case '{':
+                        if (++depth == 3 && inFeatures) {
+                            fstart = pos;
+                            flen = 0;
+                            append(b);
+                        }
+                        break;
+                    case '}':
+                        if (depth-- == 3 && inFeatures) {
+                            feature(pos - fstart + 1);
+                        }
+                        break;
+                    case ']':
+                        if (depth-- == 2 && inFeatures) {
+                            inFeatures = isFeatures = false;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        void append(byte b) {
+            if (flen == feature.length) {
+                feature = Arrays.copyOf(feature, flen * 2);
+            }
+            feature[flen++] = b;
+        }
+
+        void feature(long length) throws IOException {
+            index.add(fstart, (int) length, parse(feature, flen, count).geometry());
+            count++;
+            fstart = -1;
+        }
+    }
+}
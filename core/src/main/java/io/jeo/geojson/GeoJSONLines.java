@@ -0,0 +1,338 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import io.jeo.data.mem.MemFeatureCursor;
+import io.jeo.filter.Filter;
+import io.jeo.filter.Filters;
+import io.jeo.geojson.parser.FeatureHandler;
+import io.jeo.geom.Bounds;
+import io.jeo.proj.Proj;
+import io.jeo.util.Consumer;
+import io.jeo.vector.ChunkCursor;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.VectorQuery;
+import io.jeo.vector.VectorQueryPlan;
+
+/**
+ * Parallel reader for newline delimited GeoJSON, a file containing one feature object per line.
+ * <p>
+ * The file is split at line boundaries into chunks of roughly {@link #CHUNK_SIZE} bytes. Each
+ * chunk is memory mapped and parsed as a task on the pool shared through {@link ChunkCursor}.
+ * Features with no id are identified by the byte offset of their line.
+ * </p>
+ */
+class GeoJSONLines {
+
+    /**
+     * Approximate size in bytes of the chunks the file is split into, configured with the
+     * <tt>jeo.geojson.chunk</tt> system property.
+     */
+    static final int CHUNK_SIZE = Integer.getInteger("jeo.geojson.chunk", 8 * 1024 * 1024);
+
+    final File file;
+    final int chunkSize;
+
+    GeoJSONLines(File file) {
+        this(file, CHUNK_SIZE);
+    }
+
+    GeoJSONLines(File file, int chunkSize) {
+        this.file = file;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads the features matching the bounds and filter of a query, in file order.
+     * <p>
+     * The returned cursor has the bounds and filter of the query applied, the rest of the query
+     * is left to the caller.
+     * </p>
+     */
+    FeatureCursor read(VectorQuery q) throws IOException {
+        FileChannel ch = open();
+        return new Cursor(ch, chunks(ch), q);
+    }
+
+    /**
+     * Hands all features matching a query to a consumer, in parallel and in no particular order.
+     * <p>
+     * The consumer is called concurrently from multiple threads. Queries with a limit, offset,
+     * or sort are processed sequentially in order. If parsing a chunk or the consumer fails, the
+     * remaining chunks are abandoned and the consumer is no longer called once this method
+     * throws.
+     * </p>
+     */
+    void each(final VectorQuery q, final Consumer<Feature> consumer) throws IOException {
+        if (q.limit() != null || q.offset() != null || (q.sort() != null && !q.sort().isEmpty())) {
+            VectorQueryPlan qp = plan(q);
+            try (FeatureCursor c = qp.apply(read(q))) {
+                c.each(consumer);
+            }
+            return;
+        }
+
+        try (final FileChannel ch = open()) {
+            long[] chunks = chunks(ch);
+            final AtomicBoolean abort = new AtomicBoolean();
+
+            List<Future<?>> tasks = new ArrayList<>(chunks.length - 1);
+            for (int i = 0; i < chunks.length - 1; i++) {
+                final long start = chunks[i];
+                final long end = chunks[i+1];
+                tasks.add(ChunkCursor.pool().submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        if (abort.get()) {
+                            return null;
+                        }
+
+                        List<Feature> features = parse(ch, start, end, q);
+                        FeatureCursor c = plan(q).apply(new MemFeatureCursor(features));
+                        while (!abort.get() && c.hasNext()) {
+                            consumer.accept(c.next());
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            boolean done = false;
+            try {
+                for (Future<?> f : tasks) {
+                    ChunkCursor.get(f);
+                }
+                done = true;
+            }
+            finally {
+                if (!done) {
+                    // stop the other tasks and wait for them before the channel is closed
+                    abort.set(true);
+                    await(tasks);
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for tasks to finish, ignoring their outcome.
+     */
+    static void await(List<Future<?>> tasks) {
+        for (Future<?> f : tasks) {
+            try {
+                f.get();
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch(ExecutionException | CancellationException e) {
+            }
+        }
+    }
+
+    /**
+     * Creates a query plan for features returned by {@link #parse}, which handles bounds and
+     * filter.
+     */
+    static VectorQueryPlan plan(VectorQuery q) {
+        VectorQueryPlan qp = new VectorQueryPlan(q);
+        qp.bounded();
+        qp.filtered();
+        return qp;
+    }
+
+    FileChannel open() throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+    /**
+     * Splits the file into chunks that end on line boundaries.
+     *
+     * @return Offsets of the chunks, the last element being the file size.
+     */
+    long[] chunks(FileChannel ch) throws IOException {
+        long size = ch.size();
+
+        long[] chunks = new long[16];
+        int n = 0;
+        chunks[n++] = 0;
+
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        long pos = 0;
+        while (pos < size) {
+            // move to the end of the line containing the nominal end of the chunk
+            pos = Math.min(pos + chunkSize, size);
+            scan: while (pos < size) {
+                buf.clear();
+                int read = ch.read(buf, pos);
+                if (read < 0) {
+                    pos = size;
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buf.get(i) == '\n') {
+                        pos += i + 1;
+                        break scan;
+                    }
+                }
+                pos += read;
+            }
+
+            if (n == chunks.length) {
+                chunks = Arrays.copyOf(chunks, n * 2);
+            }
+            chunks[n++] = pos;
+        }
+
+        if (n == 1) {
+            // empty file
+            chunks[n++] = 0;
+        }
+        return Arrays.copyOf(chunks, n);
+    }
+
+    /**
+     * Parses the features of a chunk that match the bounds and filter of a query.
+     */
+    static List<Feature> parse(FileChannel ch, long start, long end, VectorQuery q)
+        throws IOException {
+        if (end <= start) {
+            return Collections.emptyList();
+        }
+
+        Envelope bbox = Bounds.isNull(q.bounds()) ? null : q.bounds();
+        Filter<Feature> filter = Filters.isTrueOrNull(q.filter()) ? null : q.filter();
+
+        MappedByteBuffer buf = ch.map(MapMode.READ_ONLY, start, end - start);
+        List<Feature> features = new ArrayList<>();
+
+        byte[] line = new byte[4096];
+        int i = 0;
+        int len = buf.limit();
+        while (i < len) {
+            // find the end of the line
+            int j = i;
+            while (j < len && buf.get(j) != '\n') {
+                j++;
+            }
+
+            int n = j - i;
+            if (line.length < n) {
+                line = new byte[Math.max(n, line.length * 2)];
+            }
+            buf.position(i);
+            buf.get(line, 0, n);
+
+            if (!isBlank(line, n)) {
+                Feature f = parse(line, n, start + i);
+                if ((bbox == null || intersects(f, bbox)) && (filter == null || filter.test(f))) {
+                    features.add(f);
+                }
+            }
+            i = j + 1;
+        }
+        return features;
+    }
+
+    static Feature parse(byte[] line, int len, long offset) throws IOException {
+        Feature f = (Feature) new GeoJSONReader().parse(
+            new InputStreamReader(new ByteArrayInputStream(line, 0, len), GeoJSONIndex.UTF8),
+            new FeatureHandler(String.valueOf(offset)));
+
+        Geometry g = f.geometry();
+        if (g != null) {
+            Proj.crs(g, Proj.EPSG_4326, false);
+        }
+        return f;
+    }
+
+    static boolean isBlank(byte[] line, int len) {
+        for (int i = 0; i < len; i++) {
+            byte b = line[i];
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean intersects(Feature f, Envelope bbox) {
+        Geometry g = f.geometry();
+        return g != null && bbox.intersects(g.getEnvelopeInternal());
+    }
+
+    /**
+     * Cursor returning features in file order.
+     */
+    class Cursor extends ChunkCursor<long[]> {
+
+        FileChannel ch;
+        long[] chunks;
+        VectorQuery q;
+
+        int nextChunk;
+
+        Cursor(FileChannel ch, long[] chunks, VectorQuery q) {
+            this.ch = ch;
+            this.chunks = chunks;
+            this.q = q;
+        }
+
+        @Override
+        protected long[] chunk() {
+            if (nextChunk >= chunks.length - 1) {
+                return null;
+            }
+            return new long[]{chunks[nextChunk], chunks[++nextChunk]};
+        }
+
+        @Override
+        protected List<Feature> parse(long[] chunk) throws IOException {
+            return GeoJSONLines.parse(ch, chunk[0], chunk[1], q);
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            if (ch != null) {
+                ch.close();
+                ch = null;
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@
 package io.jeo.geojson;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Map;
@@ -22,6 +23,8 @@ import java.util.Map;
 import io.jeo.data.Cursor;
 import io.jeo.geom.Geom;
 import io.jeo.vector.Feature;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
 import io.jeo.json.encoder.JSONEncoder;
 import org.osgeo.proj4j.CoordinateReferenceSystem;
 
@@ -56,6 +59,12 @@ import com.vividsolutions.jts.geom.impl.CoordinateArraySequence;
  */
 public class GeoJSONWriter extends JSONEncoder {
 
+    static final Name TYPE = name("type");
+    static final Name COORDINATES = name("coordinates");
+    static final Name GEOMETRY = name("geometry");
+    static final Name ID = name("id");
+    static final Name PROPERTIES = name("properties");
+
     /**
      * Encodes a geometry object to a GeoJSON string.
      *  
@@ -109,6 +118,17 @@ public class GeoJSONWriter extends JSONEncoder {
         return w.toString();
     }
 
+    /**
+     * maximum number of decimals of coordinate ordinates, negative for full precision
+     */
+    int precision = -1;
+
+    /**
+     * schema of the last list feature written, and its encoded property names
+     */
+    Schema schema;
+    Name[] names;
+
     /**
      * Creates a new writer.
      * 
@@ -128,6 +148,54 @@ public class GeoJSONWriter extends JSONEncoder {
         super(out, indentSize);
     }
 
+    /**
+     * Creates a new writer that writes UTF-8 bytes directly to an output stream.
+     * <p>
+     * Output is buffered, {@link #flush()} must be called once encoding is complete.
+     * </p>
+     * @param out The stream to encode to.
+     */
+    public GeoJSONWriter(OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * Creates a new writer with formatting that writes UTF-8 bytes directly to an output
+     * stream.
+     *
+     * @param out The stream to encode to.
+     * @param indentSize The number of spaces to use when indenting.
+     */
+    public GeoJSONWriter(OutputStream out, int indentSize) {
+        super(out, indentSize);
+    }
+
+    /**
+     * Sets the maximum number of decimals written for coordinate ordinates and bounding boxes.
+     * <p>
+     * Ordinates are written at full precision by default. A precision of 6 amounts to roughly
+     * 10cm for geographic coordinates.
+     * </p>
+     * @param precision The number of decimals, or a negative number for full precision.
+     *
+     * @return This writer.
+     */
+    public GeoJSONWriter precision(int precision) {
+        if (precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(
+                "precision must be at most " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        return this;
+    }
+
+    /**
+     * The maximum number of decimals written for coordinate ordinates.
+     */
+    public int precision() {
+        return precision;
+    }
+
     
     /**
      * Encodes a bounding box as a 4 element array.
@@ -137,7 +205,8 @@ public class GeoJSONWriter extends JSONEncoder {
      */
     public GeoJSONWriter bbox(Envelope b) throws IOException {
         array()
-            .value(b.getMinX()).value(b.getMinY()).value(b.getMaxX()).value(b.getMaxY())
+            .ordinate(b.getMinX()).ordinate(b.getMinY())
+            .ordinate(b.getMaxX()).ordinate(b.getMaxY())
             .endArray();
         return this;
     }
@@ -155,8 +224,8 @@ public class GeoJSONWriter extends JSONEncoder {
         }
 
         object()
-          .key("type").value("name")
-          .key("properties").object()
+          .key(TYPE).value("name")
+          .key(PROPERTIES).object()
             .key("name").value(crs.getName())
             .endObject()
            .endObject();
@@ -209,13 +278,13 @@ public class GeoJSONWriter extends JSONEncoder {
         }
 
         object()
-          .key("type").value("Point")
-          .key("coordinates").array()
-              .value(p.getX())
-              .value(p.getY());
+          .key(TYPE).value("Point")
+          .key(COORDINATES).array()
+              .ordinate(p.getX())
+              .ordinate(p.getY());
         
         if (!Double.isNaN(p.getCoordinate().z)) {
-            value(p.getCoordinate().z);
+            ordinate(p.getCoordinate().z);
         }
 
         endArray().endObject();
@@ -236,8 +305,8 @@ public class GeoJSONWriter extends JSONEncoder {
         }
 
         object()
-          .key("type").value("LineString")
-          .key("coordinates").array(l.getCoordinateSequence())
+          .key(TYPE).value("LineString")
+          .key(COORDINATES).array(l.getCoordinateSequence())
           .endObject();
 
         return this;
@@ -256,8 +325,8 @@ public class GeoJSONWriter extends JSONEncoder {
         }
 
         object()
-          .key("type").value("Polygon")
-          .key("coordinates").array(p)
+          .key(TYPE).value("Polygon")
+          .key(COORDINATES).array(p)
           .endObject();
 
         return this;
@@ -276,8 +345,8 @@ public class GeoJSONWriter extends JSONEncoder {
         }
 
         object()
-          .key("type").value("MultiPoint")
-          .key("coordinates").array(mp.getCoordinates())
+          .key(TYPE).value("MultiPoint")
+          .key(COORDINATES).array(mp.getCoordinates())
           .endObject();
 
         return this;
@@ -296,8 +365,8 @@ public class GeoJSONWriter extends JSONEncoder {
         }
 
         object()
-          .key("type").value("MultiLineString")
-          .key("coordinates");
+          .key(TYPE).value("MultiLineString")
+          .key(COORDINATES);
         
         array();
         for (LineString ls : Geom.iterate(ml)) {
@@ -323,8 +392,8 @@ public class GeoJSONWriter extends JSONEncoder {
         }
 
         object()
-          .key("type").value("MultiPolygon")
-          .key("coordinates");
+          .key(TYPE).value("MultiPolygon")
+          .key(COORDINATES);
 
         array();
         for (Polygon p : Geom.iterate(mp)) {
@@ -350,7 +419,7 @@ public class GeoJSONWriter extends JSONEncoder {
         }
 
         object()
-          .key("type").value("GeometryCollection")
+          .key(TYPE).value("GeometryCollection")
           .key("geometries");
 
         array();
@@ -381,18 +450,36 @@ public class GeoJSONWriter extends JSONEncoder {
         }
 
         object()
-            .key("type").value("Feature");
+            .key(TYPE).value("Feature");
 
         if (f.id() != null) {
-            key("id").value(f.id());
+            key(ID).value(f.id());
         }
 
         Geometry g = f.geometry();
         if (g != null) {
-            key("geometry").geometry(g);
+            key(GEOMETRY).geometry(g);
+        }
+
+        key(PROPERTIES).object();
+        if (f instanceof ListFeature && ((ListFeature) f).schema() != null) {
+            // write values by index with the pre-encoded field names of the schema
+            Name[] names = names(((ListFeature) f).schema());
+            for (int i = 0; i < names.length; i++) {
+                Object o = f.get(i);
+                if (o instanceof Geometry) {
+                    if (o == g) {
+                        continue;
+                    }
+                    key(names[i]).geometry((Geometry)o);
+                }
+                else {
+                    key(names[i]).value(o);
+                }
+            }
+            return endObject().endObject();
         }
 
-        key("properties").object();
         for (Map.Entry<String, Object> p : f.map().entrySet()) {
             String key = p.getKey();
             Object o = p.getValue();
@@ -414,6 +501,21 @@ public class GeoJSONWriter extends JSONEncoder {
         return this;
     }
 
+    /*
+     * Encoded property names of a schema, cached for the last schema seen.
+     */
+    Name[] names(Schema schema) {
+        if (schema != this.schema) {
+            Name[] names = new Name[schema.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = name(schema.fields().get(i).name());
+            }
+            this.names = names;
+            this.schema = schema;
+        }
+        return names;
+    }
+
     /**
      * Encodes a feature collection.
      *
@@ -442,7 +544,7 @@ public class GeoJSONWriter extends JSONEncoder {
      */
     public GeoJSONWriter featureCollection() throws IOException {
         object()
-            .key("type").value("FeatureCollection")
+            .key(TYPE).value("FeatureCollection")
             .key("features").array();
         return this;
     }
@@ -473,6 +575,11 @@ public class GeoJSONWriter extends JSONEncoder {
         return (GeoJSONWriter) super.key(key);
     }
 
+    @Override
+    public GeoJSONWriter key(Name key) throws IOException {
+        return (GeoJSONWriter) super.key(key);
+    }
+
     @Override
     public GeoJSONWriter value(Number value) throws IOException {
         return (GeoJSONWriter) super.value(value);
@@ -483,6 +590,11 @@ public class GeoJSONWriter extends JSONEncoder {
         return (GeoJSONWriter) super.value(value);
     }
 
+    @Override
+    public GeoJSONWriter value(double value, int precision) throws IOException {
+        return (GeoJSONWriter) super.value(value, precision);
+    }
+
     @Override
     public GeoJSONWriter value(long value) throws IOException {
         return (GeoJSONWriter) super.value(value);
@@ -518,6 +630,10 @@ public class GeoJSONWriter extends JSONEncoder {
         return (GeoJSONWriter) super.flush();
     }
 
+    GeoJSONWriter ordinate(double value) throws IOException {
+        return value(value, precision);
+    }
+
     GeoJSONWriter array(Coordinate[] coords) throws IOException {
         return array(new CoordinateArraySequence(coords));
     }
@@ -528,13 +644,13 @@ public class GeoJSONWriter extends JSONEncoder {
         int dim = coordseq.getDimension();
         for (int i = 0; i < coordseq.size(); i++) {
             array()
-                .value(coordseq.getOrdinate(i, 0))
-                .value(coordseq.getOrdinate(i, 1));
+                .ordinate(coordseq.getOrdinate(i, 0))
+                .ordinate(coordseq.getOrdinate(i, 1));
             
             if (dim > 2) {
                 double v = coordseq.getOrdinate(i, 2);
                 if (!Double.isNaN(v)) {
-                    value(v);
+                    ordinate(v);
                 }
             }
             endArray();
@@ -15,44 +15,70 @@
 package io.jeo.geojson.parser;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.List;
+import java.util.Locale;
 
 import io.jeo.json.parser.ParseException;
 
+/**
+ * Handler for GeoJSON coordinate arrays that produces {@link PackedCoordinates}.
+ * <p>
+ * Ordinates are written directly into a packed array as they are parsed.
+ * </p>
+ */
 public class CoordinateHandler extends BaseHandler {
 
+    PackedCoordinates coords = new PackedCoordinates();
+
+    /** current array depth */
     int depth = 0;
-    Deque<List> stack = new ArrayDeque<List>();
+
+    /** number of values in the current array */
+    int n;
+
+    /** number of arrays closed at each depth */
+    int[] closed = new int[PackedCoordinates.MAX_DEPTH + 2];
 
     @Override
     public boolean startArray() throws ParseException, IOException {
-        stack.push(new ArrayList());
-        depth++;
+        if (++depth > PackedCoordinates.MAX_DEPTH || coords.depth != -1 && depth > coords.depth) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT,
+                "unexpected coordinate array at depth %d", depth));
+        }
+        n = 0;
         return true;
     }
 
     @Override
     public boolean endArray() throws ParseException, IOException {
-        depth--;
-
-        List l = stack.pop();
-
-        if (depth == 0) {
-            node.setValue(l);
-            pop();
+        if (depth == coords.depth) {
+            coords.endPosition(n);
         }
         else {
-            stack.peek().add(l);
+            coords.endArray(depth, closed[depth+1]);
+        }
+        closed[depth]++;
+        n = 0;
+
+        if (--depth == 0) {
+            node.setValue(coords);
+            pop();
         }
         return true;
     }
-    
+
     @Override
     public boolean primitive(Object value) throws ParseException, IOException {
-        stack.peek().add(value);
+        if (coords.depth == -1) {
+            if (coords.nends[depth] > 0) {
+                throw new IllegalArgumentException("empty coordinate array");
+            }
+            coords.depth = depth;
+        }
+        else if (coords.depth != depth) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT,
+                "unexpected coordinate value at depth %d", depth));
+        }
+        coords.ordinate(((Number) value).doubleValue(), n++);
         return true;
     }
 
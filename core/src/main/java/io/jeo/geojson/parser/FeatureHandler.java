@@ -29,13 +29,20 @@ import com.vividsolutions.jts.geom.Geometry;
 
 public class FeatureHandler extends BaseHandler {
 
-    Integer id;
+    String id;
 
     public FeatureHandler() {
-        this(null);
+        this((String) null);
     }
 
     public FeatureHandler(Integer id) {
+        this(id != null ? String.valueOf(id) : null);
+    }
+
+    /**
+     * Creates the handler with the id to assign to a feature that has none.
+     */
+    public FeatureHandler(String id) {
         this.id = id;
     }
 
@@ -88,7 +95,7 @@ public class FeatureHandler extends BaseHandler {
 
         props.put("geometry", geom);
 
-        String fid = node.consume("id", String.class).orElse(id != null ? String.valueOf(id) : null);
+        String fid = node.consume("id", String.class).orElse(id);
 
         node.setValue(new MapFeature(fid, props));
 
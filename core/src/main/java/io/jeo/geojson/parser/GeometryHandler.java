@@ -16,13 +16,10 @@ package io.jeo.geojson.parser;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Locale;
 
 import io.jeo.geom.Geom;
 import io.jeo.json.parser.ParseException;
 
-import com.vividsolutions.jts.geom.Coordinate;
-import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryCollection;
 import com.vividsolutions.jts.geom.GeometryFactory;
@@ -33,7 +30,6 @@ import com.vividsolutions.jts.geom.MultiPoint;
 import com.vividsolutions.jts.geom.MultiPolygon;
 import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.Polygon;
-import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
 
 public class GeometryHandler extends BaseHandler {
 
@@ -54,7 +50,8 @@ public class GeometryHandler extends BaseHandler {
         }
         else {
             String type = node.consume("type", String.class).orElse(null);
-            List coordinates = node.consume("coordinates", List.class).orElse(null);
+            PackedCoordinates coordinates =
+                node.consume("coordinates", PackedCoordinates.class).orElse(null);
             g = createGeometry(type, coordinates);
         }
         node.setValue(g);
@@ -90,112 +87,95 @@ public class GeometryHandler extends BaseHandler {
         return true;
     }
 
-    Geometry createGeometry(String type, List coordinates) {
+    Geometry createGeometry(String type, PackedCoordinates coords) {
+        if (coords == null) {
+            throw new IllegalArgumentException("no coordinates for geometry of type: " + type);
+        }
+
         switch(Geom.Type.from(type)) {
         case POINT:
-            return createPoint(coordinates);
+            return createPoint(coords);
         case LINESTRING:
-            return createLineString(coordinates);
+            return createLineString(coords);
         case POLYGON:
-            return createPolygon(coordinates);
+            return createPolygon(coords);
         case MULTIPOINT:
-            return createMultiPoint(coordinates);
+            return createMultiPoint(coords);
         case MULTILINESTRING:
-            return createMultiLineString(coordinates);
+            return createMultiLineString(coords);
         case MULTIPOLYGON:
-            return createMultiPolygon(coordinates);
+            return createMultiPolygon(coords);
         default:
             throw new IllegalArgumentException("Unexpected geometry type: " + type);
         }
     }
 
-    Point createPoint(List list) {
-        return gf.createPoint(coord(list));
+    Point createPoint(PackedCoordinates coords) {
+        return gf.createPoint(coords.ensureDepth(1).sequence(0, 1));
     }
 
-    LineString createLineString(List list) {
-        return gf.createLineString(coordseq(list));
+    LineString createLineString(PackedCoordinates coords) {
+        return gf.createLineString(coords.ensureDepth(2).sequence(0, coords.size()));
     }
 
-    Polygon createPolygon(List list) {
-        LinearRing shell = gf.createLinearRing(coordseq((List)ensureSize(list, 1).get(0)));
-        LinearRing[] holes = list.size() > 1 ? new LinearRing[list.size()-1] : null;
+    Polygon createPolygon(PackedCoordinates coords) {
+        coords.ensureDepth(3);
+        return createPolygon(coords, 0, coords.count(2));
+    }
 
-        for (int i = 1; i < list.size(); i++) {
-            holes[i-1] = gf.createLinearRing(coordseq((List) list.get(i))); 
+    Polygon createPolygon(PackedCoordinates coords, int from, int to) {
+        // rings are the arrays at depth-1, their end index is that of their positions
+        int d = coords.depth() - 1;
+        if (to <= from) {
+            throw new IllegalArgumentException("expected at least one ring for polygon");
         }
-        return gf.createPolygon(shell, holes);
-    }
 
-    MultiPoint createMultiPoint(List list) {
-        return gf.createMultiPoint(coordseq(list));
-    }
+        LinearRing shell = createLinearRing(coords, d, from);
+        LinearRing[] holes = to - from > 1 ? new LinearRing[to - from - 1] : null;
 
-    MultiLineString createMultiLineString(List list) {
-        LineString[] lines =  new LineString[ensureSize(list, 1).size()];
-        for (int i = 0; i < list.size(); i++) {
-            lines[i] = createLineString((List) list.get(i));
+        for (int i = from + 1; i < to; i++) {
+            holes[i-from-1] = createLinearRing(coords, d, i);
         }
-        return gf.createMultiLineString(lines);
+        return gf.createPolygon(shell, holes);
     }
 
-    MultiPolygon createMultiPolygon(List list) {
-        Polygon[] polys =  new Polygon[ensureSize(list, 1).size()];
-        for (int i = 0; i < list.size(); i++) {
-            polys[i] = createPolygon((List) list.get(i));
-        }
-        return gf.createMultiPolygon(polys);
+    LinearRing createLinearRing(PackedCoordinates coords, int depth, int i) {
+        int start = i > 0 ? coords.end(depth, i-1) : 0;
+        return gf.createLinearRing(coords.sequence(start, coords.end(depth, i)));
     }
 
-    GeometryCollection createGeometryCollection(List geoms) {
-        return gf.createGeometryCollection((Geometry[])geoms.toArray(new Geometry[geoms.size()]));
+    MultiPoint createMultiPoint(PackedCoordinates coords) {
+        return gf.createMultiPoint(coords.ensureDepth(2).sequence(0, coords.size()));
     }
 
-    Coordinate coord(List list) {
-        ensureSize(list, 2);
+    MultiLineString createMultiLineString(PackedCoordinates coords) {
+        coords.ensureDepth(3);
 
-        double x = number(list.get(0));
-        double y = number(list.get(1));
-        double z = list.size() > 2 ? number(list.get(2)) : Double.NaN;
-
-        Coordinate c = new Coordinate(x, y);
-        if (!Double.isNaN(z)) {
-            c.z = z;
+        LineString[] lines =  new LineString[coords.count(2)];
+        int start = 0;
+        for (int i = 0; i < lines.length; i++) {
+            int end = coords.end(2, i);
+            lines[i] = gf.createLineString(coords.sequence(start, end));
+            start = end;
         }
-        return c;
+        return gf.createMultiLineString(lines);
     }
 
-    CoordinateSequence coordseq(List list) {
-        ensureSize(list, 1);
-
-        int dim = ensureSize((List) list.get(0), 2).size();
-        
-        CoordinateSequence seq =
-            PackedCoordinateSequenceFactory.DOUBLE_FACTORY.create(list.size(), dim);
+    MultiPolygon createMultiPolygon(PackedCoordinates coords) {
+        coords.ensureDepth(4);
 
-        for (int i = 0; i < list.size(); i++) {
-            List c = (List) list.get(i);
-            seq.setOrdinate(i, 0, number(c.get(0)));
-            seq.setOrdinate(i, 1, number(c.get(1)));
-
-            if (dim > 2) {
-                seq.setOrdinate(i, 2, number(c.get(2)));
-            }
+        Polygon[] polys =  new Polygon[coords.count(2)];
+        int start = 0;
+        for (int i = 0; i < polys.length; i++) {
+            int end = coords.end(2, i);
+            polys[i] = createPolygon(coords, start, end);
+            start = end;
         }
-
-        return seq;
-    }
-
-    double number(Object obj) {
-        return ((Number)obj).doubleValue();
+        return gf.createMultiPolygon(polys);
     }
 
-    List ensureSize(List list, int size) {
-        if (list.size() < size) {
-            throw new IllegalArgumentException(String.format(Locale.ROOT,
-                "expected coordinate arary of size %d but is of size %d", size, list.size()));
-        }
-        return list;
+    GeometryCollection createGeometryCollection(List geoms) {
+        return gf.createGeometryCollection((Geometry[])geoms.toArray(new Geometry[geoms.size()]));
     }
 
     static class GeometryCollectionHandler extends BaseHandler {
@@ -0,0 +1,143 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson.parser;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
+
+/**
+ * Nested GeoJSON coordinate arrays, stored as a single packed array of ordinates.
+ * <p>
+ * Positions are the innermost arrays. The dimension of all positions is that of the first
+ * position, capped at 3. Positions with fewer ordinates are padded with NaN and extra ordinates
+ * are dropped. For every array enclosing positions the structure records the index at which
+ * its children end, which is all that is needed to slice the ordinates into coordinate
+ * sequences.
+ * </p>
+ */
+public class PackedCoordinates {
+
+    static final int MAX_DEPTH = 4;
+
+    /** packed ordinates */
+    double[] ords = new double[32];
+    int size;
+
+    /** ordinates per position, -1 until the first position ends */
+    int dim = -1;
+
+    /** number of positions */
+    int positions;
+
+    /** depth of position arrays, 1 for a single position, -1 until known */
+    int depth = -1;
+
+    /** for arrays at each depth, the end index of their children */
+    int[][] ends = new int[MAX_DEPTH + 1][];
+    int[] nends = new int[MAX_DEPTH + 1];
+
+    /**
+     * The depth of position arrays, or -1 if there are no positions.
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * The dimension of positions.
+     */
+    public int dimension() {
+        return dim;
+    }
+
+    /**
+     * The total number of positions.
+     */
+    public int size() {
+        return positions;
+    }
+
+    /**
+     * The number of arrays at the specified depth.
+     */
+    public int count(int depth) {
+        return depth == this.depth ? positions : nends[depth];
+    }
+
+    /**
+     * The index, among the arrays at depth <tt>depth+1</tt>, at which the children of the
+     * <tt>i</tt>th array at the specified depth end.
+     */
+    public int end(int depth, int i) {
+        return ends[depth][i];
+    }
+
+    /**
+     * Creates a coordinate sequence from a range of positions.
+     */
+    public CoordinateSequence sequence(int from, int to) {
+        return new PackedCoordinateSequence.Double(
+            Arrays.copyOfRange(ords, from * dim, to * dim), dim);
+    }
+
+    /**
+     * Throws an exception if the position depth is not the specified one.
+     */
+    public PackedCoordinates ensureDepth(int depth) {
+        if (this.depth != depth) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT,
+                "expected coordinate array of depth %d but is of depth %d", depth, this.depth));
+        }
+        return this;
+    }
+
+    void ordinate(double d, int i) {
+        if (i >= (dim == -1 ? 3 : dim)) {
+            return;
+        }
+        if (size == ords.length) {
+            ords = Arrays.copyOf(ords, ords.length * 2);
+        }
+        ords[size++] = d;
+    }
+
+    void endPosition(int n) {
+        if (n < 2) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT,
+                "expected coordinate arary of size %d but is of size %d", 2, n));
+        }
+        if (dim == -1) {
+            dim = Math.min(n, 3);
+        }
+        for (int i = n; i < dim; i++) {
+            ordinate(Double.NaN, i);
+        }
+        positions++;
+    }
+
+    void endArray(int depth, int end) {
+        int[] e = ends[depth];
+        if (e == null) {
+            e = ends[depth] = new int[4];
+        }
+        else if (nends[depth] == e.length) {
+            e = ends[depth] = Arrays.copyOf(e, e.length * 2);
+        }
+        e[nends[depth]++] = end;
+    }
+}
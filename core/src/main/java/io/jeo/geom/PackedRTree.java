@@ -0,0 +1,470 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geom;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Static R-tree bulk loaded with the Sort-Tile-Recursive algorithm.
+ * <p>
+ * The tree is built once from a set of envelopes and can not be modified afterward. Items are
+ * identified by their position in the input, queries return those positions. All nodes are
+ * stored in flat arrays, leaves first and the root last.
+ * </p>
+ * <p>
+ * Usage:
+ * <pre><code>
+ * PackedRTree.Builder b = PackedRTree.build(n);
+ * for (Envelope e : envelopes) {
+ *     b.add(e);
+ * }
+ * PackedRTree tree = b.finish();
+ *
+ * PackedRTree.Hits hits = tree.query(bbox);
+ * while (hits.hasNext()) {
+ *     int i = hits.next();
+ *     ...
+ * }
+ * </code></pre>
+ * </p>
+ */
+public class PackedRTree {
+
+    /**
+     * Default number of children per node.
+     */
+    public static final int NODE_SIZE = 16;
+
+    /**
+     * Creates a new builder for the tree with the default node size.
+     *
+     * @param n Expected number of items, used to size the builder.
+     */
+    public static Builder build(int n) {
+        return new Builder(n, NODE_SIZE);
+    }
+
+    /**
+     * Creates a new builder for the tree.
+     *
+     * @param n Expected number of items, used to size the builder.
+     * @param nodeSize Number of children per node.
+     */
+    public static Builder build(int n, int nodeSize) {
+        return new Builder(n, nodeSize);
+    }
+
+    /**
+     * Reads a tree previously written with {@link #write(DataOutput)}.
+     */
+    public static PackedRTree read(DataInput in) throws IOException {
+        int size = in.readInt();
+        int nodeSize = in.readInt();
+
+        int[] levelEnd = new int[in.readInt()];
+        for (int i = 0; i < levelEnd.length; i++) {
+            levelEnd[i] = in.readInt();
+        }
+
+        int[] index = new int[in.readInt()];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = in.readInt();
+        }
+
+        double[] boxes = new double[4 * index.length];
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i] = in.readDouble();
+        }
+
+        return new PackedRTree(size, nodeSize, boxes, index, levelEnd);
+    }
+
+    /**
+     * Builder for the tree.
+     */
+    public static class Builder {
+
+        final int nodeSize;
+        double[] boxes;
+        int size;
+
+        Builder(int n, int nodeSize) {
+            if (nodeSize < 2) {
+                throw new IllegalArgumentException("node size must be at least 2");
+            }
+            this.nodeSize = nodeSize;
+            this.boxes = new double[4 * Math.max(n, 1)];
+        }
+
+        /**
+         * The number of items added so far.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Adds the next item to the tree.
+         */
+        public Builder add(Envelope e) {
+            return add(e.getMinX(), e.getMinY(), e.getMaxX(), e.getMaxY());
+        }
+
+        /**
+         * Adds the next item to the tree.
+         */
+        public Builder add(double minx, double miny, double maxx, double maxy) {
+            if (4 * (size + 1) > boxes.length) {
+                boxes = Arrays.copyOf(boxes, boxes.length * 2);
+            }
+            int i = 4 * size++;
+            boxes[i] = minx;
+            boxes[i+1] = miny;
+            boxes[i+2] = maxx;
+            boxes[i+3] = maxy;
+            return this;
+        }
+
+        /**
+         * Builds the tree.
+         */
+        public PackedRTree finish() {
+            // count the nodes on each level
+            int n = size;
+            int levels = 1;
+            int total = n;
+            for (int c = n; c > 1; levels++) {
+                c = (c + nodeSize - 1) / nodeSize;
+                total += c;
+            }
+
+            double[] tree = new double[4 * total];
+            int[] index = new int[total];
+            int[] levelEnd = new int[levels];
+
+            System.arraycopy(boxes, 0, tree, 0, 4 * n);
+            for (int i = 0; i < n; i++) {
+                index[i] = i;
+            }
+
+            int start = 0;
+            int end = n;
+            for (int l = 0; l < levels; l++) {
+                str(tree, index, start, end, nodeSize);
+                levelEnd[l] = end;
+
+                // create the parent nodes
+                int pos = end;
+                for (int i = start; i < end && end - start > 1; i += nodeSize) {
+                    int k = 4 * pos;
+                    tree[k] = Double.POSITIVE_INFINITY;
+                    tree[k+1] = Double.POSITIVE_INFINITY;
+                    tree[k+2] = Double.NEGATIVE_INFINITY;
+                    tree[k+3] = Double.NEGATIVE_INFINITY;
+                    for (int j = i; j < Math.min(i + nodeSize, end); j++) {
+                        int m = 4 * j;
+                        tree[k] = Math.min(tree[k], tree[m]);
+                        tree[k+1] = Math.min(tree[k+1], tree[m+1]);
+                        tree[k+2] = Math.max(tree[k+2], tree[m+2]);
+                        tree[k+3] = Math.max(tree[k+3], tree[m+3]);
+                    }
+                    index[pos++] = i;
+                }
+                start = end;
+                end = pos;
+            }
+
+            boxes = null;
+            return new PackedRTree(n, nodeSize, tree, index, levelEnd);
+        }
+    }
+
+    final int size;
+    final int nodeSize;
+    final double[] boxes;
+    final int[] index;
+    final int[] levelEnd;
+
+    PackedRTree(int size, int nodeSize, double[] boxes, int[] index, int[] levelEnd) {
+        this.size = size;
+        this.nodeSize = nodeSize;
+        this.boxes = boxes;
+        this.index = index;
+        this.levelEnd = levelEnd;
+    }
+
+    /**
+     * The number of items in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The number of children per node.
+     */
+    public int nodeSize() {
+        return nodeSize;
+    }
+
+    /**
+     * The bounds of all items in the tree, or a null envelope if the tree is empty.
+     */
+    public Envelope bounds() {
+        if (size == 0) {
+            return new Envelope();
+        }
+        int k = 4 * (index.length - 1);
+        return new Envelope(boxes[k], boxes[k+2], boxes[k+1], boxes[k+3]);
+    }
+
+    /**
+     * Queries the tree for items whose envelope intersects the specified bounds.
+     *
+     * @return The positions of the matching items, in no particular order.
+     */
+    public Hits query(Envelope bbox) {
+        if (bbox.isNull()) {
+            return new Hits(this, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+        return query(bbox.getMinX(), bbox.getMinY(), bbox.getMaxX(), bbox.getMaxY());
+    }
+
+    /**
+     * Queries the tree for items whose envelope intersects the specified bounds.
+     *
+     * @return The positions of the matching items, in no particular order.
+     */
+    public Hits query(double minx, double miny, double maxx, double maxy) {
+        return new Hits(this, minx, miny, maxx, maxy);
+    }
+
+    /**
+     * Writes out the tree, to be read back with {@link #read(DataInput)}.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(nodeSize);
+
+        out.writeInt(levelEnd.length);
+        for (int e : levelEnd) {
+            out.writeInt(e);
+        }
+
+        out.writeInt(index.length);
+        for (int i : index) {
+            out.writeInt(i);
+        }
+
+        for (double d : boxes) {
+            out.writeDouble(d);
+        }
+    }
+
+    boolean intersects(int i, double minx, double miny, double maxx, double maxy) {
+        int k = 4 * i;
+        return !(boxes[k] > maxx || boxes[k+1] > maxy || boxes[k+2] < minx || boxes[k+3] < miny);
+    }
+
+    int level(int pos) {
+        int l = 0;
+        while (pos >= levelEnd[l]) {
+            l++;
+        }
+        return l;
+    }
+
+    /**
+     * Iterator over the results of a tree query.
+     * <p>
+     * The tree is traversed lazily as items are requested.
+     * </p>
+     */
+    public static class Hits {
+
+        final PackedRTree tree;
+        final double minx, miny, maxx, maxy;
+
+        /** stack of nodes to visit */
+        int[] stack;
+        int top;
+
+        /** range of leaf entries currently being scanned */
+        int leaf, leafEnd;
+
+        /** next hit, -1 if none computed yet */
+        int next = -1;
+
+        Hits(PackedRTree tree, double minx, double miny, double maxx, double maxy) {
+            this.tree = tree;
+            this.minx = minx;
+            this.miny = miny;
+            this.maxx = maxx;
+            this.maxy = maxy;
+
+            stack = new int[16];
+            if (tree.size > 0 && maxx >= minx && maxy >= miny) {
+                int root = tree.index.length - 1;
+                if (tree.intersects(root, minx, miny, maxx, maxy)) {
+                    if (tree.size == 1) {
+                        leaf = 0;
+                        leafEnd = 1;
+                    }
+                    else {
+                        stack[top++] = root;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Determines if there are more hits.
+         */
+        public boolean hasNext() {
+            if (next > -1) {
+                return true;
+            }
+
+            PackedRTree t = tree;
+            while (true) {
+                while (leaf < leafEnd) {
+                    int i = leaf++;
+                    if (t.intersects(i, minx, miny, maxx, maxy)) {
+                        next = t.index[i];
+                        return true;
+                    }
+                }
+
+                if (top == 0) {
+                    return false;
+                }
+
+                int node = stack[--top];
+                int l = t.level(node);
+                int from = t.index[node];
+                int to = Math.min(from + t.nodeSize, t.levelEnd[l - 1]);
+
+                if (l == 1) {
+                    leaf = from;
+                    leafEnd = to;
+                }
+                else {
+                    for (int i = from; i < to; i++) {
+                        if (t.intersects(i, minx, miny, maxx, maxy)) {
+                            if (top == stack.length) {
+                                stack = Arrays.copyOf(stack, stack.length * 2);
+                            }
+                            stack[top++] = i;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * The position of the next matching item.
+         */
+        public int next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int i = next;
+            next = -1;
+            return i;
+        }
+    }
+
+    /**
+     * Sorts the entries in [start,end) into STR order: into vertical slices by center x, and
+     * each slice by center y.
+     */
+    static void str(double[] boxes, int[] index, int start, int end, int nodeSize) {
+        int n = end - start;
+        if (n <= nodeSize) {
+            return;
+        }
+
+        int nodes = (n + nodeSize - 1) / nodeSize;
+        int slices = (int) Math.ceil(Math.sqrt(nodes));
+        int sliceSize = slices * nodeSize;
+
+        sort(boxes, index, start, end - 1, 0);
+        for (int s = start; s < end; s += sliceSize) {
+            sort(boxes, index, s, Math.min(s + sliceSize, end) - 1, 1);
+        }
+    }
+
+    /**
+     * Quicksort of entries [lo,hi] on the center of the specified axis.
+     */
+    static void sort(double[] boxes, int[] index, int lo, int hi, int axis) {
+        while (lo < hi) {
+            if (hi - lo < 16) {
+                // insertion sort for small ranges
+                for (int i = lo + 1; i <= hi; i++) {
+                    for (int j = i; j > lo && center(boxes, j, axis) < center(boxes, j-1, axis); j--) {
+                        swap(boxes, index, j, j-1);
+                    }
+                }
+                return;
+            }
+
+            double pivot = center(boxes, (lo + hi) >>> 1, axis);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (center(boxes, i, axis) < pivot) i++;
+                while (center(boxes, j, axis) > pivot) j--;
+                if (i <= j) {
+                    swap(boxes, index, i++, j--);
+                }
+            }
+
+            // recurse into the smaller half
+            if (j - lo < hi - i) {
+                sort(boxes, index, lo, j, axis);
+                lo = i;
+            }
+            else {
+                sort(boxes, index, i, hi, axis);
+                hi = j;
+            }
+        }
+    }
+
+    static double center(double[] boxes, int i, int axis) {
+        int k = 4 * i + axis;
+        return boxes[k] + boxes[k+2];
+    }
+
+    static void swap(double[] boxes, int[] index, int i, int j) {
+        int a = 4 * i;
+        int b = 4 * j;
+        for (int k = 0; k < 4; k++) {
+            double tmp = boxes[a+k];
+            boxes[a+k] = boxes[b+k];
+            boxes[b+k] = tmp;
+        }
+        int tmp = index[i];
+        index[i] = index[j];
+        index[j] = tmp;
+    }
+}
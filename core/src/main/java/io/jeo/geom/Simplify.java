@@ -0,0 +1,139 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geom;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.util.GeometryTransformer;
+import com.vividsolutions.jts.simplify.DouglasPeuckerSimplifier;
+import com.vividsolutions.jts.simplify.TopologyPreservingSimplifier;
+
+/**
+ * Geometry simplification algorithms.
+ */
+public enum Simplify {
+
+    /**
+     * Simplification that preserves topology, see {@link TopologyPreservingSimplifier}.
+     * <p>
+     * Unlike {@link #DOUGLAS_PEUCKER} there is no grid pre-pass, as dropping vertices without
+     * regard to the other rings of a polygon can move a shell across one of its holes.
+     * </p>
+     */
+    TOPOLOGY {
+        @Override
+        Geometry simplify(Geometry g, double tolerance) {
+            return TopologyPreservingSimplifier.simplify(g, tolerance);
+        }
+    },
+
+    /**
+     * Douglas-Peucker simplification, see {@link DouglasPeuckerSimplifier}.
+     * <p>
+     * Faster than {@link #TOPOLOGY} but may produce invalid polygons. The algorithm is preceded by
+     * a grid pre-pass that drops vertices falling into the same grid cell, half the tolerance in
+     * size, as the previously kept vertex. The pre-pass is linear and cheaply discards most of
+     * the vertices of very detailed geometries before the more expensive simplification runs.
+     * </p>
+     */
+    DOUGLAS_PEUCKER {
+        @Override
+        Geometry simplify(Geometry g, double tolerance) {
+            return DouglasPeuckerSimplifier.simplify(grid(g, tolerance / 2d), tolerance);
+        }
+    };
+
+    /**
+     * Simplifies a geometry.
+     *
+     * @param g The geometry to simplify.
+     * @param tolerance The distance tolerance, in units of the geometry.
+     *
+     * @return The simplified geometry, or the original geometry if it has no more than two
+     * vertices or the tolerance is not positive.
+     */
+    public Geometry apply(Geometry g, double tolerance) {
+        if (g == null || !(tolerance > 0) || g.getNumPoints() <= 2) {
+            return g;
+        }
+
+        Geometry simple = simplify(g, tolerance);
+        simple.setUserData(g.getUserData());
+        simple.setSRID(g.getSRID());
+        return simple;
+    }
+
+    abstract Geometry simplify(Geometry g, double tolerance);
+
+    /**
+     * Drops consecutive vertices of a geometry that fall into the same grid cell.
+     * <p>
+     * The first and last vertex of each component are always kept, and components that would
+     * collapse are left as is. Components are processed independently, so the result may be
+     * invalid, see {@link #TOPOLOGY}.
+     * </p>
+     * @param g The geometry.
+     * @param cell The size of grid cells.
+     */
+    static Geometry grid(Geometry g, final double cell) {
+        return new GeometryTransformer() {
+            @Override
+            protected CoordinateSequence transformCoordinates(CoordinateSequence seq,
+                Geometry parent) {
+                if (parent instanceof Point) {
+                    return copy(seq);
+                }
+
+                int n = seq.size();
+                int min = parent instanceof LinearRing ? 4 : 2;
+                if (n <= min) {
+                    return copy(seq);
+                }
+
+                int[] keep = new int[n];
+                int k = 0;
+                keep[k++] = 0;
+
+                long cx = Math.round(seq.getX(0) / cell);
+                long cy = Math.round(seq.getY(0) / cell);
+                for (int i = 1; i < n - 1; i++) {
+                    long x = Math.round(seq.getX(i) / cell);
+                    long y = Math.round(seq.getY(i) / cell);
+                    if (x != cx || y != cy) {
+                        keep[k++] = i;
+                        cx = x;
+                        cy = y;
+                    }
+                }
+                keep[k++] = n - 1;
+
+                if (k == n || k < min) {
+                    return copy(seq);
+                }
+
+                CoordinateSequence out =
+                    factory.getCoordinateSequenceFactory().create(k, seq.getDimension());
+                for (int i = 0; i < k; i++) {
+                    for (int d = 0; d < seq.getDimension(); d++) {
+                        out.setOrdinate(i, d, seq.getOrdinate(keep[i], d));
+                    }
+                }
+                return out;
+            }
+        }.transform(g);
+    }
+}
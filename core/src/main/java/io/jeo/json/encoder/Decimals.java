@@ -0,0 +1,155 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.json.encoder;
+
+/**
+ * Formats doubles as plain JSON numbers into a character buffer.
+ * <p>
+ * Digits are written backwards from the end of the buffer, each method returning the offset of
+ * the first character. Values formatted to a fixed number of decimals never allocate.
+ * </p>
+ */
+final class Decimals {
+
+    /**
+     * Maximum number of decimals supported for fixed precision formatting.
+     */
+    static final int MAX_PRECISION = 15;
+
+    /**
+     * Size of buffer required by the format methods.
+     */
+    static final int BUFFER_SIZE = 48;
+
+    static final double[] POW10 = new double[MAX_PRECISION + 1];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i-1] * 10;
+        }
+    }
+
+    /** largest scaled value that can be represented exactly as a long */
+    static final double MAX_SCALED = 1L << 53;
+
+    /**
+     * Formats a value rounded to the specified number of decimals, dropping trailing zeros.
+     *
+     * @return The offset of the first character in the buffer, or -1 if the value is too large
+     * to be formatted at the specified precision.
+     */
+    static int format(double value, int precision, char[] buf) {
+        double scaled = Math.abs(value) * POW10[precision];
+        if (!(scaled < MAX_SCALED)) {
+            return -1;
+        }
+
+        long l = Math.round(scaled);
+        boolean neg = value < 0 && l != 0;
+
+        int p = precision;
+        while (p > 0 && l % 10 == 0) {
+            l /= 10;
+            p--;
+        }
+
+        int i = buf.length;
+        for (int j = 0; j < p; j++) {
+            buf[--i] = (char) ('0' + l % 10);
+            l /= 10;
+        }
+        if (p > 0) {
+            buf[--i] = '.';
+        }
+        do {
+            buf[--i] = (char) ('0' + l % 10);
+            l /= 10;
+        }
+        while (l > 0);
+
+        if (neg) {
+            buf[--i] = '-';
+        }
+        return i;
+    }
+
+    /**
+     * Formats a value at full precision, expanding the scientific notation produced by
+     * {@link Double#toString(double)} for exponents in the range [-7, 21).
+     *
+     * @return The offset of the first character in the buffer.
+     */
+    static int format(double value, char[] buf) {
+        String s = Double.toString(value);
+        int e = s.indexOf('E');
+        int exp = e < 0 ? 0 : Integer.parseInt(s.substring(e + 1));
+        if (e < 0 || exp < -7 || exp >= 21) {
+            int i = buf.length - s.length();
+            s.getChars(0, s.length(), buf, i);
+            return i;
+        }
+
+        // mantissa is of the form [-]d.ddd
+        int m = value < 0 ? 1 : 0;
+        int end = e;
+        while (end > m + 3 && s.charAt(end - 1) == '0') {
+            end--;
+        }
+
+        // digits without the decimal point, and position of the point after expansion
+        int ndigits = end - m - 1;
+        if (ndigits == 2 && s.charAt(m + 2) == '0') {
+            ndigits = 1;
+        }
+        int point = 1 + exp;
+
+        int i = buf.length;
+        if (point >= ndigits) {
+            for (int j = point; j > ndigits; j--) {
+                buf[--i] = '0';
+            }
+            for (int j = ndigits - 1; j >= 0; j--) {
+                buf[--i] = digit(s, m, j);
+            }
+        }
+        else {
+            for (int j = ndigits - 1; j >= Math.max(point, 0); j--) {
+                buf[--i] = digit(s, m, j);
+            }
+            for (int j = point; j < 0; j++) {
+                buf[--i] = '0';
+            }
+            buf[--i] = '.';
+            if (point <= 0) {
+                buf[--i] = '0';
+            }
+            for (int j = point - 1; j >= 0; j--) {
+                buf[--i] = digit(s, m, j);
+            }
+        }
+
+        if (m > 0) {
+            buf[--i] = '-';
+        }
+        return i;
+    }
+
+    /*
+     * The j'th digit of a mantissa starting at m, skipping the decimal point.
+     */
+    static char digit(String s, int m, int j) {
+        return s.charAt(j == 0 ? m : m + j + 1);
+    }
+}
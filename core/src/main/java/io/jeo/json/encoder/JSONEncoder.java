@@ -15,13 +15,21 @@
 package io.jeo.json.encoder;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.ArrayDeque;
+import java.util.Locale;
 
 import io.jeo.json.JSONValue;
 
 public class JSONEncoder {
 
+    /**
+     * Maximum number of decimals supported by {@link #value(double, int)}.
+     */
+    public static final int MAX_PRECISION = Decimals.MAX_PRECISION;
+
     /**
      * output
      */
@@ -36,6 +44,11 @@ public class JSONEncoder {
     String space;
     String newline;
 
+    /**
+     * scratch buffer for formatting numbers
+     */
+    final char[] digits = new char[Decimals.BUFFER_SIZE];
+
     /**
      * Creates a new encoder.
      * 
@@ -59,6 +72,37 @@ public class JSONEncoder {
         newline = indentSize > 0 ? "\n" : "";
     }
 
+    /**
+     * Creates a new encoder that writes UTF-8 bytes directly to an output stream.
+     * <p>
+     * Output is buffered, {@link #flush()} must be called once encoding is complete.
+     * </p>
+     * @param out Stream to output to.
+     */
+    public JSONEncoder(OutputStream out) {
+        this(out, 0);
+    }
+
+    /**
+     * Creates a new encoder with formatting that writes UTF-8 bytes directly to an output
+     * stream.
+     *
+     * @param out Stream to output to.
+     * @param indentSize The number of spaces to use when indenting.
+     */
+    public JSONEncoder(OutputStream out, int indentSize) {
+        this(new UTF8Writer(out), indentSize);
+    }
+
+    /**
+     * Pre-encodes a key, for keys written repeatedly with {@link #key(Name)}.
+     *
+     * @param key The key/name of the property.
+     */
+    public static Name name(String key) {
+        return new Name(key);
+    }
+
     /**
      * The underlying writer.
      */
@@ -145,6 +189,39 @@ public class JSONEncoder {
      * @return This encoder.
      */
     public JSONEncoder key(String key) throws IOException {
+        beginKey();
+        out.write('"');
+        string(key);
+        out.write("\":");
+        out.write(space);
+        return this;
+    }
+
+    /**
+     * Starts an object property with a pre-encoded key.
+     *
+     * @param key The encoded key/name of the property.
+     *
+     * @return This encoder.
+     *
+     * @see #name(String)
+     */
+    public JSONEncoder key(Name key) throws IOException {
+        beginKey();
+        if (out instanceof UTF8Writer) {
+            ((UTF8Writer) out).write(key.bytes);
+        }
+        else {
+            out.write(key.chars);
+        }
+        out.write(space);
+        return this;
+    }
+
+    /*
+     * Writes any separator required before a key and updates the state of the current object.
+     */
+    void beginKey() throws IOException {
         Thing t = peek();
         
         if (!(t instanceof Obj)) {
@@ -162,11 +239,6 @@ public class JSONEncoder {
         }
 
         newline();
-        out.write("\"");
-        out.write(JSONValue.escape(key));
-        out.write("\":");
-        out.write(space);
-        return this;
     }
 
     /**
@@ -193,8 +265,46 @@ public class JSONEncoder {
 
     }
 
+    /**
+     * Specifies a double value at full precision.
+     * <p>
+     * The value is written in plain decimal notation unless its exponent is very small or
+     * very large. NaN and infinite values are written as null.
+     * </p>
+     * @param value The value.
+     * @return This encoder.
+     */
     public JSONEncoder value(double value) throws IOException {
-        return doValue(Double.toString(value));
+        return value(value, -1);
+    }
+
+    /**
+     * Specifies a double value rounded to a maximum number of decimals.
+     * <p>
+     * Trailing zeros are dropped, so that <tt>value(1.5, 6)</tt> writes <tt>1.5</tt>. Values too
+     * large to be rounded exactly are written at full precision.
+     * </p>
+     * @param value The value.
+     * @param precision The maximum number of decimals, or a negative number for full precision.
+     * @return This encoder.
+     */
+    public JSONEncoder value(double value, int precision) throws IOException {
+        if (precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(
+                "precision must be at most " + MAX_PRECISION + ": " + precision);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nul();
+        }
+
+        int i = precision < 0 ? -1 : Decimals.format(value, precision, digits);
+        if (i < 0) {
+            i = Decimals.format(value, digits);
+        }
+
+        begin();
+        out.write(digits, i, digits.length - i);
+        return this;
     }
 
     public JSONEncoder value(long value) throws IOException {
@@ -237,13 +347,36 @@ public class JSONEncoder {
      * @return This encoder.
      */
     public JSONEncoder value(String value) throws IOException {
-        return doValue(value != null ? "\""+JSONValue.escape(value)+"\"" : null);
+        if (value == null) {
+            return doValue(null);
+        }
+
+        begin();
+        out.write('"');
+        string(value);
+        out.write('"');
+        return this;
     }
 
     /*
      * Helper to write out an already encoded value.
      */
     JSONEncoder doValue(String encoded) throws IOException {
+        begin();
+
+        if (encoded == null) {
+            encoded = "null";
+        }
+
+        out.write(encoded);
+        return this;
+    }
+
+    /*
+     * Writes any separator required before a value and updates the state of the current object
+     * or array.
+     */
+    void begin() throws IOException {
         Thing t = peek();
         if (t == null) {
             throw new IllegalStateException("no object");
@@ -266,13 +399,6 @@ public class JSONEncoder {
             o.key = false;
             o.size++;
         }
-
-        if (encoded == null) {
-            encoded = "null";
-        }
-
-        out.write(encoded);
-        return this;
     }
 
     /**
@@ -347,6 +473,63 @@ public class JSONEncoder {
         return this;
     }
 
+    /*
+     * Writes out an escaped string, with the same escaping rules as
+     * {@link JSONValue#escape(String)}. Runs of characters that need no escaping are written
+     * as is.
+     */
+    void string(String s) throws IOException {
+        int start = 0;
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char ch = s.charAt(i);
+            String esc = escape(ch);
+            if (esc != null) {
+                if (i > start) {
+                    out.write(s, start, i - start);
+                }
+                out.write(esc);
+                start = i + 1;
+            }
+        }
+        if (start == 0) {
+            out.write(s);
+        }
+        else if (start < len) {
+            out.write(s, start, len - start);
+        }
+    }
+
+    /*
+     * The escape sequence for a character, or null if it needs no escaping.
+     */
+    static String escape(char ch) {
+        switch(ch) {
+        case '"':
+            return "\\\"";
+        case '\\':
+            return "\\\\";
+        case '\b':
+            return "\\b";
+        case '\f':
+            return "\\f";
+        case '\n':
+            return "\\n";
+        case '\r':
+            return "\\r";
+        case '\t':
+            return "\\t";
+        case '/':
+            return "\\/";
+        default:
+            if (ch < ' ' || (ch >= '\u007F' && ch <= '\u009F')
+                || (ch >= '\u2000' && ch <= '\u20FF')) {
+                return String.format(Locale.ROOT, "\\u%04X", (int) ch);
+            }
+            return null;
+        }
+    }
+
     /*
      * Moves output to the next line and indents. A no-op if formatting not active. 
      */
@@ -366,6 +549,38 @@ public class JSONEncoder {
         return stack.isEmpty() ? null : stack.peek();
     }
 
+    /**
+     * A property key escaped and encoded up front.
+     */
+    public static final class Name {
+
+        static final Charset UTF8 = Charset.forName("UTF-8");
+
+        final String key;
+
+        /** quoted and escaped key followed by the colon */
+        final char[] chars;
+        final byte[] bytes;
+
+        Name(String key) {
+            this.key = key;
+            this.chars = ('"' + JSONValue.escape(key) + "\":").toCharArray();
+            this.bytes = new String(chars).getBytes(UTF8);
+        }
+
+        /**
+         * The unencoded key.
+         */
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+    }
+
     static abstract class Thing {
         protected int size = 0;
     }
@@ -0,0 +1,176 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.json.encoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Writer that encodes characters as UTF-8 directly into a reusable byte buffer.
+ * <p>
+ * Unlike {@link java.io.OutputStreamWriter} no charset encoder is involved, and already encoded
+ * bytes can be written with {@link #write(byte[])}. Unpaired surrogates are encoded as '?'.
+ * </p>
+ */
+class UTF8Writer extends Writer {
+
+    final OutputStream out;
+    final byte[] buf;
+    int pos;
+
+    /** pending high surrogate */
+    char high;
+
+    UTF8Writer(OutputStream out) {
+        this(out, 8192);
+    }
+
+    UTF8Writer(OutputStream out, int size) {
+        this.out = out;
+        this.buf = new byte[Math.max(size, 16)];
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (pos + 4 > buf.length) {
+            drain();
+        }
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++) {
+            if (pos + 4 > buf.length) {
+                drain();
+            }
+            char c = cbuf[i];
+            if (c < 0x80 && high == 0) {
+                buf[pos++] = (byte) c;
+            }
+            else {
+                encode(c);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++) {
+            if (pos + 4 > buf.length) {
+                drain();
+            }
+            char c = str.charAt(i);
+            if (c < 0x80 && high == 0) {
+                buf[pos++] = (byte) c;
+            }
+            else {
+                encode(c);
+            }
+        }
+    }
+
+    /**
+     * Writes already encoded bytes.
+     */
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    /**
+     * Writes already encoded bytes.
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (high != 0) {
+            high = 0;
+            write('?');
+        }
+        if (len > buf.length - pos) {
+            drain();
+            if (len > buf.length) {
+                out.write(b, off, len);
+                return;
+            }
+        }
+        System.arraycopy(b, off, buf, pos, len);
+        pos += len;
+    }
+
+    /*
+     * Encodes a single char, assumes room in the buffer for 4 bytes.
+     */
+    void encode(char c) {
+        if (high != 0) {
+            char h = high;
+            high = 0;
+            if (Character.isLowSurrogate(c)) {
+                int cp = Character.toCodePoint(h, c);
+                buf[pos++] = (byte) (0xf0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+                return;
+            }
+            // unpaired, at most 3 more bytes follow
+            buf[pos++] = '?';
+        }
+
+        if (c < 0x80) {
+            buf[pos++] = (byte) c;
+        }
+        else if (c < 0x800) {
+            buf[pos++] = (byte) (0xc0 | (c >> 6));
+            buf[pos++] = (byte) (0x80 | (c & 0x3f));
+        }
+        else if (Character.isHighSurrogate(c)) {
+            high = c;
+        }
+        else if (Character.isLowSurrogate(c)) {
+            buf[pos++] = '?';
+        }
+        else {
+            buf[pos++] = (byte) (0xe0 | (c >> 12));
+            buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            buf[pos++] = (byte) (0x80 | (c & 0x3f));
+        }
+    }
+
+    /*
+     * Writes out the buffered bytes.
+     */
+    void drain() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (high != 0) {
+            high = 0;
+            write('?');
+        }
+        flush();
+        out.close();
+    }
+}
@@ -21,25 +21,39 @@ import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.CoordinateFilter;
 import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.CoordinateSequenceFilter;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryComponentFilter;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
 
 /**
  * Applies a coordinate transform to the coordinates of a geometry object.
  * <p> 
  * This class isn't intended to be used directly but rather through {@link Proj#reproject()}}.
  * </p>
+ * <p>
+ * A single scratch coordinate is reused for all points transformed, and {@link #transform(Geometry)}
+ * transforms coordinate sequences as a whole, writing packed sequences directly. Instances are
+ * therefore not thread safe.
+ * </p>
  * @see Proj#reproject(com.vividsolutions.jts.geom.Geometry, org.osgeo.proj4j.CoordinateReferenceSystem, org.osgeo.proj4j.CoordinateReferenceSystem)
  */
 public class CoordinateTransformer implements CoordinateSequenceFilter, CoordinateFilter {
 
     CoordinateTransform tx;
 
+    /** reusable coordinate */
+    final ProjCoordinate p = new ProjCoordinate();
+
     public CoordinateTransformer(CoordinateTransform tx) {
         this.tx = tx;
     }
 
     @Override
     public void filter(CoordinateSequence cs, int i) {
-        ProjCoordinate p = new ProjCoordinate(cs.getX(i), cs.getY(i));
+        p.x = cs.getX(i);
+        p.y = cs.getY(i);
         tx.transform(p, p);
 
         cs.setOrdinate(i, 0, p.x);
@@ -48,13 +62,88 @@ public class CoordinateTransformer implements CoordinateSequenceFilter, Coordina
 
     @Override
     public void filter(Coordinate coord) {
-        ProjCoordinate p = new ProjCoordinate(coord.x, coord.y);
+        p.x = coord.x;
+        p.y = coord.y;
         tx.transform(p, p);
 
         coord.x = p.x;
         coord.y = p.y;
     }
 
+    /**
+     * Transforms the coordinates of a geometry in place.
+     *
+     * @param g The geometry to transform.
+     *
+     * @return The original geometry.
+     */
+    public <T extends Geometry> T transform(T g) {
+        g.apply(new GeometryComponentFilter() {
+            @Override
+            public void filter(Geometry geom) {
+                if (geom instanceof LineString) {
+                    transform(((LineString) geom).getCoordinateSequence());
+                }
+                else if (geom instanceof Point) {
+                    transform(((Point) geom).getCoordinateSequence());
+                }
+            }
+        });
+        g.geometryChanged();
+        return g;
+    }
+
+    /**
+     * Transforms all coordinates of a sequence in place.
+     *
+     * @param cs The coordinate sequence.
+     */
+    public void transform(CoordinateSequence cs) {
+        int n = cs.size();
+        if (n == 0) {
+            return;
+        }
+
+        if (cs instanceof PackedCoordinateSequence.Double) {
+            PackedCoordinateSequence.Double packed = (PackedCoordinateSequence.Double) cs;
+            double[] coords = packed.getRawCoordinates();
+            transform(coords, 0, n, packed.getDimension());
+
+            // setting an ordinate clears the sequence's cached coordinate objects
+            packed.setOrdinate(0, 0, coords[0]);
+        }
+        else {
+            for (int i = 0; i < n; i++) {
+                filter(cs, i);
+            }
+        }
+    }
+
+    /**
+     * Transforms coordinates packed into an array in place.
+     *
+     * @param coords The packed coordinates, <tt>x</tt> and <tt>y</tt> being the first two
+     *   ordinates of each coordinate.
+     * @param offset Offset of the first coordinate in the array.
+     * @param n The number of coordinates to transform.
+     * @param dim The number of ordinates per coordinate.
+     */
+    public void transform(double[] coords, int offset, int n, int dim) {
+        if (tx instanceof WebMercatorTransform) {
+            ((WebMercatorTransform) tx).transform(coords, offset, n, dim, p);
+            return;
+        }
+
+        int end = offset + n * dim;
+        for (int i = offset; i < end; i += dim) {
+            p.x = coords[i];
+            p.y = coords[i+1];
+            tx.transform(p, p);
+            coords[i] = p.x;
+            coords[i+1] = p.y;
+        }
+    }
+
     @Override
     public boolean isDone() {
        return false;
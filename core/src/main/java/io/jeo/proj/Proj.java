@@ -25,6 +25,7 @@ import io.jeo.geom.Bounds;
 import io.jeo.geom.GeomBuilder;
 import io.jeo.proj.wkt.ProjWKTEncoder;
 import io.jeo.proj.wkt.ProjWKTParser;
+import io.jeo.util.Pair;
 import org.osgeo.proj4j.CRSFactory;
 import org.osgeo.proj4j.CoordinateReferenceSystem;
 import org.osgeo.proj4j.CoordinateTransform;
@@ -38,7 +39,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vividsolutions.jts.geom.Coordinate;
-import com.vividsolutions.jts.geom.CoordinateSequenceFilter;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.Point;
 
@@ -57,6 +57,17 @@ public class Proj {
     static CoordinateTransformFactory txFactory = new CoordinateTransformFactory();
     static GeomBuilder gBuilder = new GeomBuilder();
 
+    /**
+     * Maximum number of crs and transform objects cached, configurable with the
+     * <tt>jeo.proj.cache</tt> system property.
+     */
+    static final int CACHE_SIZE = Integer.getInteger("jeo.proj.cache", 256);
+
+    static final ProjCache<String,CoordinateReferenceSystem> crsCache = new ProjCache<>(CACHE_SIZE);
+
+    static final ProjCache<Pair<String,String>,CoordinateTransform> txCache =
+        new ProjCache<>(CACHE_SIZE);
+
     /** 
      * The canonical geographic coordinate reference system.
      */
@@ -80,7 +91,9 @@ public class Proj {
 
     /**
      * Looks up a crs object base on its identifier.  
-     *
+     * <p>
+     * Lookups are cached, see {@link #crsCache()}.
+     * </p>
      * @return The matching crs object, or <code>null</code> if none found.
      */
     public static CoordinateReferenceSystem crs(String s) {
@@ -88,6 +101,17 @@ public class Proj {
             return null;
         }
 
+        CoordinateReferenceSystem crs = crsCache.get(s);
+        if (crs == null) {
+            crs = lookup(s);
+            if (crs != null) {
+                crs = crsCache.put(s, crs);
+            }
+        }
+        return crs;
+    }
+
+    static CoordinateReferenceSystem lookup(String s) {
         if ("urn:ogc:def:crs:OGC:1.3:CRS84".equalsIgnoreCase(s)) {
             return EPSG_4326;
         }
@@ -328,8 +352,7 @@ public class Proj {
         }
 
         T h = inPlace ? g : (T) g.clone();
-        h.apply((CoordinateSequenceFilter) new CoordinateTransformer(tx));
-        return h;
+        return new CoordinateTransformer(tx).transform(h);
     }
 
     /**
@@ -390,6 +413,16 @@ public class Proj {
         return new Bounds(c1.x, c2.x, c1.y, c2.y);
     }
 
+    /**
+     * Returns the transform between two crs objects.
+     * <p>
+     * Transforms are cached by the parameters of the source and target crs, so equivalent crs
+     * objects share a transform, see {@link #transformCache()}. The returned transform is safe to
+     * share among threads.
+     * </p>
+     * @param from The source crs.
+     * @param to The target crs.
+     */
     public static CoordinateTransform transform(CoordinateReferenceSystem from, 
         CoordinateReferenceSystem to) {
 
@@ -397,6 +430,38 @@ public class Proj {
             return new IdentityCoordinateTransform();
         }
 
+        Pair<String,String> key = Pair.of(key(from), key(to));
+        CoordinateTransform tx = txCache.get(key);
+        if (tx == null) {
+            tx = new SharedCoordinateTransform(createTransform(from, to));
+            if (WebMercatorTransform.supports(from, to)) {
+                tx = new WebMercatorTransform(from, to, tx);
+            }
+            tx = txCache.put(key, tx);
+        }
+        return tx;
+    }
+
+    /**
+     * Canonical key of a crs for the transform cache.
+     * <p>
+     * Crs objects don't implement equals, so equivalent crs objects, such as those parsed from the
+     * same WKT twice, are keyed by their projection parameters, or by their EPSG code or WKT when
+     * they have no parameters.
+     * </p>
+     */
+    static String key(CoordinateReferenceSystem crs) {
+        String[] params = crs.getParameters();
+        if (params != null && params.length > 0) {
+            return crs.getParameterString();
+        }
+
+        Integer epsg = epsgCode(crs);
+        return epsg != null ? "EPSG:" + epsg : toWKT(crs, false);
+    }
+
+    static CoordinateTransform createTransform(CoordinateReferenceSystem from,
+        CoordinateReferenceSystem to) {
         CoordinateTransform tx = txFactory.createTransform(from, to);
         if (tx == null) {
             throw new IllegalArgumentException("Unable to find transform from " + from + " to " + to);
@@ -404,6 +469,60 @@ public class Proj {
         return tx;
     }
 
+    /**
+     * Cache of crs objects looked up by {@link #crs(String)} and {@link #crs(int)}.
+     */
+    public static ProjCache<String,CoordinateReferenceSystem> crsCache() {
+        return crsCache;
+    }
+
+    /**
+     * Cache of transform objects created by {@link #transform(CoordinateReferenceSystem, CoordinateReferenceSystem)}.
+     */
+    public static ProjCache<Pair<String,String>,CoordinateTransform> transformCache() {
+        return txCache;
+    }
+
+    /**
+     * Transform that can be shared among threads.
+     * <p>
+     * Proj4j transforms keep intermediate state so each thread is given its own instance.
+     * </p>
+     */
+    static class SharedCoordinateTransform implements CoordinateTransform {
+
+        final CoordinateReferenceSystem from;
+        final CoordinateReferenceSystem to;
+        final ThreadLocal<CoordinateTransform> tx;
+
+        SharedCoordinateTransform(CoordinateTransform first) {
+            this.from = first.getSourceCRS();
+            this.to = first.getTargetCRS();
+            this.tx = new ThreadLocal<CoordinateTransform>() {
+                @Override
+                protected CoordinateTransform initialValue() {
+                    return createTransform(from, to);
+                }
+            };
+            tx.set(first);
+        }
+
+        @Override
+        public CoordinateReferenceSystem getSourceCRS() {
+            return from;
+        }
+
+        @Override
+        public CoordinateReferenceSystem getTargetCRS() {
+            return to;
+        }
+
+        @Override
+        public ProjCoordinate transform(ProjCoordinate src, ProjCoordinate tgt) throws Proj4jException {
+            return tx.get().transform(src, tgt);
+        }
+    }
+
     private static class IdentityCoordinateTransform implements CoordinateTransform {
 
         @Override
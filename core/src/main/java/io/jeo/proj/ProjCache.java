@@ -0,0 +1,119 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.proj;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread safe cache used by {@link Proj} for crs and transform objects.
+ * <p>
+ * Once the cache is full an arbitrary entry is evicted for every new entry. The cache keeps
+ * counts of hits and misses.
+ * </p>
+ *
+ * @see Proj#crsCache()
+ * @see Proj#transformCache()
+ */
+public class ProjCache<K,V> {
+
+    final int maxSize;
+    final ConcurrentMap<K,V> map;
+
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+
+    ProjCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.map = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the cached value for the key, or <code>null</code> if no such value exists.
+     */
+    V get(K key) {
+        V val = map.get(key);
+        (val != null ? hits : misses).incrementAndGet();
+        return val;
+    }
+
+    /**
+     * Adds a value to the cache.
+     *
+     * @return The cached value, which is the value of a concurrent put if one occurred.
+     */
+    V put(K key, V val) {
+        if (maxSize < 1) {
+            return val;
+        }
+
+        if (map.size() >= maxSize) {
+            Iterator<K> it = map.keySet().iterator();
+            if (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+
+        V prev = map.putIfAbsent(key, val);
+        return prev != null ? prev : val;
+    }
+
+    /**
+     * The maximum number of entries held by the cache.
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * The number of entries in the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * The number of lookups that were satisfied by the cache.
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * The number of lookups that were not satisfied by the cache.
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Removes all entries from the cache and resets the hit and miss counts.
+     */
+    public void clear() {
+        map.clear();
+        hits.set(0);
+        misses.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "size=%d/%d, hits=%d, misses=%d", size(), maxSize, hits(),
+            misses());
+    }
+}
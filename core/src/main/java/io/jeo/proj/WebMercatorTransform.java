@@ -0,0 +1,143 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.proj;
+
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+import org.osgeo.proj4j.CoordinateTransform;
+import org.osgeo.proj4j.Proj4jException;
+import org.osgeo.proj4j.ProjCoordinate;
+
+/**
+ * Closed form transform between geographic WGS84 (EPSG:4326) and spherical web mercator
+ * (EPSG:3857, EPSG:900913).
+ * <p>
+ * The math is the same as that of the Proj4j mercator projection, minus the general machinery.
+ * Coordinates outside of the valid range of the projection are handed to the regular Proj4j
+ * transform so results are identical in all cases.
+ * </p>
+ */
+class WebMercatorTransform implements CoordinateTransform {
+
+    static final double R = 6378137.0;
+    static final double DTR = Math.PI / 180.0;
+    static final double RTD = 180.0 / Math.PI;
+    static final double QUARTERPI = Math.PI / 4.0;
+    static final double HALFPI = Math.PI / 2.0;
+    static final double MAX_X = Math.PI * R;
+
+    /**
+     * Determines if the transform applies between two crs objects.
+     */
+    static boolean supports(CoordinateReferenceSystem from, CoordinateReferenceSystem to) {
+        Integer src = Proj.epsgCode(from);
+        Integer dst = Proj.epsgCode(to);
+        if (src == null || dst == null) {
+            return false;
+        }
+        return (src == 4326 && isWebMercator(dst)) || (dst == 4326 && isWebMercator(src));
+    }
+
+    static boolean isWebMercator(int srid) {
+        return srid == 3857 || srid == 900913;
+    }
+
+    final CoordinateReferenceSystem from;
+    final CoordinateReferenceSystem to;
+    final boolean inverse;
+    final CoordinateTransform fallback;
+
+    WebMercatorTransform(CoordinateReferenceSystem from, CoordinateReferenceSystem to,
+        CoordinateTransform fallback) {
+        this.from = from;
+        this.to = to;
+        this.inverse = Proj.epsgCode(from) != 4326;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public CoordinateReferenceSystem getSourceCRS() {
+        return from;
+    }
+
+    @Override
+    public CoordinateReferenceSystem getTargetCRS() {
+        return to;
+    }
+
+    @Override
+    public ProjCoordinate transform(ProjCoordinate src, ProjCoordinate tgt) throws Proj4jException {
+        double x = src.x;
+        double y = src.y;
+        if (inverse) {
+            if (Math.abs(x) > MAX_X) {
+                return fallback.transform(src, tgt);
+            }
+            tgt.x = RTD * (x / R);
+            tgt.y = RTD * (HALFPI - 2.0 * Math.atan(Math.exp(-y / R)));
+        }
+        else {
+            if (Math.abs(x) > 180 || Math.abs(y) >= 90) {
+                return fallback.transform(src, tgt);
+            }
+            tgt.x = R * (x * DTR);
+            tgt.y = R * Math.log(Math.tan(QUARTERPI + 0.5 * (y * DTR)));
+        }
+        return tgt;
+    }
+
+    /**
+     * Transforms packed coordinates in place.
+     *
+     * @param coords The packed coordinate array.
+     * @param offset Offset of the first coordinate in the array.
+     * @param n Number of coordinates to transform.
+     * @param dim Number of ordinates per coordinate.
+     * @param scratch Coordinate used for values handed to the fallback transform.
+     */
+    void transform(double[] coords, int offset, int n, int dim, ProjCoordinate scratch) {
+        int end = offset + n * dim;
+        if (inverse) {
+            for (int i = offset; i < end; i += dim) {
+                double x = coords[i];
+                if (Math.abs(x) > MAX_X) {
+                    fallback(coords, i, scratch);
+                    continue;
+                }
+                coords[i] = RTD * (x / R);
+                coords[i+1] = RTD * (HALFPI - 2.0 * Math.atan(Math.exp(-coords[i+1] / R)));
+            }
+        }
+        else {
+            for (int i = offset; i < end; i += dim) {
+                double x = coords[i];
+                double y = coords[i+1];
+                if (Math.abs(x) > 180 || Math.abs(y) >= 90) {
+                    fallback(coords, i, scratch);
+                    continue;
+                }
+                coords[i] = R * (x * DTR);
+                coords[i+1] = R * Math.log(Math.tan(QUARTERPI + 0.5 * (y * DTR)));
+            }
+        }
+    }
+
+    void fallback(double[] coords, int i, ProjCoordinate p) {
+        p.x = coords[i];
+        p.y = coords[i+1];
+        fallback.transform(p, p);
+        coords[i] = p.x;
+        coords[i+1] = p.y;
+    }
+}
@@ -0,0 +1,151 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.vector;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Cursor that parses the chunks of a file in parallel and returns their features in chunk order.
+ * <p>
+ * Chunks are parsed as tasks on a shared fork join pool of {@link #THREADS} threads, ahead of
+ * the cursor, keeping up to twice as many chunks in flight as there are threads. Subclasses
+ * supply the chunks with {@link #chunk()} and parse them with {@link #parse(Object)}.
+ * </p>
+ *
+ * @param <T> The chunk type.
+ */
+public abstract class ChunkCursor<T> extends FeatureCursor {
+
+    /**
+     * Number of threads of the shared pool, configured with the <tt>jeo.chunk.threads</tt>
+     * system property.
+     */
+    public static final int THREADS =
+        Integer.getInteger("jeo.chunk.threads", Runtime.getRuntime().availableProcessors());
+
+    static volatile ForkJoinPool POOL;
+
+    /**
+     * The pool shared by all chunked reads.
+     */
+    public static ForkJoinPool pool() {
+        if (POOL == null) {
+            synchronized (ChunkCursor.class) {
+                if (POOL == null) {
+                    POOL = new ForkJoinPool(THREADS);
+                }
+            }
+        }
+        return POOL;
+    }
+
+    /**
+     * Waits for a task of the pool, unwrapping the exception it failed with.
+     */
+    public static <V> V get(Future<V> f) throws IOException {
+        try {
+            return f.get();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        catch(ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            }
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            throw new IOException(t);
+        }
+    }
+
+    boolean done;
+    Deque<Future<List<Feature>>> pending = new ArrayDeque<>();
+    Iterator<Feature> it = Collections.emptyIterator();
+
+    /**
+     * Returns the next chunk, or <code>null</code> when there are no more.
+     * <p>
+     * Called from the thread of the cursor.
+     * </p>
+     */
+    protected abstract T chunk() throws IOException;
+
+    /**
+     * Parses the features of a chunk.
+     * <p>
+     * Called concurrently from the threads of the pool.
+     * </p>
+     */
+    protected abstract List<Feature> parse(T chunk) throws IOException;
+
+    @Override
+    public boolean hasNext() throws IOException {
+        while (!it.hasNext()) {
+            fill();
+            if (pending.isEmpty()) {
+                return false;
+            }
+            it = get(pending.poll()).iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        return hasNext() ? it.next() : null;
+    }
+
+    void fill() throws IOException {
+        while (!done && pending.size() < 2 * THREADS) {
+            final T chunk = chunk();
+            if (chunk == null) {
+                done = true;
+                break;
+            }
+
+            pending.add(pool().submit(new Callable<List<Feature>>() {
+                @Override
+                public List<Feature> call() throws Exception {
+                    return parse(chunk);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Cancels the chunks still in flight, subclasses releasing the file must call through.
+     */
+    @Override
+    public void close() throws IOException {
+        done = true;
+        for (Future<?> f : pending) {
+            f.cancel(false);
+        }
+        pending.clear();
+    }
+}
@@ -28,8 +28,27 @@ public class DiffFeature extends FeatureWrapper {
 
     Map<String,Object> changed;
 
+    /** schema resolving attribute positions, may be null */
+    Schema schema;
+
+    /**
+     * Creates the wrapper, resolving attribute positions through the schema of the feature if it
+     * is a {@link ListFeature}.
+     */
     public DiffFeature(Feature feature) {
+        this(feature, feature instanceof ListFeature ? ((ListFeature) feature).schema() : null);
+    }
+
+    /**
+     * Creates the wrapper, resolving attribute positions through the specified schema.
+     *
+     * @param feature The feature to track changes of.
+     * @param schema The schema giving the positions of the feature attributes, <code>null</code>
+     *   if the feature has no schema.
+     */
+    public DiffFeature(Feature feature, Schema schema) {
         super(feature);
+        this.schema = schema;
         changed = new HashMap<>();
     }
 
@@ -58,11 +77,32 @@ public class DiffFeature extends FeatureWrapper {
         return delegate.get(key);
     }
 
+    @Override
+    public Object get(int index) {
+        if (changed.isEmpty()) {
+            return delegate.get(index);
+        }
+
+        return get(key(index));
+    }
+
     public Feature put(String key, Object val) {
         changed.put(key, val);
         return this;
     }
 
+    @Override
+    public Feature put(int index, Object val) {
+        return put(key(index), val);
+    }
+
+    String key(int index) {
+        if (schema == null) {
+            throw new UnsupportedOperationException("Positional access requires a schema");
+        }
+        return schema.fields().get(index).name();
+    }
+
     @Override
     public Feature put(Geometry g) {
         for (Map.Entry<String,Object> e : delegate.map().entrySet()) {
@@ -52,6 +52,23 @@ public interface Feature {
      */
     Object get(String key);
 
+    /**
+     * Gets an attribute of the feature by position.
+     * <p>
+     * The position of an attribute is the index of its field in the feature schema. For features
+     * backed by a schema this method is the cheaper alternative to {@link #get(String)}, intended
+     * for code that accesses many features of the same schema. Features without a schema, such as
+     * {@link MapFeature}, have no meaningful attribute order and do not support this method.
+     * </p>
+     * @param index The position of the attribute.
+     *
+     * @return The attribute value or <code>null</code>.
+     *
+     * @throws IndexOutOfBoundsException If no attribute exists at the position.
+     * @throws UnsupportedOperationException If the feature is not backed by a schema.
+     */
+    Object get(int index);
+
     /**
      * Geometry of the feature.
      *
@@ -69,6 +86,19 @@ public interface Feature {
      */
     Feature put(String key, Object val);
 
+    /**
+     * Sets an attribute of the feature by position.
+     *
+     * @param index The position of the attribute, see {@link #get(int)}.
+     * @param val The new value of the attribute.
+     *
+     * @return This object.
+     *
+     * @throws IndexOutOfBoundsException If no attribute exists at the position.
+     * @throws UnsupportedOperationException If the feature is not backed by a schema.
+     */
+    Feature put(int index, Object val);
+
     /**
      * Sets the geometry of the feature.
      *
@@ -4,8 +4,10 @@ import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.prep.PreparedGeometry;
 import io.jeo.data.Cursor;
+import io.jeo.data.Sort;
 import io.jeo.geom.Bounds;
 import io.jeo.geom.Geom;
+import io.jeo.geom.Simplify;
 import io.jeo.proj.Proj;
 import io.jeo.util.Function;
 import io.jeo.util.Predicate;
@@ -14,7 +16,6 @@ import org.osgeo.proj4j.CoordinateTransform;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -105,48 +106,101 @@ public abstract class FeatureCursor extends Cursor<Feature> {
         }
     }
 
-    private static class ReprojectCursor<T extends Feature> extends FeatureCursorWrapper {
+    private static class ReprojectCursor extends FeatureCursorWrapper {
 
-        Map<String, CoordinateTransform> transforms;
         CoordinateReferenceSystem target;
 
+        /** source crs and transform of the last feature, transforms themselves come from the shared cache */
+        CoordinateReferenceSystem last;
+        CoordinateTransform tx;
+
         ReprojectCursor(Cursor<Feature> delegate, CoordinateReferenceSystem target) {
             super(delegate);
-
             this.target = Objects.requireNonNull(target, "target crs must not be null");
-            transforms = new HashMap<>();
         }
 
         @Override
         public Feature next() throws IOException {
-            return new ReprojectFeature(super.next(), target, transforms);
+            return new ReprojectFeature(super.next(), this);
+        }
+
+        synchronized CoordinateTransform transform(CoordinateReferenceSystem crs) {
+            if (!crs.equals(last)) {
+                tx = Proj.transform(crs, target);
+                last = crs;
+            }
+            return tx;
         }
     }
 
     private static class ReprojectFeature extends GeometryTransformFeature {
 
-        CoordinateReferenceSystem target;
-        Map<String,CoordinateTransform> transforms;
+        ReprojectCursor cursor;
 
-        public ReprojectFeature(Feature delegate, CoordinateReferenceSystem target, Map<String,CoordinateTransform> transforms) {
+        ReprojectFeature(Feature delegate, ReprojectCursor cursor) {
             super(delegate);
-            this.target = target;
-            this.transforms = transforms;
+            this.cursor = cursor;
         }
 
         @Override
         protected Geometry wrap(Geometry g) {
             CoordinateReferenceSystem crs = Proj.crs(g);
-            if (crs != null) {
-                CoordinateTransform tx = transforms.get(crs.getName());
-                if (tx == null) {
-                    tx = Proj.transform(crs, target);
-                    transforms.put(crs.getName(), tx);
-                }
+            return crs != null ? Proj.transform(g, cursor.transform(crs)) : g;
+        }
+    }
+
+    /**
+     * Simplifies the geometries of features in the cursor.
+     *
+     * @param tolerance The simplification tolerance, in units of the feature geometries.
+     * @param method The simplification algorithm.
+     *
+     * @return The wrapped cursor.
+     */
+    public FeatureCursor simplify(double tolerance, Simplify method) {
+        return new SimplifyCursor(this, tolerance, method);
+    }
+
+    private static class SimplifyCursor extends FeatureCursorWrapper {
+
+        double tolerance;
+        Simplify method;
+
+        SimplifyCursor(Cursor<Feature> delegate, double tolerance, Simplify method) {
+            super(delegate);
+            this.tolerance = tolerance;
+            this.method = Objects.requireNonNull(method, "simplification method must not be null");
+        }
+
+        @Override
+        public Feature next() throws IOException {
+            Feature f = super.next();
+            return f != null ? new SimplifyFeature(f, tolerance, method) : null;
+        }
+    }
 
-                g = Proj.transform(g, tx);
+    private static class SimplifyFeature extends GeometryTransformFeature {
+
+        double tolerance;
+        Simplify method;
+
+        /** last geometry simplified, geometries are accessed repeatedly */
+        Geometry last;
+        Geometry simple;
+
+        SimplifyFeature(Feature delegate, double tolerance, Simplify method) {
+            super(delegate);
+            this.tolerance = tolerance;
+            this.method = method;
+        }
+
+        @Override
+        protected Geometry wrap(Geometry g) {
+            if (g != last) {
+                simple = method.apply(g, tolerance);
+                last = g;
             }
-            return g;
+            return simple;
         }
     }
 
@@ -271,6 +325,50 @@ public abstract class FeatureCursor extends Cursor<Feature> {
         }
     }
 
+    /**
+     * Sorts the features of the cursor.
+     * <p>
+     * Features up to an estimated size in bytes, configurable with the <tt>jeo.sort.buffer</tt>
+     * system property, are sorted in memory. Beyond that sorted runs of features are spilled to
+     * temporary files and merged.
+     * </p>
+     * @param sort The sort criteria.
+     *
+     * @return The sorted cursor.
+     */
+    public FeatureCursor sort(List<Sort> sort) {
+        return sort(sort, SortCursor.BUFFER_SIZE);
+    }
+
+    /**
+     * Sorts the features of the cursor, specifying the estimated size of the features to sort in
+     * memory.
+     *
+     * @param sort The sort criteria.
+     * @param bufferSize The estimated size in bytes of the features to sort in memory before
+     *                   spilling to disk.
+     *
+     * @return The sorted cursor.
+     */
+    public FeatureCursor sort(List<Sort> sort, long bufferSize) {
+        return new SortCursor(this, Features.comparator(sort), bufferSize);
+    }
+
+    /**
+     * Returns a cursor containing the first <tt>n</tt> features of the cursor in sorted order.
+     * <p>
+     * Unlike {@link #sort(List)} the cursor is consumed in a single pass and only <tt>n</tt>
+     * features are held in memory at any one time.
+     * </p>
+     * @param sort The sort criteria.
+     * @param n The number of features to return.
+     *
+     * @return The sorted cursor.
+     */
+    public FeatureCursor top(List<Sort> sort, int n) {
+        return new TopCursor(this, Features.comparator(sort), n);
+    }
+
     @Override
     public FeatureCursor filter(Predicate<Feature> filter) {
         return wrap(super.filter(filter));
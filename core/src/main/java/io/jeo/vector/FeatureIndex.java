@@ -0,0 +1,262 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.vector;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import io.jeo.geom.Bounds;
+import io.jeo.geom.PackedRTree;
+
+/**
+ * Sidecar index of a file whose features are stored one after the other.
+ * <p>
+ * The index records the byte offset and length of every feature in the file, and indexes
+ * feature envelopes with a {@link PackedRTree}. Features can then be read individually, in any
+ * order, with a {@link Cursor} that subclasses implement to parse the bytes of a feature.
+ * </p>
+ */
+public abstract class FeatureIndex extends SidecarIndex {
+
+    /**
+     * Collects the offsets, lengths, and envelopes of features while scanning a file.
+     */
+    public static class Builder {
+
+        long[] offsets = new long[1024];
+        int[] lengths = new int[1024];
+        int count;
+
+        PackedRTree.Builder tree = PackedRTree.build(1024);
+        int[] items = new int[1024];
+
+        /**
+         * Adds the next feature of the file.
+         *
+         * @param offset Byte offset of the feature.
+         * @param length Length in bytes of the feature.
+         * @param g The feature geometry, may be <code>null</code>.
+         */
+        public void add(long offset, int length, Geometry g) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            offsets[count] = offset;
+            lengths[count] = length;
+
+            if (g != null && !g.isEmpty()) {
+                if (tree.size() == items.length) {
+                    items = Arrays.copyOf(items, items.length * 2);
+                }
+                items[tree.size()] = count;
+                tree.add(g.getEnvelopeInternal());
+            }
+            count++;
+        }
+    }
+
+    /** byte offsets and lengths of features */
+    final long[] offsets;
+    final int[] lengths;
+
+    /** feature number of each item of the tree */
+    final int[] items;
+    final PackedRTree tree;
+
+    /**
+     * Creates the index from a builder.
+     */
+    protected FeatureIndex(Header header, Builder b) {
+        super(header);
+        offsets = Arrays.copyOf(b.offsets, b.count);
+        lengths = Arrays.copyOf(b.lengths, b.count);
+        items = Arrays.copyOf(b.items, b.tree.size());
+        tree = b.tree.finish();
+    }
+
+    /**
+     * Reads the index data written by {@link #write(DataOutputStream)}.
+     */
+    protected FeatureIndex(Header header, DataInputStream in) throws IOException {
+        super(header);
+        offsets = new long[in.readInt()];
+        lengths = new int[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = in.readLong();
+            lengths[i] = in.readInt();
+        }
+
+        items = new int[in.readInt()];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = in.readInt();
+        }
+        tree = PackedRTree.read(in);
+    }
+
+    @Override
+    protected void write(DataOutputStream out) throws IOException {
+        out.writeInt(offsets.length);
+        for (int i = 0; i < offsets.length; i++) {
+            out.writeLong(offsets[i]);
+            out.writeInt(lengths[i]);
+        }
+
+        out.writeInt(items.length);
+        for (int i : items) {
+            out.writeInt(i);
+        }
+
+        tree.write(out);
+    }
+
+    /**
+     * The number of features in the file.
+     */
+    public int count() {
+        return offsets.length;
+    }
+
+    /**
+     * The bounds of all features in the file.
+     */
+    public Bounds bounds() {
+        Bounds b = new Bounds(tree.bounds());
+        if (tree.size() == 0) {
+            b.setToNull();
+        }
+        return b;
+    }
+
+    /**
+     * Returns the numbers of the features whose envelope intersects the specified bounds, in
+     * file order.
+     */
+    public int[] query(Envelope bbox) {
+        int[] hits = new int[16];
+        int n = 0;
+
+        PackedRTree.Hits it = tree.query(bbox);
+        while (it.hasNext()) {
+            if (n == hits.length) {
+                hits = Arrays.copyOf(hits, n * 2);
+            }
+            hits[n++] = items[it.next()];
+        }
+
+        hits = Arrays.copyOf(hits, n);
+        Arrays.sort(hits);
+        return hits;
+    }
+
+    /**
+     * Returns the numbers of features in a range.
+     *
+     * @param from The first feature, inclusive.
+     * @param to The last feature, exclusive.
+     */
+    public int[] range(int from, int to) {
+        int[] features = new int[to - from];
+        for (int i = 0; i < features.length; i++) {
+            features[i] = from + i;
+        }
+        return features;
+    }
+
+    /**
+     * Reads specific features of the data file.
+     *
+     * @param data The data file.
+     * @param features The numbers of the features to read.
+     */
+    public FeatureCursor read(File data, int[] features) throws IOException {
+        return cursor(FileChannel.open(data.toPath(), StandardOpenOption.READ), features);
+    }
+
+    /**
+     * Creates the cursor reading features of the data file.
+     */
+    protected abstract Cursor cursor(FileChannel file, int[] features);
+
+    /**
+     * Cursor that reads features at specific offsets of the data file.
+     */
+    protected abstract class Cursor extends FeatureCursor {
+
+        FileChannel file;
+        int[] features;
+        int i;
+
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+
+        protected Cursor(FileChannel file, int[] features) {
+            this.file = file;
+            this.features = features;
+        }
+
+        /**
+         * Parses a single feature.
+         *
+         * @param buf The bytes of the feature.
+         * @param len The length of the feature.
+         * @param fid The feature number.
+         */
+        protected abstract Feature parse(byte[] buf, int len, int fid) throws IOException;
+
+        @Override
+        public boolean hasNext() throws IOException {
+            return i < features.length;
+        }
+
+        @Override
+        public Feature next() throws IOException {
+            if (i >= features.length) {
+                return null;
+            }
+
+            int fid = features[i++];
+            int len = lengths[fid];
+            if (buf.capacity() < len) {
+                buf = ByteBuffer.allocate(Math.max(len, buf.capacity() * 2));
+            }
+
+            buf.clear().limit(len);
+            long pos = offsets[fid];
+            while (buf.hasRemaining()) {
+                if (file.read(buf, pos + buf.position()) < 0) {
+                    throw new IOException("Unexpected end of file reading feature " + fid);
+                }
+            }
+
+            return parse(buf.array(), len, fid);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (file != null) {
+                file.close();
+                file = null;
+            }
+        }
+    }
+}
@@ -50,6 +50,11 @@ public class FeatureWrapper<T extends Feature> implements Feature {
         return delegate.get(key);
     }
 
+    @Override
+    public Object get(int index) {
+        return delegate.get(index);
+    }
+
     @Override
     public Geometry geometry() {
         return delegate.geometry();
@@ -66,6 +71,12 @@ public class FeatureWrapper<T extends Feature> implements Feature {
         return this;
     }
 
+    @Override
+    public Feature put(int index, Object val) {
+        delegate.put(index, val);
+        return this;
+    }
+
     @Override
     public Feature put(Geometry g) {
         delegate.put(g);
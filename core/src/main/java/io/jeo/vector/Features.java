@@ -16,12 +16,15 @@ package io.jeo.vector;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+import io.jeo.data.Sort;
 import io.jeo.geom.Geom;
 import io.jeo.proj.Proj;
+import io.jeo.util.Convert;
 import io.jeo.util.Function;
 import io.jeo.util.Optional;
 import io.jeo.util.Util;
@@ -314,4 +317,73 @@ public class Features {
         }
         return sb.append("}").toString();
     }
+
+    /**
+     * Returns a comparator that orders features based on a list of sort criteria.
+     * <p>
+     * Values are compared with their natural ordering, converting between types when the values of
+     * two features differ in type. Null values are ordered after non-null values when sorting in
+     * ascending order, and before when sorting in descending order.
+     * </p>
+     * @param sort The sort criteria.
+     */
+    public static Comparator<Feature> comparator(List<Sort> sort) {
+        return new SortComparator(sort);
+    }
+
+    static class SortComparator implements Comparator<Feature> {
+
+        String[] props;
+        boolean[] asc;
+
+        SortComparator(List<Sort> sort) {
+            props = new String[sort.size()];
+            asc = new boolean[sort.size()];
+            for (int i = 0; i < props.length; i++) {
+                props[i] = sort.get(i).getProperty();
+                asc[i] = sort.get(i).isAscending();
+            }
+        }
+
+        @Override
+        public int compare(Feature f1, Feature f2) {
+            for (int i = 0; i < props.length; i++) {
+                int c = compareValues(f1.get(props[i]), f2.get(props[i]));
+                if (c != 0) {
+                    return asc[i] ? c : -c;
+                }
+            }
+            return 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        int compareValues(Object o1, Object o2) {
+            if (o1 == o2) {
+                return 0;
+            }
+            if (o1 == null) {
+                return 1;
+            }
+            if (o2 == null) {
+                return -1;
+            }
+
+            if (o1.getClass() != o2.getClass()) {
+                if (o1 instanceof Number && o2 instanceof Number) {
+                    return Double.compare(((Number) o1).doubleValue(), ((Number) o2).doubleValue());
+                }
+
+                Optional<?> converted = Convert.to(o2, o1.getClass());
+                if (!converted.isPresent()) {
+                    return o1.toString().compareTo(o2.toString());
+                }
+                o2 = converted.get();
+            }
+
+            if (o1 instanceof Comparable) {
+                return ((Comparable<Object>) o1).compareTo(o2);
+            }
+            return o1.toString().compareTo(o2.toString());
+        }
+    }
 }
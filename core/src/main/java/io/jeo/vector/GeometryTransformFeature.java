@@ -42,6 +42,12 @@ public class GeometryTransformFeature extends FeatureWrapper {
         return obj instanceof Geometry ? wrap((Geometry)obj) : obj;
     }
 
+    @Override
+    public Object get(int index) {
+        Object obj = super.get(index);
+        return obj instanceof Geometry ? wrap((Geometry)obj) : obj;
+    }
+
     @Override
     public Map<String, Object> map() {
         Map<String,Object> map = new HashMap<String,Object>(super.map());
@@ -85,6 +85,13 @@ public class ListFeature implements Feature {
         return id;
     }
 
+    /**
+     * The schema providing the name mappings for the feature values.
+     */
+    public Schema schema() {
+        return schema;
+    }
+
     @Override
     public boolean has(String key) {
         return schema.field(key) != null;
@@ -96,6 +103,11 @@ public class ListFeature implements Feature {
         return i > -1 ? list.get(i) : null;
     }
 
+    @Override
+    public Object get(int index) {
+        return list.get(index);
+    }
+
     @Override
     public Geometry geometry() {
         Field geo = schema.geometry();
@@ -121,6 +133,12 @@ public class ListFeature implements Feature {
         return this;
     }
 
+    @Override
+    public Feature put(int index, Object val) {
+        list.set(index, val);
+        return this;
+    }
+
     @Override
     public Feature put(Geometry g) {
         Field geo = schema.geometry();
@@ -21,6 +21,10 @@ import java.util.Map;
 
 /**
  * Implementation of Feature based on a map of values.
+ * <p>
+ * The feature has no schema, so positional access with {@link #get(int)} and
+ * {@link #put(int, Object)} is not supported.
+ * </p>
  */
 public class MapFeature implements Feature {
 
@@ -55,6 +59,11 @@ public class MapFeature implements Feature {
         return map.get(key);
     }
 
+    @Override
+    public Object get(int index) {
+        throw new UnsupportedOperationException("Positional access requires a schema");
+    }
+
     @Override
     public Geometry geometry() {
         for (Object val : map.values()) {
@@ -71,6 +80,11 @@ public class MapFeature implements Feature {
         return this;
     }
 
+    @Override
+    public Feature put(int index, Object val) {
+        throw new UnsupportedOperationException("Positional access requires a schema");
+    }
+
     @Override
     public Feature put(Geometry g) {
         for (Map.Entry<String,Object> kv : map.entrySet()) {
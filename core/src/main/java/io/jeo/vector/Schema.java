@@ -14,9 +14,12 @@
  */
 package io.jeo.vector;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.osgeo.proj4j.CoordinateReferenceSystem;
 
@@ -42,6 +45,9 @@ public class Schema implements Iterable<Field> {
     /** list of fields */
     List<Field> fields;
 
+    /** index of field name to position */
+    Map<String,Integer> index;
+
     /**
      * Returns a new schema builder.
      * 
@@ -71,7 +77,8 @@ public class Schema implements Iterable<Field> {
     public Schema(String name, String uri, List<Field> fields) {
         this.name = name;
         this.uri = uri;
-        this.fields = Collections.unmodifiableList(fields);
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        this.index = index(this.fields);
     }
 
     /**
@@ -86,7 +93,17 @@ public class Schema implements Iterable<Field> {
         this.name = name;
         this.uri = uri;
         this.crs = crs;
-        this.fields = Collections.unmodifiableList(fields);
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        this.index = index(this.fields);
+    }
+
+    static Map<String,Integer> index(List<Field> fields) {
+        Map<String,Integer> index = new HashMap<>(fields.size() * 2);
+        for (int i = fields.size() - 1; i > -1; i--) {
+            // iterate backwards so the first of any duplicate names wins
+            index.put(fields.get(i).name(), i);
+        }
+        return index;
     }
 
     /**
@@ -168,14 +185,8 @@ public class Schema implements Iterable<Field> {
      * @return The index position, or <code>-1</code>
      */
     public int indexOf(String name) {
-        //TODO: potentially add an index of name to field
-        for (int i = 0; i < fields.size(); i++) {
-            Field f = fields.get(i);
-            if (f.name().equals(name)) {
-                return i;
-            }
-        }
-        return -1;
+        Integer i = index.get(name);
+        return i != null ? i : -1;
     }
 
     /**
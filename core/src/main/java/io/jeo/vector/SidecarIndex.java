@@ -0,0 +1,241 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.vector;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import io.jeo.proj.Proj;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of a data file stored next to it, in a file with an <tt>.idx</tt> extension.
+ * <p>
+ * The index starts with a header made up of a magic number and version identifying the kind of
+ * index, the size and modification time of the data file, and the crs of its features. The index
+ * is considered stale as soon as the size or modification time of the data file changes.
+ * Subclasses write their own data after the header with {@link #write(DataOutputStream)}, and
+ * read it back with {@link Format#read(Header, DataInputStream)}.
+ * </p>
+ */
+public abstract class SidecarIndex {
+
+    static final Logger LOG = LoggerFactory.getLogger(SidecarIndex.class);
+
+    /**
+     * The index file for a data file.
+     */
+    public static File file(File data) {
+        return new File(data.getPath() + ".idx");
+    }
+
+    /**
+     * A kind of sidecar index, building, reading, and validating indexes of some source.
+     *
+     * @param <S> The source of the data file, such as the dataset being indexed.
+     * @param <T> The index type.
+     */
+    public static abstract class Format<S, T extends SidecarIndex> {
+
+        final String name;
+        final int magic;
+        final int version;
+
+        /**
+         * Creates the format.
+         *
+         * @param name Name of the format, used in error messages.
+         * @param magic Magic number of index files.
+         * @param version Version of index files, to be bumped when their layout changes.
+         */
+        protected Format(String name, int magic, int version) {
+            this.name = name;
+            this.magic = magic;
+            this.version = version;
+        }
+
+        /**
+         * Creates the header of a new index, capturing the current size and modification time of
+         * the data file.
+         */
+        public Header header(File data, CoordinateReferenceSystem crs) {
+            return header(data.length(), data.lastModified(), crs);
+        }
+
+        /**
+         * Creates the header of a new index from the size and modification time of the data file
+         * taken before scanning it.
+         */
+        public Header header(long size, long modified, CoordinateReferenceSystem crs) {
+            return new Header(this, size, modified, crs);
+        }
+
+        /**
+         * The data file of a source.
+         */
+        protected abstract File data(S source);
+
+        /**
+         * Builds the index by scanning the data file of a source.
+         */
+        protected abstract T build(S source) throws IOException;
+
+        /**
+         * Reads the data of a saved index following its header.
+         */
+        protected abstract T read(Header header, DataInputStream in) throws IOException;
+
+        /**
+         * Determines if an index is up to date with a source.
+         */
+        protected boolean isValid(T index, S source) {
+            return index.isValid(data(source));
+        }
+
+        /**
+         * Opens the index of a source, building and saving it if it does not exist or is stale.
+         */
+        public T open(S source) throws IOException {
+            File file = file(data(source));
+            if (file.exists()) {
+                try {
+                    T idx = read(file);
+                    if (isValid(idx, source)) {
+                        return idx;
+                    }
+                }
+                catch(IOException e) {
+                    LOG.debug("Error reading index " + file.getPath(), e);
+                }
+            }
+
+            T idx = build(source);
+            try {
+                idx.write(file);
+            }
+            catch(IOException e) {
+                LOG.debug("Unable to write index " + file.getPath(), e);
+            }
+            return idx;
+        }
+
+        /**
+         * Reads a saved index.
+         */
+        public T read(File file) throws IOException {
+            try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 65536))) {
+                if (in.readInt() != magic || in.readInt() != version) {
+                    throw new IOException("Not a " + name + " index: " + file.getPath());
+                }
+
+                long size = in.readLong();
+                long modified = in.readLong();
+                String srs = in.readUTF();
+                CoordinateReferenceSystem crs = srs.isEmpty() ? null : srs.startsWith("EPSG:")
+                    ? Proj.crs(srs) : Proj.fromWKT(srs);
+
+                return read(new Header(this, size, modified, crs), in);
+            }
+        }
+    }
+
+    /**
+     * Header of an index.
+     */
+    public static class Header {
+
+        final Format<?,?> format;
+        final long size;
+        final long modified;
+        final CoordinateReferenceSystem crs;
+
+        Header(Format<?,?> format, long size, long modified, CoordinateReferenceSystem crs) {
+            this.format = format;
+            this.size = size;
+            this.modified = modified;
+            this.crs = crs;
+        }
+    }
+
+    final Header header;
+
+    protected SidecarIndex(Header header) {
+        this.header = header;
+    }
+
+    /**
+     * Size of the data file when it was indexed.
+     */
+    public long size() {
+        return header.size;
+    }
+
+    /**
+     * Modification time of the data file when it was indexed.
+     */
+    public long modified() {
+        return header.modified;
+    }
+
+    /**
+     * The crs of the features of the data file, or <code>null</code> if unknown.
+     */
+    public CoordinateReferenceSystem crs() {
+        return header.crs;
+    }
+
+    /**
+     * Determines if the index is up to date with a data file.
+     */
+    public boolean isValid(File data) {
+        return data.length() == header.size && data.lastModified() == header.modified;
+    }
+
+    /**
+     * Writes out the index.
+     */
+    public void write(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(file), 65536))) {
+            out.writeInt(header.format.magic);
+            out.writeInt(header.format.version);
+            out.writeLong(header.size);
+            out.writeLong(header.modified);
+
+            String srs = "";
+            if (header.crs != null) {
+                Integer epsg = Proj.epsgCode(header.crs);
+                srs = epsg != null ? "EPSG:" + epsg : Proj.toWKT(header.crs, false);
+            }
+            out.writeUTF(srs);
+
+            write(out);
+        }
+    }
+
+    /**
+     * Writes out the data of the index following its header.
+     */
+    protected abstract void write(DataOutputStream out) throws IOException;
+}
@@ -0,0 +1,642 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.vector;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKBReader;
+import com.vividsolutions.jts.io.WKBWriter;
+import io.jeo.data.Cursor;
+import io.jeo.proj.Proj;
+import io.jeo.util.Util;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Cursor that sorts the features of a delegate cursor with an external merge sort.
+ * <p>
+ * Features are buffered in memory up to an estimated size in bytes, see {@link #size(Feature)}.
+ * When the buffer fills up it is sorted and spilled to a temporary file as a sorted run. Once the
+ * delegate is exhausted the runs are merged, along with whatever remains in the buffer. If the
+ * delegate never fills the buffer the sort happens entirely in memory. At most {@link #FAN_IN}
+ * runs are merged at once, larger numbers of runs are first merged in passes into fewer, longer
+ * runs.
+ * </p>
+ * <p>
+ * Spilled features are read back as {@link ListFeature} objects with the schema of the first
+ * feature if they have that schema, and as {@link MapFeature} objects otherwise. Attribute values
+ * that are not one of the basic types, a geometry or {@link Serializable} are spilled as strings.
+ * </p>
+ */
+class SortCursor extends FeatureCursor {
+
+    static Logger LOG = LoggerFactory.getLogger(SortCursor.class);
+
+    /**
+     * Default estimated size in bytes of the features to sort in memory before spilling to disk,
+     * configurable with the <tt>jeo.sort.buffer</tt> system property.
+     */
+    static final long BUFFER_SIZE = Long.getLong("jeo.sort.buffer", 64 * 1024 * 1024);
+
+    /**
+     * Maximum number of runs merged at once, configurable with the <tt>jeo.sort.fanin</tt> system
+     * property.
+     */
+    static final int FAN_IN = Integer.getInteger("jeo.sort.fanin", 64);
+
+    /**
+     * Maximum number of features for which a sort with a limit keeps just the top features in
+     * memory rather than sorting all of them, configurable with the <tt>jeo.sort.top</tt> system
+     * property.
+     */
+    static final int TOP_SIZE = Integer.getInteger("jeo.sort.top", 100000);
+
+    /**
+     * Estimates the size in bytes of a feature held in memory.
+     */
+    static long size(Feature f) {
+        long size = 64;
+        if (f instanceof ListFeature) {
+            int n = ((ListFeature) f).schema().size();
+            for (int i = 0; i < n; i++) {
+                size += 8 + size(f.get(i));
+            }
+        }
+        else {
+            for (Object val : f.map().values()) {
+                size += 48 + size(val);
+            }
+        }
+        return size;
+    }
+
+    static long size(Object val) {
+        if (val == null) {
+            return 0;
+        }
+        if (val instanceof String) {
+            return 40 + 2 * ((String) val).length();
+        }
+        if (val instanceof Geometry) {
+            return 80 + 40 * ((Geometry) val).getNumPoints();
+        }
+        if (val instanceof byte[]) {
+            return 16 + ((byte[]) val).length;
+        }
+        return 24;
+    }
+
+    Cursor<Feature> delegate;
+    Comparator<Feature> comparator;
+    long bufferSize;
+    int fanIn;
+
+    Schema schema;
+    List<Run> runs;
+    Run out;
+    Boolean more;
+
+    SortCursor(Cursor<Feature> delegate, Comparator<Feature> comparator, long bufferSize) {
+        this(delegate, comparator, bufferSize, FAN_IN);
+    }
+
+    SortCursor(Cursor<Feature> delegate, Comparator<Feature> comparator, long bufferSize,
+        int fanIn) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("buffer size must be positive");
+        }
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("fan in must be at least 2");
+        }
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        this.comparator = Objects.requireNonNull(comparator, "comparator must not be null");
+        this.bufferSize = bufferSize;
+        this.fanIn = fanIn;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (out == null) {
+            init();
+        }
+        if (more == null) {
+            more = out.advance();
+        }
+        return more;
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        if (!hasNext()) {
+            return null;
+        }
+
+        more = null;
+        return out.current;
+    }
+
+    void init() throws IOException {
+        runs = new ArrayList<>();
+        try {
+            List<Feature> buffer = new ArrayList<>(1024);
+            long size = 0;
+            while (delegate.hasNext()) {
+                Feature f = delegate.next();
+                if (schema == null && f instanceof ListFeature) {
+                    schema = ((ListFeature) f).schema();
+                }
+
+                buffer.add(f);
+                size += size(f);
+                if (size >= bufferSize) {
+                    Collections.sort(buffer, comparator);
+                    runs.add(new FileRun(runs.size(), new MemRun(0, buffer), schema));
+                    buffer.clear();
+                    size = 0;
+                }
+            }
+
+            // whatever is left in the buffer is merged directly from memory
+            Collections.sort(buffer, comparator);
+            runs.add(new MemRun(runs.size(), buffer));
+
+            // merge passes, consecutive runs are merged to keep the sort stable
+            while (runs.size() > fanIn) {
+                LOG.debug("Merging {} sorted runs, {} at a time", runs.size(), fanIn);
+
+                List<Run> merged = new ArrayList<>();
+                try {
+                    for (int i = 0; i < runs.size(); i += fanIn) {
+                        List<Run> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                        if (group.size() == 1) {
+                            Run run = group.get(0);
+                            run.order = merged.size();
+                            merged.add(run);
+                        }
+                        else {
+                            MergeRun m = new MergeRun(0, new ArrayList<>(group), comparator);
+                            try {
+                                merged.add(new FileRun(merged.size(), m, schema));
+                            }
+                            finally {
+                                m.dispose();
+                            }
+                        }
+                    }
+                }
+                catch(IOException|RuntimeException e) {
+                    for (Run run : merged) {
+                        run.dispose();
+                    }
+                    throw e;
+                }
+                runs = merged;
+            }
+
+            if (runs.size() > 1) {
+                LOG.debug("Merging {} sorted runs", runs.size());
+            }
+            out = runs.size() == 1 ? runs.get(0) : new MergeRun(0, runs, comparator);
+        }
+        catch(IOException|RuntimeException e) {
+            dispose();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            delegate.close();
+        }
+        finally {
+            dispose();
+        }
+    }
+
+    void dispose() {
+        if (runs != null) {
+            for (Run run : runs) {
+                run.dispose();
+            }
+            runs.clear();
+        }
+    }
+
+    /**
+     * A sorted run of features.
+     */
+    static abstract class Run {
+
+        /** position of the run, used to break ties */
+        int order;
+
+        /** current feature of the run */
+        Feature current;
+
+        Run(int order) {
+            this.order = order;
+        }
+
+        /**
+         * Moves to the next feature of the run, returning <code>false</code> if the run is exhausted.
+         */
+        abstract boolean advance() throws IOException;
+
+        abstract void dispose();
+    }
+
+    static class MemRun extends Run {
+
+        Iterator<Feature> it;
+
+        MemRun(int order, List<Feature> features) {
+            super(order);
+            it = features.iterator();
+        }
+
+        @Override
+        boolean advance() {
+            current = it.hasNext() ? it.next() : null;
+            return current != null;
+        }
+
+        @Override
+        void dispose() {
+        }
+    }
+
+    /**
+     * Run merging other runs.
+     */
+    static class MergeRun extends Run {
+
+        List<Run> runs;
+        PriorityQueue<Run> queue;
+        boolean started;
+        Run last;
+
+        MergeRun(int order, List<Run> runs, final Comparator<Feature> comparator) {
+            super(order);
+            this.runs = runs;
+            this.queue = new PriorityQueue<>(runs.size(), new Comparator<Run>() {
+                @Override
+                public int compare(Run r1, Run r2) {
+                    int c = comparator.compare(r1.current, r2.current);
+                    // break ties with run order to keep the sort stable
+                    return c != 0 ? c : Integer.compare(r1.order, r2.order);
+                }
+            });
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            if (!started) {
+                started = true;
+                for (Run run : runs) {
+                    if (run.advance()) {
+                        queue.add(run);
+                    }
+                }
+            }
+            else if (last != null && last.advance()) {
+                queue.add(last);
+            }
+
+            last = queue.poll();
+            current = last != null ? last.current : null;
+            return current != null;
+        }
+
+        @Override
+        void dispose() {
+            for (Run run : runs) {
+                run.dispose();
+            }
+        }
+    }
+
+    static class FileRun extends Run {
+
+        File file;
+        DataInputStream in;
+        FeatureCodec codec;
+
+        FileRun(int order, Run features, Schema schema) throws IOException {
+            super(order);
+
+            codec = new FeatureCodec(schema);
+            file = File.createTempFile("jeo-sort", ".run");
+
+            try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 65536))) {
+                while (features.advance()) {
+                    codec.write(features.current, out);
+                }
+            }
+            catch(IOException|RuntimeException e) {
+                dispose();
+                throw e;
+            }
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            if (file == null) {
+                current = null;
+                return false;
+            }
+            if (in == null) {
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536));
+            }
+
+            current = codec.read(in);
+            if (current == null) {
+                dispose();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        void dispose() {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    LOG.debug("Error closing sort run", e);
+                }
+                in = null;
+            }
+            if (file != null) {
+                if (file.exists() && !file.delete()) {
+                    LOG.debug("Unable to delete sort run: " + file.getPath());
+                }
+                file = null;
+            }
+        }
+    }
+
+    /**
+     * Binary encoding of features for spilled runs.
+     */
+    static class FeatureCodec {
+
+        static final byte MAP = 1, LIST = 2;
+
+        static final byte NULL = 0, STRING = 1, INTEGER = 2, LONG = 3, DOUBLE = 4, FLOAT = 5,
+            SHORT = 6, BYTE = 7, BOOLEAN = 8, DATE = 9, GEOMETRY = 10, SERIALIZED = 11;
+
+        WKBWriter wkb2 = new WKBWriter(2, true);
+        WKBWriter wkb3 = new WKBWriter(3, true);
+        WKBReader wkbReader = new WKBReader();
+        Map<String,CoordinateReferenceSystem> crsCache = new HashMap<>();
+
+        /** schema of features encoded positionally, may be null */
+        Schema schema;
+
+        FeatureCodec(Schema schema) {
+            this.schema = schema;
+        }
+
+        void write(Feature f, DataOutputStream out) throws IOException {
+            if (schema != null && f instanceof ListFeature && ((ListFeature) f).schema() == schema) {
+                out.writeByte(LIST);
+                writeValue(f.id(), out);
+                for (int i = 0; i < schema.size(); i++) {
+                    writeValue(f.get(i), out);
+                }
+                return;
+            }
+
+            Map<String,Object> map = f.map();
+
+            out.writeByte(MAP);
+            writeValue(f.id(), out);
+            out.writeInt(map.size());
+            for (Map.Entry<String,Object> kv : map.entrySet()) {
+                writeString(kv.getKey(), out);
+                writeValue(kv.getValue(), out);
+            }
+        }
+
+        Feature read(DataInputStream in) throws IOException {
+            byte kind;
+            try {
+                kind = in.readByte();
+            }
+            catch(EOFException e) {
+                return null;
+            }
+
+            String id = (String) readValue(in);
+            if (kind == LIST) {
+                List<Object> values = new ArrayList<>(schema.size());
+                for (int i = 0; i < schema.size(); i++) {
+                    values.add(readValue(in));
+                }
+                return new ListFeature(id, schema, values);
+            }
+
+            int n = in.readInt();
+
+            Map<String,Object> map = new LinkedHashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                String key = readString(in);
+                map.put(key, readValue(in));
+            }
+            return new MapFeature(id, map);
+        }
+
+        void writeValue(Object val, DataOutputStream out) throws IOException {
+            if (val == null) {
+                out.writeByte(NULL);
+            }
+            else if (val instanceof String) {
+                out.writeByte(STRING);
+                writeString((String) val, out);
+            }
+            else if (val instanceof Integer) {
+                out.writeByte(INTEGER);
+                out.writeInt((Integer) val);
+            }
+            else if (val instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) val);
+            }
+            else if (val instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) val);
+            }
+            else if (val instanceof Float) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) val);
+            }
+            else if (val instanceof Short) {
+                out.writeByte(SHORT);
+                out.writeShort((Short) val);
+            }
+            else if (val instanceof Byte) {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) val);
+            }
+            else if (val instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) val);
+            }
+            else if (val.getClass() == Date.class) {
+                out.writeByte(DATE);
+                out.writeLong(((Date) val).getTime());
+            }
+            else if (val instanceof Geometry) {
+                out.writeByte(GEOMETRY);
+                writeGeometry((Geometry) val, out);
+            }
+            else if (val instanceof Serializable) {
+                out.writeByte(SERIALIZED);
+                ByteArrayOutputStream bout = new ByteArrayOutputStream();
+                try (ObjectOutputStream oout = new ObjectOutputStream(bout)) {
+                    oout.writeObject(val);
+                }
+                writeBytes(bout.toByteArray(), out);
+            }
+            else {
+                out.writeByte(STRING);
+                writeString(val.toString(), out);
+            }
+        }
+
+        Object readValue(DataInputStream in) throws IOException {
+            byte type = in.readByte();
+            switch(type) {
+                case NULL:
+                    return null;
+                case STRING:
+                    return readString(in);
+                case INTEGER:
+                    return in.readInt();
+                case LONG:
+                    return in.readLong();
+                case DOUBLE:
+                    return in.readDouble();
+                case FLOAT:
+                    return in.readFloat();
+                case SHORT:
+                    return in.readShort();
+                case BYTE:
+                    return in.readByte();
+                case BOOLEAN:
+                    return in.readBoolean();
+                case DATE:
+                    return new Date(in.readLong());
+                case GEOMETRY:
+                    return readGeometry(in);
+                case SERIALIZED:
+                    try (ObjectInputStream oin = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                        return oin.readObject();
+                    }
+                    catch(ClassNotFoundException e) {
+                        throw new IOException(e);
+                    }
+                default:
+                    throw new IOException("Unknown value type: " + type);
+            }
+        }
+
+        void writeGeometry(Geometry g, DataOutputStream out) throws IOException {
+            CoordinateReferenceSystem crs = Proj.crs(g);
+            String srs = null;
+            if (crs != null) {
+                srs = Proj.epsgCode(crs) != null ? crs.getName() : Proj.toString(crs);
+            }
+
+            out.writeBoolean(srs != null);
+            if (srs != null) {
+                writeString(srs, out);
+            }
+
+            boolean z = !g.isEmpty() && !Double.isNaN(g.getCoordinate().z);
+            writeBytes((z ? wkb3 : wkb2).write(g), out);
+        }
+
+        Geometry readGeometry(DataInputStream in) throws IOException {
+            CoordinateReferenceSystem crs = null;
+            if (in.readBoolean()) {
+                String srs = readString(in);
+                crs = crsCache.get(srs);
+                if (crs == null) {
+                    crs = Proj.crs(srs);
+                    crsCache.put(srs, crs);
+                }
+            }
+
+            try {
+                Geometry g = wkbReader.read(readBytes(in));
+                if (crs != null) {
+                    g.setUserData(crs);
+                }
+                return g;
+            } catch (ParseException e) {
+                throw new IOException(e);
+            }
+        }
+
+        void writeString(String s, DataOutputStream out) throws IOException {
+            writeBytes(s.getBytes(Util.UTF_8), out);
+        }
+
+        String readString(DataInputStream in) throws IOException {
+            return new String(readBytes(in), Util.UTF_8);
+        }
+
+        void writeBytes(byte[] b, DataOutputStream out) throws IOException {
+            out.writeInt(b.length);
+            out.write(b);
+        }
+
+        byte[] readBytes(DataInputStream in) throws IOException {
+            byte[] b = new byte[in.readInt()];
+            in.readFully(b);
+            return b;
+        }
+    }
+}
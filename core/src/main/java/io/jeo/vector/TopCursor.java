@@ -0,0 +1,110 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.vector;
+
+import io.jeo.data.Cursor;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Cursor that returns the first <tt>n</tt> features of a delegate cursor in sorted order.
+ * <p>
+ * The delegate is consumed in a single pass while keeping a bounded heap of the best <tt>n</tt>
+ * features seen so far, so memory usage depends on <tt>n</tt> rather than the size of the delegate.
+ * Ties are resolved in favour of the feature that was read first, consistent with a stable sort.
+ * </p>
+ */
+class TopCursor extends FeatureCursor {
+
+    Cursor<Feature> delegate;
+    Comparator<Feature> comparator;
+    int n;
+
+    Feature[] top;
+    int i;
+
+    TopCursor(Cursor<Feature> delegate, Comparator<Feature> comparator, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative");
+        }
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        this.comparator = Objects.requireNonNull(comparator, "comparator must not be null");
+        this.n = n;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (top == null) {
+            init();
+        }
+        return i < top.length;
+    }
+
+    @Override
+    public Feature next() throws IOException {
+        return hasNext() ? top[i++] : null;
+    }
+
+    void init() throws IOException {
+        // max heap, the head is the worst feature kept so far
+        PriorityQueue<Entry> heap = new PriorityQueue<>(Math.max(1, Math.min(n, 1024)),
+            Collections.reverseOrder(new Comparator<Entry>() {
+                @Override
+                public int compare(Entry e1, Entry e2) {
+                    int c = comparator.compare(e1.feature, e2.feature);
+                    return c != 0 ? c : Long.compare(e1.seq, e2.seq);
+                }
+            }));
+
+        long seq = 0;
+        while (delegate.hasNext()) {
+            Feature f = delegate.next();
+            if (heap.size() < n) {
+                heap.add(new Entry(f, seq++));
+            }
+            else if (n > 0 && comparator.compare(f, heap.peek().feature) < 0) {
+                // reuse the evicted entry
+                Entry e = heap.poll();
+                e.feature = f;
+                e.seq = seq++;
+                heap.add(e);
+            }
+        }
+
+        top = new Feature[heap.size()];
+        for (int j = top.length - 1; j > -1; j--) {
+            top[j] = heap.poll().feature;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    static class Entry {
+        Feature feature;
+        long seq;
+
+        Entry(Feature feature, long seq) {
+            this.feature = feature;
+            this.seq = seq;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import io.jeo.filter.Filters;
 import io.jeo.filter.cql.CQL;
 import io.jeo.filter.cql.ParseException;
 import io.jeo.geom.Bounds;
+import io.jeo.geom.Simplify;
 import io.jeo.proj.Proj;
 import io.jeo.util.Pair;
 import org.osgeo.proj4j.CoordinateReferenceSystem;
@@ -74,10 +75,10 @@ public class VectorQuery {
      */
     Integer limit, offset;
 
-//    /**
-//     * sorting
-//     */
-//    List<Sort> sort;
+    /**
+     * sorting
+     */
+    List<Sort> sort;
 
     /**
      * reprojection
@@ -88,6 +89,7 @@ public class VectorQuery {
      * simplification
      */
     Double simplify;
+    Simplify simplifyMethod = Simplify.TOPOLOGY;
 
     /**
      * Transaction associated with the query
@@ -200,23 +202,32 @@ public class VectorQuery {
      * simplification.
      * <p>
      * The simplification tolerance applies to {@link VectorDataset#read(VectorQuery)} and
-     * {@link VectorDataset#update(VectorQuery)} operations.
+     * {@link VectorDataset#update(VectorQuery)} operations. It is expressed in units of the
+     * crs of the query results, the target crs of {@link #reproject()} if specified.
      * </p>
      */
     public Double simplify() {
         return simplify;
     }
 
-//    /**
-//     * Sort criteria for the query, <code>null</code> meaning no sorting.
-//     * <p>
-//     * The sorting criteria applies to {@link VectorDataset#read(VectorQuery)} and
-//     * {@link VectorDataset#update(VectorQuery)} operations.
-//     * </p>
-//     */
-//    public List<Sort> sort() {
-//        return sort;
-//    }
+    /**
+     * The algorithm used to simplify feature geometries, defaulting to
+     * {@link Simplify#TOPOLOGY}.
+     */
+    public Simplify simplifyMethod() {
+        return simplifyMethod;
+    }
+
+    /**
+     * Sort criteria for the query, <code>null</code> meaning no sorting.
+     * <p>
+     * The sorting criteria applies to {@link VectorDataset#read(VectorQuery)} and
+     * {@link VectorDataset#update(VectorQuery)} operations.
+     * </p>
+     */
+    public List<Sort> sort() {
+        return sort;
+    }
 
     /**
      * Transaction of the query, may be <code>null</code>.
@@ -323,19 +334,31 @@ public class VectorQuery {
         return this;
     }
 
-//    /**
-//     * Sets the properties to sort results by.
-//     *
-//     * @return This object.
-//     */
-//    public VectorQuery sort(String... sort) {
-//        List<Sort> list = new ArrayList<Sort>();
-//        for (String s : sort) {
-//            list.add(new Sort(s));
-//        }
-//        this.sort = list;
-//        return this;
-//    }
+    /**
+     * Sets the properties to sort results by.
+     * <p>
+     * Each property may be prefixed with <tt>-</tt> to sort in descending order, see {@link Sort}.
+     * </p>
+     *
+     * @return This object.
+     */
+    public VectorQuery sort(String... sort) {
+        List<Sort> list = new ArrayList<Sort>();
+        for (String s : sort) {
+            list.add(new Sort(s));
+        }
+        return sort(list);
+    }
+
+    /**
+     * Sets the sort criteria of the query.
+     *
+     * @return This object.
+     */
+    public VectorQuery sort(List<Sort> sort) {
+        this.sort = sort != null && !sort.isEmpty() ? new ArrayList<Sort>(sort) : null;
+        return this;
+    }
 
     /**
      * Sets the srs to re-project query results to. 
@@ -393,6 +416,17 @@ public class VectorQuery {
         return this;
     }
 
+    /**
+     * Sets the tolerance and algorithm with which to simplify geometry of query results.
+     *
+     * @return This object.
+     */
+    public VectorQuery simplify(Double tolerance, Simplify method) {
+        simplify = tolerance;
+        simplifyMethod = method != null ? method : Simplify.TOPOLOGY;
+        return this;
+    }
+
     /**
      * Sets the transaction of the query.
      * 
@@ -472,7 +506,8 @@ public class VectorQuery {
                 + ((reproject == null) ? 0 : reproject.hashCode());
         result = prime * result
                 + ((simplify == null) ? 0 : simplify.hashCode());
-        //result = prime * result + ((sort == null) ? 0 : sort.hashCode());
+        result = prime * result + simplifyMethod.hashCode();
+        result = prime * result + ((sort == null) ? 0 : sort.hashCode());
         result = prime * result
                 + ((transaction == null) ? 0 : transaction.hashCode());
         return result;
@@ -522,11 +557,13 @@ public class VectorQuery {
                 return false;
         } else if (!simplify.equals(other.simplify))
             return false;
-//        if (sort == null) {
-//            if (other.sort != null)
-//                return false;
-//        } else if (!sort.equals(other.sort))
-//            return false;
+        if (simplifyMethod != other.simplifyMethod)
+            return false;
+        if (sort == null) {
+            if (other.sort != null)
+                return false;
+        } else if (!sort.equals(other.sort))
+            return false;
         if (transaction == null) {
             if (other.transaction != null)
                 return false;
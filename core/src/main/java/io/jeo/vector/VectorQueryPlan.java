@@ -14,6 +14,7 @@
  */
 package io.jeo.vector;
 
+import io.jeo.data.Sort;
 import io.jeo.filter.Filters;
 import io.jeo.geom.Bounds;
 import io.jeo.util.Pair;
@@ -22,6 +23,7 @@ import io.jeo.util.Predicate;
 import org.osgeo.proj4j.CoordinateReferenceSystem;
 
 import com.vividsolutions.jts.geom.Envelope;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -185,6 +187,23 @@ public class VectorQueryPlan {
      * @return The augmented cursor.
      */
     public FeatureCursor apply(FeatureCursor cursor) {
+        return apply(cursor, null);
+    }
+
+    /**
+     * Augments the specified cursor with wrappers that handle the parts of the query that could
+     * not be processed natively.
+     * <p>
+     * This method should be preferred over {@link #apply(FeatureCursor)} when the schema of the
+     * features returned by the cursor is known, in which case any filter that has to be applied
+     * is first bound to the schema with {@link Filters#bind(Filter, Schema)}.
+     * </p>
+     * @param cursor Cursor to augment.
+     * @param schema Schema of the cursor features, may be <code>null</code>.
+     *
+     * @return The augmented cursor.
+     */
+    public FeatureCursor apply(FeatureCursor cursor, Schema schema) {
 
         Envelope bounds = q.bounds();
         if (!isBounded() && !Bounds.isNull(bounds)) {
@@ -192,15 +211,29 @@ public class VectorQueryPlan {
         }
 
         if (!Filters.isTrueOrNull(filter)) {
-            cursor = cursor.filter(filter);
+            cursor = cursor.filter(Filters.bind(filter, schema));
         }
 
         Integer offset = q.offset();
+        Integer limit = q.limit();
+
+        List<Sort> sort = q.sort();
+        if (!isSorted() && sort != null && !sort.isEmpty()) {
+            // with a limit only the first offset+limit features need be kept, as long as there
+            // are not too many of them
+            long n = limit != null ? (long) limit + (offset != null ? offset : 0) : Long.MAX_VALUE;
+            if (!isLimited() && !isOffsetted() && n <= SortCursor.TOP_SIZE) {
+                cursor = cursor.top(sort, (int) n);
+            }
+            else {
+                cursor = cursor.sort(sort);
+            }
+        }
+
         if (!isOffsetted() && offset != null) {
             cursor = cursor.skip(offset);
         }
 
-        Integer limit = q.limit();
         if (!isLimited() && limit != null) {
             cursor = cursor.limit(limit);
         }
@@ -210,12 +243,17 @@ public class VectorQueryPlan {
             cursor = cursor.reproject(reproj.first, reproj.second);
         }
 
+        // after reprojection, the tolerance is in units of the query results
+        Double tolerance = q.simplify();
+        if (!isSimplified() && tolerance != null && tolerance > 0) {
+            cursor = cursor.simplify(tolerance, q.simplifyMethod());
+        }
+
         Set<String> fields = q.fields();
         if (!isFields() && !fields.isEmpty()) {
             cursor = cursor.select(fields);
         }
 
-        //TODO: sorting
         return cursor;
     }
 
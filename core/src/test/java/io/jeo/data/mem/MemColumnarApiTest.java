@@ -0,0 +1,30 @@
+/* Copyright 2013 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.data.mem;
+
+import io.jeo.TestData;
+import io.jeo.vector.VectorApiTestBase;
+import io.jeo.vector.VectorDataset;
+import io.jeo.vector.VectorQuery;
+
+public class MemColumnarApiTest extends VectorApiTestBase {
+
+    @Override
+    protected VectorDataset createVectorData() throws Exception {
+        VectorDataset states = TestData.states();
+        return MemColumnarDataset.load(states.schema(), states.read(new VectorQuery()));
+    }
+
+}
@@ -0,0 +1,130 @@
+/* Copyright 2013 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.data.mem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Point;
+import io.jeo.geom.GeomBuilder;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureWriteCursor;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.MapFeature;
+import io.jeo.vector.Schema;
+import io.jeo.vector.VectorQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MemColumnarTest {
+
+    MemColumnarDataset data;
+
+    @Before
+    public void setUp() throws IOException {
+        Schema schema = Schema.build("places")
+            .field("geometry", Point.class)
+            .field("name", String.class)
+            .field("pop", Integer.class)
+            .field("area", Double.class)
+            .field("code", Long.class)
+            .field("capital", Boolean.class)
+            .schema();
+
+        data = new MemColumnarDataset(schema);
+
+        GeomBuilder gb = new GeomBuilder();
+        for (int i = 0; i < 100; i++) {
+            data.add(new ListFeature(String.valueOf(i), schema, gb.point(i, i).toPoint(),
+                i % 2 == 0 ? "even" : "odd", i, i / 2.0, (long) i * 1000, i % 10 == 0));
+        }
+    }
+
+    @Test
+    public void testColumns() throws IOException {
+        MemColumn[] cols = data.columns;
+        assertTrue(cols[0] instanceof MemColumn.Points);
+        assertTrue(cols[1] instanceof MemColumn.Strings);
+        assertTrue(cols[2] instanceof MemColumn.Ints);
+        assertTrue(cols[3] instanceof MemColumn.Doubles);
+        assertTrue(cols[4] instanceof MemColumn.Longs);
+        assertTrue(cols[5] instanceof MemColumn.Booleans);
+
+        assertEquals(2, ((MemColumn.Strings) cols[1]).dict.size());
+        assertNotNull(data.ids.longs);
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        Feature f = data.read(new VectorQuery().filter("pop = 42")).first().get();
+        assertEquals("42", f.id());
+        assertEquals(42d, ((Point) f.geometry()).getX(), 0);
+        assertEquals("even", f.get("name"));
+        assertEquals(42, f.get("pop"));
+        assertEquals(21d, f.get("area"));
+        assertEquals(42000l, f.get("code"));
+        assertEquals(false, f.get("capital"));
+        assertEquals(f.map().get("name"), f.get(1));
+
+        assertEquals(100, data.count(new VectorQuery()));
+        assertEquals(50, data.count(new VectorQuery().filter("name = 'odd'")));
+        assertEquals(10, data.count(new VectorQuery().filter("capital = true")));
+        assertEquals(11, data.count(new VectorQuery().bounds(new Envelope(10, 20, 10, 20))));
+        assertEquals(new Envelope(0, 99, 0, 99), data.bounds());
+    }
+
+    @Test
+    public void testNulls() throws IOException {
+        data.add(new MapFeature("foo"));
+
+        Feature f = data.read(new VectorQuery().filter("IN ('foo')")).first().get();
+        assertEquals("foo", f.id());
+        for (int i = 0; i < data.schema().size(); i++) {
+            assertNull(f.get(i));
+        }
+        assertNull(data.ids.longs);
+        assertEquals("42", data.ids.get(42));
+        assertEquals(101, data.count(new VectorQuery()));
+        assertEquals(100, data.count(new VectorQuery().bounds(new Envelope(-1, 100, -1, 100))));
+    }
+
+    @Test
+    public void testUpdate() throws IOException {
+        Envelope bbox = new Envelope(-0.5, 0.5, -0.5, 0.5);
+        assertEquals(1, data.count(new VectorQuery().bounds(bbox)));
+
+        FeatureWriteCursor c = data.update(new VectorQuery().filter("pop < 10"));
+        for (Feature f : c) {
+            if (f.get("pop").equals(5)) {
+                c.remove();
+            }
+            else {
+                f.put(new GeomBuilder().point(0, 0).toPoint());
+                f.put("name", "moved");
+                c.write();
+            }
+        }
+
+        assertEquals(99, data.size());
+        assertEquals(9, data.count(new VectorQuery().bounds(bbox)));
+        assertEquals(9, data.count(new VectorQuery().filter("name = 'moved'")));
+        assertEquals(3, ((MemColumn.Strings) data.columns[1]).dict.size());
+    }
+}
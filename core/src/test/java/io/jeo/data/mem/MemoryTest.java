@@ -15,6 +15,8 @@
 package io.jeo.data.mem;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -128,4 +130,67 @@ public class MemoryTest {
         assertEquals(5, widgets.count(new VectorQuery()));
         assertCovered(widgets.read(new VectorQuery().filter("cost < 3.0")), 4, 5);
     }
+
+    @Test
+    public void testLoad() throws IOException {
+        MemVectorDataset widgets = (MemVectorDataset) mem.get("widgets");
+        MemVectorDataset loaded =
+            MemVectorDataset.load(widgets.schema(), widgets.read(new VectorQuery()));
+
+        assertEquals(3, loaded.count(new VectorQuery()));
+        assertCovered(loaded.read(new VectorQuery().bounds(new Envelope(5, 95, 5, 95))), 2, 3);
+        assertNotNull(loaded.packed);
+
+        // modifying falls back to the incrementally updated index
+        loaded.add(new ListFeature(loaded.schema(), new GeomBuilder().point(50, 50).toPoint(), 4,
+            "marble", 0.99));
+        assertNull(loaded.packed);
+        assertCovered(loaded.read(new VectorQuery().bounds(new Envelope(5, 95, 5, 95))), 2, 3, 4);
+        assertNull(loaded.packed);
+
+        // once modifications stop the next bounded query packs the tree again
+        assertEquals(3, loaded.count(new VectorQuery().bounds(new Envelope(5, 95, 5, 95))));
+        assertNotNull(loaded.packed);
+        assertCovered(loaded.read(new VectorQuery().bounds(new Envelope(5, 95, 5, 95))), 2, 3, 4);
+    }
+
+    @Test
+    public void testRepack() throws IOException {
+        MemVectorDataset widgets = (MemVectorDataset) mem.get("widgets");
+        MemVectorDataset loaded =
+            MemVectorDataset.load(widgets.schema(), widgets.read(new VectorQuery()));
+        Envelope bbox = new Envelope(1000, 2000, 1000, 2000);
+
+        // modifications interleaved with queries pack the tree after piling up
+        for (int i = 0; i < MemVectorDataset.REPACK; i++) {
+            loaded.add(new ListFeature(String.valueOf(100 + i), loaded.schema(),
+                new GeomBuilder().point(1000 + i, 1000 + i).toPoint(), 100 + i, "marble", 0.99));
+            assertNull(loaded.packed);
+            assertEquals(Math.min(i + 1, 1001), loaded.count(new VectorQuery().bounds(bbox)));
+        }
+        assertNotNull(loaded.packed);
+        assertEquals(1001, loaded.count(new VectorQuery().bounds(bbox)));
+    }
+
+    @Test
+    public void testBoundsAfterModify() throws IOException {
+        MemVectorDataset widgets = (MemVectorDataset) mem.get("widgets");
+        Envelope bbox = new Envelope(-1, 1, -1, 1);
+        assertEquals(1, widgets.count(new VectorQuery().bounds(bbox)));
+
+        FeatureWriteCursor c = widgets.update(new VectorQuery().filter("id = 3"));
+        for (Feature f : c) {
+            f.put(new GeomBuilder().point(0.5, 0.5).toPoint());
+            c.write();
+        }
+        assertCovered(widgets.read(new VectorQuery().bounds(bbox)), 1, 3);
+        assertEquals(2, widgets.count(new VectorQuery().bounds(bbox)));
+
+        c = widgets.update(new VectorQuery().filter("id = 1"));
+        for (Feature f : c) {
+            c.remove();
+        }
+        assertEquals(1, widgets.count(new VectorQuery().bounds(bbox)));
+        assertEquals(0, widgets.count(new VectorQuery().bounds(new Envelope(90, 110, 90, 110))));
+    }
 }
@@ -20,9 +20,14 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
+import io.jeo.geom.Geom;
+import com.vividsolutions.jts.geom.Point;
 import io.jeo.vector.Feature;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
 import io.jeo.filter.cql.CQL;
 import io.jeo.vector.MapFeature;
 import org.junit.Test;
@@ -180,4 +185,86 @@ public class FilterTest {
         assertTrue(CQL.parse("y > 5 or x = 5").test(f));
         assertTrue(CQL.parse("x = 5 or y > 5").test(f));
     }
+
+    @Test
+    public void testSpatial() throws Exception {
+        Feature in = new MapFeature(new HashMap<String, Object>()).put("geom", Geom.point(5, 5));
+        Feature edge = new MapFeature(new HashMap<String, Object>()).put("geom", Geom.point(10, 5));
+        Feature out = new MapFeature(new HashMap<String, Object>()).put("geom", Geom.point(15, 5));
+
+        String poly = "POLYGON((0 0, 10 0, 10 10, 0 10, 0 0))";
+        for (String cql : new String[]{"INTERSECTS(geom, %s)", "INTERSECTS(%s, geom)"}) {
+            Filter<Feature> f = CQL.parse(String.format(Locale.ROOT, cql, poly));
+            assertTrue(f.test(in));
+            assertTrue(f.test(edge));
+            assertFalse(f.test(out));
+        }
+
+        Filter<Feature> f = CQL.parse(String.format(Locale.ROOT, "WITHIN(geom, %s)", poly));
+        assertTrue(f.test(in));
+        assertFalse(f.test(edge));
+        assertFalse(f.test(out));
+
+        f = CQL.parse(String.format(Locale.ROOT, "CONTAINS(%s, geom)", poly));
+        assertTrue(f.test(in));
+        assertFalse(f.test(edge));
+        assertFalse(f.test(out));
+
+        f = CQL.parse(String.format(Locale.ROOT, "DISJOINT(geom, %s)", poly));
+        assertFalse(f.test(in));
+        assertFalse(f.test(edge));
+        assertTrue(f.test(out));
+
+        f = CQL.parse(String.format(Locale.ROOT, "DWITHIN(geom, %s, 6, meters)", poly));
+        assertTrue(f.test(out));
+        f = CQL.parse(String.format(Locale.ROOT, "DWITHIN(geom, %s, 4, meters)", poly));
+        assertFalse(f.test(out));
+        f = CQL.parse(String.format(Locale.ROOT, "BEYOND(geom, %s, 4, meters)", poly));
+        assertTrue(f.test(out));
+        assertFalse(f.test(in));
+    }
+
+    @Test
+    public void testBind() throws Exception {
+        Schema schema = Schema.build("widgets").field("geom", Point.class).field("name", String.class)
+            .field("cost", Double.class).field("count", Integer.class).schema();
+
+        Feature f = new ListFeature(schema, Geom.point(5, 5), "foo", 1.5, 10);
+
+        Filter<Feature> filter = Filters.bind(CQL.parse("count > '5' AND cost < 2"), schema);
+        assertTrue(filter.test(f));
+        assertFalse(filter.test(new ListFeature(schema, null, "bar", 2.5, 10)));
+
+        Logic<Feature> and = (Logic<Feature>) filter;
+        assertTrue(and.parts().get(0) instanceof BoundComparison);
+        assertEquals(5, ((BoundComparison) and.parts().get(0)).value);
+        assertTrue(and.parts().get(1) instanceof BoundComparison);
+        assertEquals(2d, ((BoundComparison) and.parts().get(1)).value);
+
+        // values not matching the field type still behave as unbound
+        assertTrue(filter.test(new ListFeature(schema, null, "bar", 1, 10L)));
+
+        // as do features of a different schema
+        Map<String,Object> map = new HashMap<String, Object>();
+        map.put("cost", 1.0);
+        map.put("count", 6);
+        assertTrue(filter.test(new MapFeature(map)));
+
+        filter = Filters.bind(new Like<Feature>(new Property("name"), new Literal("f%"), false).and(
+            new In<Feature>(new Property("name"), Arrays.asList(new Literal("foo"), new Literal("baz")), false)),
+            schema);
+        assertTrue(filter.test(f));
+        assertFalse(filter.test(new ListFeature(schema, Geom.point(5, 5), "baz", 1.5, 10)));
+
+        filter = Filters.bind(CQL.parse("INTERSECTS(geom, POLYGON((0 0, 10 0, 10 10, 0 10, 0 0)))"), schema);
+        assertTrue(filter.test(f));
+        assertFalse(filter.test(new ListFeature(schema, Geom.point(15, 5), "foo", 1.5, 10)));
+
+        filter = Filters.bind(CQL.parse("cost * 2 = 3"), schema);
+        assertTrue(filter.test(f));
+
+        filter = Filters.bind(CQL.parse("cost IS NOT NULL"), schema);
+        assertTrue(filter.test(f));
+        assertFalse(filter.test(new ListFeature(schema, null, "foo", null, 10)));
+    }
 }
@@ -15,7 +15,10 @@
 package io.jeo.filter;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
@@ -37,6 +40,22 @@ public class PropertyTest {
         assertNull(new Property("bar.bam").evaluate(new Foo(null, "blah")));
     }
 
+    @Test
+    public void testResolveObjectCached() {
+        Property p = new Property("bar.bam");
+        for (String bam : new String[]{"one", "two"}) {
+            assertEquals(bam, p.evaluate(new Foo(new Bar(bam), "baz")));
+        }
+
+        Foo foo = new Foo(null, "baz");
+        assertSame(p.accessor(foo, "bar"), new Property("bar").accessor(foo, "bar"));
+
+        assertTrue(new Property("baz").has(foo));
+        assertFalse(new Property("bam").has(foo));
+        assertFalse(new Property("bam").has(foo));
+        assertNull(new Property("bam").evaluate(foo));
+    }
+
     public static class Bar {
         String bam;
         
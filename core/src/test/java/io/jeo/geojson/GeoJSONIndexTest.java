@@ -0,0 +1,106 @@
+/* Copyright 2013 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.vividsolutions.jts.geom.Envelope;
+import io.jeo.Tests;
+import io.jeo.proj.Proj;
+import io.jeo.vector.Feature;
+import io.jeo.vector.VectorApiTestBase;
+import io.jeo.vector.VectorDataset;
+import io.jeo.vector.VectorQuery;
+import org.junit.Test;
+
+public class GeoJSONIndexTest extends VectorApiTestBase {
+
+    GeoJSONDataset geojson;
+
+    @Override
+    protected VectorDataset createVectorData() throws Exception {
+        Path dir = Tests.unzip(getClass().getResourceAsStream("states.zip"), Tests.newTmpDir());
+        return geojson = new GeoJSONDataset(dir.resolve("states.json").toFile(), true);
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        GeoJSONIndex idx = geojson.index();
+        assertNotNull(idx);
+        assertTrue(GeoJSONIndex.file(geojson.file()).exists());
+        assertEquals(49, idx.count());
+        assertNotNull(Proj.epsgCode(idx.crs()));
+
+        // compare with a full scan
+        GeoJSONDataset plain = new GeoJSONDataset(geojson.file());
+        assertEquals(plain.bounds(), geojson.bounds());
+
+        Envelope bbox = new Envelope(-106.649513, -93.507217, 25.845198, 36.493877);
+        VectorQuery q = new VectorQuery().bounds(bbox);
+        assertEquals(plain.count(q), geojson.count(q));
+
+        for (Feature f : geojson.read(q)) {
+            Feature g = plain.read(new VectorQuery().filter("IN ('" + f.id() + "')")).first().get();
+            assertEquals(g.get("STATE_NAME"), f.get("STATE_NAME"));
+            assertTrue(g.geometry().equalsExact(f.geometry()));
+            assertNotNull(Proj.crs(f.geometry()));
+        }
+
+        // reopening uses the saved index
+        GeoJSONIndex saved = GeoJSONIndex.open(geojson);
+        assertEquals(idx.count(), saved.count());
+        assertEquals(idx.bounds(), saved.bounds());
+    }
+
+    @Test
+    public void testStaleIndex() throws Exception {
+        GeoJSONIndex idx = geojson.index();
+        assertSame(idx, geojson.index());
+
+        File file = geojson.file();
+        assertTrue(file.setLastModified(file.lastModified() - 10000));
+        assertNotSame(idx, geojson.index());
+        assertEquals(file.lastModified(), GeoJSONIndex.read(GeoJSONIndex.file(file)).modified());
+    }
+
+    @Test
+    public void testSingleFeature() throws Exception {
+        File file = Tests.newTmpFile("single", ".json", null).toFile();
+        Files.write(file.toPath(), ("{\"type\": \"Feature\", \"id\": \"one\", "
+            + "\"geometry\": {\"type\": \"Point\", \"coordinates\": [1.0, 2.0]}, "
+            + "\"properties\": {\"name\": \"one\"}}").getBytes(StandardCharsets.UTF_8));
+
+        // only collections are indexed, anything else is streamed like a plain dataset
+        GeoJSONDataset data = new GeoJSONDataset(file, true);
+        assertNull(data.index());
+
+        GeoJSONDataset plain = new GeoJSONDataset(file);
+        assertEquals(plain.count(new VectorQuery()), data.count(new VectorQuery()));
+        assertEquals(plain.bounds(), data.bounds());
+
+        VectorQuery q = new VectorQuery().bounds(new Envelope(0, 3, 0, 3));
+        assertEquals(plain.count(q), data.count(q));
+    }
+}
@@ -0,0 +1,150 @@
+/* Copyright 2013 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geojson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.vividsolutions.jts.geom.Envelope;
+import io.jeo.Tests;
+import io.jeo.util.Consumer;
+import io.jeo.vector.Feature;
+import io.jeo.vector.VectorApiTestBase;
+import io.jeo.vector.VectorDataset;
+import io.jeo.vector.VectorQuery;
+import org.junit.Test;
+
+public class GeoJSONLinesTest extends VectorApiTestBase {
+
+    GeoJSONDataset plain;
+    GeoJSONDataset geojson;
+
+    @Override
+    protected VectorDataset createVectorData() throws Exception {
+        Path dir = Tests.unzip(getClass().getResourceAsStream("states.zip"), Tests.newTmpDir());
+        plain = new GeoJSONDataset(dir.resolve("states.json").toFile());
+
+        File file = dir.resolve("states.jsonl").toFile();
+        try (BufferedWriter w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (Feature f : plain.read(new VectorQuery())) {
+                w.write(GeoJSONWriter.toString(f));
+                w.write("\n\n");
+            }
+        }
+
+        geojson = new GeoJSONDataset(file, false, true);
+        // force many chunks
+        geojson.chunkSize = 4096;
+        return geojson;
+    }
+
+    @Test
+    public void testChunks() throws Exception {
+        GeoJSONLines lines = new GeoJSONLines(geojson.file(), geojson.chunkSize);
+        long[] chunks;
+        try (FileChannel ch = lines.open()) {
+            chunks = lines.chunks(ch);
+            assertEquals(ch.size(), chunks[chunks.length-1]);
+        }
+        assertTrue(chunks.length > 2);
+
+        byte[] bytes = Files.readAllBytes(geojson.file().toPath());
+        for (int i = 1; i < chunks.length - 1; i++) {
+            assertEquals('\n', bytes[(int) chunks[i] - 1]);
+        }
+    }
+
+    @Test
+    public void testReadOrdered() throws Exception {
+        List<String> expected = new ArrayList<>();
+        for (Feature f : plain.read(new VectorQuery())) {
+            expected.add((String) f.get("STATE_NAME"));
+        }
+
+        List<String> actual = new ArrayList<>();
+        for (Feature f : geojson.read(new VectorQuery())) {
+            actual.add((String) f.get("STATE_NAME"));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testEach() throws Exception {
+        Envelope bbox = new Envelope(-106.649513, -93.507217, 25.845198, 36.493877);
+        VectorQuery q = new VectorQuery().bounds(bbox);
+
+        List<String> expected = new ArrayList<>();
+        for (Feature f : plain.read(q)) {
+            expected.add((String) f.get("STATE_NAME"));
+        }
+        Collections.sort(expected);
+
+        final List<String> actual = Collections.synchronizedList(new ArrayList<String>());
+        geojson.each(q, new Consumer<Feature>() {
+            @Override
+            public void accept(Feature f) {
+                actual.add((String) f.get("STATE_NAME"));
+            }
+        });
+        Collections.sort(actual);
+
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), geojson.count(q));
+        assertEquals(plain.count(new VectorQuery()), geojson.count(new VectorQuery()));
+    }
+
+    @Test
+    public void testEachAbort() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicBoolean returned = new AtomicBoolean();
+        final AtomicBoolean late = new AtomicBoolean();
+        try {
+            geojson.each(new VectorQuery(), new Consumer<Feature>() {
+                @Override
+                public void accept(Feature f) {
+                    if (returned.get()) {
+                        late.set(true);
+                    }
+                    if (calls.incrementAndGet() == 3) {
+                        throw new IllegalStateException("boom");
+                    }
+                }
+            });
+            fail();
+        }
+        catch(IllegalStateException e) {
+            returned.set(true);
+        }
+
+        int n = calls.get();
+        Thread.sleep(100);
+        assertEquals(n, calls.get());
+        assertFalse(late.get());
+    }
+}
@@ -34,6 +34,7 @@ import io.jeo.vector.Schema;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.GeometryCollection;
 import com.vividsolutions.jts.geom.GeometryFactory;
@@ -43,6 +44,7 @@ import com.vividsolutions.jts.geom.MultiPoint;
 import com.vividsolutions.jts.geom.MultiPolygon;
 import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
 
 public class GeoJSONReadWriteTest {
 
@@ -128,6 +130,32 @@ public class GeoJSONReadWriteTest {
         assertTrue(multiPolygon3d().equals(reader.multiPolygon(multiPolygon3dText())));
     }
 
+    @Test
+    public void testParsePackedCoordinates() throws Exception {
+        MultiPolygon mp = reader.multiPolygon(multiPolygon3dText());
+        assertEquals(2, mp.getNumGeometries());
+
+        Polygon p = (Polygon) mp.getGeometryN(1);
+        assertEquals(1, p.getNumInteriorRing());
+
+        CoordinateSequence seq = p.getInteriorRingN(0).getCoordinateSequence();
+        assertTrue(seq instanceof PackedCoordinateSequence.Double);
+        assertEquals(3, seq.getDimension());
+        assertEquals(5, seq.size());
+        assertEquals(100.8, seq.getOrdinate(1, 0), 0);
+        assertEquals(10.2, seq.getOrdinate(1, 2), 0);
+
+        // positions with fewer ordinates than the first are padded
+        LineString l = reader.lineString(strip(
+            "{'type': 'LineString', 'coordinates': [[100.1,0.1,10.2],[101.1,1.1]]}"));
+        assertTrue(Double.isNaN(l.getCoordinateN(1).z));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseWrongCoordinateDepth() throws Exception {
+        reader.polygon(strip("{'type': 'Polygon', 'coordinates': [[100.1,0.1],[101.1,1.1]]}"));
+    }
+
     @Test
     public void testEncodeMultiPolygon() throws Exception {
         assertEquals(multiPolygonText(), toString(writer.multiPolygon(multiPolygon())));
@@ -17,15 +17,24 @@ package io.jeo.geojson;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Point;
 import io.jeo.geom.Geom;
 import io.jeo.json.JSONArray;
 import io.jeo.json.JSONObject;
 import io.jeo.json.JSONValue;
+import io.jeo.vector.Feature;
+import io.jeo.vector.ListFeature;
 import io.jeo.vector.MapFeature;
+import io.jeo.vector.Schema;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -138,6 +147,78 @@ public class GeoJSONWriterTest {
         assertNotNull(obj.get("properties"));
     }
 
+    @Test
+    public void testNumbers() throws Exception {
+        w.array()
+            .value(1.2345678901234E7).value(-1.5E-5).value(1.0).value(0.1).value(-2.5E21)
+            .value(Double.NaN)
+            .endArray();
+
+        assertEquals("[12345678.901234,-0.000015,1.0,0.1,-2.5E21,null]", string());
+    }
+
+    @Test
+    public void testPrecision() throws Exception {
+        assertEquals(-1, w.precision());
+        w.precision(6).array()
+            .point(Geom.point(-123.123456789, 48.5))
+            .point(Geom.point(0.0000004, -0.0000004))
+            .bbox(new Envelope(-1.99999999, 2.0000001, 1E20, 1E21))
+            .endArray();
+
+        assertEquals("[{\"type\":\"Point\",\"coordinates\":[-123.123457,48.5]},"
+            + "{\"type\":\"Point\",\"coordinates\":[0,0]},"
+            + "[-2,100000000000000000000,2,1.0E21]]", string());
+    }
+
+    @Test
+    public void testPrecisionOnlyAppliesToOrdinates() throws Exception {
+        Map<String,Object> map = new HashMap<>();
+        map.put("geom", Geom.point(1.23456, 2));
+        map.put("cost", 1.23456);
+
+        w.precision(2).feature(new MapFeature(map));
+
+        JSONObject obj = (JSONObject) JSONValue.parse(string());
+        assertEquals(1.23456, ((Number)((JSONObject)obj.get("properties")).get("cost"))
+            .doubleValue(), 0);
+        assertEquals(1.23, ((Number) ((JSONArray) ((JSONObject) obj.get("geometry"))
+            .get("coordinates")).get(0)).doubleValue(), 0);
+    }
+
+    @Test
+    public void testOutputStream() throws Exception {
+        Schema schema = Schema.build("widgets").field("geom", Point.class)
+            .field("na\"me", String.class).field("\u00e9t\u00e9", String.class)
+            .field("count", Integer.class).schema();
+
+        List<Feature> features = new ArrayList<>();
+        features.add(new ListFeature("1", schema, Geom.point(1, 2), "a/b\n", "\u20ac\ud83d\ude00", 1));
+        features.add(new ListFeature("2", schema, null, "\u00e9", null, 2));
+
+        w.array();
+        for (Feature f : features) {
+            w.feature(f);
+        }
+        w.endArray();
+
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        GeoJSONWriter out = new GeoJSONWriter(bout);
+        out.array();
+        for (Feature f : features) {
+            out.feature(f);
+        }
+        out.endArray().flush();
+
+        assertEquals(string(), new String(bout.toByteArray(), StandardCharsets.UTF_8));
+
+        JSONArray arr = (JSONArray) JSONValue.parse(
+            new String(bout.toByteArray(), StandardCharsets.UTF_8));
+        JSONObject props = (JSONObject) ((JSONObject) arr.get(0)).get("properties");
+        assertEquals("a/b\n", props.get("na\"me"));
+        assertEquals("\u20ac\ud83d\ude00", props.get("\u00e9t\u00e9"));
+    }
+
     String string() {
         return w.getWriter().toString();
     }
@@ -0,0 +1,111 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.vividsolutions.jts.geom.Envelope;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class PackedRTreeTest {
+
+    @Test
+    public void testQuery() {
+        Random r = new Random(1);
+        Envelope world = new Envelope(-180, 180, -90, 90);
+
+        for (int n : new int[]{1, 2, 16, 17, 255, 1000}) {
+            Envelope[] items = new Envelope[n];
+            PackedRTree.Builder b = PackedRTree.build(0, 4);
+            for (int i = 0; i < n; i++) {
+                items[i] = Bounds.random(world, 0.01f);
+                b.add(items[i]);
+            }
+
+            PackedRTree tree = b.finish();
+            assertEquals(n, tree.size());
+
+            for (int i = 0; i < 50; i++) {
+                Envelope bbox = Bounds.random(world, r.nextFloat() * 0.5f);
+                assertEquals(bruteForce(items, bbox), hits(tree, bbox));
+            }
+            assertEquals(n, hits(tree, world).size());
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        PackedRTree tree = PackedRTree.build(0).finish();
+        assertEquals(0, tree.size());
+        assertFalse(tree.query(new Envelope(-180, 180, -90, 90)).hasNext());
+        assertFalse(PackedRTree.build(1).add(0, 0, 1, 1).finish().query(new Envelope()).hasNext());
+    }
+
+    @Test
+    public void testBounds() {
+        PackedRTree tree = PackedRTree.build(2).add(0, 0, 1, 1).add(5, -5, 10, 2).finish();
+        assertEquals(new Envelope(0, 10, -5, 2), tree.bounds());
+    }
+
+    @Test
+    public void testReadWrite() throws IOException {
+        Envelope world = new Envelope(-180, 180, -90, 90);
+        Envelope[] items = new Envelope[100];
+        PackedRTree.Builder b = PackedRTree.build(items.length);
+        for (int i = 0; i < items.length; i++) {
+            items[i] = Bounds.random(world, 0.1f);
+            b.add(items[i]);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        b.finish().write(new DataOutputStream(bytes));
+
+        PackedRTree tree = PackedRTree.read(
+            new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(items.length, tree.size());
+
+        Envelope bbox = new Envelope(-90, 0, 0, 45);
+        assertEquals(bruteForce(items, bbox), hits(tree, bbox));
+    }
+
+    Set<Integer> hits(PackedRTree tree, Envelope bbox) {
+        Set<Integer> hits = new HashSet<>();
+        PackedRTree.Hits it = tree.query(bbox);
+        while (it.hasNext()) {
+            hits.add(it.next());
+        }
+        return hits;
+    }
+
+    Set<Integer> bruteForce(Envelope[] items, Envelope bbox) {
+        Set<Integer> hits = new HashSet<>();
+        for (int i = 0; i < items.length; i++) {
+            if (items[i].intersects(bbox)) {
+                hits.add(i);
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,84 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Polygon;
+import io.jeo.proj.Proj;
+import org.junit.Test;
+
+public class SimplifyTest {
+
+    @Test
+    public void testGrid() {
+        LineString l = Geom.build().points(0,0, 0.1,0.1, 0.2,0, 1,0, 1.1,0.1, 2,0).toLineString();
+
+        Geometry g = Simplify.grid(l, 0.5);
+        assertEquals(3, g.getNumPoints());
+        assertEquals(new Coordinate(0,0), g.getCoordinates()[0]);
+        assertEquals(new Coordinate(1,0), g.getCoordinates()[1]);
+        assertEquals(new Coordinate(2,0), g.getCoordinates()[2]);
+
+        // rings never collapse
+        Polygon p = Geom.build().points(0,0, 0.1,0, 0.1,0.1, 0,0.1, 0,0).toPolygon();
+        assertEquals(5, Simplify.grid(p, 1).getNumPoints());
+    }
+
+    @Test
+    public void testApply() {
+        Polygon p = circle(1000);
+        p.setUserData(Proj.EPSG_4326);
+
+        for (Simplify s : Simplify.values()) {
+            Geometry g = s.apply(p, 0.01);
+            assertTrue(g.getNumPoints() < 100);
+            assertTrue(g.isValid());
+            assertEquals(p.getArea(), g.getArea(), 0.05);
+            assertEquals(Proj.EPSG_4326, g.getUserData());
+        }
+
+        assertSame(p, Simplify.TOPOLOGY.apply(p, 0));
+    }
+
+    @Test
+    public void testTopologyWithHoles() {
+        // a hole sitting in the corner the grid pre-pass would cut off the shell
+        Polygon p = Geom.build()
+            .points(0,0, 0,3, 3,3, 3.2,3.2, 5,3.2, 10,3.2, 10,0, 0,0).ring()
+            .points(3.5,3.0, 3.6,3.15, 3.7,3.0, 3.5,3.0).ring().toPolygon();
+        assertTrue(p.isValid());
+        assertFalse(Simplify.grid(p, 0.5).isValid());
+
+        Geometry g = Simplify.TOPOLOGY.apply(p, 1);
+        assertTrue(g.isValid());
+        assertEquals(1, ((Polygon) g).getNumInteriorRing());
+    }
+
+    Polygon circle(int n) {
+        GeomBuilder b = Geom.build();
+        for (int i = 0; i < n; i++) {
+            double a = 2 * Math.PI * i / n;
+            b.point(Math.cos(a), Math.sin(a));
+        }
+        return b.point(1, 0).toPolygon();
+    }
+}
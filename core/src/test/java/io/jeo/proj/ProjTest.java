@@ -15,15 +15,33 @@
 package io.jeo.proj;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import io.jeo.geom.GeomBuilder;
 import org.junit.Test;
 import org.osgeo.proj4j.CoordinateReferenceSystem;
+import org.osgeo.proj4j.CoordinateTransform;
+import org.osgeo.proj4j.ProjCoordinate;
 
+import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ProjTest {
 
@@ -40,6 +58,127 @@ public class ProjTest {
 
     }
 
+    @Test
+    public void testCrsCache() {
+        ProjCache<String,CoordinateReferenceSystem> cache = Proj.crsCache();
+        long hits = cache.hits();
+        long misses = cache.misses();
+
+        CoordinateReferenceSystem crs = Proj.crs(26713);
+        assertSame(crs, Proj.crs("EPSG:26713"));
+        assertEquals(hits + 1, cache.hits());
+        assertTrue(cache.misses() <= misses + 1);
+    }
+
+    @Test
+    public void testTransformCache() throws Exception {
+        CoordinateReferenceSystem from = Proj.crs("EPSG:4326");
+        CoordinateReferenceSystem to = Proj.crs("EPSG:26713");
+
+        final CoordinateTransform tx = Proj.transform(from, to);
+        assertSame(tx, Proj.transform(from, to));
+        assertSame(from, tx.getSourceCRS());
+        assertSame(to, tx.getTargetCRS());
+
+        // shared transform is usable among threads
+        final ProjCoordinate expected = tx.transform(new ProjCoordinate(-115, 51), new ProjCoordinate());
+        ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(exec.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int j = 0; j < 1000; j++) {
+                            ProjCoordinate c = tx.transform(new ProjCoordinate(-115, 51), new ProjCoordinate());
+                            if (c.x != expected.x || c.y != expected.y) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> r : results) {
+                assertTrue(r.get());
+            }
+        }
+        finally {
+            exec.shutdown();
+        }
+    }
+
+    @Test
+    public void testWebMercator() throws Exception {
+        for (String merc : new String[]{"EPSG:3857", "EPSG:900913"}) {
+            CoordinateReferenceSystem geo = Proj.EPSG_4326;
+            CoordinateReferenceSystem crs = Proj.crs(merc);
+
+            CoordinateTransform fwd = Proj.transform(geo, crs);
+            CoordinateTransform inv = Proj.transform(crs, geo);
+            assertTrue(fwd instanceof WebMercatorTransform);
+            assertTrue(inv instanceof WebMercatorTransform);
+
+            // results must be identical to those of proj4j
+            CoordinateTransform pfwd = Proj.createTransform(geo, crs);
+            CoordinateTransform pinv = Proj.createTransform(crs, geo);
+
+            Random r = new Random(1);
+            for (int i = 0; i < 1000; i++) {
+                ProjCoordinate c = new ProjCoordinate(r.nextDouble() * 400 - 200, r.nextDouble() * 180 - 90);
+                if (i == 0) {
+                    c = new ProjCoordinate(0, 0);
+                }
+
+                ProjCoordinate expected = pfwd.transform(c, new ProjCoordinate());
+                ProjCoordinate actual = fwd.transform(c, new ProjCoordinate());
+                assertEquals(expected.x, actual.x, 0);
+                assertEquals(expected.y, actual.y, 0);
+
+                c = new ProjCoordinate(r.nextDouble() * 4.5e7 - 2.25e7, r.nextDouble() * 4e7 - 2e7);
+                expected = pinv.transform(c, new ProjCoordinate());
+                actual = inv.transform(c, new ProjCoordinate());
+                assertEquals(expected.x, actual.x, 0);
+                assertEquals(expected.y, actual.y, 0);
+            }
+        }
+    }
+
+    @Test
+    public void testTransformGeometry() throws Exception {
+        CoordinateReferenceSystem crs = Proj.crs("EPSG:3857");
+        CoordinateTransform tx = Proj.transform(Proj.EPSG_4326, crs);
+        CoordinateTransform ptx = Proj.createTransform(Proj.EPSG_4326, crs);
+
+        GeomBuilder gb = new GeomBuilder();
+        Polygon p = gb.points(-115, 51, -114, 51, -114, 52, -115, 52, -115, 51).ring()
+            .points(-114.8, 51.2, -114.2, 51.2, -114.2, 51.8, -114.8, 51.2).ring().toPolygon();
+        PackedCoordinateSequenceFactory pcsf = new PackedCoordinateSequenceFactory();
+        Geometry[] geoms = new Geometry[]{ p, new GeometryFactory(pcsf).createGeometry(p) };
+
+        for (Geometry g : geoms) {
+            Envelope e = g.getEnvelopeInternal();
+            Geometry h = Proj.transform(g, tx);
+
+            assertNotSame(g, h);
+            assertEquals(e, g.getEnvelopeInternal());
+            assertFalse(e.equals(h.getEnvelopeInternal()));
+
+            Coordinate[] from = g.getCoordinates();
+            Coordinate[] to = h.getCoordinates();
+            for (int i = 0; i < from.length; i++) {
+                ProjCoordinate c = ptx.transform(new ProjCoordinate(from[i].x, from[i].y), new ProjCoordinate());
+                assertEquals(c.x, to[i].x, 0);
+                assertEquals(c.y, to[i].y, 0);
+            }
+
+            // in place, also through the general transform
+            h = Proj.transform(g, Proj.transform(crs, Proj.crs("EPSG:26713")), true);
+            assertSame(g, h);
+            assertFalse(e.equals(g.getEnvelopeInternal()));
+        }
+    }
+
     @Test
     public void testEpsgCode() {
         CoordinateReferenceSystem crs = Proj.crs("EPSG:4326");
@@ -146,6 +285,28 @@ public class ProjTest {
         assertTrue(p1.equals(p2));
     }
 
+    @Test
+    public void testTransformCacheWKT() throws Exception {
+        String wkt = dq("GEOGCS['GCS_North_American_1983'," +
+                        "DATUM['North_American_Datum_1983', " +
+                            "SPHEROID['GRS_1980',6378137,298.257222101]]," +
+                        "PRIMEM['Greenwich',0]," +
+                        "UNIT['Degree',0.017453292519943295]]");
+
+        ProjCache<?,CoordinateTransform> cache = Proj.transformCache();
+        long hits = cache.hits();
+        long misses = cache.misses();
+
+        // crs objects parsed separately share the cached transform
+        CoordinateTransform tx = Proj.transform(Proj.fromWKT(wkt), Proj.EPSG_900913);
+        assertEquals(misses + 1, cache.misses());
+        assertEquals(hits, cache.hits());
+
+        assertSame(tx, Proj.transform(Proj.fromWKT(wkt), Proj.EPSG_900913));
+        assertEquals(misses + 1, cache.misses());
+        assertEquals(hits + 1, cache.hits());
+    }
+
     @Test
     public void testEncodeWKT() throws Exception {
         CoordinateReferenceSystem crs = Proj.crs("epsg:4326");
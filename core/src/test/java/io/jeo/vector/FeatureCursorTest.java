@@ -15,13 +15,21 @@
 package io.jeo.vector;
 
 import com.vividsolutions.jts.geom.Point;
+import io.jeo.data.Sort;
 import io.jeo.geom.Geom;
 import io.jeo.data.Cursors;
 import io.jeo.proj.Proj;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class FeatureCursorTest {
 
@@ -37,4 +45,123 @@ public class FeatureCursorTest {
         assertEquals(Proj.EPSG_900913, Features.crs(f));
         assertEquals(Proj.EPSG_900913, Features.schema("feature", f).crs());
     }
+
+    @Test
+    public void testSort() throws Exception {
+        List<Feature> features = features();
+
+        FeatureCursor c = FeatureCursor.wrap(Cursors.create(features)).sort(Arrays.asList(new Sort("-num")));
+        assertNums(c, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0);
+    }
+
+    @Test
+    public void testSortSpill() throws Exception {
+        List<Feature> features = features();
+
+        // a buffer of a few bytes forces spilling every few features to disk
+        FeatureCursor c = FeatureCursor.wrap(Cursors.create(features))
+            .sort(Arrays.asList(new Sort("parity"), new Sort("num")), 3);
+        assertNums(c, 0, 2, 4, 6, 8, 1, 3, 5, 7, 9);
+
+        // ensure values survive a round trip to disk
+        c = FeatureCursor.wrap(Cursors.create(features)).sort(Arrays.asList(new Sort("num")), 2);
+        for (int i = 0; i < features.size(); i++) {
+            assertTrue(c.hasNext());
+            Feature g = c.next();
+            Feature f = features.get((i * 3) % 10);
+            assertEquals(i, f.get("num"));
+            assertEquals(f.id(), g.id());
+            assertEquals(f.get("name"), g.get("name"));
+            assertEquals(f.get("date"), g.get("date"));
+            assertEquals(f.geometry(), g.geometry());
+            assertEquals(Proj.EPSG_4326, Proj.crs(g.geometry()));
+
+            // features keep their schema
+            assertTrue(g instanceof ListFeature);
+            assertEquals(((ListFeature) f).schema(), ((ListFeature) g).schema());
+            assertEquals(f.get(1), g.get(1));
+        }
+        assertFalse(c.hasNext());
+        c.close();
+    }
+
+    @Test
+    public void testSortMergePasses() throws Exception {
+        List<Feature> features = features();
+
+        // a run per feature merged two at a time, ties are kept in read order
+        FeatureCursor c = new SortCursor(FeatureCursor.wrap(Cursors.create(features)),
+            Features.comparator(Arrays.asList(new Sort("parity"))), 1, 2);
+        assertNums(c, 0, 4, 8, 2, 6, 7, 1, 5, 9, 3);
+
+        c = new SortCursor(FeatureCursor.wrap(Cursors.create(features)),
+            Features.comparator(Arrays.asList(new Sort("-num"))), 1, 3);
+        assertNums(c, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0);
+    }
+
+    @Test
+    public void testReproject() throws Exception {
+        Schema schema = Schema.build("test").field("geo", Point.class).schema();
+        Point p = (Point) Proj.crs(Geom.point(10, 10), Proj.EPSG_4326);
+        Point q = Proj.reproject(Geom.point(20, 20), Proj.EPSG_4326, Proj.EPSG_900913);
+        Proj.crs(q, Proj.EPSG_900913);
+
+        List<Feature> features = new ArrayList<>();
+        features.add(new ListFeature(schema, p));
+        features.add(new ListFeature(schema, q));
+        features.add(new ListFeature(schema, p));
+
+        FeatureCursor c = FeatureCursor.wrap(Cursors.create(features)).reproject(Proj.EPSG_900913);
+        Point expected = Proj.reproject(Geom.point(10, 10), Proj.EPSG_4326, Proj.EPSG_900913);
+
+        assertTrue(expected.equalsExact(c.next().geometry(), 1e-6));
+        assertTrue(q.equalsExact(c.next().geometry()));
+        assertTrue(expected.equalsExact(c.next().geometry(), 1e-6));
+        assertFalse(c.hasNext());
+        c.close();
+
+        // source geometries are left untouched
+        assertEquals(10, p.getX(), 0);
+        assertEquals(10, p.getY(), 0);
+    }
+
+    @Test
+    public void testTop() throws Exception {
+        List<Feature> features = features();
+
+        FeatureCursor c = FeatureCursor.wrap(Cursors.create(features)).top(Arrays.asList(new Sort("-num")), 3);
+        assertNums(c, 9, 8, 7);
+
+        // ties are kept in read order
+        c = FeatureCursor.wrap(Cursors.create(features)).top(Arrays.asList(new Sort("parity")), 3);
+        assertNums(c, 0, 4, 8);
+
+        c = FeatureCursor.wrap(Cursors.create(features)).top(Arrays.asList(new Sort("num")), 20);
+        assertNums(c, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+        c = FeatureCursor.wrap(Cursors.create(features)).top(Arrays.asList(new Sort("num")), 0);
+        assertNums(c);
+    }
+
+    List<Feature> features() {
+        Schema schema = Schema.build("test").field("geo", Point.class).field("num", Integer.class)
+            .field("parity", Integer.class).field("name", String.class).field("date", Date.class).schema();
+
+        List<Feature> features = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int n = (i * 7) % 10;
+            features.add(new ListFeature(String.valueOf(n), schema,
+                Proj.crs(Geom.point(n, n), Proj.EPSG_4326), n, n % 2, "feature " + n, new Date(n * 1000L)));
+        }
+        return features;
+    }
+
+    void assertNums(FeatureCursor c, Integer... nums) throws Exception {
+        for (Integer n : nums) {
+            assertTrue(c.hasNext());
+            assertEquals(n, c.next().get("num"));
+        }
+        assertFalse(c.hasNext());
+        c.close();
+    }
 }
@@ -22,6 +22,7 @@ import org.junit.Test;
 import com.google.common.collect.Maps;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 public class FeatureTest {
 
@@ -41,4 +42,51 @@ public class FeatureTest {
 
         assertEquals(f1, f2);
     }
+
+    @Test
+    public void testIndexAccess() throws Exception {
+        Schema schema = Schema.build("widgets").fields("name:String,cost:Double,geom:Point").schema();
+        assertEquals(1, schema.indexOf("cost"));
+        assertEquals(-1, schema.indexOf("foo"));
+
+        ListFeature f1 = new ListFeature("1", schema, "bomb", 1.99, Geom.point(0, 0));
+        assertEquals("bomb", f1.get(0));
+        assertEquals(1.99, f1.get(1));
+
+        f1.put(1, 2.99);
+        assertEquals(2.99, f1.get("cost"));
+
+        Map<String,Object> map = Maps.newLinkedHashMap();
+        map.put("name", "bomb");
+        map.put("cost", 1.99);
+        MapFeature f2 = new MapFeature("1", map);
+        try {
+            f2.get(1);
+            fail();
+        }
+        catch(UnsupportedOperationException e) {
+        }
+
+        // changes are resolved through the schema of the feature
+        DiffFeature diff = new DiffFeature(f1);
+        diff.put(0, "widget");
+        assertEquals("widget", diff.get(0));
+        assertEquals("widget", diff.get("name"));
+        assertEquals(2.99, diff.get(1));
+        assertEquals("bomb", f1.get(0));
+
+        try {
+            diff.get(3);
+            fail();
+        }
+        catch(IndexOutOfBoundsException e) {
+        }
+
+        try {
+            new DiffFeature(f2).put(1, 2.99);
+            fail();
+        }
+        catch(UnsupportedOperationException e) {
+        }
+    }
 }
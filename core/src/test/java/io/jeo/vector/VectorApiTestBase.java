@@ -34,6 +34,7 @@ import org.osgeo.proj4j.CoordinateReferenceSystem;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Sets;
 import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.Point;
 
 /**
@@ -188,6 +189,39 @@ public abstract class VectorApiTestBase {
         assertCount(49, data, "MISSING > 5 OR P_MALE IS NOT NULL");
     }
 
+    @Test
+    public void testCursorSimplify() throws Exception {
+        VectorQuery q = new VectorQuery().filter("STATE_NAME = 'Texas'");
+        Geometry full, simple;
+        try (FeatureCursor c = data.read(q)) {
+            assertTrue(c.hasNext());
+            full = c.next().geometry();
+        }
+        try (FeatureCursor c = data.read(q.simplify(0.1))) {
+            assertTrue(c.hasNext());
+            simple = c.next().geometry();
+        }
+
+        assertTrue(simple.getNumPoints() < full.getNumPoints());
+        assertTrue(simple.isValid());
+        assertEquals(full.getEnvelopeInternal().getWidth(),
+            simple.getEnvelopeInternal().getWidth(), 0.1);
+    }
+
+    @Test
+    public void testCursorSort() throws Exception {
+        assertNames(data.read(new VectorQuery().sort("STATE_NAME").limit(3)),
+            "Alabama", "Arizona", "Arkansas");
+        assertNames(data.read(new VectorQuery().sort("-STATE_NAME").limit(2)), "Wyoming", "Wisconsin");
+
+        // sort with offset
+        assertNames(data.read(new VectorQuery().sort("STATE_NAME").offset(1).limit(2)), "Arizona", "Arkansas");
+
+        // sort with filter
+        assertNames(data.read(new VectorQuery().sort("-STATE_NAME").filter("STATE_NAME LIKE 'New%'")),
+            "New York", "New Mexico", "New Jersey", "New Hampshire");
+    }
+
     @Test
     public void testFeature() throws Exception {
         Cursor<Feature> cursor = data.read(new VectorQuery());
@@ -272,6 +306,19 @@ public abstract class VectorApiTestBase {
         assertEquals(abbrs.length, count);
     }
 
+    void assertNames(Cursor<Feature> cursor, String... names) throws IOException {
+        try {
+            for (String name : names) {
+                assertTrue(cursor.hasNext());
+                assertEquals(name, cursor.next().get("STATE_NAME"));
+            }
+            assertFalse(cursor.hasNext());
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
     void assertCount(int expected, VectorDataset dataSet, String filter) throws IOException {
         VectorQuery q = new VectorQuery().filter(filter);
         assertEquals(expected, dataSet.count(q));
@@ -38,6 +38,16 @@ public class CSV extends FileVectorDriver<CSVDataset> {
 
     public static final Key<Object> Y = new Key<Object>("y", Object.class, "y");
 
+    /**
+     * Number of rows sampled to infer column types, 0 disables inference.
+     */
+    public static final Key<Integer> SAMPLE = new Key<Integer>("sample", Integer.class, 100);
+
+    /**
+     * Key specifying whether to maintain a sidecar index of the file, see {@link CSVDataset}.
+     */
+    public static final Key<Boolean> INDEX = new Key<Boolean>("index", Boolean.class, false);
+
     public static CSVDataset open(Path path, CSVOpts csvOpts) throws IOException {
         return new CSVDataset(path.toFile(), csvOpts);
     }
@@ -49,7 +59,7 @@ public class CSV extends FileVectorDriver<CSVDataset> {
 
     @Override
     public List<Key<?>> keys() {
-        return (List) Arrays.asList(FILE, DELIM, HEADER, X, Y);
+        return (List) Arrays.asList(FILE, DELIM, HEADER, X, Y, SAMPLE, INDEX);
     }
 
     @Override
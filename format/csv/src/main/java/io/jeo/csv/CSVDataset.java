@@ -17,11 +17,11 @@ package io.jeo.csv;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import io.jeo.data.FileData;
+import io.jeo.filter.Filters;
 import io.jeo.geom.Bounds;
 import io.jeo.util.Key;
 import io.jeo.util.Util;
@@ -40,6 +40,23 @@ import org.osgeo.proj4j.CoordinateReferenceSystem;
 import com.csvreader.CsvReader;
 import com.vividsolutions.jts.geom.Geometry;
 
+/**
+ * Delimited text file with a geometry encoded as x/y or WKT columns.
+ * <p>
+ * Column types are inferred from the first {@link CSVOpts#sample()} rows of the file and can be
+ * overridden with {@link CSVOpts#map(String, Class)}. Rows are parsed straight into typed values
+ * so filters compare numbers, booleans, and dates without converting raw strings.
+ * </p>
+ * <p>
+ * Reads scan the file in parallel with {@link CSVScanner}, which evaluates query bounds on the raw
+ * geometry columns and the query filter before features reach the cursor.
+ * </p>
+ * <p>
+ * With the {@link CSVOpts#index(boolean)} option the dataset maintains a sidecar index, see
+ * {@link CSVIndex}. Unfiltered counts and bounds then come from the index, and reads with an
+ * offset start at the nearest indexed record rather than parsing every preceding row.
+ * </p>
+ */
 public class CSVDataset implements VectorDataset, FileData {
 
     /** the csv file */
@@ -54,6 +71,15 @@ public class CSVDataset implements VectorDataset, FileData {
     /** handler for specific csv flavor */
     CSVHandler handler;
 
+    /** types of the csv columns, excluding the geometry */
+    Class<?>[] types = new Class<?>[0];
+
+    /** size of the chunks read in parallel */
+    int chunkSize = CSVScanner.CHUNK_SIZE;
+
+    /** sidecar index */
+    CSVIndex index;
+
     public CSVDataset(File file) throws IOException {
         this(file, new CSVOpts());
     }
@@ -92,8 +118,10 @@ public class CSVDataset implements VectorDataset, FileData {
             try {
                 handler.header(r);
 
-                for (String col : r.getHeaders()) {
-                    sb.field(col, Object.class);
+                String[] cols = r.getHeaders();
+                types = infer(cols, r);
+                for (int i = 0; i < cols.length; i++) {
+                    sb.field(cols[i], types[i] != null ? types[i] : Object.class);
                 }
             }
             finally {
@@ -104,6 +132,36 @@ public class CSVDataset implements VectorDataset, FileData {
         schema = sb.schema();
     }
 
+    /**
+     * Determines the column types from explicit mappings and a sample of rows.
+     */
+    Class<?>[] infer(String[] cols, CsvReader r) throws IOException {
+        Class<?>[] types = new Class<?>[cols.length];
+        if (opts.sample() > 0) {
+            CSVTypes t = new CSVTypes();
+            for (int n = 0; n < opts.sample() && r.readRecord(); n++) {
+                for (int i = 0; i < cols.length && i < r.getColumnCount(); i++) {
+                    types[i] = t.infer(types[i], r.get(i));
+                }
+            }
+
+            // columns with only empty values
+            for (int i = 0; i < types.length; i++) {
+                if (types[i] == null) {
+                    types[i] = String.class;
+                }
+            }
+        }
+
+        for (int i = 0; i < cols.length; i++) {
+            Class<?> mapped = opts.mapping(i, cols[i]);
+            if (mapped != null) {
+                types[i] = mapped;
+            }
+        }
+        return types;
+    }
+
     @Override
     public String name() {
         return Util.base(file.getName());
@@ -122,22 +180,64 @@ public class CSVDataset implements VectorDataset, FileData {
 
     @Override
     public Bounds bounds() throws IOException {
+        CSVIndex idx = index();
+        if (idx != null) {
+            return idx.bounds;
+        }
         return read(new VectorQuery()).bounds();
     }
 
     @Override
     public long count(VectorQuery q) throws IOException {
+        CSVIndex idx = index();
+        if (idx != null && q.isAll()) {
+            return q.adjustCount(idx.count);
+        }
         return read(q).count();
     }
 
     @Override
     public FeatureCursor read(VectorQuery q) throws IOException {
-        CsvReader reader = reader();
-        if (opts.header()) {
-            reader.readHeaders();
+        VectorQueryPlan qp = new VectorQueryPlan(q);
+        qp.bounded();
+        qp.filtered();
+
+        CSVScanner scanner = new CSVScanner(this, chunkSize);
+
+        // start at the closest indexed record when paging through all rows
+        Integer offset = q.offset();
+        if (offset != null && offset > 0 && Bounds.isNull(q.bounds())
+            && Filters.isTrueOrNull(q.filter()) && (q.sort() == null || q.sort().isEmpty())) {
+            CSVIndex idx = index();
+            if (idx != null) {
+                int i = Math.min(offset / idx.interval, idx.offsets.length - 1);
+                if (i < 0) {
+                    return qp.apply(FeatureCursor.empty(), schema);
+                }
+
+                int row = i * idx.interval;
+                qp.offsetted();
+                return qp.apply(
+                    scanner.read(q, idx.offsets[i], row).skip(offset - row), schema);
+            }
+        }
+
+        return qp.apply(scanner.read(q), schema);
+    }
+
+    /**
+     * Returns the sidecar index, or <code>null</code> if the dataset is not indexed, the file
+     * is empty, or the file is read serially.
+     */
+    synchronized CSVIndex index() throws IOException {
+        if (!opts.index() || Util.isEmpty(file) || !new CSVScanner(this, chunkSize).isChunked()) {
+            return null;
         }
 
-        return new VectorQueryPlan(q).apply(new CSVCursor(reader, this));
+        if (index == null || !index.isValid(file)) {
+            index = CSVIndex.open(this);
+        }
+        return index;
     }
 
     @Override
@@ -157,24 +257,22 @@ public class CSVDataset implements VectorDataset, FileData {
         return new CsvReader(Files.newBufferedReader(file.toPath(), Util.UTF_8), opts.delimiter());
     }
 
-    Feature feature(int i, CsvReader r) throws IOException {
-        List<Object> values = new ArrayList<Object>();
-        values.add(handler.geom(r));
+    /**
+     * Parses the raw values of a row.
+     *
+     * @param i The row number.
+     * @param row The raw values.
+     * @param n The number of raw values.
+     * @param t Parser for the row values.
+     * @param values Buffer to fill with the row values, copied by the feature.
+     */
+    Feature feature(int i, String[] row, int n, CSVTypes t, List<Object> values)
+        throws IOException {
+        values.clear();
+        values.add(handler.geom(row));
 
-        for (String val : r.getValues()) {
-            Object parsed = null;
-            try {
-                parsed = Integer.parseInt(val);
-            }
-            catch(NumberFormatException e1) {
-                try {
-                    parsed = Double.parseDouble(val);
-                }
-                catch(NumberFormatException e2) {
-                    parsed = val;
-                }
-            }
-            values.add(parsed);
+        for (int j = 0; j < n; j++) {
+            values.add(t.parse(row[j], j < types.length ? types[j] : null));
         }
 
         return new ListFeature(String.valueOf(i), schema, values);
@@ -18,6 +18,7 @@ import java.io.IOException;
 import java.util.List;
 
 import com.csvreader.CsvReader;
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 
 /**
@@ -27,5 +28,34 @@ public abstract class CSVHandler {
 
     public abstract void header(CsvReader r) throws IOException;
 
-    public abstract Geometry geom(CsvReader r) throws IOException;
+    public Geometry geom(CsvReader r) throws IOException {
+        return geom(r.getValues());
+    }
+
+    /**
+     * Builds the geometry of a row from its raw values.
+     * <p>
+     * Implementations must be thread safe, rows are parsed concurrently. Columns missing from
+     * the row are either past the end of the array or <code>null</code>.
+     * </p>
+     */
+    public abstract Geometry geom(String[] row) throws IOException;
+
+    /**
+     * Determines if the geometry of a row intersects a bounding box.
+     * <p>
+     * Implementations may test the raw values without building the geometry.
+     * </p>
+     */
+    public boolean intersects(String[] row, Envelope bbox) throws IOException {
+        Geometry g = geom(row);
+        return g != null && bbox.intersects(g.getEnvelopeInternal());
+    }
+
+    /**
+     * Returns the raw value of a column, or <code>null</code> if the row has no such column.
+     */
+    protected static String value(String[] row, int col) {
+        return col < row.length ? row[col] : null;
+    }
 }
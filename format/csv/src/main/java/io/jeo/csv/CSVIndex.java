@@ -0,0 +1,319 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.csv;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import io.jeo.geom.Bounds;
+import io.jeo.vector.ChunkCursor;
+import io.jeo.vector.SidecarIndex;
+
+/**
+ * Sidecar index of a csv file, see {@link SidecarIndex}.
+ * <p>
+ * The index records the byte offset of every {@link #INTERVAL}th record along with the number of
+ * records and their bounds. Since offsets, count, and bounds depend on how the file is parsed,
+ * the options they were computed with (header, delimiter, and x/y or wkt columns) are recorded
+ * as well, and the index is considered stale when they differ from those of the dataset.
+ * </p>
+ */
+class CSVIndex extends SidecarIndex {
+
+    static final Format<CSVDataset,CSVIndex> FORMAT =
+        new Format<CSVDataset,CSVIndex>("csv", 0x4a454f43, 3) {
+            @Override
+            protected File data(CSVDataset source) {
+                return source.file();
+            }
+
+            @Override
+            protected CSVIndex build(CSVDataset source) throws IOException {
+                return CSVIndex.build(source, INTERVAL);
+            }
+
+            @Override
+            protected boolean isValid(CSVIndex index, CSVDataset source) {
+                return super.isValid(index, source) && index.options.equals(Options.of(source.opts));
+            }
+
+            @Override
+            protected CSVIndex read(Header header, DataInputStream in) throws IOException {
+                Options options = Options.read(in);
+                int count = in.readInt();
+
+                Bounds bounds = new Bounds();
+                if (in.readBoolean()) {
+                    bounds.init(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+                }
+
+                int interval = in.readInt();
+                long[] offsets = new long[in.readInt()];
+                for (int i = 0; i < offsets.length; i++) {
+                    offsets[i] = in.readLong();
+                }
+
+                return new CSVIndex(header, options, count, bounds, interval, offsets);
+            }
+        };
+
+    /**
+     * Number of records between sampled offsets, configured with the
+     * <tt>jeo.csv.index.interval</tt> system property.
+     */
+    static final int INTERVAL = Integer.getInteger("jeo.csv.index.interval", 1024);
+
+    /**
+     * Opens the index of a csv dataset, building and saving it if it does not exist or is
+     * stale.
+     */
+    static CSVIndex open(CSVDataset csv) throws IOException {
+        return FORMAT.open(csv);
+    }
+
+    /**
+     * Builds the index by scanning the chunks of a csv file in parallel.
+     */
+    static CSVIndex build(final CSVDataset csv, final int interval) throws IOException {
+        Header header = FORMAT.header(csv.file(), null);
+
+        final CSVScanner scanner = new CSVScanner(csv, csv.chunkSize);
+        try (final FileChannel ch = scanner.open()) {
+            CSVScanner.Splitter splitter = scanner.new Splitter(ch, 0, 0);
+
+            List<Future<Summary>> tasks = new ArrayList<>();
+            try {
+                CSVScanner.Chunk next;
+                while ((next = splitter.next()) != null) {
+                    final CSVScanner.Chunk chunk = next;
+                    tasks.add(ChunkCursor.pool().submit(new Callable<Summary>() {
+                        @Override
+                        public Summary call() throws Exception {
+                            return scan(csv, scanner, ch, chunk, interval);
+                        }
+                    }));
+                }
+
+                long[] offsets = new long[16];
+                int n = 0;
+                int count = 0;
+                Bounds bounds = new Bounds();
+                for (Future<Summary> task : tasks) {
+                    Summary c = ChunkCursor.get(task);
+                    for (int i = 0; i < c.n; i++) {
+                        if (n == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, n * 2);
+                        }
+                        offsets[n++] = c.offsets[i];
+                    }
+                    count += c.count;
+                    bounds.expandToInclude(c.bounds);
+                }
+
+                return new CSVIndex(header, Options.of(csv.opts), count, bounds, interval,
+                    Arrays.copyOf(offsets, n));
+            }
+            finally {
+                for (Future<?> task : tasks) {
+                    task.cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Offsets, count, and bounds of the records of a chunk.
+     */
+    static class Summary {
+        long[] offsets = new long[16];
+        int n;
+        int count;
+        Envelope bounds = new Envelope();
+    }
+
+    static Summary scan(CSVDataset csv, CSVScanner scanner, FileChannel ch, CSVScanner.Chunk chunk,
+        int interval) throws IOException {
+        Summary c = new Summary();
+        if (chunk.end <= chunk.start) {
+            return c;
+        }
+
+        MappedByteBuffer buf = ch.map(MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+        CSVScanner.Record rec = scanner.new Record();
+
+        int row = chunk.row;
+        long pos = chunk.start;
+        while (rec.read(buf)) {
+            if (row % interval == 0) {
+                if (c.n == c.offsets.length) {
+                    c.offsets = Arrays.copyOf(c.offsets, c.n * 2);
+                }
+                c.offsets[c.n++] = pos;
+            }
+
+            Geometry g = csv.handler.geom(rec.values());
+            if (g != null) {
+                c.bounds.expandToInclude(g.getEnvelopeInternal());
+            }
+
+            c.count++;
+            row++;
+            pos = chunk.start + buf.position();
+        }
+        return c;
+    }
+
+    /**
+     * Reads a saved index.
+     */
+    static CSVIndex read(File file) throws IOException {
+        return FORMAT.read(file);
+    }
+
+    /**
+     * The options affecting how records are parsed.
+     */
+    static class Options {
+
+        final boolean header;
+        final char delimiter;
+
+        /** x, y, and wkt columns, each an index, a name not yet resolved by the handler, or null */
+        final Object x, y, wkt;
+
+        static Options of(CSVOpts opts) {
+            return new Options(opts.header(), opts.delimiter(),
+                opts.getX() != null ? opts.getX() : opts.getXcol(),
+                opts.getY() != null ? opts.getY() : opts.getYcol(),
+                opts.getWkt() != null ? opts.getWkt() : opts.getWktCol());
+        }
+
+        static Options read(DataInput in) throws IOException {
+            return new Options(in.readBoolean(), in.readChar(), column(in), column(in), column(in));
+        }
+
+        static Object column(DataInput in) throws IOException {
+            switch(in.readByte()) {
+            case 1:
+                return in.readInt();
+            case 2:
+                return in.readUTF();
+            default:
+                return null;
+            }
+        }
+
+        static void column(Object col, DataOutput out) throws IOException {
+            if (col instanceof Integer) {
+                out.writeByte(1);
+                out.writeInt((Integer) col);
+            }
+            else if (col != null) {
+                out.writeByte(2);
+                out.writeUTF(col.toString());
+            }
+            else {
+                out.writeByte(0);
+            }
+        }
+
+        Options(boolean header, char delimiter, Object x, Object y, Object wkt) {
+            this.header = header;
+            this.delimiter = delimiter;
+            this.x = x;
+            this.y = y;
+            this.wkt = wkt;
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeBoolean(header);
+            out.writeChar(delimiter);
+            column(x, out);
+            column(y, out);
+            column(wkt, out);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Options)) {
+                return false;
+            }
+
+            Options other = (Options) obj;
+            return header == other.header && delimiter == other.delimiter
+                && Objects.equals(x, other.x) && Objects.equals(y, other.y)
+                && Objects.equals(wkt, other.wkt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(header, delimiter, x, y, wkt);
+        }
+    }
+
+    final Options options;
+
+    final int count;
+    final Bounds bounds;
+
+    /** byte offsets of every interval-th record */
+    final int interval;
+    final long[] offsets;
+
+    CSVIndex(Header header, Options options, int count, Bounds bounds, int interval,
+        long[] offsets) {
+        super(header);
+        this.options = options;
+        this.count = count;
+        this.bounds = bounds;
+        this.interval = interval;
+        this.offsets = offsets;
+    }
+
+    @Override
+    protected void write(DataOutputStream out) throws IOException {
+        options.write(out);
+        out.writeInt(count);
+
+        out.writeBoolean(!bounds.isNull());
+        if (!bounds.isNull()) {
+            out.writeDouble(bounds.getMinX());
+            out.writeDouble(bounds.getMaxX());
+            out.writeDouble(bounds.getMinY());
+            out.writeDouble(bounds.getMaxY());
+        }
+
+        out.writeInt(interval);
+        out.writeInt(offsets.length);
+        for (long l : offsets) {
+            out.writeLong(l);
+        }
+    }
+}
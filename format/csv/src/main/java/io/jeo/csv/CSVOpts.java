@@ -28,6 +28,8 @@ public class CSVOpts {
 
     Character delim = DELIM.def();
     boolean header = HEADER.def();
+    int sample = SAMPLE.def();
+    boolean index = INDEX.def();
 
     String xcol, ycol, wktcol;
     Integer x, y, wkt;
@@ -36,7 +38,8 @@ public class CSVOpts {
 
     public static CSVOpts fromMap(Map<?, Object> map) {
         CSVOpts csvOpts = new CSVOpts();
-        csvOpts.delimiter(DELIM.get(map)).header(HEADER.get(map));
+        csvOpts.delimiter(DELIM.get(map)).header(HEADER.get(map)).sample(SAMPLE.get(map))
+            .index(INDEX.get(map));
         
         Object x = X.get(map);
         if (x instanceof Integer) {
@@ -67,6 +70,31 @@ public class CSVOpts {
         return this;
     }
 
+    public int sample() {
+        return sample;
+    }
+
+    /**
+     * Sets the number of rows sampled to infer column types, 0 disables inference and leaves
+     * columns untyped.
+     */
+    public CSVOpts sample(int sample) {
+        this.sample = sample;
+        return this;
+    }
+
+    public boolean index() {
+        return index;
+    }
+
+    /**
+     * Sets whether to maintain a sidecar index of row offsets, count, and bounds.
+     */
+    public CSVOpts index(boolean index) {
+        this.index = index;
+        return this;
+    }
+
     public CSVOpts xy(String x, String y) {
         this.xcol = x;
         this.ycol = y;
@@ -105,6 +133,8 @@ public class CSVOpts {
         map.put(HEADER, header);
         map.put(X, x != null ? x : xcol);
         map.put(Y, y != null ? y : ycol);
+        map.put(SAMPLE, sample);
+        map.put(INDEX, index);
         return map;
     }
 
@@ -132,6 +162,19 @@ public class CSVOpts {
         return wkt;
     }
 
+    /**
+     * Returns the type explicitly mapped to a column, or <code>null</code> if none.
+     */
+    Class<?> mapping(int col, String name) {
+        for (Pair<Object,Class<?>> m : mappings) {
+            Object key = m.first;
+            if (key instanceof Integer ? key.equals(col) : key.toString().equalsIgnoreCase(name)) {
+                return m.second;
+            }
+        }
+        return null;
+    }
+
     CSVHandler handler() {
         //sanity checks
 
@@ -0,0 +1,538 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.csv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.csvreader.CsvReader;
+import com.vividsolutions.jts.geom.Envelope;
+import io.jeo.filter.Filter;
+import io.jeo.filter.Filters;
+import io.jeo.geom.Bounds;
+import io.jeo.util.Util;
+import io.jeo.vector.ChunkCursor;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureCursor;
+import io.jeo.vector.VectorQuery;
+
+/**
+ * Parallel scanner for csv files.
+ * <p>
+ * The file is split at record boundaries into chunks of roughly {@link #CHUNK_SIZE} bytes, which
+ * are memory mapped and parsed as tasks on the pool shared through {@link ChunkCursor}.
+ * Finding boundaries only tracks quotes and line breaks, and is done just ahead of the chunks
+ * being parsed. Within a chunk rows are split into raw values, tested against the query bounds
+ * with {@link CSVHandler#intersects(String[], Envelope)}, and only then parsed into features
+ * that are tested against the query filter. The resulting cursor returns features in file order.
+ * </p>
+ * <p>
+ * Records follow the conventions of {@link com.csvreader.CsvReader}: values may be quoted with
+ * <tt>"</tt>, quotes in quoted values are doubled, whitespace around values is trimmed, and empty
+ * lines are skipped. Files with a delimiter outside the ascii range can not be split reliably
+ * and are read serially with a {@link CsvReader} instead.
+ * </p>
+ */
+class CSVScanner {
+
+    /**
+     * Approximate size in bytes of the chunks the file is split into, configured with the
+     * <tt>jeo.csv.chunk</tt> system property.
+     */
+    static final int CHUNK_SIZE = Integer.getInteger("jeo.csv.chunk", 4 * 1024 * 1024);
+
+    final CSVDataset csv;
+    final int chunkSize;
+    final byte delim;
+    final boolean chunked;
+
+    CSVScanner(CSVDataset csv, int chunkSize) {
+        this.csv = csv;
+        this.chunkSize = chunkSize;
+
+        char d = csv.opts.delimiter();
+        this.chunked = d < 128;
+        this.delim = chunked ? (byte) d : 0;
+    }
+
+    /**
+     * Determines if the file is split into chunks, which requires an ascii delimiter.
+     */
+    boolean isChunked() {
+        return chunked;
+    }
+
+    /**
+     * Reads the features matching the bounds and filter of a query, in file order.
+     * <p>
+     * The returned cursor has the bounds and filter of the query applied, the rest of the query
+     * is left to the caller.
+     * </p>
+     */
+    FeatureCursor read(VectorQuery q) throws IOException {
+        if (!chunked) {
+            return new Serial(q);
+        }
+        return read(q, 0, 0);
+    }
+
+    /**
+     * Reads the features matching the bounds and filter of a query, starting at a specific
+     * record.
+     * <p>
+     * Only supported when the file {@link #isChunked() is chunked}.
+     * </p>
+     *
+     * @param q The query.
+     * @param start Byte offset of the record to start at.
+     * @param row Number of the record to start at.
+     */
+    FeatureCursor read(VectorQuery q, long start, int row) throws IOException {
+        FileChannel ch = open();
+        try {
+            return new Cursor(ch, new Splitter(ch, start, row), q);
+        }
+        catch(IOException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    FileChannel open() throws IOException {
+        return FileChannel.open(csv.file().toPath(), StandardOpenOption.READ);
+    }
+
+    /**
+     * A range of the file along with the number of the first record in it.
+     */
+    static class Chunk {
+        final long start, end;
+        final int row;
+
+        Chunk(long start, long end, int row) {
+            this.start = start;
+            this.end = end;
+            this.row = row;
+        }
+    }
+
+    /**
+     * Finds chunk boundaries, tracking quoted values so records with quoted line breaks are not
+     * split.
+     */
+    class Splitter {
+
+        FileChannel ch;
+        long size;
+
+        ByteBuffer buf = ByteBuffer.allocate(65536);
+        long bufPos;
+
+        long pos;
+        int row;
+        boolean content;
+        Quotes quotes = new Quotes();
+
+        Splitter(FileChannel ch, long start, int row) throws IOException {
+            this.ch = ch;
+            this.size = ch.size();
+            this.buf.limit(0);
+            this.pos = start;
+            this.row = row;
+
+            if (start == 0 && csv.opts.header()) {
+                // skip past the header record
+                scan(1, size);
+                this.row = 0;
+            }
+        }
+
+        /**
+         * Returns the next chunk, or <code>null</code> at the end of the file.
+         */
+        Chunk next() throws IOException {
+            if (pos >= size) {
+                return null;
+            }
+
+            long start = pos;
+            int first = row;
+            long end = Math.min(start + chunkSize, size);
+
+            // move ahead to the nominal end, then to the end of the record there
+            scan(Integer.MAX_VALUE, end);
+            if (content) {
+                scan(1, size);
+            }
+
+            return new Chunk(start, pos, first);
+        }
+
+        /**
+         * Scans bytes until a number of records end or a position is reached.
+         */
+        void scan(int records, long limit) throws IOException {
+            int n = 0;
+            while (pos < limit && n < records) {
+                byte b = get(pos++);
+                if (quotes.next(b)) {
+                    if (content) {
+                        row++;
+                        n++;
+                    }
+                    content = false;
+                }
+                else if (b != '\r') {
+                    content = true;
+                }
+            }
+            if (pos >= size && content) {
+                // last record without a trailing line break
+                row++;
+                content = false;
+                quotes.reset();
+            }
+        }
+
+        byte get(long p) throws IOException {
+            int i = (int) (p - bufPos);
+            if (i < 0 || i >= buf.limit()) {
+                buf.clear();
+                bufPos = p;
+                while (buf.position() == 0) {
+                    if (ch.read(buf, p) < 0) {
+                        throw new IOException("Unexpected end of file");
+                    }
+                }
+                buf.flip();
+                i = 0;
+            }
+            return buf.get(i);
+        }
+    }
+
+    /**
+     * Tracks quoted values while stepping through the bytes of records.
+     * <p>
+     * As with {@link com.csvreader.CsvReader} a quote only opens a quoted value at the start of a
+     * value, after optional whitespace, and only closes one inside a quoted value, where a
+     * doubled quote is an escaped quote. Any other quote is part of the value.
+     * </p>
+     */
+    class Quotes {
+
+        boolean quoted, closed, start = true;
+
+        /**
+         * Steps over the next byte.
+         *
+         * @return <code>true</code> if the byte is a line break ending a record.
+         */
+        boolean next(byte b) {
+            if (quoted) {
+                if (b == '"') {
+                    quoted = false;
+                    closed = true;
+                }
+                return false;
+            }
+
+            if (b == '"') {
+                // opening quote, or the second of a doubled quote
+                if (start || closed) {
+                    quoted = true;
+                }
+                start = closed = false;
+                return false;
+            }
+
+            closed = false;
+            if (b == '\n') {
+                start = true;
+                return true;
+            }
+            if (b == delim) {
+                start = true;
+            }
+            else if (b != ' ' && b != '\t' && b != '\r') {
+                start = false;
+            }
+            return false;
+        }
+
+        void reset() {
+            quoted = closed = false;
+            start = true;
+        }
+    }
+
+    /**
+     * Parses the features of a chunk that match the bounds and filter of a query.
+     */
+    List<Feature> parse(FileChannel ch, Chunk chunk, VectorQuery q) throws IOException {
+        if (chunk.end <= chunk.start) {
+            return Collections.emptyList();
+        }
+
+        Envelope bbox = Bounds.isNull(q.bounds()) ? null : q.bounds();
+        Filter<Feature> filter = Filters.isTrueOrNull(q.filter()) ? null : q.filter();
+
+        MappedByteBuffer buf = ch.map(MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+
+        CSVTypes types = new CSVTypes();
+        List<Object> values = new ArrayList<>();
+        List<Feature> features = new ArrayList<>();
+
+        Record rec = new Record();
+        int row = chunk.row;
+        while (rec.read(buf)) {
+            String[] raw = rec.values();
+            if (bbox == null || csv.handler.intersects(raw, bbox)) {
+                Feature f = csv.feature(row, raw, rec.n, types, values);
+                if (filter == null || filter.test(f)) {
+                    features.add(f);
+                }
+            }
+            row++;
+        }
+        return features;
+    }
+
+    /**
+     * Reads records from a buffer.
+     */
+    class Record {
+
+        byte[] bytes = new byte[1024];
+        int len;
+
+        String[] values = new String[16];
+        int n;
+
+        Quotes quotes = new Quotes();
+
+        /**
+         * Reads the next non empty record.
+         *
+         * @return <code>false</code> if the buffer has no more records.
+         */
+        boolean read(ByteBuffer buf) {
+            while (buf.hasRemaining()) {
+                // copy out the bytes of the record
+                len = 0;
+                quotes.reset();
+                while (buf.hasRemaining()) {
+                    byte b = buf.get();
+                    if (quotes.next(b)) {
+                        break;
+                    }
+                    if (len == bytes.length) {
+                        bytes = Arrays.copyOf(bytes, len * 2);
+                    }
+                    bytes[len++] = b;
+                }
+
+                if (len > 0 && bytes[len-1] == '\r') {
+                    len--;
+                }
+                if (len > 0) {
+                    split();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Splits the record into values.
+         */
+        void split() {
+            int last = n;
+            n = 0;
+            int i = 0;
+            while (true) {
+                // leading whitespace
+                while (i < len && isSpace(bytes[i])) {
+                    i++;
+                }
+
+                String val;
+                if (i < len && bytes[i] == '"') {
+                    // quoted value, unescaping doubled quotes in place
+                    int start = ++i;
+                    int w = start;
+                    while (i < len) {
+                        byte b = bytes[i++];
+                        if (b == '"') {
+                            if (i < len && bytes[i] == '"') {
+                                i++;
+                            }
+                            else {
+                                break;
+                            }
+                        }
+                        bytes[w++] = b;
+                    }
+                    val = new String(bytes, start, w - start, Util.UTF_8);
+
+                    // skip anything after the closing quote up to the delimiter
+                    while (i < len && bytes[i] != delim) {
+                        i++;
+                    }
+                }
+                else {
+                    int start = i;
+                    while (i < len && bytes[i] != delim) {
+                        i++;
+                    }
+                    int end = i;
+                    while (end > start && isSpace(bytes[end-1])) {
+                        end--;
+                    }
+                    val = new String(bytes, start, end - start, Util.UTF_8);
+                }
+
+                if (n == values.length) {
+                    values = Arrays.copyOf(values, n * 2);
+                }
+                values[n++] = val;
+
+                if (i >= len) {
+                    break;
+                }
+                i++;
+            }
+
+            // clear values left from a longer record
+            if (last > n) {
+                Arrays.fill(values, n, last, null);
+            }
+        }
+
+        /**
+         * The values of the record, the array may be longer than the number of values in which
+         * case the remaining entries are <code>null</code>.
+         */
+        String[] values() {
+            return values;
+        }
+
+        boolean isSpace(byte b) {
+            return b == ' ' || b == '\t';
+        }
+    }
+
+    /**
+     * Cursor returning features in file order.
+     */
+    class Cursor extends ChunkCursor<Chunk> {
+
+        FileChannel ch;
+        Splitter splitter;
+        VectorQuery q;
+
+        Cursor(FileChannel ch, Splitter splitter, VectorQuery q) {
+            this.ch = ch;
+            this.splitter = splitter;
+            this.q = q;
+        }
+
+        @Override
+        protected Chunk chunk() throws IOException {
+            return splitter.next();
+        }
+
+        @Override
+        protected List<Feature> parse(Chunk chunk) throws IOException {
+            return CSVScanner.this.parse(ch, chunk, q);
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            if (ch != null) {
+                ch.close();
+                ch = null;
+            }
+        }
+    }
+
+    /**
+     * Cursor reading records one at a time with a {@link CsvReader}, for files that are not
+     * chunked.
+     */
+    class Serial extends FeatureCursor {
+
+        CsvReader reader;
+        Envelope bbox;
+        Filter<Feature> filter;
+
+        CSVTypes types = new CSVTypes();
+        List<Object> values = new ArrayList<>();
+        int row;
+        Feature next;
+
+        Serial(VectorQuery q) throws IOException {
+            bbox = Bounds.isNull(q.bounds()) ? null : q.bounds();
+            filter = Filters.isTrueOrNull(q.filter()) ? null : q.filter();
+
+            reader = csv.reader();
+            if (csv.opts.header()) {
+                reader.readHeaders();
+            }
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            while (next == null && reader.readRecord()) {
+                String[] raw = reader.getValues();
+                int i = row++;
+                if (bbox == null || csv.handler.intersects(raw, bbox)) {
+                    Feature f = csv.feature(i, raw, reader.getColumnCount(), types, values);
+                    if (filter == null || filter.test(f)) {
+                        next = f;
+                    }
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Feature next() throws IOException {
+            try {
+                return hasNext() ? next : null;
+            }
+            finally {
+                next = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.csv;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Infers the types of csv columns and parses raw values into them.
+ * <p>
+ * Supported types are Integer, Long, Double, Boolean, Date (ISO 8601), and String. Numbers are
+ * recognized by scanning characters rather than by catching parse exceptions. Empty values of
+ * non string columns are <code>null</code>. A value that does not fit the type of its column is
+ * parsed as the narrowest type it does fit.
+ * </p>
+ * <p>
+ * Instances hold date formats and are not thread safe, every cursor uses its own.
+ * </p>
+ */
+class CSVTypes {
+
+    static final String[] DATE_PATTERNS = new String[]{
+        "yyyy-MM-dd'T'HH:mm:ss.SSSXXX", "yyyy-MM-dd'T'HH:mm:ssXXX", "yyyy-MM-dd'T'HH:mm:ss.SSS",
+        "yyyy-MM-dd'T'HH:mm:ss", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd"
+    };
+
+    final SimpleDateFormat[] dateFormats;
+    final ParsePosition pos = new ParsePosition(0);
+
+    CSVTypes() {
+        dateFormats = new SimpleDateFormat[DATE_PATTERNS.length];
+        for (int i = 0; i < DATE_PATTERNS.length; i++) {
+            SimpleDateFormat df = new SimpleDateFormat(DATE_PATTERNS[i], Locale.ROOT);
+            df.setLenient(false);
+            df.setTimeZone(TimeZone.getTimeZone("UTC"));
+            dateFormats[i] = df;
+        }
+    }
+
+    /**
+     * Widens a column type to accommodate a value.
+     *
+     * @param type The current column type, <code>null</code> if not yet known.
+     * @param val The raw value.
+     *
+     * @return The new column type, <code>null</code> if still not known.
+     */
+    Class<?> infer(Class<?> type, String val) {
+        Class<?> t = typeOf(val);
+        if (t == null || t == type) {
+            return type;
+        }
+        if (type == null) {
+            return t;
+        }
+        if (isNumber(type) && isNumber(t)) {
+            return rank(t) > rank(type) ? t : type;
+        }
+        return String.class;
+    }
+
+    /**
+     * Parses a raw value.
+     *
+     * @param val The raw value.
+     * @param type The column type, <code>null</code> to use the narrowest type of the value.
+     */
+    Object parse(String val, Class<?> type) {
+        if (val == null) {
+            return null;
+        }
+        if (type == String.class) {
+            return val;
+        }
+
+        String s = val.trim();
+        if (s.isEmpty()) {
+            return type == null ? val : null;
+        }
+
+        if (type == Integer.class || type == Long.class || type == Double.class) {
+            Class<?> t = numberType(s);
+            if (t != null) {
+                return parseNumber(s, rank(t) > rank(type) ? t : type);
+            }
+        }
+        else if (type == Boolean.class) {
+            Boolean b = parseBoolean(s);
+            if (b != null) {
+                return b;
+            }
+        }
+        else if (type == Date.class) {
+            Date d = parseDate(s);
+            if (d != null) {
+                return d;
+            }
+        }
+
+        // no type or value does not fit, fall back to type of value
+        Class<?> t = typeOf(s);
+        if (t == String.class) {
+            return val;
+        }
+        return parse(s, t);
+    }
+
+    /**
+     * Determines the narrowest type of a raw value, <code>null</code> if the value is empty.
+     */
+    Class<?> typeOf(String val) {
+        String s = val.trim();
+        if (s.isEmpty()) {
+            return null;
+        }
+
+        Class<?> t = numberType(s);
+        if (t != null) {
+            return t;
+        }
+        if (parseBoolean(s) != null) {
+            return Boolean.class;
+        }
+        if (parseDate(s) != null) {
+            return Date.class;
+        }
+        return String.class;
+    }
+
+    Object parseNumber(String s, Class<?> type) {
+        if (type == Integer.class) {
+            return Integer.parseInt(s);
+        }
+        if (type == Long.class) {
+            return Long.parseLong(s);
+        }
+        return Double.parseDouble(s);
+    }
+
+    Boolean parseBoolean(String s) {
+        if ("true".equalsIgnoreCase(s)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(s)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    Date parseDate(String s) {
+        // cheap check before trying formats
+        if (s.length() < 10 || s.charAt(4) != '-' || s.charAt(7) != '-') {
+            return null;
+        }
+
+        for (SimpleDateFormat df : dateFormats) {
+            pos.setIndex(0);
+            pos.setErrorIndex(-1);
+            Date d = df.parse(s, pos);
+            if (d != null && pos.getIndex() == s.length()) {
+                return d;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Determines the narrowest numeric type of a trimmed value, or <code>null</code> if the
+     * value is not a number.
+     */
+    static Class<?> numberType(String s) {
+        int n = s.length();
+        int i = 0;
+
+        char c = s.charAt(0);
+        if (c == '-' || c == '+') {
+            if (n == 1) {
+                return null;
+            }
+            i++;
+        }
+
+        int digits = 0;
+        boolean decimal = false;
+        for (; i < n; i++) {
+            c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            }
+            else if (c == '.' || c == 'e' || c == 'E' || c == '-' || c == '+') {
+                decimal = true;
+            }
+            else {
+                return null;
+            }
+        }
+
+        if (digits == 0) {
+            return null;
+        }
+
+        if (decimal) {
+            try {
+                Double.parseDouble(s);
+                return Double.class;
+            }
+            catch(NumberFormatException e) {
+                return null;
+            }
+        }
+
+        if (digits < 10) {
+            return Integer.class;
+        }
+        if (digits < 19 || isLong(s)) {
+            long l = Long.parseLong(s);
+            return l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE ? Integer.class : Long.class;
+        }
+        return Double.class;
+    }
+
+    /**
+     * Determines if an optionally signed string of digits fits into a long, checking for
+     * overflow digit by digit.
+     */
+    static boolean isLong(String s) {
+        boolean neg = s.charAt(0) == '-';
+        int i = neg || s.charAt(0) == '+' ? 1 : 0;
+
+        // accumulate negatively, as Long.parseLong does, since negatives reach one further
+        long limit = neg ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long min = limit / 10;
+        long l = 0;
+        for (; i < s.length(); i++) {
+            int d = s.charAt(i) - '0';
+            if (l < min) {
+                return false;
+            }
+            l *= 10;
+            if (l < limit + d) {
+                return false;
+            }
+            l -= d;
+        }
+        return true;
+    }
+
+    static boolean isNumber(Class<?> type) {
+        return rank(type) > 0;
+    }
+
+    static int rank(Class<?> type) {
+        if (type == Integer.class) {
+            return 1;
+        }
+        if (type == Long.class) {
+            return 2;
+        }
+        if (type == Double.class) {
+            return 3;
+        }
+        return 0;
+    }
+}
@@ -52,9 +52,9 @@ public class WKTHandler extends CSVHandler {
     }
 
     @Override
-    public Geometry geom(CsvReader r) throws IOException {
-        String wkt = r.get(opts.getWkt());
-        if ("".equals(wkt)) {
+    public Geometry geom(String[] row) throws IOException {
+        String wkt = value(row, opts.getWkt());
+        if (wkt == null || "".equals(wkt)) {
             return null;
         }
 
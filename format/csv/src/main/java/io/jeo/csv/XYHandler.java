@@ -17,10 +17,11 @@ package io.jeo.csv;
 import java.io.IOException;
 import java.util.Locale;
 
-import io.jeo.geom.GeomBuilder;
-import io.jeo.util.Convert;
+import io.jeo.geom.Geom;
 
 import com.csvreader.CsvReader;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 
 /**
@@ -31,11 +32,9 @@ import com.vividsolutions.jts.geom.Geometry;
  */
 public class XYHandler extends CSVHandler {
     CSVOpts opts;
-    GeomBuilder gb;
 
     XYHandler(CSVOpts opts) {
         this.opts = opts;
-        this.gb = new GeomBuilder();
     }
 
     @Override
@@ -62,9 +61,35 @@ public class XYHandler extends CSVHandler {
     }
 
     @Override
-    public Geometry geom(CsvReader r) throws IOException {
-        Number x = Convert.toNumber(r.get(opts.getX())).get();
-        Number y = Convert.toNumber(r.get(opts.getY())).get();
-        return gb.point(x.doubleValue(), y.doubleValue()).toPoint();
+    public Geometry geom(String[] row) throws IOException {
+        String x = value(row, opts.getX());
+        String y = value(row, opts.getY());
+        if (isMissing(x) || isMissing(y)) {
+            return null;
+        }
+        return Geom.factory.createPoint(new Coordinate(ordinate(x), ordinate(y)));
+    }
+
+    @Override
+    public boolean intersects(String[] row, Envelope bbox) throws IOException {
+        String x = value(row, opts.getX());
+        String y = value(row, opts.getY());
+        if (isMissing(x) || isMissing(y)) {
+            return false;
+        }
+        return bbox.contains(ordinate(x), ordinate(y));
+    }
+
+    boolean isMissing(String val) {
+        return val == null || val.trim().isEmpty();
+    }
+
+    double ordinate(String val) throws IOException {
+        try {
+            return Double.parseDouble(val.trim());
+        }
+        catch(NumberFormatException e) {
+            throw new IOException("Invalid coordinate value: " + val, e);
+        }
     }
 }
@@ -15,16 +15,29 @@
 package io.jeo.csv;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 
 import io.jeo.Tests;
+import io.jeo.geom.Bounds;
+import io.jeo.util.Util;
+import io.jeo.vector.Feature;
+import io.jeo.vector.Schema;
 import io.jeo.vector.VectorQuery;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.csvreader.CsvReader;
 import com.vividsolutions.jts.geom.Envelope;
 
 public class CSVTest {
@@ -51,6 +64,271 @@ public class CSVTest {
         assertEquals(1, csv.read(new VectorQuery().filter("name = 'fire,cracker'")).count());
     }
 
+    @Test
+    public void testTypes() throws Exception {
+        Schema schema = csv.schema();
+        assertEquals(String.class, schema.field("name").type());
+        assertEquals(Double.class, schema.field("cost").type());
+        assertEquals(Integer.class, schema.field("lat").type());
+
+        Feature f = csv.read(new VectorQuery()).first().get();
+        assertEquals(1.99, f.get("cost"));
+        assertEquals(1, f.get("lat"));
+    }
+
+    @Test
+    public void testNumericFilter() throws Exception {
+        assertEquals(3, csv.count(new VectorQuery().filter("cost > 2.5")));
+        assertEquals(1, csv.count(new VectorQuery().filter("lat = 3")));
+    }
+
+    @Test
+    public void testInfer() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append("x,y,i,l,d,b,t,s,e").append("\n");
+        sb.append("1,2,1,1,1,true,2015-01-02,a,").append("\n");
+        sb.append("3,4,,10000000000,2.5,FALSE,2015-01-03T10:00:00Z,2,").append("\n");
+
+        csv = new CSVDataset(Tests.newTmpFile("jeo", "csv",
+            new ByteArrayInputStream(sb.toString().getBytes())).toFile(), new CSVOpts().xy("x", "y")
+            .map("s", String.class));
+
+        Schema schema = csv.schema();
+        assertEquals(Integer.class, schema.field("i").type());
+        assertEquals(Long.class, schema.field("l").type());
+        assertEquals(Double.class, schema.field("d").type());
+        assertEquals(Boolean.class, schema.field("b").type());
+        assertEquals(Date.class, schema.field("t").type());
+        assertEquals(String.class, schema.field("s").type());
+        assertEquals(String.class, schema.field("e").type());
+
+        List<Feature> features = new ArrayList<>();
+        for (Feature f : csv.read(new VectorQuery())) {
+            features.add(f);
+        }
+        assertEquals(1l, features.get(0).get("l"));
+        assertEquals(1d, features.get(0).get("d"));
+        assertNull(features.get(1).get("i"));
+        assertEquals(false, features.get(1).get("b"));
+        assertTrue(features.get(1).get("t") instanceof Date);
+        assertEquals("2", features.get(1).get("s"));
+    }
+
+    @Test
+    public void testInferLongs() throws Exception {
+        assertEquals(Long.class, CSVTypes.numberType("9223372036854775807"));
+        assertEquals(Long.class, CSVTypes.numberType("-9223372036854775808"));
+        assertEquals(Long.class, CSVTypes.numberType("+1000000000000000000"));
+        assertEquals(Integer.class, CSVTypes.numberType("0000000000000000000001"));
+        assertEquals(Double.class, CSVTypes.numberType("9223372036854775808"));
+        assertEquals(Double.class, CSVTypes.numberType("-9223372036854775809"));
+        assertEquals(Double.class, CSVTypes.numberType("10000000000000000000"));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("x,y,l").append("\n");
+        sb.append("1,2,1234567890123456789").append("\n");
+        sb.append("3,4,-9223372036854775808").append("\n");
+
+        csv = new CSVDataset(Tests.newTmpFile("jeo", "csv",
+            new ByteArrayInputStream(sb.toString().getBytes())).toFile(), new CSVOpts().xy("x", "y"));
+        assertEquals(Long.class, csv.schema().field("l").type());
+
+        List<Object> values = new ArrayList<>();
+        for (Feature f : csv.read(new VectorQuery())) {
+            values.add(f.get("l"));
+        }
+        assertEquals(Arrays.<Object>asList(1234567890123456789L, Long.MIN_VALUE), values);
+    }
+
+    @Test
+    public void testNoInference() throws Exception {
+        csv = new CSVDataset(csv.file(), new CSVOpts().xy("lon", "lat").sample(0));
+        assertEquals(Object.class, csv.schema().field("cost").type());
+        assertEquals(3, csv.count(new VectorQuery().filter("cost > 2.5")));
+    }
+
+    @Test
+    public void testScan() throws Exception {
+        csv = new CSVDataset(Tests.newTmpFile("jeo", "csv", grid()).toFile(),
+            new CSVOpts().xy("x", "y"));
+        csv.chunkSize = 64;
+
+        // compare against reading serially
+        CsvReader r = csv.reader();
+        r.readHeaders();
+        List<Feature> expected = new ArrayList<>();
+        while (r.readRecord()) {
+            expected.add(csv.feature(expected.size(), r.getValues(), r.getColumnCount(),
+                new CSVTypes(), new ArrayList<>()));
+        }
+        r.close();
+        assertEquals(200, expected.size());
+
+        List<Feature> actual = new ArrayList<>();
+        for (Feature f : csv.read(new VectorQuery())) {
+            actual.add(f);
+        }
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Feature e = expected.get(i);
+            Feature a = actual.get(i);
+            assertEquals(e.id(), a.id());
+            assertEquals(e.get("name"), a.get("name"));
+            assertEquals(e.get("note"), a.get("note"));
+            assertTrue(e.geometry().equalsExact(a.geometry()));
+        }
+        assertEquals("multi\nline \"quoted\"", actual.get(0).get("note"));
+
+        VectorQuery q = new VectorQuery().bounds(new Envelope(2.5, 5.5, 1.5, 3.5)).filter("x > 3");
+        assertEquals(4, csv.count(q));
+        for (Feature f : csv.read(q)) {
+            assertEquals(expected.get(Integer.parseInt(f.id())).get("name"), f.get("name"));
+        }
+    }
+
+    @Test
+    public void testStrayQuote() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append("name,x,y,note").append("\n");
+        sb.append("a,1,1,5 10\" tall").append("\n");
+        sb.append("b,2,2,\"quoted, \"\"twice\"\"\"").append("\n");
+        sb.append("c,3,3,plain").append("\n");
+
+        csv = new CSVDataset(Tests.newTmpFile("jeo", "csv",
+            new ByteArrayInputStream(sb.toString().getBytes())).toFile(), new CSVOpts().xy("x", "y"));
+
+        for (int chunkSize : new int[]{8, CSVScanner.CHUNK_SIZE}) {
+            csv.chunkSize = chunkSize;
+
+            List<Feature> features = new ArrayList<>();
+            for (Feature f : csv.read(new VectorQuery())) {
+                features.add(f);
+            }
+            assertEquals(3, features.size());
+            assertEquals("5 10\" tall", features.get(0).get("note"));
+            assertEquals("quoted, \"twice\"", features.get(1).get("note"));
+            assertEquals("c", features.get(2).get("name"));
+        }
+    }
+
+    @Test
+    public void testMissingColumns() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append("name,x,y").append("\n");
+        sb.append("a,1,1").append("\n");
+        sb.append("b,2").append("\n");
+        sb.append("c,3,3").append("\n");
+
+        csv = new CSVDataset(Tests.newTmpFile("jeo", "csv",
+            new ByteArrayInputStream(sb.toString().getBytes())).toFile(), new CSVOpts().xy("x", "y"));
+
+        List<Feature> features = new ArrayList<>();
+        for (Feature f : csv.read(new VectorQuery())) {
+            features.add(f);
+        }
+        assertEquals(3, features.size());
+        assertEquals("b", features.get(1).get("name"));
+        assertNull(features.get(1).geometry());
+        assertNull(features.get(1).get("y"));
+
+        assertEquals(2, csv.count(new VectorQuery().bounds(new Envelope(0, 4, 0, 4))));
+    }
+
+    @Test
+    public void testNonAsciiDelimiter() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append("name\u00a6x\u00a6y").append("\n");
+        sb.append("a\u00a61\u00a61").append("\n");
+        sb.append("\"b\u00a6c\"\u00a62\u00a62").append("\n");
+
+        csv = new CSVDataset(Tests.newTmpFile("jeo", "csv",
+            new ByteArrayInputStream(sb.toString().getBytes(Util.UTF_8))).toFile(),
+            new CSVOpts().xy("x", "y").delimiter('\u00a6').index(true));
+
+        assertNull(csv.index());
+        assertEquals(2, csv.count(new VectorQuery()));
+        assertEquals("b\u00a6c",
+            csv.read(new VectorQuery().bounds(new Envelope(1.5, 3, 1.5, 3))).first().get().get("name"));
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        File file = Tests.newTmpFile("jeo", "csv", grid()).toFile();
+        CSVDataset plain = new CSVDataset(file, new CSVOpts().xy("x", "y"));
+        csv = new CSVDataset(file, new CSVOpts().xy("x", "y").index(true));
+        csv.chunkSize = plain.chunkSize = 64;
+
+        CSVIndex idx = csv.index();
+        assertTrue(CSVIndex.file(file).exists());
+        assertEquals(200, idx.count);
+        assertEquals(plain.bounds(), csv.bounds());
+        assertEquals(200, csv.count(new VectorQuery()));
+        assertEquals(10, csv.count(new VectorQuery().offset(190)));
+
+        // use a small interval to page from the middle of the file
+        csv.index = CSVIndex.build(csv, 16);
+        for (int offset : new int[]{1, 15, 16, 17, 100, 199, 250}) {
+            VectorQuery q = new VectorQuery().offset(offset).limit(5);
+            List<String> expected = new ArrayList<>();
+            for (Feature f : plain.read(q)) {
+                expected.add(f.id() + f.get("note"));
+            }
+            List<String> actual = new ArrayList<>();
+            for (Feature f : csv.read(q)) {
+                actual.add(f.id() + f.get("note"));
+            }
+            assertEquals(expected, actual);
+        }
+
+        // saved index
+        CSVIndex saved = CSVIndex.read(CSVIndex.file(file));
+        assertEquals(200, saved.count);
+        assertEquals(idx.bounds, saved.bounds);
+        assertTrue(saved.isValid(file));
+
+        assertTrue(file.setLastModified(file.lastModified() - 10000));
+        assertFalse(saved.isValid(file));
+    }
+
+    @Test
+    public void testIndexOptions() throws Exception {
+        File file = Tests.newTmpFile("jeo", "csv", grid()).toFile();
+        CSVDataset xy = new CSVDataset(file, new CSVOpts().xy("x", "y").index(true));
+        assertEquals(new Bounds(0, 19, 0, 9), xy.bounds());
+
+        // the saved index was computed with other columns
+        CSVDataset yx = new CSVDataset(file, new CSVOpts().xy("y", "x").index(true));
+        assertEquals(new Bounds(0, 9, 0, 19), yx.bounds());
+        assertEquals(new Bounds(0, 9, 0, 19), CSVIndex.read(CSVIndex.file(file)).bounds);
+
+        // header and delimiter are part of the options too
+        CSVIndex saved = CSVIndex.read(CSVIndex.file(file));
+        assertEquals(CSVIndex.Options.of(yx.opts), saved.options);
+        assertFalse(saved.options.equals(CSVIndex.Options.of(new CSVOpts().xy("y", "x").delimiter(';'))));
+        assertFalse(saved.options.equals(CSVIndex.Options.of(new CSVOpts().header(false).xy(2, 1))));
+
+        // named columns are resolved once the header is read
+        assertEquals(saved.options, CSVIndex.Options.of(new CSVOpts().xy(2, 1)));
+        assertFalse(saved.options.equals(CSVIndex.Options.of(new CSVOpts().xy(1, 2))));
+    }
+
+    InputStream grid() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("name,x,y,note").append("\r\n");
+        for (int i = 0; i < 200; i++) {
+            sb.append("\"n, ").append(i).append("\",").append(i % 20).append(",")
+              .append(i / 20).append(",");
+            if (i % 7 == 0) {
+                sb.append("\"multi\nline \"\"quoted\"\"\"");
+            }
+            else {
+                sb.append(" plain ");
+            }
+            sb.append(i % 13 == 0 ? "\n\n" : "\r\n");
+        }
+        return new ByteArrayInputStream(sb.toString().getBytes());
+    }
+
     InputStream csv() {
         StringBuilder sb = new StringBuilder();
         
@@ -64,6 +64,11 @@ public class OGRFeature implements io.jeo.vector.Feature {
         return "geometry".equals(key) ? geometry() : field(f.GetFieldIndex(key));
     }
 
+    @Override
+    public Object get(int index) {
+        return get(schema.fields().get(index).name());
+    }
+
     @Override
     public Geometry geometry() {
         org.gdal.ogr.Geometry g = f.GetGeometryRef();
@@ -83,6 +88,11 @@ public class OGRFeature implements io.jeo.vector.Feature {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public io.jeo.vector.Feature put(int index, Object val) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public io.jeo.vector.Feature put(Geometry g) {
         throw new UnsupportedOperationException();
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Set;
 
 import io.jeo.data.FileDriver;
+import io.jeo.util.Key;
 import io.jeo.util.Messages;
 import io.jeo.vector.VectorDriver;
 import io.jeo.vector.Schema;
@@ -44,6 +45,11 @@ import io.jeo.vector.Schema;
  */
 public class Gbf extends FileDriver<GeobufDataset> implements VectorDriver<GeobufDataset> {
 
+    /**
+     * Key specifying whether to maintain a sidecar index of the file, see {@link GeobufDataset}.
+     */
+    public static final Key<Boolean> INDEX = new Key<>("index", Boolean.class, true);
+
     public static GeobufDataset open(Path path) throws IOException {
         return new Gbf().open(path.toFile(), null);
     }
@@ -63,9 +69,14 @@ public class Gbf extends FileDriver<GeobufDataset> implements VectorDriver<Geobu
         return GeobufDataset.class;
     }
     
+    @Override
+    public List<Key<?>> keys() {
+        return (List) Arrays.asList(FILE, INDEX);
+    }
+
     @Override
     public GeobufDataset open(File file, Map opts) throws IOException {
-        return new GeobufDataset(file);
+        return new GeobufDataset(file, !Boolean.FALSE.equals(INDEX.get(opts)));
     }
 
     @Override
@@ -17,12 +17,13 @@ package io.jeo.geobuf;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import io.jeo.data.Driver;
 import io.jeo.data.FileData;
-import io.jeo.geobuf.Geobuf.Data.DataTypeCase;
+import io.jeo.filter.Filters;
 import io.jeo.geom.Bounds;
 import io.jeo.util.Util;
 import io.jeo.vector.FeatureAppendCursor;
@@ -36,13 +37,37 @@ import io.jeo.util.Key;
 import io.jeo.vector.VectorQueryPlan;
 import org.osgeo.proj4j.CoordinateReferenceSystem;
 
+/**
+ * Geobuf feature collection file.
+ * <p>
+ * Features are streamed from the file with {@link GeobufStreamCursor} so files larger than the
+ * heap can be read.
+ * </p>
+ * <p>
+ * Unless disabled with the {@link Gbf#INDEX} option the dataset maintains a sidecar index of
+ * feature offsets and envelopes, see {@link GeobufIndex}. With the index bounded reads only
+ * decode the matching features, offset and limit seek directly to the features they select,
+ * and unfiltered counts and bounds come straight from the index.
+ * </p>
+ */
 public class GeobufDataset implements VectorDataset, FileData {
 
     File file;
-    GeobufReader reader;
+    boolean indexed;
+
+    GeobufIndex index;
+
+    /** crs of the file, along with the file size and modification time it was read at */
+    CoordinateReferenceSystem crs;
+    long crsSize, crsModified;
 
     public GeobufDataset(File file) throws IOException {
+        this(file, true);
+    }
+
+    public GeobufDataset(File file, boolean indexed) throws IOException {
         this.file = file;
+        this.indexed = indexed;
     }
 
     @Override
@@ -57,7 +82,12 @@ public class GeobufDataset implements VectorDataset, FileData {
 
     @Override
     public Map<Key<?>, Object> driverOptions() {
-        return (Map) Collections.singletonMap(Gbf.FILE, file);
+        Map<Key<?>,Object> opts = new LinkedHashMap<>();
+        opts.put(Gbf.FILE, file);
+        if (!indexed) {
+            opts.put(Gbf.INDEX, false);
+        }
+        return opts;
     }
 
     @Override
@@ -72,22 +102,93 @@ public class GeobufDataset implements VectorDataset, FileData {
 
     @Override
     public CoordinateReferenceSystem crs() throws IOException {
-        return reader().crs();
+        GeobufIndex idx = index();
+        if (idx != null) {
+            return idx.crs();
+        }
+
+        long size = file.length();
+        long modified = file.lastModified();
+        if (crs == null || crsSize != size || crsModified != modified) {
+            try (GeobufStreamCursor c = cursor()) {
+                crs = c.crs();
+            }
+            crsSize = size;
+            crsModified = modified;
+        }
+        return crs;
     }
 
     @Override
     public Bounds bounds() throws IOException {
+        GeobufIndex idx = index();
+        if (idx != null) {
+            return idx.bounds();
+        }
         return read(new VectorQuery()).bounds();
     }
 
     @Override
     public long count(VectorQuery q) throws IOException {
-      return read(q).count();
+        GeobufIndex idx = index();
+        if (idx != null && q.isAll()) {
+            return q.adjustCount(idx.count());
+        }
+        return read(q).count();
     }
 
     @Override
     public FeatureCursor read(VectorQuery q) throws IOException {
-        return new VectorQueryPlan(q).apply(reader().featureCollection());
+        VectorQueryPlan qp = new VectorQueryPlan(q);
+
+        GeobufIndex idx = index();
+        if (idx == null) {
+            return qp.apply(cursor());
+        }
+
+        // offset and limit can seek directly when nothing else selects features
+        boolean bounded = !Bounds.isNull(q.bounds());
+        boolean paged = (q.offset() != null || q.limit() != null)
+            && Filters.isTrueOrNull(q.filter()) && (q.sort() == null || q.sort().isEmpty());
+        if (!bounded && !paged) {
+            return qp.apply(cursor());
+        }
+
+        int[] features = bounded ? idx.query(q.bounds()) : null;
+        int n = features != null ? features.length : idx.count();
+
+        int from = 0, to = n;
+        if (paged) {
+            from = Math.min(q.offset() != null ? q.offset() : 0, n);
+            to = q.limit() != null ? Math.min(from + q.limit(), n) : n;
+            qp.offsetted();
+            qp.limited();
+        }
+
+        if (bounded) {
+            qp.bounded();
+            features = Arrays.copyOfRange(features, from, to);
+        }
+        else {
+            features = idx.range(from, to);
+        }
+
+        return qp.apply(idx.read(file, features));
+    }
+
+    /**
+     * Returns the sidecar index, or <code>null</code> if the dataset is not indexed or the file
+     * is empty.
+     */
+    synchronized GeobufIndex index() throws IOException {
+        if (!indexed || fileIsEmpty()) {
+            return null;
+        }
+
+        if (index == null || !index.isValid(file)) {
+            index = GeobufIndex.open(file);
+        }
+        return index;
     }
 
     @Override
@@ -105,21 +206,10 @@ public class GeobufDataset implements VectorDataset, FileData {
 
     @Override
     public void close() {
-        if (reader != null) {
-            reader.close();
-            reader = null;
-        }
     }
 
-    GeobufReader reader() throws IOException {
-        if (reader == null) {
-            reader = new GeobufReader(Files.newInputStream(file.toPath()));
-            if (reader.data.getDataTypeCase() != DataTypeCase.FEATURE_COLLECTION) {
-                // TODO: wrap geometry and feature?
-                throw new IOException("Geobuf not a feature collection");
-            }
-        }
-        return reader;
+    GeobufStreamCursor cursor() throws IOException {
+        return new GeobufStreamCursor(Files.newInputStream(file.toPath()));
     }
 
     GeobufWriter writer() throws IOException {
@@ -0,0 +1,152 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geobuf;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.protobuf.CodedInputStream;
+import io.jeo.geobuf.Geobuf.Data;
+import io.jeo.vector.Feature;
+import io.jeo.vector.FeatureIndex;
+
+/**
+ * Sidecar index of a geobuf feature collection file.
+ * <p>
+ * Along with the offset, length, and envelope of every feature message, see
+ * {@link FeatureIndex}, the index records the header of the collection (keys, dimension,
+ * precision, and crs) so that features can be decoded individually, in any order.
+ * </p>
+ */
+class GeobufIndex extends FeatureIndex {
+
+    static final Format<File,GeobufIndex> FORMAT =
+        new Format<File,GeobufIndex>("geobuf", 0x4a454f42, 2) {
+            @Override
+            protected File data(File source) {
+                return source;
+            }
+
+            @Override
+            protected GeobufIndex build(File source) throws IOException {
+                return GeobufIndex.build(source);
+            }
+
+            @Override
+            protected GeobufIndex read(Header header, DataInputStream in) throws IOException {
+                int nkeys = in.readInt();
+                List<String> keys = new ArrayList<>(nkeys);
+                for (int i = 0; i < nkeys; i++) {
+                    keys.add(in.readUTF());
+                }
+                int dim = in.readInt();
+                int precision = in.readInt();
+
+                return new GeobufIndex(header, keys, dim, precision, in);
+            }
+        };
+
+    /**
+     * Opens the index of a geobuf file, building and saving it if it does not exist or is
+     * stale.
+     */
+    static GeobufIndex open(File pbf) throws IOException {
+        return FORMAT.open(pbf);
+    }
+
+    /**
+     * Builds the index by streaming through a geobuf file.
+     */
+    static GeobufIndex build(File pbf) throws IOException {
+        long size = pbf.length();
+        long modified = pbf.lastModified();
+
+        Builder b = new Builder();
+        try (GeobufStreamCursor c = new GeobufStreamCursor(
+            new BufferedInputStream(new FileInputStream(pbf), 65536))) {
+            while (c.hasNext()) {
+                long offset = c.offset;
+                int length = c.length;
+                b.add(offset, length, c.next().geometry());
+            }
+
+            return new GeobufIndex(FORMAT.header(size, modified, c.findCRS()), new ArrayList<>(c.keys),
+                c.dim, c.precision, b);
+        }
+    }
+
+    /**
+     * Reads a saved index.
+     */
+    static GeobufIndex read(File file) throws IOException {
+        return FORMAT.read(file);
+    }
+
+    /** header of the collection */
+    final List<String> keys;
+    final int dim;
+    final int precision;
+
+    GeobufIndex(Header header, List<String> keys, int dim, int precision, Builder b) {
+        super(header, b);
+        this.keys = keys;
+        this.dim = dim;
+        this.precision = precision;
+    }
+
+    GeobufIndex(Header header, List<String> keys, int dim, int precision, DataInputStream in)
+        throws IOException {
+        super(header, in);
+        this.keys = keys;
+        this.dim = dim;
+        this.precision = precision;
+    }
+
+    @Override
+    protected void write(DataOutputStream out) throws IOException {
+        out.writeInt(keys.size());
+        for (String key : keys) {
+            out.writeUTF(key);
+        }
+        out.writeInt(dim);
+        out.writeInt(precision);
+
+        super.write(out);
+    }
+
+    @Override
+    protected Cursor cursor(FileChannel file, int[] features) {
+        final Data.Feature.Builder fb = Data.Feature.newBuilder();
+        final GeobufReader decoder = new GeobufReader(keys, dim, precision);
+
+        return new Cursor(file, features) {
+            @Override
+            protected Feature parse(byte[] buf, int len, int fid) throws IOException {
+                fb.clear();
+                CodedInputStream.newInstance(buf, 0, len)
+                    .readMessage(fb, GeobufStreamCursor.REGISTRY);
+
+                return decoder.decode(fb.build());
+            }
+        };
+    }
+}
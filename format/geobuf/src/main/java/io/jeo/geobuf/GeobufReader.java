@@ -49,6 +49,10 @@ import java.util.Map;
 
 /**
  * Reads a geobuf protocol buffer stream.
+ * <p>
+ * This reader materializes the entire geobuf payload in memory. Use {@link GeobufStreamCursor} to
+ * read the features of a large feature collection one at a time.
+ * </p>
  */
 public class GeobufReader implements Disposable {
 
@@ -88,6 +92,24 @@ public class GeobufReader implements Disposable {
         gFactory = new GeometryFactory(csFactory);
     }
 
+    /**
+     * Creates a reader used only to decode individual geobuf messages.
+     *
+     * @param keys The property keys, which may grow as the stream is read.
+     * @param dim The coordinate dimension.
+     * @param precision The coordinate precision.
+     */
+    GeobufReader(List<String> keys, int dim, int precision) {
+        this.in = null;
+        this.data = null;
+        this.keys = keys;
+        this.dim = dim;
+        this.e = Math.pow(10, precision);
+
+        csFactory = new PackedCoordinateSequenceFactory(PackedCoordinateSequenceFactory.DOUBLE, dim);
+        gFactory = new GeometryFactory(csFactory);
+    }
+
     public com.vividsolutions.jts.geom.Geometry geometry() {
         DataTypeCase type = data.getDataTypeCase();
         if (type != DataTypeCase.GEOMETRY) {
@@ -366,6 +388,9 @@ public class GeobufReader implements Disposable {
 
     @Override
     public void close() {
+        if (in == null) {
+            return;
+        }
         try {
             in.close();
         } catch (IOException e) {
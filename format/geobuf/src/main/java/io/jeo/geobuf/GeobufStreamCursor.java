@@ -0,0 +1,235 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geobuf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.WireFormat;
+import io.jeo.geobuf.Geobuf.Data.Feature;
+import io.jeo.geobuf.Geobuf.Data.Value;
+import io.jeo.proj.Proj;
+import io.jeo.vector.FeatureCursor;
+import org.osgeo.proj4j.CoordinateReferenceSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cursor that decodes the features of a geobuf feature collection one at a time.
+ * <p>
+ * Unlike {@link GeobufReader} the payload is never materialized, the stream is read with a
+ * {@link CodedInputStream} and only the current feature is held in memory. Both the standard
+ * layout, a single feature collection message, and a sequence of feature collection messages
+ * that protocol buffers merge into one are supported.
+ * </p>
+ */
+public class GeobufStreamCursor extends FeatureCursor {
+
+    static Logger LOG = LoggerFactory.getLogger(GeobufStreamCursor.class);
+
+    static final ExtensionRegistryLite REGISTRY = ExtensionRegistryLite.getEmptyRegistry();
+
+    InputStream raw;
+    CodedInputStream in;
+
+    // header
+    List<String> keys = new ArrayList<>();
+    int dim = 2;
+    int precision = 6;
+
+    // feature collection values and custom properties
+    List<Value> values = new ArrayList<>();
+    List<Integer> props = new ArrayList<>();
+
+    // limit of the feature collection being read, -1 when reading top level fields
+    int limit = -1;
+
+    GeobufReader decoder;
+    Feature.Builder fb = Feature.newBuilder();
+    Feature next;
+
+    // bytes read before the last reset of the size counter
+    long base;
+
+    // byte offset and length of the next feature message, including its length prefix
+    long offset;
+    int length;
+
+    public GeobufStreamCursor(InputStream in) {
+        this.raw = in;
+        this.in = CodedInputStream.newInstance(in);
+        this.in.setSizeLimit(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (next == null) {
+            next = advance(false);
+        }
+        return next != null;
+    }
+
+    @Override
+    public io.jeo.vector.Feature next() throws IOException {
+        try {
+            return hasNext() ? decoder().decode(next) : null;
+        }
+        finally {
+            next = null;
+        }
+    }
+
+    /**
+     * Reads the crs of the feature collection.
+     * <p>
+     * The crs usually comes after the features, which are skipped without being decoded. In that case the cursor is consumed, this method should be called on a cursor
+     * used for nothing else.
+     * </p>
+     *
+     * @return The crs, or <code>null</code> if the collection declares none.
+     */
+    public CoordinateReferenceSystem crs() throws IOException {
+        CoordinateReferenceSystem crs = findCRS();
+        boolean more = true;
+        while (crs == null && more) {
+            more = next != null || advance(true) != null;
+            next = null;
+            crs = findCRS();
+        }
+        return crs;
+    }
+
+    CoordinateReferenceSystem findCRS() {
+        int key = keys.indexOf(CustomKeys.CRS);
+        if (key < 0) {
+            return null;
+        }
+
+        for (int i = 0; i+1 < props.size(); i += 2) {
+            if (props.get(i) == key) {
+                Object val = decoder().decode(values.get(props.get(i+1)));
+                return val != null ? Proj.crs(val.toString()) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads up to the next feature.
+     *
+     * @param skip Whether to skip over features, returning a placeholder rather than parsing.
+     *
+     * @return The feature, or <code>null</code> at the end of the stream.
+     */
+    Feature advance(boolean skip) throws IOException {
+        while (true) {
+            if (limit > -1) {
+                // within a feature collection
+                if (in.isAtEnd()) {
+                    in.popLimit(limit);
+                    limit = -1;
+
+                    // keep the size counter from overflowing on large streamed files
+                    base += in.getTotalBytesRead();
+                    in.resetSizeCounter();
+                    continue;
+                }
+
+                int tag = in.readTag();
+                switch(WireFormat.getTagFieldNumber(tag)) {
+                    case 1:
+                        offset = base + in.getTotalBytesRead();
+                        if (skip) {
+                            in.skipField(tag);
+                            length = (int) (base + in.getTotalBytesRead() - offset);
+                            return Feature.getDefaultInstance();
+                        }
+                        fb.clear();
+                        in.readMessage(fb, REGISTRY);
+                        length = (int) (base + in.getTotalBytesRead() - offset);
+                        return fb.build();
+                    case 13:
+                        Value.Builder vb = Value.newBuilder();
+                        in.readMessage(vb, REGISTRY);
+                        values.add(vb.build());
+                        break;
+                    case 15:
+                        if ((tag & 7) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                            int old = in.pushLimit(in.readRawVarint32());
+                            while (!in.isAtEnd()) {
+                                props.add(in.readUInt32());
+                            }
+                            in.popLimit(old);
+                        }
+                        else {
+                            props.add(in.readUInt32());
+                        }
+                        break;
+                    default:
+                        in.skipField(tag);
+                }
+            }
+            else {
+                int tag = in.readTag();
+                switch(WireFormat.getTagFieldNumber(tag)) {
+                    case 0:
+                        // end of stream
+                        return null;
+                    case 1:
+                        keys.add(in.readString());
+                        break;
+                    case 2:
+                        dim = in.readUInt32();
+                        break;
+                    case 3:
+                        precision = in.readUInt32();
+                        break;
+                    case 4:
+                        limit = in.pushLimit(in.readRawVarint32());
+                        break;
+                    case 5:
+                    case 6:
+                        throw new IOException("Geobuf not a feature collection");
+                    default:
+                        in.skipField(tag);
+                }
+            }
+        }
+    }
+
+    GeobufReader decoder() {
+        if (decoder == null) {
+            // the header precedes the feature collection so it is complete at this point
+            decoder = new GeobufReader(keys, dim, precision);
+        }
+        return decoder;
+    }
+
+    @Override
+    public void close() {
+        if (raw != null) {
+            try {
+                raw.close();
+            } catch (IOException e) {
+                LOG.debug("Error closing geobuf stream", e);
+            }
+            raw = null;
+        }
+    }
+}
@@ -14,6 +14,8 @@
  */
 package io.jeo.geobuf;
 
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.LineString;
@@ -34,7 +36,6 @@ import io.jeo.geobuf.Geobuf.Data.Value;
 import io.jeo.geom.Geom;
 import io.jeo.geom.GeometryAdapter;
 import io.jeo.proj.Proj;
-import io.jeo.util.Function;
 import io.jeo.vector.FeatureCursor;
 import io.jeo.vector.Features;
 import io.jeo.vector.Field;
@@ -42,8 +43,12 @@ import org.osgeo.proj4j.CoordinateReferenceSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -52,6 +57,13 @@ import static io.jeo.geobuf.CustomKeys.CRS;
 
 /**
  * Writes a geobuf protocol buffer stream.
+ * <p>
+ * Feature collections, whether written with {@link #write(Object)} from a cursor or feature by
+ * feature with {@link #append(io.jeo.vector.Feature)}, are written as a single feature collection
+ * message, the same layout as other geobuf encoders. So that memory use does not grow with the
+ * number of features, encoded features are spooled to a temporary file and copied to the output
+ * once the length of the collection is known.
+ * </p>
  */
 public class GeobufWriter implements Disposable {
 
@@ -60,6 +72,12 @@ public class GeobufWriter implements Disposable {
     OutputStream out;
     Data.Builder data;
 
+    // spool of encoded features, null until the first feature is streamed
+    File spoolFile;
+    OutputStream spoolOut;
+    CodedOutputStream spool;
+    boolean finished;
+
     int dim = 2;
     double e = 1;
     double maxPrecision = 1E6;
@@ -68,14 +86,12 @@ public class GeobufWriter implements Disposable {
     Map<String,Integer> keys = new LinkedHashMap<>();
     int keyIndex;
 
-    FeatureCollection.Builder fcb;
     Feature.Builder fb;
     Value.Builder vb;
 
     public GeobufWriter(OutputStream out) {
         this.out = out;
         data = Data.newBuilder();
-        fcb = FeatureCollection.newBuilder();
         fb = Feature.newBuilder();
         vb = Value.newBuilder();
     }
@@ -96,6 +112,10 @@ public class GeobufWriter implements Disposable {
         // add custom property keys
         keys.put(CRS, keyIndex++);
 
+        if (obj instanceof FeatureCursor) {
+            return encode((FeatureCursor)obj);
+        }
+
         // encode keys
         data.addAllKeys(keys.keySet());
 
@@ -105,9 +125,6 @@ public class GeobufWriter implements Disposable {
         else if (obj instanceof io.jeo.vector.Feature) {
             encode((io.jeo.vector.Feature)obj);
         }
-        else if (obj instanceof FeatureCursor) {
-            encode((FeatureCursor)obj);
-        }
         else {
             throw new IllegalArgumentException("Unable to encode object as geobuf: " + obj);
         }
@@ -116,16 +133,26 @@ public class GeobufWriter implements Disposable {
     }
 
     public GeobufWriter append(io.jeo.vector.Feature f) throws IOException {
-        if (data.getFeatureCollection() == null) {
-            data.setFeatureCollection(fcb);
+        if (spool == null) {
+            // later features are unknown so use full precision
+            e = maxPrecision;
+            analyze(f);
+            keys.put(CRS, keyIndex++);
+            begin();
         }
 
-        fcb.addFeatures(doEncode(f));
+        stream(f);
         return this;
     }
 
     public GeobufWriter write() throws IOException {
-        data.build().writeTo(out);
+        if (spool != null) {
+            finish();
+        }
+        else if (!finished) {
+            data.build().writeTo(out);
+        }
+        out.flush();
         return this;
     }
 
@@ -153,7 +180,7 @@ public class GeobufWriter implements Disposable {
                 data.setDimensions(dim);
             }
 
-            int p = (int) Math.ceil(Math.log(e) / Math.log(10));
+            int p = precision();
             if (p != 6) {
                 data.setPrecision(p);
             }
@@ -196,6 +223,10 @@ public class GeobufWriter implements Disposable {
         return obj;
     }
 
+    int precision() {
+        return (int) Math.ceil(Math.log(e) / Math.log(10));
+    }
+
     GeobufWriter upPrecision(Point point) {
         upPrecision(point.getX()).upPrecision(point.getY());
         if (dim > 2) {
@@ -331,22 +362,91 @@ public class GeobufWriter implements Disposable {
     }
 
     GeobufWriter encode(FeatureCursor cursor) throws IOException {
-        FeatureCollection.Builder b = FeatureCollection.newBuilder();
+        begin();
+        while (cursor.hasNext()) {
+            stream(cursor.next());
+        }
+        finish();
+        return this;
+    }
 
-        if (crs != null) {
-            b.addValues(encodeValue(Proj.toString(crs)));
-            b.addCustomProperties(keys.get(CRS));
-            b.addCustomProperties(b.getValuesCount()-1);
+    /**
+     * Starts streaming a feature collection, opening the spool file for features.
+     */
+    void begin() throws IOException {
+        spoolFile = File.createTempFile("geobuf", ".spool");
+        spoolOut = new BufferedOutputStream(new FileOutputStream(spoolFile), 65536);
+        spool = CodedOutputStream.newInstance(spoolOut);
+    }
+
+    /**
+     * Encodes a single feature to the spool as an element of the feature collection.
+     */
+    void stream(io.jeo.vector.Feature f) throws IOException {
+        // keys missed by the analysis are still written ahead of the collection
+        for (Map.Entry<String,Object> kv : f.map().entrySet()) {
+            String key = kv.getKey();
+            if (!(kv.getValue() instanceof com.vividsolutions.jts.geom.Geometry)
+                && !keys.containsKey(key)) {
+                keys.put(key, keyIndex++);
+            }
         }
 
-        b.addAllFeatures(cursor.map(new Function<io.jeo.vector.Feature, Feature>() {
-            @Override
-            public Feature apply(io.jeo.vector.Feature f) {
-                return doEncode(f);
+        spool.writeMessage(1, doEncode(f));
+    }
+
+    /**
+     * Writes the keys, dimension, and precision followed by a single feature collection message
+     * made up of the spooled features and the crs.
+     */
+    void finish() throws IOException {
+        try {
+            spool.flush();
+            spoolOut.close();
+
+            // crs is a custom property of the collection, after the features
+            FeatureCollection.Builder b = FeatureCollection.newBuilder();
+            if (crs != null) {
+                b.addValues(encodeValue(Proj.toString(crs)));
+                b.addCustomProperties(keys.get(CRS));
+                b.addCustomProperties(b.getValuesCount()-1);
             }
-        }));
-        data.setFeatureCollection(b.build());
-        return this;
+            FeatureCollection trailer = b.build();
+
+            long length = spoolFile.length() + trailer.getSerializedSize();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Feature collection too large for geobuf: " + length);
+            }
+
+            CodedOutputStream cout = CodedOutputStream.newInstance(out);
+            for (String key : keys.keySet()) {
+                cout.writeString(1, key);
+            }
+            if (dim != 2) {
+                cout.writeUInt32(2, dim);
+            }
+            int p = precision();
+            if (p != 6) {
+                cout.writeUInt32(3, p);
+            }
+
+            cout.writeTag(4, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            cout.writeRawVarint32((int) length);
+            cout.flush();
+
+            Files.copy(spoolFile.toPath(), out);
+
+            trailer.writeTo(out);
+            out.flush();
+        }
+        finally {
+            spool = null;
+            finished = true;
+            if (!spoolFile.delete()) {
+                spoolFile.deleteOnExit();
+            }
+            spoolFile = null;
+        }
     }
 
     Value encodeValue(Object obj) {
@@ -461,6 +561,9 @@ public class GeobufWriter implements Disposable {
 
     public void close() {
         try {
+            if (spool != null) {
+                finish();
+            }
             out.flush();
             out.close();
         }
@@ -0,0 +1,110 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geobuf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vividsolutions.jts.geom.Envelope;
+import io.jeo.Tests;
+import io.jeo.vector.Feature;
+import io.jeo.vector.VectorQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GeobufIndexTest {
+
+    GeobufDataset indexed;
+    GeobufDataset plain;
+
+    @Before
+    public void setUp() throws Exception {
+        Path f = Tests.gunzip(getClass().getResourceAsStream("states.pbf.gz"),
+            Tests.newTmpDir("states", "pbf"), "states.pbf");
+        indexed = new GeobufDataset(f.toFile(), true);
+        plain = new GeobufDataset(f.toFile(), false);
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        GeobufIndex idx = indexed.index();
+        assertNotNull(idx);
+        assertTrue(GeobufIndex.file(indexed.file()).exists());
+        assertEquals(49, idx.count());
+        assertEquals(plain.crs(), indexed.crs());
+        assertEquals(plain.bounds(), indexed.bounds());
+        assertEquals(plain.count(new VectorQuery()), indexed.count(new VectorQuery()));
+
+        // reopening uses the saved index
+        GeobufIndex saved = GeobufIndex.read(GeobufIndex.file(indexed.file()));
+        assertEquals(idx.count(), saved.count());
+        assertEquals(idx.bounds(), saved.bounds());
+        assertEquals(idx.keys, saved.keys);
+    }
+
+    @Test
+    public void testBounds() throws Exception {
+        Envelope bbox = new Envelope(-106.649513, -93.507217, 25.845198, 36.493877);
+        VectorQuery q = new VectorQuery().bounds(bbox);
+        assertEquals(names(plain, q), names(indexed, q));
+
+        q = new VectorQuery().bounds(bbox).offset(1).limit(2);
+        assertEquals(names(plain, q), names(indexed, q));
+    }
+
+    @Test
+    public void testPaging() throws Exception {
+        VectorQuery q = new VectorQuery().offset(10).limit(5);
+        List<String> names = names(indexed, q);
+        assertEquals(5, names.size());
+        assertEquals(names(plain, q), names);
+
+        q = new VectorQuery().offset(45).limit(10);
+        assertEquals(names(plain, q), names(indexed, q));
+
+        q = new VectorQuery().offset(100);
+        assertEquals(0, names(indexed, q).size());
+
+        q = new VectorQuery().filter("STATE_ABBR LIKE 'M%'").limit(3);
+        assertEquals(names(plain, q), names(indexed, q));
+    }
+
+    @Test
+    public void testStaleIndex() throws Exception {
+        GeobufIndex idx = indexed.index();
+        assertSame(idx, indexed.index());
+
+        File file = indexed.file();
+        assertTrue(file.setLastModified(file.lastModified() - 10000));
+        assertNotSame(idx, indexed.index());
+        assertEquals(file.lastModified(), GeobufIndex.read(GeobufIndex.file(file)).modified());
+    }
+
+    List<String> names(GeobufDataset data, VectorQuery q) throws Exception {
+        List<String> names = new ArrayList<>();
+        for (Feature f : data.read(q)) {
+            names.add((String) f.get("STATE_NAME"));
+        }
+        return names;
+    }
+}
@@ -20,13 +20,19 @@ import static org.junit.Assert.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
 import io.jeo.TestData;
 import io.jeo.geom.Geom;
+import io.jeo.proj.Proj;
 import io.jeo.vector.Feature;
 import io.jeo.vector.FeatureCursor;
 import io.jeo.vector.MapFeature;
@@ -160,6 +166,131 @@ public class GeobufTest {
         assertEquals(TestData.states().read(all()).count(), fc.count());
     }
 
+    @Test
+    public void testStreamFeatureCollection() throws Exception {
+        writer().write(TestData.states().read(all()));
+        assertSingleCollection();
+
+        FeatureCursor fc = reader().featureCollection();
+        assertEquals(TestData.states().read(all()).count(), fc.count());
+
+        try (GeobufStreamCursor c = streamReader()) {
+            FeatureCursor expected = TestData.states().read(all());
+            while (expected.hasNext()) {
+                Feature f1 = expected.next();
+                assertTrue(c.hasNext());
+                Feature f2 = c.next();
+                assertTrue(f1.geometry().equalsExact(f2.geometry()));
+                assertEquals(f1.get("STATE_NAME"), f2.get("STATE_NAME"));
+            }
+            assertFalse(c.hasNext());
+        }
+
+        try (GeobufStreamCursor c = streamReader()) {
+            assertEquals(reader().crs(), c.crs());
+        }
+    }
+
+    @Test
+    public void testStreamOriginalLayout() throws Exception {
+        // a single feature collection message, with the crs after the features
+        GeobufReader r = new GeobufReader(states());
+        try (GeobufStreamCursor c = new GeobufStreamCursor(states())) {
+            assertEquals(r.featureCollection().count(), c.count());
+        }
+        try (GeobufStreamCursor c = new GeobufStreamCursor(states())) {
+            assertNotNull(c.crs());
+            assertEquals(r.crs(), c.crs());
+        }
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        Map<String,Object> map = new LinkedHashMap<>();
+        map.put("geometry", Proj.crs(Geom.point(1.123, 2), Proj.EPSG_4326, false));
+        map.put("name", "one");
+
+        try (GeobufWriter w = writer()) {
+            w.append(new MapFeature("1", map));
+
+            map.put("geometry", Geom.point(3, 4.5));
+            map.put("name", "two");
+            map.put("extra", 2);
+            w.append(new MapFeature("2", map));
+            w.write();
+        }
+        assertSingleCollection();
+
+        try (GeobufStreamCursor c = streamReader()) {
+            Feature f = c.next();
+            assertEquals("one", f.get("name"));
+            assertTrue(Geom.point(1.123, 2).equalsExact(f.geometry()));
+
+            f = c.next();
+            assertEquals("two", f.get("name"));
+            assertEquals(2l, f.get("extra"));
+            assertTrue(Geom.point(3, 4.5).equalsExact(f.geometry()));
+            assertFalse(c.hasNext());
+        }
+
+        assertEquals(2, reader().featureCollection().count());
+
+        try (GeobufStreamCursor c = streamReader()) {
+            assertNotNull(c.crs());
+        }
+    }
+
+    @Test
+    public void testStreamMergedLayout() throws Exception {
+        // a sequence of feature collection messages, merged by protocol buffers on read
+        Map<String,Object> map = new LinkedHashMap<>();
+        map.put("geometry", Geom.point(1, 2));
+        map.put("name", "one");
+
+        GeobufWriter w = writer();
+        w.analyze(new MapFeature("1", map));
+        Geobuf.Data.Feature f1 = w.doEncode(new MapFeature("1", map));
+        map.put("name", "two");
+        Geobuf.Data.Feature f2 = w.doEncode(new MapFeature("2", map));
+
+        CodedOutputStream cout = CodedOutputStream.newInstance(out);
+        cout.writeString(1, "name");
+        cout.writeMessage(4, Geobuf.Data.FeatureCollection.newBuilder().addFeatures(f1).build());
+        cout.writeMessage(4, Geobuf.Data.FeatureCollection.newBuilder().addFeatures(f2).build());
+        cout.flush();
+
+        try (GeobufStreamCursor c = streamReader()) {
+            assertEquals("one", c.next().get("name"));
+            assertEquals("two", c.next().get("name"));
+            assertFalse(c.hasNext());
+        }
+    }
+
+    /**
+     * Asserts the output holds exactly one top level feature collection message, as other geobuf
+     * decoders reset the feature list on every one they see.
+     */
+    void assertSingleCollection() throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(out.toByteArray());
+        int n = 0;
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            if (WireFormat.getTagFieldNumber(tag) == 4) {
+                n++;
+            }
+            in.skipField(tag);
+        }
+        assertEquals(1, n);
+    }
+
+    InputStream states() throws IOException {
+        return new GZIPInputStream(getClass().getResourceAsStream("states.pbf.gz"));
+    }
+
+    GeobufStreamCursor streamReader() {
+        return new GeobufStreamCursor(new ByteArrayInputStream(out.toByteArray()));
+    }
+
     GeobufWriter writer() throws IOException {
         return new GeobufWriter(out);
     }
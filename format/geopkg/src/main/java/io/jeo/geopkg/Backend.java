@@ -29,6 +29,17 @@ public abstract class Backend extends io.jeo.sql.Backend {
 
     protected final DbTypes dbTypes = new GeoPkgTypes();
 
+    /**
+     * Whether the backend can create and maintain the RTree spatial index of a feature table.
+     * <p>
+     * Maintaining the index requires the <tt>ST_*</tt> functions its triggers call to be
+     * available to the database.
+     * </p>
+     */
+    public boolean canCreateSpatialIndex() {
+        return false;
+    }
+
     final FeatureEntry createFeatureEntry(Results rs) throws IOException {
         FeatureEntry e = new FeatureEntry();
 
@@ -16,11 +16,13 @@ package io.jeo.geopkg;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import io.jeo.sql.SQLiteOpts;
 import io.jeo.vector.FileVectorDriver;
 import io.jeo.vector.Schema;
 import io.jeo.util.Key;
@@ -45,6 +47,18 @@ public abstract class GeoPkgBaseDriver extends FileVectorDriver<GeoPkgWorkspace>
      */
     public static final Key<Password> PASSWD = new Key<Password>("passwd", Password.class);
 
+    /**
+     * Spatial index key, controls whether feature tables are created with an RTree spatial
+     * index, defaults to <tt>true</tt>.
+     */
+    public static final Key<Boolean> SPATIAL_INDEX = new Key<Boolean>("spatial_index", Boolean.class, true);
+
+    /**
+     * Batch size key, the number of features appended per batch and, outside of a transaction,
+     * per commit, defaults to <tt>10000</tt>.
+     */
+    public static final Key<Integer> BATCH_SIZE = new Key<Integer>("batch_size", Integer.class, 10000);
+
     @Override
     public final GeoPkgWorkspace open(File file, Map<?, Object> opts) throws IOException {
         GeoPkgOpts gpkgOpts = GeoPkgOpts.fromMap(opts);
@@ -61,7 +75,9 @@ public abstract class GeoPkgBaseDriver extends FileVectorDriver<GeoPkgWorkspace>
 
     @Override
     public final List<Key<?>> keys() {
-        return (List) Arrays.asList(FILE, USER, PASSWD);
+        List<Key<?>> keys = new ArrayList<>(Arrays.<Key<?>>asList(FILE, USER, PASSWD, SPATIAL_INDEX, BATCH_SIZE));
+        keys.addAll(SQLiteOpts.KEYS);
+        return keys;
     }
 
     @Override
@@ -0,0 +1,108 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geopkg;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.vividsolutions.jts.geom.Geometry;
+import io.jeo.geopkg.geom.GeoPkgGeomReader;
+import io.jeo.vector.Feature;
+import io.jeo.vector.ListFeature;
+import io.jeo.vector.Schema;
+
+/**
+ * Feature read from a GeoPackage that decodes its geometry blob on first access.
+ * <p>
+ * Features may outlive the cursor and be handed to other threads, so decoding is synchronized
+ * and uses {@link GeoPkgGeomReader#decode(byte[])}. The blob is only cleared once the decoded
+ * geometry has been stored.
+ * </p>
+ */
+class GeoPkgFeature extends ListFeature {
+
+    final int geom;
+    volatile byte[] blob;
+
+    GeoPkgFeature(String id, Schema schema, List<Object> values, int geom, byte[] blob) {
+        super(id, schema, values);
+        this.geom = geom;
+        this.blob = blob;
+    }
+
+    @Override
+    public Object get(String key) {
+        if (blob != null && schema().indexOf(key) == geom) {
+            decode();
+        }
+        return super.get(key);
+    }
+
+    @Override
+    public Object get(int index) {
+        if (blob != null && index == geom) {
+            decode();
+        }
+        return super.get(index);
+    }
+
+    @Override
+    public Geometry geometry() {
+        decode();
+        return super.geometry();
+    }
+
+    @Override
+    public synchronized Feature put(String key, Object val) {
+        if (schema().indexOf(key) == geom) {
+            blob = null;
+        }
+        return super.put(key, val);
+    }
+
+    @Override
+    public synchronized Feature put(int index, Object val) {
+        if (index == geom) {
+            blob = null;
+        }
+        return super.put(index, val);
+    }
+
+    @Override
+    public synchronized Feature put(Geometry g) {
+        blob = null;
+        return super.put(g);
+    }
+
+    @Override
+    public Map<String, Object> map() {
+        decode();
+        return super.map();
+    }
+
+    synchronized void decode() {
+        byte[] b = blob;
+        if (b != null) {
+            try {
+                super.put(geom, GeoPkgGeomReader.decode(b));
+            }
+            catch(IOException e) {
+                throw new IllegalStateException("Error decoding geometry of feature " + id(), e);
+            }
+            blob = null;
+        }
+    }
+}
@@ -20,10 +20,18 @@ import java.io.IOException;
 import io.jeo.data.Transaction;
 import io.jeo.vector.Feature;
 import io.jeo.vector.FeatureAppendCursor;
+import io.jeo.vector.Features;
 import io.jeo.vector.ListFeature;
 import io.jeo.vector.Schema;
+import io.jeo.sql.Backend.Batch;
 import io.jeo.sql.Backend.Session;
 
+/**
+ * Appends features with a single prepared insert statement, executed in batches.
+ * <p>
+ * When not part of a transaction each batch is committed as it is executed.
+ * </p>
+ */
 public class GeoPkgFeatureAppendCursor extends FeatureAppendCursor {
 
     Session session;
@@ -35,17 +43,25 @@ public class GeoPkgFeatureAppendCursor extends FeatureAppendCursor {
 
     Feature next;
 
+    Batch batch;
+    int batchSize;
+    Object[] values;
+
     GeoPkgFeatureAppendCursor(Session session, Transaction tx, FeatureEntry entry, Schema schema, GeoPkgWorkspace ws) throws IOException {
         this.session = session;
         this.tx = tx;
         this.entry = entry;
         this.ws = ws;
         this.schema = schema;
+        this.batchSize = Math.max(1, ws.opts.getBatchSize());
+        this.values = new Object[schema.size()];
 
         if (tx == Transaction.NULL) {
             // without a transaction, performance is miserable
             session.beginTransaction();
         }
+
+        batch = ws.insertBatch(entry, session);
     }
 
     @Override
@@ -55,19 +71,43 @@ public class GeoPkgFeatureAppendCursor extends FeatureAppendCursor {
 
     @Override
     public GeoPkgFeatureAppendCursor write() throws IOException {
-        ws.insert(entry, next, session);
+        Feature f = next;
+        if (!(f instanceof ListFeature) || ((ListFeature) f).schema() != schema) {
+            f = Features.retype(f, schema);
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = f.get(i);
+        }
+
+        batch.add(values);
+        if (batch.size() >= batchSize) {
+            flush();
+        }
         return this;
     }
 
+    void flush() throws IOException {
+        batch.execute();
+        if (tx == Transaction.NULL) {
+            session.endTransaction(true);
+        }
+    }
+
     @Override
     public void close() throws IOException {
         if (session != null) {
-            // if not using an "outer" transaction, close the one we created
-            if (tx == Transaction.NULL) {
-                session.endTransaction(true);
-                session.close();
+            try {
+                flush();
+            }
+            finally {
+                batch.close();
+
+                // if not using an "outer" transaction, close the one we created
+                if (tx == Transaction.NULL) {
+                    session.close();
+                }
+                session = null;
             }
-            session = null;
         }
     }
 }
@@ -27,11 +27,19 @@ import io.jeo.geopkg.geom.GeoPkgGeomReader;
 import io.jeo.sql.PrimaryKey;
 import io.jeo.sql.PrimaryKeyColumn;
 
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import io.jeo.sql.Backend.Session;
 import io.jeo.sql.Backend.Results;
 import io.jeo.vector.SchemaBuilder;
 
+/**
+ * Cursor over the rows of a feature table.
+ * <p>
+ * The geometry column is decoded lazily by the features returned, and when bounds are set rows
+ * are rejected based on the envelope in the geometry blob header, before any WKB is decoded.
+ * </p>
+ */
 public class GeoPkgFeatureCursor extends FeatureCursor {
 
     final FeatureEntry entry;
@@ -47,6 +55,12 @@ public class GeoPkgFeatureCursor extends FeatureCursor {
     final List<Object> values;
     // reusable buffer for generating fid
     final StringBuilder buf = new StringBuilder();
+    // index of the geometry column, -1 if not selected
+    final int geom;
+
+    Envelope bounds;
+    // geometry blob of the next row, read when filtering on bounds
+    byte[] blob;
 
     Session session;
     boolean closeSession = true;
@@ -73,6 +87,7 @@ public class GeoPkgFeatureCursor extends FeatureCursor {
             this.schema = schema;
         }
         this.fields = this.schema.fields();
+        this.geom = entry.getGeometryColumn() != null ? this.schema.indexOf(entry.getGeometryColumn()) : -1;
 
         values = new ArrayList<Object>(schema.fields().size());
 
@@ -94,11 +109,32 @@ public class GeoPkgFeatureCursor extends FeatureCursor {
         return this;
     }
 
+    /**
+     * Restricts the cursor to rows whose geometry envelope intersects the specified bounds.
+     *
+     * @return <tt>false</tt> if the geometry column is not part of the results, in which case the
+     * bounds are not applied.
+     */
+    public boolean bounds(Envelope bounds) {
+        if (geom < 0) {
+            return false;
+        }
+        this.bounds = bounds;
+        return true;
+    }
+
     @Override
     public boolean hasNext() throws IOException {
         if (next == null) {
             try {
                 next = results.next();
+                while (next && bounds != null) {
+                    blob = results.getBytes(geom);
+                    if (blob != null && geomReader.intersects(blob, bounds)) {
+                        break;
+                    }
+                    next = results.next();
+                }
             } catch (Exception e) {
                 throw new IOException(e);
             }
@@ -114,9 +150,15 @@ public class GeoPkgFeatureCursor extends FeatureCursor {
                 try {
                     values.clear();
 
+                    byte[] geomBlob = null;
                     for (int i = 0; i < fields.size(); i++) {
                         Class type = fields.get(i).type();
-                        if (Geometry.class.isAssignableFrom(type)) {
+                        if (i == geom) {
+                            // decoded by the feature on demand
+                            geomBlob = blob != null ? blob : results.getBytes(i);
+                            values.add(null);
+                        }
+                        else if (Geometry.class.isAssignableFrom(type)) {
                             byte[] bytes = results.getBytes(i);
                             values.add(bytes != null ? geomReader.read(bytes) : null);
                         }
@@ -143,9 +185,12 @@ public class GeoPkgFeatureCursor extends FeatureCursor {
                         fid = buf.toString();
                     }
 
-                    return feature = new ListFeature(fid, schema, values);
+                    return feature = geomBlob != null
+                        ? new GeoPkgFeature(fid, schema, values, geom, geomBlob)
+                        : new ListFeature(fid, schema, values);
                 } finally {
                     next = null;
+                    blob = null;
                 }
             }
             return null;
@@ -0,0 +1,121 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geopkg;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import com.vividsolutions.jts.geom.Envelope;
+import io.jeo.geopkg.geom.GeoPkgGeomReader;
+import org.sqlite.Function;
+
+/**
+ * SQL functions required by the triggers of the GeoPackage RTree Spatial Index extension.
+ * <p>
+ * Provides <tt>ST_IsEmpty</tt>, <tt>ST_MinX</tt>, <tt>ST_MaxX</tt>, <tt>ST_MinY</tt> and
+ * <tt>ST_MaxY</tt>, all of which operate on the header of a GeoPackage geometry blob.
+ * </p>
+ */
+class GeoPkgFunctions {
+
+    /**
+     * Registers the functions with a SQLite connection.
+     */
+    static void register(Connection cx) throws SQLException {
+        Function.create(cx, "ST_IsEmpty", new EnvelopeFunction() {
+            @Override
+            void result(Envelope e) throws SQLException {
+                result(0);
+            }
+            @Override
+            void empty() throws SQLException {
+                result(1);
+            }
+        });
+        Function.create(cx, "ST_MinX", new EnvelopeFunction() {
+            @Override
+            void result(Envelope e) throws SQLException {
+                result(e.getMinX());
+            }
+        });
+        Function.create(cx, "ST_MaxX", new EnvelopeFunction() {
+            @Override
+            void result(Envelope e) throws SQLException {
+                result(e.getMaxX());
+            }
+        });
+        Function.create(cx, "ST_MinY", new EnvelopeFunction() {
+            @Override
+            void result(Envelope e) throws SQLException {
+                result(e.getMinY());
+            }
+        });
+        Function.create(cx, "ST_MaxY", new EnvelopeFunction() {
+            @Override
+            void result(Envelope e) throws SQLException {
+                result(e.getMaxY());
+            }
+        });
+    }
+
+    /**
+     * Function of the envelope of a single geometry argument, <tt>NULL</tt> geometries map to
+     * a <tt>NULL</tt> result.
+     */
+    static abstract class EnvelopeFunction extends Function {
+
+        GeoPkgGeomReader reader = new GeoPkgGeomReader();
+
+        @Override
+        protected void xFunc() throws SQLException {
+            if (args() != 1) {
+                throw new SQLException("Function requires a single geometry argument");
+            }
+
+            byte[] blob = value_blob(0);
+            if (blob == null) {
+                result();
+                return;
+            }
+
+            Envelope e;
+            try {
+                e = reader.envelope(blob);
+            }
+            catch(IOException ex) {
+                throw new SQLException(ex);
+            }
+            if (e == null) {
+                empty();
+            }
+            else {
+                result(e);
+            }
+        }
+
+        /**
+         * Sets the result from the envelope of a non empty geometry.
+         */
+        abstract void result(Envelope e) throws SQLException;
+
+        /**
+         * Sets the result for an empty geometry, defaults to <tt>NULL</tt>.
+         */
+        void empty() throws SQLException {
+            result();
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import io.jeo.data.FileDriver;
+import io.jeo.sql.SQLiteOpts;
 import io.jeo.util.Key;
 import io.jeo.util.Password;
 
@@ -27,9 +28,14 @@ public class GeoPkgOpts {
     File file;
     String user;
     Password passwd;
+    boolean spatialIndex = GeoPkgBaseDriver.SPATIAL_INDEX.def();
+    int batchSize = GeoPkgBaseDriver.BATCH_SIZE.def();
+    SQLiteOpts sqlite = new SQLiteOpts();
 
     public static GeoPkgOpts fromMap(Map<?,Object> map) {
-        return new GeoPkgOpts(FileDriver.FILE.get(map)).user(GeoPkgBaseDriver.USER.get(map)).passwd(GeoPkgBaseDriver.PASSWD.get(map));
+        return new GeoPkgOpts(FileDriver.FILE.get(map)).user(GeoPkgBaseDriver.USER.get(map)).passwd(GeoPkgBaseDriver.PASSWD.get(map))
+            .spatialIndex(GeoPkgBaseDriver.SPATIAL_INDEX.get(map)).batchSize(GeoPkgBaseDriver.BATCH_SIZE.get(map))
+            .sqlite(SQLiteOpts.fromMap(map));
     }
 
     public GeoPkgOpts(File file) {
@@ -46,6 +52,30 @@ public class GeoPkgOpts {
         return this;
     }
 
+    /**
+     * Sets whether feature tables are created with an RTree spatial index.
+     */
+    public GeoPkgOpts spatialIndex(boolean spatialIndex) {
+        this.spatialIndex = spatialIndex;
+        return this;
+    }
+
+    /**
+     * Sets the number of features appended per batch.
+     */
+    public GeoPkgOpts batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the connection pool and PRAGMA options of the underlying SQLite database.
+     */
+    public GeoPkgOpts sqlite(SQLiteOpts sqlite) {
+        this.sqlite = sqlite;
+        return this;
+    }
+
     public File getFile() {
         return file;
     }
@@ -58,6 +88,18 @@ public class GeoPkgOpts {
         return passwd;
     }
 
+    public boolean isSpatialIndex() {
+        return spatialIndex;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public SQLiteOpts sqlite() {
+        return sqlite;
+    }
+
     public Map<Key<?>,Object> toMap() {
         Map<Key<?>,Object> map = new LinkedHashMap<Key<?>, Object>();
         map.put(FileDriver.FILE, file);
@@ -67,6 +109,9 @@ public class GeoPkgOpts {
         if (passwd != null) {
             map.put(GeoPkgBaseDriver.PASSWD, passwd);
         }
+        map.put(GeoPkgBaseDriver.SPATIAL_INDEX, spatialIndex);
+        map.put(GeoPkgBaseDriver.BATCH_SIZE, batchSize);
+        sqlite.toMap(map);
         return map;
     }
 }
@@ -30,6 +30,7 @@ import io.jeo.data.Cursor;
 import io.jeo.data.Dataset;
 import io.jeo.data.FileData;
 import io.jeo.data.Handle;
+import io.jeo.data.Sort;
 import io.jeo.geom.Bounds;
 import io.jeo.vector.FeatureCursor;
 import io.jeo.vector.VectorQuery;
@@ -61,6 +62,7 @@ import static java.lang.String.format;
 
 import io.jeo.data.Transaction;
 import io.jeo.vector.SchemaBuilder;
+import io.jeo.sql.Backend.Batch;
 import io.jeo.sql.Backend.Session;
 import io.jeo.sql.Backend.Results;
 
@@ -88,6 +90,12 @@ public class GeoPkgWorkspace implements Workspace, FileData {
     /** name of tile matrix set table */
     static final String TILE_MATRIX_SET = "gpkg_tile_matrix_set";
 
+    /** name of extensions table */
+    static final String EXTENSIONS = "gpkg_extensions";
+
+    /** name of the rtree spatial index extension */
+    static final String RTREE_INDEX = "gpkg_rtree_index";
+
     /** value of application_id pragma for geopackage */
     static final Integer APP_ID = 1196437808;
 
@@ -119,7 +127,8 @@ public class GeoPkgWorkspace implements Workspace, FileData {
                 GEOMETRY_COLUMNS + ".sql",
                 GEOPACKAGE_CONTENTS + ".sql",
                 TILE_MATRIX +".sql",
-                TILE_MATRIX_SET + ".sql"
+                TILE_MATRIX_SET + ".sql",
+                EXTENSIONS + ".sql"
             );
         }
     }
@@ -218,17 +227,14 @@ public class GeoPkgWorkspace implements Workspace, FileData {
     public long count(final FeatureEntry entry, final VectorQuery q) throws IOException {
         VectorQueryPlan qp = new VectorQueryPlan(q);
 
-        if (!Bounds.isNull(q.bounds())) {
-            return read(entry, q).count();
-        }
-
         final SQL sql = new SQL("SELECT count(*) FROM ").name(entry.getTableName());
-        Session session = backend.session();
+        Session session = backend.readSession();
         // if filter refers to properties not in the schema, defer to CQL filter
         final List<Object> args = missingProperties(entry, q, session) ?
-                Collections.EMPTY_LIST : encodeQuery(sql, q, qp, primaryKey(entry, session));
+                Collections.EMPTY_LIST : encodeQuery(sql, q, qp, entry, primaryKey(entry, session), session);
 
-        if (q.isFiltered() && !qp.isFiltered()) {
+        if ((q.isFiltered() && !qp.isFiltered()) || (!Bounds.isNull(q.bounds()) && !qp.isBounded())) {
+            backend.closeSafe(session);
             return read(entry, q).count();
         }
 
@@ -253,7 +259,7 @@ public class GeoPkgWorkspace implements Workspace, FileData {
     FeatureCursor read(Session session, FeatureEntry entry, VectorQuery q) throws IOException {
         boolean closeSession = session == null;
         if (session == null) {
-            session = backend.session();
+            session = backend.readSession();
         }
 
         Schema schema = schema(entry);
@@ -287,7 +293,7 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         // we cannot do a native query (until we filter them out)
         boolean missingProperties = missingProperties(entry, q, session);
         List<Object> args =  missingProperties ?
-            Collections.EMPTY_LIST : encodeQuery(sqlb, q, qp, pk);
+            Collections.EMPTY_LIST : encodeQuery(sqlb, q, qp, entry, pk, session, schema, true);
         // if no missing properties, tell the query plan we can do the fields
         if (!missingProperties) {
             qp.fields();
@@ -296,14 +302,15 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         Results rs = session.queryPrepared(sqlb.toString(), args.toArray());
 
         // if session != transaction, tell the cursor not to close the session
-        FeatureCursor c = new GeoPkgFeatureCursor(session, rs, entry, this, schema, pk, queryFields)
+        GeoPkgFeatureCursor c = new GeoPkgFeatureCursor(session, rs, entry, this, schema, pk, queryFields)
             .closeSession(closeSession);
 
-        if (!Bounds.isNull(q.bounds())) {
-            c = c.intersect(q.bounds(), true);
+        // without a spatial index filter on the envelopes in the geometry blob headers
+        if (!Bounds.isNull(q.bounds()) && !qp.isBounded() && c.bounds(q.bounds())) {
+            qp.bounded();
         }
 
-        return qp.apply(c);
+        return qp.apply(c, schema);
     }
 
     public GeoPkgFeatureUpdateCursor update(FeatureEntry entry, VectorQuery q) throws IOException {
@@ -330,15 +337,46 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         return new GeoPkgFeatureAppendCursor(session, q.transaction(), entry, schema(entry), this);
     }
 
-    List<Object> encodeQuery(SQL sql, VectorQuery q, VectorQueryPlan qp, PrimaryKey pk) {
+    List<Object> encodeQuery(SQL sql, VectorQuery q, VectorQueryPlan qp, FeatureEntry entry,
+        PrimaryKey pk, Session session) throws IOException {
+        return encodeQuery(sql, q, qp, entry, pk, session, null, false);
+    }
+
+    List<Object> encodeQuery(SQL sql, VectorQuery q, VectorQueryPlan qp, FeatureEntry entry,
+        PrimaryKey pk, Session session, Schema schema, boolean sort) throws IOException {
         GeoPkgFilterSQLEncoder sqlfe = new GeoPkgFilterSQLEncoder();
         sqlfe.setPrimaryKey(pk);
         sqlfe.setDbTypes(backend.dbTypes);
 
+        List<Object> args = new ArrayList<Object>();
+
+        // use the spatial index for bounds if there is one, its entries are single precision and
+        // rounded outward so candidates are checked against the envelope in the blob header
+        Envelope bbox = q.bounds();
+        if (!Bounds.isNull(bbox) && pk != null && hasSpatialIndex(entry, session)) {
+            String geom = entry.getGeometryColumn();
+            sql.add(" WHERE ").name(pk.getColumns().get(0).getName()).add(" IN (SELECT id FROM ")
+                .name(rtree(entry)).add(" WHERE minx <= ? AND maxx >= ? AND miny <= ? AND maxy >= ?)")
+                .add(" AND ST_MinX(").name(geom).add(") <= ? AND ST_MaxX(").name(geom).add(") >= ?")
+                .add(" AND ST_MinY(").name(geom).add(") <= ? AND ST_MaxY(").name(geom).add(") >= ?");
+            for (int i = 0; i < 2; i++) {
+                args.add(bbox.getMaxX());
+                args.add(bbox.getMinX());
+                args.add(bbox.getMaxY());
+                args.add(bbox.getMinY());
+            }
+            qp.bounded();
+        }
+
         if (!Filters.isTrueOrNull(q.filter())) {
             try {
                 String where = sqlfe.encode(q.filter(), null);
-                sql.add(" WHERE ").add(where);
+                if (qp.isBounded()) {
+                    sql.add(" AND (").add(where).add(")");
+                }
+                else {
+                    sql.add(" WHERE ").add(where);
+                }
                 qp.filtered();
             }
             catch(Exception e) {
@@ -346,26 +384,54 @@ public class GeoPkgWorkspace implements Workspace, FileData {
             }
         }
 
-        if (q.limit() != null) {
-            sql.add(" LIMIT ").add(q.limit());
-            qp.limited();
+        if (sort && q.sort() != null) {
+            encodeSort(sql, q, qp, schema);
         }
-        if (q.offset() != null) {
-            //sqlite doesn't understand offset without limit
-            if (q.limit() == null) {
-                sql.add(" LIMIT -1");
+
+        // offset and limit only apply natively if the results are sorted and bounded natively as well
+        if ((q.sort() == null || qp.isSorted()) && (Bounds.isNull(bbox) || qp.isBounded())) {
+            if (q.limit() != null) {
+                sql.add(" LIMIT ").add(q.limit());
+                qp.limited();
+            }
+            if (q.offset() != null) {
+                //sqlite doesn't understand offset without limit
+                if (q.limit() == null) {
+                    sql.add(" LIMIT -1");
+                }
+                sql.add(" OFFSET ").add(q.offset());
+                qp.offsetted();
             }
-            sql.add(" OFFSET ").add(q.offset());
-            qp.offsetted();
         }
 
-        List<Object> args = new ArrayList<Object>(sqlfe.getArgs().size());
         for (Pair<Object, Integer> p : sqlfe.getArgs()) {
             args.add(p.first);
         }
         return args;
     }
 
+    void encodeSort(SQL sql, VectorQuery q, VectorQueryPlan qp, Schema schema) {
+        // geometry blobs don't sort meaningfully, leave those to the query plan
+        for (Sort s : q.sort()) {
+            Field f = schema.field(s.getProperty());
+            if (f == null || f.geometry()) {
+                return;
+            }
+        }
+
+        // order nulls last when ascending and first when descending like Features.comparator(),
+        // sqlite does the opposite and older versions don't support NULLS FIRST/LAST
+        sql.add(" ORDER BY ");
+        for (Sort s : q.sort()) {
+            String dir = s.isAscending() ? " ASC" : " DESC";
+            sql.add("CASE WHEN ").name(s.getProperty()).add(" IS NULL THEN 1 ELSE 0 END")
+               .add(dir).add(", ");
+            sql.name(s.getProperty()).add(dir).add(", ");
+        }
+        sql.trim(2);
+        qp.sorted();
+    }
+
     Session insert(final FeatureEntry entry, final Feature feature, Session session) throws IOException {
         if (session == null) {
             session = backend.session();
@@ -376,10 +442,12 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         SQL sqlb = new SQL("INSERT INTO ").name(entry.getTableName()).add(" (");
         List<Object> objs = new ArrayList<Object>();
 
-        for (Field fld : schema) {
-            Object o = f.get(fld.name());
+        // retyped feature values are in schema order
+        List<Field> fields = schema.fields();
+        for (int i = 0; i < fields.size(); i++) {
+            Object o = f.get(i);
             if (o != null) {
-                sqlb.name(fld.name()).add(", ");
+                sqlb.name(fields.get(i).name()).add(", ");
                 objs.add(o);
             }
         }
@@ -395,6 +463,25 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         return session;
     }
 
+    /**
+     * Prepares a batch that inserts all fields of the entry schema, in schema order.
+     */
+    Batch insertBatch(FeatureEntry entry, Session session) throws IOException {
+        Schema schema = schema(entry);
+
+        SQL sqlb = new SQL("INSERT INTO ").name(entry.getTableName()).add(" (");
+        for (Field f : schema) {
+            sqlb.name(f.name()).add(", ");
+        }
+        sqlb.trim(2).add(") VALUES (");
+        for (int i = 0; i < schema.size(); i++) {
+            sqlb.add("?,");
+        }
+        sqlb.trim(1).add(")");
+
+        return session.prepareBatch(sqlb.toString());
+    }
+
     Session update(final FeatureEntry entry, final Feature feature, Session session) throws IOException {
         SQL sqlb = new SQL("UPDATE ").name(entry.getTableName()).add(" SET ");
         List<Object> objs = new ArrayList<Object>();
@@ -522,6 +609,10 @@ public class GeoPkgWorkspace implements Workspace, FileData {
                 addSpatialRefSysEntry(schema, e, session);
                 addGeometryColumnsEntry(schema, e, session);
                 addGeopackageContentsEntry(e, session);
+                if (opts.isSpatialIndex() && e.getGeometryColumn() != null
+                    && backend.canCreateSpatialIndex()) {
+                    createSpatialIndex(e, session);
+                }
                 complete = true;
             } finally {
                 session.endTransaction(complete);
@@ -554,6 +645,122 @@ public class GeoPkgWorkspace implements Workspace, FileData {
         session.execute(sql.toString());
     }
 
+    /**
+     * Creates the RTree spatial index of a feature entry, along with the triggers that maintain
+     * it, and populates it from the existing contents of the table.
+     * <p>
+     * This method does nothing if the entry is already indexed.
+     * </p>
+     */
+    public void createSpatialIndex(FeatureEntry entry) throws IOException {
+        Session session = backend.transaction();
+        try {
+            boolean complete = false;
+            try {
+                if (!hasSpatialIndex(entry, session)) {
+                    createSpatialIndex(entry, session);
+                }
+                complete = true;
+            } finally {
+                session.endTransaction(complete);
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    void createSpatialIndex(FeatureEntry entry, Session session) throws IOException {
+        if (!backend.canCreateSpatialIndex()) {
+            throw new IOException("Backend does not support creating spatial indexes");
+        }
+        if (entry.getGeometryColumn() == null) {
+            throw new IllegalArgumentException(
+                format(Locale.ROOT, "%s has no geometry column", entry.getTableName()));
+        }
+
+        String t = new SQL().name(entry.getTableName()).toString();
+        String g = new SQL().name(entry.getGeometryColumn()).toString();
+        // look up the primary key through the session, the table may not be committed yet
+        List<String> pk = session.getPrimaryKeys(entry.getTableName());
+        if (pk.isEmpty()) {
+            throw new IllegalArgumentException(
+                format(Locale.ROOT, "%s has no primary key", entry.getTableName()));
+        }
+        String i = new SQL().name(pk.get(0)).toString();
+        String r = rtree(entry);
+        String idx = new SQL().name(r).toString();
+
+        session.execute(format(Locale.ROOT,
+            "CREATE VIRTUAL TABLE %s USING rtree(id, minx, maxx, miny, maxy)", idx));
+
+        // triggers, as defined by the rtree spatial index extension
+        String insert = format(Locale.ROOT, "INSERT OR REPLACE INTO %s VALUES"
+            + " (NEW.%s, ST_MinX(NEW.%s), ST_MaxX(NEW.%3$s), ST_MinY(NEW.%3$s), ST_MaxY(NEW.%3$s));",
+            idx, i, g);
+        String notEmpty = format(Locale.ROOT, "(NEW.%s NOT NULL AND NOT ST_IsEmpty(NEW.%1$s))", g);
+        String empty = format(Locale.ROOT, "(NEW.%s IS NULL OR ST_IsEmpty(NEW.%1$s))", g);
+        String delete = format(Locale.ROOT, "DELETE FROM %s WHERE id = OLD.%s;", idx, i);
+
+        trigger(session, r + "_insert", format(Locale.ROOT, "AFTER INSERT ON %s WHEN %s", t, notEmpty),
+            insert);
+        trigger(session, r + "_update1", format(Locale.ROOT,
+            "AFTER UPDATE OF %s ON %s WHEN OLD.%s = NEW.%3$s AND %s", g, t, i, notEmpty), insert);
+        trigger(session, r + "_update2", format(Locale.ROOT,
+            "AFTER UPDATE OF %s ON %s WHEN OLD.%s = NEW.%3$s AND %s", g, t, i, empty), delete);
+        trigger(session, r + "_update3", format(Locale.ROOT,
+            "AFTER UPDATE ON %s WHEN OLD.%s != NEW.%2$s AND %s", t, i, notEmpty), delete + " " + insert);
+        trigger(session, r + "_update4", format(Locale.ROOT,
+            "AFTER UPDATE ON %s WHEN OLD.%s != NEW.%2$s AND %s", t, i, empty), format(Locale.ROOT,
+            "DELETE FROM %s WHERE id IN (OLD.%s, NEW.%2$s);", idx, i));
+        trigger(session, r + "_delete", format(Locale.ROOT, "AFTER DELETE ON %s WHEN OLD.%s NOT NULL",
+            t, g), delete);
+
+        // index existing rows
+        session.execute(format(Locale.ROOT, "INSERT OR REPLACE INTO %s SELECT %s, ST_MinX(%s),"
+            + " ST_MaxX(%3$s), ST_MinY(%3$s), ST_MaxY(%3$s) FROM %s WHERE %3$s NOT NULL AND NOT"
+            + " ST_IsEmpty(%3$s)", idx, i, g, t));
+
+        session.executePrepared(new SQL("INSERT OR REPLACE INTO %s", EXTENSIONS)
+            .add(" (table_name, column_name, extension_name, definition, scope) VALUES (?,?,?,?,?)")
+            .toString(), entry.getTableName(), entry.getGeometryColumn(), RTREE_INDEX,
+            "GeoPackage 1.0 Specification Annex L", "write-only");
+
+        entry.setSpatialIndex(true);
+    }
+
+    void trigger(Session session, String name, String when, String body) throws IOException {
+        session.execute(new SQL("CREATE TRIGGER ").name(name).add(" ").add(when)
+            .add(" BEGIN ").add(body).add(" END").toString());
+    }
+
+    /**
+     * Determines if a feature entry has an RTree spatial index.
+     */
+    boolean hasSpatialIndex(FeatureEntry entry, Session session) throws IOException {
+        if (entry.hasSpatialIndex() == null) {
+            boolean exists = false;
+            if (entry.getGeometryColumn() != null) {
+                Results rs = session.queryPrepared(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?", rtree(entry));
+                try {
+                    exists = rs.next();
+                }
+                finally {
+                    rs.close();
+                }
+            }
+            entry.setSpatialIndex(exists);
+        }
+        return entry.hasSpatialIndex();
+    }
+
+    /**
+     * Name of the RTree spatial index table of a feature entry.
+     */
+    String rtree(FeatureEntry entry) {
+        return "rtree_" + entry.getTableName() + "_" + entry.getGeometryColumn();
+    }
+
     void dropTable(Entry entry, Session session) throws IOException {
         SQL sql = new SQL("DROP TABLE ").name(entry.getTableName());
         session.execute(sql.toString());
@@ -32,6 +32,8 @@ import java.util.Locale;
 
 import javax.sql.DataSource;
 
+import io.jeo.sql.ConnectionPool;
+import io.jeo.sql.SQLiteOpts;
 import io.jeo.util.Pair;
 import org.sqlite.SQLiteDataSource;
 
@@ -43,8 +45,18 @@ class JDBCBackend extends Backend {
 
     final DataSource db;
 
+    /**
+     * read only connections, and the dedicated writer connection
+     */
+    final ConnectionPool readers;
+    final ConnectionPool writer;
+
     JDBCBackend(GeoPkgOpts opts) {
         db = createDataSource(opts);
+
+        SQLiteOpts sqlite = opts.sqlite();
+        readers = new Pool(db, sqlite.getReaders(), sqlite.getTimeout(), sqlite.pragmas(true));
+        writer = new Pool(db, 1, sqlite.getTimeout(), sqlite.pragmas(false));
     }
 
     DataSource createDataSource(GeoPkgOpts opts) {
@@ -53,9 +65,19 @@ class JDBCBackend extends Backend {
         return dataSource;
     }
 
+    @Override
+    public boolean canCreateSpatialIndex() {
+        return true;
+    }
+
     @Override
     public JDBCSession session() throws IOException {
-        return new JDBCSession();
+        return new JDBCSession(writer);
+    }
+
+    @Override
+    public JDBCSession readSession() throws IOException {
+        return new JDBCSession(readers);
     }
 
     @Override
@@ -98,7 +120,31 @@ class JDBCBackend extends Backend {
     }
 
     public void close() throws IOException {
-        // nothing to do
+        readers.close();
+        writer.close();
+    }
+
+    /**
+     * Pool that registers the spatial index functions with new connections.
+     */
+    static class Pool extends ConnectionPool {
+
+        Pool(DataSource db, int size, long timeout, List<String> init) {
+            super(db, size, timeout, init);
+        }
+
+        @Override
+        protected Connection open() throws SQLException {
+            Connection cx = super.open();
+            try {
+                GeoPkgFunctions.register(cx);
+            }
+            catch(SQLException e) {
+                cx.close();
+                throw e;
+            }
+            return cx;
+        }
     }
 
     class JDBCSession extends Backend.Session {
@@ -106,9 +152,9 @@ class JDBCBackend extends Backend {
         final Connection connection;
         Statement statement;
 
-        JDBCSession() throws IOException {
+        JDBCSession(ConnectionPool pool) throws IOException {
             try {
-                connection = open(db.getConnection());
+                connection = open(pool.acquire());
             } catch (SQLException ex) {
                 throw new IOException(ex);
             }
@@ -170,6 +216,16 @@ class JDBCBackend extends Backend {
             }
         }
 
+        @Override
+        public Batch prepareBatch(String sql) throws IOException {
+            log(sql);
+            try {
+                return open(new JDBCBatch(this, sql, open(connection.prepareStatement(sql))));
+            } catch (SQLException ex) {
+                throw new IOException(ex);
+            }
+        }
+
         @Override
         public Results queryPrepared(String sql, Object... args) throws IOException {
             try {
@@ -243,6 +299,61 @@ class JDBCBackend extends Backend {
 
     }
 
+    /**
+     * Batch backed by a single prepared statement, geometries are encoded with a shared writer.
+     */
+    class JDBCBatch extends Backend.Batch {
+
+        final PreparedStatement ps;
+        final GeoPkgGeomWriter writer = new GeoPkgGeomWriter();
+        int size;
+
+        JDBCBatch(JDBCSession session, String sql, PreparedStatement ps) {
+            super(session, sql);
+            this.ps = ps;
+        }
+
+        @Override
+        public void add(Object... args) throws IOException {
+            try {
+                for (int i = 0; i < args.length; i++) {
+                    Object arg = args[i];
+                    if (arg instanceof Geometry) {
+                        arg = writer.write((Geometry) arg);
+                    }
+                    ps.setObject(i + 1, arg);
+                }
+                ps.addBatch();
+                size++;
+            } catch (SQLException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void execute() throws IOException {
+            if (size == 0) {
+                return;
+            }
+            try {
+                ps.executeBatch();
+                size = 0;
+            } catch (SQLException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            closeSafe(ps);
+        }
+    }
+
     // note column indices are zero-based
     class JDBCResults extends Backend.Results {
         final ResultSet results;
@@ -49,11 +49,11 @@ class Flags {
     }
 
     boolean empty() {
-        return (b | EMPTY_MASK) == 1;
+        return (b & EMPTY_MASK) != 0;
     }
 
     Flags empty(boolean empty) {
-        b |= ((byte) (empty ? 1 : 0) & EMPTY_MASK);
+        b |= empty ? EMPTY_MASK : 0;
         return this;
     }
 
@@ -19,8 +19,8 @@ import java.io.InputStream;
 
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
-import com.vividsolutions.jts.io.ByteArrayInStream;
 import com.vividsolutions.jts.io.ByteOrderDataInStream;
+import com.vividsolutions.jts.io.ByteOrderValues;
 import com.vividsolutions.jts.io.InStream;
 import com.vividsolutions.jts.io.InputStreamInStream;
 import com.vividsolutions.jts.io.ParseException;
@@ -28,14 +28,67 @@ import com.vividsolutions.jts.io.WKBReader;
 
 public class GeoPkgGeomReader {
 
+    static final ThreadLocal<GeoPkgGeomReader> READERS = new ThreadLocal<GeoPkgGeomReader>() {
+        @Override
+        protected GeoPkgGeomReader initialValue() {
+            return new GeoPkgGeomReader();
+        }
+    };
+
+    /**
+     * Decodes a geometry blob from any thread, reusing a reader local to the calling thread.
+     */
+    public static Geometry decode(byte[] bytes) throws IOException {
+        return READERS.get().read(bytes);
+    }
+
+    final WKBDecoder wkb = new WKBDecoder();
+
+    /**
+     * Decodes a geometry blob.
+     * <p>
+     * The header and WKB are decoded directly from the array, coordinates are stored in packed
+     * coordinate sequences.
+     * </p>
+     */
     public Geometry read(byte[] bytes) throws IOException {
-        return read(new ByteArrayInStream(bytes));
+        Header h = readHeader(bytes);
+        Geometry g = wkb.read(bytes, h.size);
+        g.setSRID(h.srid);
+        return g;
     }
 
     public Geometry read(InputStream in) throws IOException {
         return read(new InputStreamInStream(in));
     }
     
+    /**
+     * Reads the envelope of a geometry blob, returning <tt>null</tt> for an empty geometry.
+     * <p>
+     * The envelope is taken from the blob header when present, otherwise the geometry itself is
+     * decoded.
+     * </p>
+     */
+    public Envelope envelope(byte[] bytes) throws IOException {
+        Header h = readHeader(bytes);
+        if (h.flags.empty()) {
+            return null;
+        }
+        if (h.envelope != null) {
+            return h.envelope.isNull() ? null : h.envelope;
+        }
+        return wkb.envelope(bytes, h.size);
+    }
+
+    /**
+     * Determines if the envelope of a geometry blob intersects a bounding box, without decoding
+     * the geometry when the blob header contains an envelope.
+     */
+    public boolean intersects(byte[] bytes, Envelope bbox) throws IOException {
+        Envelope e = envelope(bytes);
+        return e != null && e.intersects(bbox);
+    }
+
     Geometry read(InStream input) throws IOException {
         // read the header
         Header h = readHeader(input);
@@ -78,6 +131,45 @@ public class GeoPkgGeomReader {
      *       0 = Big Endian   (most significant bit first)
      *       1 = Little Endian (least significant bit first)
      */
+    Header readHeader(byte[] b) throws IOException {
+        if (b.length < 8 || b[0] != 0x47 || b[1] != 0x50) {
+            throw new IOException("Not a GeoPackage geometry blob");
+        }
+
+        Header h = new Header();
+        h.flags = new Flags(b[3]);
+
+        wkb.buf = b;
+        wkb.pos = 4;
+        wkb.little = h.flags.endianess() == ByteOrderValues.LITTLE_ENDIAN;
+        try {
+            h.srid = wkb.readInt();
+
+            EnvelopeType et = h.flags.envelopeIndicator();
+            if (et == null) {
+                throw new IOException("Invalid envelope indicator in geometry blob");
+            }
+            if (et != EnvelopeType.NONE) {
+                double x1 = wkb.readDouble();
+                double x2 = wkb.readDouble();
+                double y1 = wkb.readDouble();
+                double y2 = wkb.readDouble();
+
+                // empty geometries may be encoded with a NaN envelope
+                h.envelope = Double.isNaN(x1) || Double.isNaN(y1) ? new Envelope()
+                    : new Envelope(x1, x2, y1, y2);
+            }
+            h.size = 8 + et.length;
+        }
+        catch(ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Geometry blob header truncated", e);
+        }
+        finally {
+            wkb.buf = null;
+        }
+        return h;
+    }
+
     Header readHeader(InStream in) throws IOException {
         Header h = new Header();
 
@@ -28,8 +28,16 @@ import com.vividsolutions.jts.io.WKBWriter;
 
 public class GeoPkgGeomWriter {
 
+    /** buffer reused across calls to {@link #write(Geometry)} */
+    ByteArrayOutputStream bout;
+
+    WKBWriter wkb = new WKBWriter(2, ByteOrderValues.BIG_ENDIAN);
+
     public byte[] write(Geometry g) throws IOException {
-        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        if (bout == null) {
+            bout = new ByteArrayOutputStream(256);
+        }
+        bout.reset();
         write(g, bout);
         return  bout.toByteArray();
     }
@@ -85,6 +93,6 @@ public class GeoPkgGeomWriter {
         
         //out.write(buf, buf.length);
 
-        new WKBWriter(2, order).write(g, out);
+        wkb.write(g, out);
     }
 }
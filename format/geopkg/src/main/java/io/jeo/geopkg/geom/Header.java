@@ -21,6 +21,9 @@ class Header {
     int srid;
     Envelope envelope;
 
+    /** length of the header in bytes */
+    int size;
+
     public Flags flags() {
         return flags;
     }
@@ -0,0 +1,245 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geopkg.geom;
+
+import java.io.IOException;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
+
+/**
+ * Decodes WKB directly from a byte array into geometries backed by packed coordinate sequences.
+ * <p>
+ * Understands both ISO (1000 based) and extended (high bit flag) dimension codes. M values are
+ * dropped. The decoder can also compute the envelope of a geometry without building it.
+ * </p>
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ */
+class WKBDecoder {
+
+    static final GeometryFactory FACTORY =
+        new GeometryFactory(PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+
+    static final int EWKB_Z = 0x80000000;
+    static final int EWKB_M = 0x40000000;
+    static final int EWKB_SRID = 0x20000000;
+
+    final GeometryFactory factory;
+
+    byte[] buf;
+    int pos;
+    boolean little;
+
+    /** envelope being computed, when not building geometries */
+    Envelope env;
+
+    WKBDecoder() {
+        this(FACTORY);
+    }
+
+    WKBDecoder(GeometryFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Decodes the geometry starting at the specified offset.
+     */
+    Geometry read(byte[] buf, int offset) throws IOException {
+        this.buf = buf;
+        this.pos = offset;
+        this.env = null;
+        try {
+            return geometry();
+        }
+        catch(ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Unexpected end of WKB", e);
+        }
+        finally {
+            this.buf = null;
+        }
+    }
+
+    /**
+     * Computes the envelope of the geometry starting at the specified offset, without building
+     * it.
+     *
+     * @return The envelope, or <tt>null</tt> if the geometry is empty.
+     */
+    Envelope envelope(byte[] buf, int offset) throws IOException {
+        this.buf = buf;
+        this.pos = offset;
+        Envelope e = env = new Envelope();
+        try {
+            geometry();
+        }
+        catch(ArrayIndexOutOfBoundsException ex) {
+            throw new IOException("Unexpected end of WKB", ex);
+        }
+        finally {
+            this.buf = null;
+            this.env = null;
+        }
+        return e.isNull() ? null : e;
+    }
+
+    Geometry geometry() throws IOException {
+        little = buf[pos++] == 1;
+
+        int type = readInt();
+        boolean z = (type & EWKB_Z) != 0;
+        boolean m = (type & EWKB_M) != 0;
+        if ((type & EWKB_SRID) != 0) {
+            readInt();
+        }
+
+        type &= 0x0fffffff;
+        int dims = type / 1000;
+        type = type % 1000;
+        z = z || dims == 1 || dims == 3;
+        m = m || dims == 2 || dims == 3;
+
+        int dim = 2 + (z ? 1 : 0) + (m ? 1 : 0);
+        switch(type) {
+        case 1:
+            return point(dim, z);
+        case 2:
+            return lineString(dim, z);
+        case 3:
+            return polygon(dim, z);
+        case 4:
+            Point[] points = new Point[readInt()];
+            for (int i = 0; i < points.length; i++) {
+                points[i] = (Point) geometry();
+            }
+            return env != null ? null : factory.createMultiPoint(points);
+        case 5:
+            LineString[] lines = new LineString[readInt()];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = (LineString) geometry();
+            }
+            return env != null ? null : factory.createMultiLineString(lines);
+        case 6:
+            Polygon[] polys = new Polygon[readInt()];
+            for (int i = 0; i < polys.length; i++) {
+                polys[i] = (Polygon) geometry();
+            }
+            return env != null ? null : factory.createMultiPolygon(polys);
+        case 7:
+            Geometry[] geoms = new Geometry[readInt()];
+            for (int i = 0; i < geoms.length; i++) {
+                geoms[i] = geometry();
+            }
+            return env != null ? null : factory.createGeometryCollection(geoms);
+        default:
+            throw new IOException("Unknown WKB geometry type: " + type);
+        }
+    }
+
+    Point point(int dim, boolean z) {
+        // empty points are encoded with NaN ordinates
+        CoordinateSequence cs = coordinates(1, dim, z);
+        if (env != null) {
+            return null;
+        }
+        if (Double.isNaN(cs.getOrdinate(0, 0)) && Double.isNaN(cs.getOrdinate(0, 1))) {
+            cs = null;
+        }
+        return factory.createPoint(cs);
+    }
+
+    LineString lineString(int dim, boolean z) {
+        CoordinateSequence cs = coordinates(readInt(), dim, z);
+        return env != null ? null : factory.createLineString(cs);
+    }
+
+    Polygon polygon(int dim, boolean z) {
+        int n = readInt();
+        if (n == 0) {
+            return env != null ? null : factory.createPolygon(null, null);
+        }
+
+        LinearRing shell = ring(dim, z);
+        LinearRing[] holes = new LinearRing[n - 1];
+        for (int i = 0; i < holes.length; i++) {
+            holes[i] = ring(dim, z);
+        }
+        return env != null ? null : factory.createPolygon(shell, holes);
+    }
+
+    LinearRing ring(int dim, boolean z) {
+        CoordinateSequence cs = coordinates(readInt(), dim, z);
+        return env != null ? null : factory.createLinearRing(cs);
+    }
+
+    /**
+     * Reads packed coordinates, keeping z when present and dropping m.
+     */
+    CoordinateSequence coordinates(int n, int dim, boolean z) {
+        if (env != null) {
+            for (int i = 0; i < n; i++) {
+                double x = readDouble();
+                double y = readDouble();
+                pos += (dim - 2) * 8;
+                if (!Double.isNaN(x) && !Double.isNaN(y)) {
+                    env.expandToInclude(x, y);
+                }
+            }
+            return null;
+        }
+
+        int d = z ? 3 : 2;
+        double[] coords = new double[n * d];
+        for (int i = 0, j = 0; i < n; i++) {
+            coords[j++] = readDouble();
+            coords[j++] = readDouble();
+            if (z) {
+                coords[j++] = readDouble();
+            }
+            pos += (dim - d) * 8;
+        }
+        return new PackedCoordinateSequence.Double(coords, d);
+    }
+
+    int readInt() {
+        int i = pos;
+        pos += 4;
+        if (little) {
+            return (buf[i] & 0xff) | (buf[i+1] & 0xff) << 8 | (buf[i+2] & 0xff) << 16
+                | (buf[i+3] & 0xff) << 24;
+        }
+        return (buf[i] & 0xff) << 24 | (buf[i+1] & 0xff) << 16 | (buf[i+2] & 0xff) << 8
+            | (buf[i+3] & 0xff);
+    }
+
+    long readLong() {
+        long hi = readInt() & 0xffffffffL;
+        long lo = readInt() & 0xffffffffL;
+        return little ? (lo << 32) | hi : (hi << 32) | lo;
+    }
+
+    double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+}
@@ -23,7 +23,12 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import io.jeo.geom.Bounds;
 import io.jeo.vector.FeatureWriteCursor;
@@ -114,6 +119,61 @@ public class GeoPkgFeatureTest extends GeoPkgTestSupport {
         c.close();
     }
 
+    @Test
+    public void testReadLazyGeometry() throws Exception {
+        FeatureEntry entry = geopkg.feature("states");
+        Cursor<Feature> c = geopkg.read(entry, new VectorQuery().bounds(new Bounds(-106, -94, 26, 37)));
+        try {
+            assertTrue(c.hasNext());
+
+            GeoPkgFeature f = (GeoPkgFeature) c.next();
+            assertNotNull(f.blob);
+            assertNotNull(f.get("STATE_NAME"));
+            assertNotNull(f.blob);
+
+            assertTrue(f.geometry() instanceof MultiPolygon);
+            assertNull(f.blob);
+        }
+        finally {
+            c.close();
+        }
+    }
+
+    @Test
+    public void testReadLazyGeometryConcurrently() throws Exception {
+        FeatureEntry entry = geopkg.feature("states");
+        final List<Feature> features = list(geopkg.read(entry, new VectorQuery()));
+
+        // every thread sees the same decoded geometry, never a missing one
+        ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Geometry>>> tasks = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                tasks.add(exec.submit(new Callable<List<Geometry>>() {
+                    @Override
+                    public List<Geometry> call() throws Exception {
+                        List<Geometry> geoms = new ArrayList<>();
+                        for (Feature f : features) {
+                            geoms.add(f.geometry());
+                        }
+                        return geoms;
+                    }
+                }));
+            }
+
+            for (Future<List<Geometry>> task : tasks) {
+                List<Geometry> geoms = task.get();
+                for (int i = 0; i < features.size(); i++) {
+                    assertNotNull(geoms.get(i));
+                    assertTrue(geoms.get(i) == features.get(i).geometry());
+                }
+            }
+        }
+        finally {
+            exec.shutdown();
+        }
+    }
+
     @Test
     public void testReadWithFilter() throws Exception {
         FeatureEntry entry = geopkg.feature("states");
@@ -148,6 +208,65 @@ public class GeoPkgFeatureTest extends GeoPkgTestSupport {
         c.close();
     }
 
+    @Test
+    public void testAddBatch() throws Exception {
+        geopkg.opts.batchSize(3);
+
+        FeatureEntry entry = geopkg.feature("states");
+        FeatureWriteCursor cursor = geopkg.append(entry, new VectorQuery());
+        for (int i = 0; i < 10; i++) {
+            Feature f = cursor.next();
+            f.put(Geom.point(i, i).buffer(0.1));
+            f.put("STATE_NAME", "JEOLAND" + i);
+            cursor.write();
+        }
+        cursor.close();
+
+        assertEquals(59, geopkg.count(entry, new VectorQuery()));
+        assertEquals(10, geopkg.count(entry, new VectorQuery().filter("STATE_NAME LIKE 'JEOLAND%'")));
+
+        Cursor<Feature> c = geopkg.read(entry, new VectorQuery().filter("STATE_NAME = 'JEOLAND7'"));
+        try {
+            assertTrue(c.hasNext());
+            assertEquals(7, c.next().geometry().getCentroid().getX(), 0.01);
+        }
+        finally {
+            c.close();
+        }
+    }
+
+    @Test
+    public void testSortNulls() throws Exception {
+        FeatureEntry entry = geopkg.feature("states");
+        FeatureWriteCursor cursor = geopkg.append(entry, new VectorQuery());
+        cursor.next().put(Geom.point(0, 0).buffer(1));
+        cursor.write().close();
+
+        // nulls sort last ascending and first descending, as with Features.comparator()
+        VectorQuery q = new VectorQuery().sort("STATE_NAME");
+        List<Feature> sorted = list(geopkg.read(entry, q));
+        assertEquals("Alabama", sorted.get(0).get("STATE_NAME"));
+        assertNull(sorted.get(49).get("STATE_NAME"));
+
+        q = new VectorQuery().sort("-STATE_NAME").limit(2);
+        sorted = list(geopkg.read(entry, q));
+        assertNull(sorted.get(0).get("STATE_NAME"));
+        assertEquals("Wyoming", sorted.get(1).get("STATE_NAME"));
+    }
+
+    List<Feature> list(Cursor<Feature> c) throws IOException {
+        List<Feature> list = new ArrayList<>();
+        try {
+            for (Feature f : c) {
+                list.add(f);
+            }
+        }
+        finally {
+            c.close();
+        }
+        return list;
+    }
+
     @Test
     public void testUpdate() throws Exception {
         VectorDataset states = (VectorDataset) geopkg.get("states");
@@ -220,6 +339,65 @@ public class GeoPkgFeatureTest extends GeoPkgTestSupport {
         }
     }
     
+    @Test
+    public void testSpatialIndex() throws Exception {
+        FeatureEntry entry = geopkg.feature("states");
+        Bounds bbox = new Bounds(-106, -94, 26, 37);
+
+        Backend.Session session = geopkg.backend.readSession();
+        try {
+            assertFalse(geopkg.hasSpatialIndex(entry, session));
+        } finally {
+            session.close();
+        }
+
+        long expected = geopkg.count(entry, new VectorQuery().bounds(bbox));
+        assertTrue(expected > 0 && expected < 49);
+
+        geopkg.createSpatialIndex(entry);
+        entry = geopkg.feature("states");
+        assertEquals(49, rtreeCount(entry));
+
+        assertEquals(expected, geopkg.count(entry, new VectorQuery().bounds(bbox)));
+        assertEquals(expected, geopkg.read(entry, new VectorQuery().bounds(bbox)).count());
+        assertEquals(1, geopkg.read(entry,
+            new VectorQuery().bounds(bbox).filter("STATE_NAME = 'Texas'")).count());
+        assertEquals(2, geopkg.read(entry, new VectorQuery().bounds(bbox).limit(2)).count());
+
+        // triggers maintain the index
+        VectorDataset states = (VectorDataset) geopkg.get("states");
+        FeatureWriteCursor c = states.update(new VectorQuery().filter("STATE_NAME = 'Texas'"));
+        assertTrue(c.hasNext());
+        c.next().put(Geom.point(0.1, 0.1).buffer(1));
+        c.write().close();
+
+        assertEquals(expected - 1, geopkg.count(entry, new VectorQuery().bounds(bbox)));
+        assertEquals(1, geopkg.count(entry, new VectorQuery().bounds(new Bounds(-1, 1, -1, 1))));
+
+        // index entries are single precision and rounded outward, a box just past the
+        // geometry envelope is a candidate but must not match
+        Bounds past = new Bounds(1.100000001, 2, -1, 1);
+        assertEquals(0, geopkg.count(entry, new VectorQuery().bounds(past)));
+        assertEquals(0, geopkg.read(entry, new VectorQuery().bounds(past)).count());
+        assertEquals(0, geopkg.read(entry, new VectorQuery().bounds(past).limit(1)).count());
+
+        c = states.update(new VectorQuery().filter("STATE_NAME = 'Texas'"));
+        assertTrue(c.hasNext());
+        c.next();
+        c.remove().close();
+        assertEquals(48, rtreeCount(entry));
+    }
+
+    long rtreeCount(FeatureEntry entry) throws IOException {
+        Backend.Results rs = geopkg.rawQuery("SELECT count(*) FROM " + geopkg.rtree(entry));
+        try {
+            assertTrue(rs.next());
+            return rs.getLong(0);
+        } finally {
+            rs.close();
+        }
+    }
+
     private void assertCleanState(VectorDataset states) throws IOException {
         assertEquals(1, states.count(new VectorQuery().filter("STATE_ABBR = 'TX'")));
         assertEquals(49, states.count(new VectorQuery()));
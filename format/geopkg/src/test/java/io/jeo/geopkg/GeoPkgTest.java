@@ -19,7 +19,11 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import io.jeo.sql.SQLiteOpts;
 import io.jeo.vector.FeatureWriteCursor;
 import io.jeo.vector.VectorQuery;
 import io.jeo.vector.VectorDataset;
@@ -68,6 +72,142 @@ public class GeoPkgTest extends GeoPkgTestSupport {
         assertEquals(2, widgets.count(new VectorQuery()));
     }
 
+    @Test
+    public void testConnectionPool() throws Exception {
+        File file = newFile("pooled.gpkg").toFile();
+        GeoPkgOpts opts = new GeoPkgOpts(file)
+            .sqlite(new SQLiteOpts().readers(2).wal(true).mmapSize(1 << 20).tempStore("memory"));
+
+        GeoPkgWorkspace gpkg = new GeoPackage().open(file, opts.toMap());
+        try {
+            VectorDataset widgets = gpkg.create(Schema.build("widgets")
+                .field("geometry", Point.class, "epsg:4326").field("name", String.class).schema());
+            try (FeatureWriteCursor c = widgets.append(new VectorQuery())) {
+                c.next().put(Geom.point(0, 0)).put("name", "zero");
+                c.write();
+            }
+
+            for (int i = 0; i < 5; i++) {
+                assertEquals(1, widgets.count(new VectorQuery()));
+            }
+
+            JDBCBackend backend = (JDBCBackend) gpkg.backend;
+            assertEquals(1, backend.readers.idle());
+            assertEquals(1, backend.writer.idle());
+
+            Backend.Results rs = backend.query("PRAGMA journal_mode");
+            try {
+                assertTrue(rs.next());
+                assertEquals("wal", rs.getString(0));
+            }
+            finally {
+                rs.close();
+            }
+
+            // read connections are query only
+            Backend.Session session = backend.readSession();
+            try {
+                session.execute("DELETE FROM widgets");
+                fail();
+            }
+            catch(IOException expected) {
+            }
+            finally {
+                session.close();
+            }
+            assertEquals(1, widgets.count(new VectorQuery()));
+        }
+        finally {
+            gpkg.close();
+        }
+    }
+
+    @Test
+    public void testConnectionPoolLimits() throws Exception {
+        File file = newFile("limits.gpkg").toFile();
+        GeoPkgOpts opts = new GeoPkgOpts(file).sqlite(new SQLiteOpts().readers(1).timeout(200));
+
+        final GeoPkgWorkspace gpkg = new GeoPackage().open(file, opts.toMap());
+        try {
+            VectorDataset widgets = gpkg.create(Schema.build("widgets")
+                .field("geometry", Point.class, "epsg:4326").field("name", String.class).schema());
+            try (FeatureWriteCursor c = widgets.append(new VectorQuery())) {
+                c.next().put(Geom.point(0, 0)).put("name", "zero");
+                c.write();
+            }
+
+            // nested reads on the same thread share the single read connection
+            Backend.Session outer = gpkg.backend.readSession();
+            try {
+                Backend.Session inner = gpkg.backend.readSession();
+                inner.close();
+                assertEquals(1, widgets.count(new VectorQuery()));
+
+                // other threads wait for it, and give up after the timeout
+                assertNotNull(inOtherThread(new Callable<Backend.Session>() {
+                    @Override
+                    public Backend.Session call() throws Exception {
+                        return gpkg.backend.readSession();
+                    }
+                }));
+            }
+            finally {
+                outer.close();
+            }
+            assertNull(inOtherThread(new Callable<Backend.Session>() {
+                @Override
+                public Backend.Session call() throws Exception {
+                    gpkg.backend.readSession().close();
+                    return null;
+                }
+            }));
+
+            // writers are serialized on the single write connection
+            Backend.Session writer = gpkg.backend.session();
+            try {
+                assertNotNull(inOtherThread(new Callable<Backend.Session>() {
+                    @Override
+                    public Backend.Session call() throws Exception {
+                        return gpkg.backend.session();
+                    }
+                }));
+            }
+            finally {
+                writer.close();
+            }
+        }
+        finally {
+            gpkg.close();
+        }
+    }
+
+    /**
+     * Runs a task in another thread, returning the exception it failed with.
+     */
+    Exception inOtherThread(final Callable<Backend.Session> task) throws Exception {
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            return exec.submit(new Callable<Exception>() {
+                @Override
+                public Exception call() throws Exception {
+                    try {
+                        Backend.Session session = task.call();
+                        if (session != null) {
+                            session.close();
+                        }
+                        return null;
+                    }
+                    catch(IOException e) {
+                        return e;
+                    }
+                }
+            }).get();
+        }
+        finally {
+            exec.shutdown();
+        }
+    }
+
     Path newFile(String name) throws IOException {
         File f = new File(new File("target"), name);
         if (f.exists()) {
@@ -0,0 +1,117 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.geopkg.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
+import com.vividsolutions.jts.io.ByteOrderValues;
+import com.vividsolutions.jts.io.WKBWriter;
+import com.vividsolutions.jts.io.WKTReader;
+import org.junit.Test;
+
+public class GeoPkgGeomReaderTest {
+
+    static final String[] WKT = new String[]{
+        "POINT (1 2)",
+        "LINESTRING (0 0, 1 1, 2 0)",
+        "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 4 2, 4 4, 2 2))",
+        "MULTIPOINT ((0 0), (1 1))",
+        "MULTILINESTRING ((0 0, 1 1), (2 2, 3 3))",
+        "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), ((5 5, 6 5, 6 6, 5 5)))",
+        "GEOMETRYCOLLECTION (POINT (1 1), LINESTRING (0 0, 2 2))",
+        "LINESTRING EMPTY",
+        "POLYGON EMPTY"
+    };
+
+    @Test
+    public void testRead() throws Exception {
+        GeoPkgGeomWriter w = new GeoPkgGeomWriter();
+        GeoPkgGeomReader r = new GeoPkgGeomReader();
+
+        for (String wkt : WKT) {
+            Geometry g = new WKTReader().read(wkt);
+            g.setSRID(4326);
+
+            Geometry read = r.read(w.write(g));
+            assertTrue(wkt, g.equalsExact(read));
+            assertEquals(4326, read.getSRID());
+        }
+    }
+
+    @Test
+    public void testReadPacked() throws Exception {
+        Geometry g = new GeoPkgGeomReader().read(new GeoPkgGeomWriter().write(
+            new WKTReader().read("LINESTRING (0 0, 1 1, 2 0)")));
+
+        PackedCoordinateSequence cs = (PackedCoordinateSequence)
+            ((LineString) g).getCoordinateSequence();
+        assertEquals(3, cs.size());
+        assertEquals(1, cs.getY(1), 0);
+    }
+
+    @Test
+    public void testReadLittleEndianZ() throws Exception {
+        Geometry g = new WKTReader().read("LINESTRING (0 0 1, 1 1 2)");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // magic, flags with little endian header and no envelope, srid
+        out.write(new byte[]{0x47, 0x50, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00});
+        out.write(new WKBWriter(3, ByteOrderValues.LITTLE_ENDIAN).write(g));
+
+        Geometry read = new GeoPkgGeomReader().read(out.toByteArray());
+        assertTrue(g.equalsExact(read));
+        assertEquals(2, read.getCoordinates()[1].z, 0);
+    }
+
+    @Test
+    public void testEnvelope() throws Exception {
+        GeoPkgGeomWriter w = new GeoPkgGeomWriter();
+        GeoPkgGeomReader r = new GeoPkgGeomReader();
+
+        for (String wkt : WKT) {
+            Geometry g = new WKTReader().read(wkt);
+            Envelope e = r.envelope(w.write(g));
+            if (g.isEmpty()) {
+                assertNull(wkt, e);
+            }
+            else {
+                assertEquals(wkt, g.getEnvelopeInternal(), e);
+            }
+        }
+    }
+
+    @Test
+    public void testIntersects() throws Exception {
+        byte[] blob = new GeoPkgGeomWriter().write(new WKTReader().read("LINESTRING (0 0, 1 1)"));
+        GeoPkgGeomReader r = new GeoPkgGeomReader();
+
+        assertTrue(r.intersects(blob, new Envelope(0.5, 2, 0.5, 2)));
+        assertFalse(r.intersects(blob, new Envelope(2, 3, 2, 3)));
+
+        // point blobs are written without a header envelope
+        blob = new GeoPkgGeomWriter().write(new WKTReader().read("POINT (1 1)"));
+        assertTrue(r.intersects(blob, new Envelope(0, 2, 0, 2)));
+        assertFalse(r.intersects(blob, new Envelope(2, 3, 2, 3)));
+    }
+}
@@ -27,6 +27,8 @@ import java.util.Locale;
 
 import javax.sql.DataSource;
 
+import io.jeo.sql.ConnectionPool;
+import io.jeo.sql.SQLiteOpts;
 import io.jeo.util.Pair;
 import io.jeo.sql.Backend;
 import org.sqlite.SQLiteDataSource;
@@ -39,8 +41,18 @@ class JDBCBackend extends Backend {
 
     final DataSource db;
 
+    /**
+     * read only connections, and the dedicated writer connection
+     */
+    final ConnectionPool readers;
+    final ConnectionPool writer;
+
     JDBCBackend(MBTilesOpts opts) {
         db = createDataSource(opts);
+
+        SQLiteOpts sqlite = opts.sqlite();
+        readers = new ConnectionPool(db, sqlite.getReaders(), sqlite.getTimeout(), sqlite.pragmas(true));
+        writer = new ConnectionPool(db, 1, sqlite.getTimeout(), sqlite.pragmas(false));
     }
 
     DataSource createDataSource(MBTilesOpts opts) {
@@ -51,7 +63,12 @@ class JDBCBackend extends Backend {
 
     @Override
     public JDBCSession session() throws IOException {
-        return new JDBCSession();
+        return new JDBCSession(writer);
+    }
+
+    @Override
+    public JDBCSession readSession() throws IOException {
+        return new JDBCSession(readers);
     }
 
     @Override
@@ -94,7 +111,8 @@ class JDBCBackend extends Backend {
     }
 
     public void close() throws IOException {
-        // nothing to do
+        readers.close();
+        writer.close();
     }
 
     class JDBCSession extends Backend.Session {
@@ -102,9 +120,9 @@ class JDBCBackend extends Backend {
         final Connection connection;
         Statement statement;
 
-        JDBCSession() throws IOException {
+        JDBCSession(ConnectionPool pool) throws IOException {
             try {
-                connection = open(db.getConnection());
+                connection = open(pool.acquire());
             } catch (SQLException ex) {
                 throw new IOException(ex);
             }
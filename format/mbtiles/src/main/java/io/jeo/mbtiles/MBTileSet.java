@@ -61,7 +61,11 @@ public class MBTileSet implements TileDataset, FileData {
     }
 
     public MBTileSet(File file) {
-        this(new JDBCBackend(new MBTilesOpts(file)), new MBTilesOpts(file));
+        this(new MBTilesOpts(file));
+    }
+
+    public MBTileSet(MBTilesOpts opts) {
+        this(new JDBCBackend(opts), opts);
     }
 
     public String getTileFormat() {
@@ -17,6 +17,7 @@ package io.jeo.mbtiles;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -24,6 +25,8 @@ import java.util.Map;
 import java.util.Set;
 
 import io.jeo.data.FileDriver;
+import io.jeo.sql.SQLiteOpts;
+import io.jeo.util.Key;
 
 /**
  * Driver for the MBTiles format, that utilizes SQLite capabilities.
@@ -53,7 +56,14 @@ public class MBTiles extends FileDriver<MBTileSet> {
 
     @Override
     public MBTileSet open(File file, Map<?, Object> opts) throws IOException {
-        return new MBTileSet(file);
+        return new MBTileSet(new MBTilesOpts(file).sqlite(SQLiteOpts.fromMap(opts)));
+    }
+
+    @Override
+    public List<Key<?>> keys() {
+        List<Key<?>> keys = new ArrayList<>(super.keys());
+        keys.addAll(SQLiteOpts.KEYS);
+        return keys;
     }
 
     @Override
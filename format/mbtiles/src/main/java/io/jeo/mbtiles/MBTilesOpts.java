@@ -17,28 +17,43 @@ package io.jeo.mbtiles;
 import java.io.File;
 import java.util.Map;
 import java.util.LinkedHashMap;
+import io.jeo.sql.SQLiteOpts;
 import io.jeo.util.Key;
 import static io.jeo.data.FileDriver.FILE;
 
 public class MBTilesOpts {
 
     File file;
+    SQLiteOpts sqlite = new SQLiteOpts();
 
     public static MBTilesOpts fromMap(Map<?,Object> map) {
-        return new MBTilesOpts(FILE.get(map));
+        return new MBTilesOpts(FILE.get(map)).sqlite(SQLiteOpts.fromMap(map));
     }
 
     public MBTilesOpts(File file) {
         this.file = file;
     }
 
+    /**
+     * Sets the connection pool and PRAGMA options of the underlying SQLite database.
+     */
+    public MBTilesOpts sqlite(SQLiteOpts sqlite) {
+        this.sqlite = sqlite;
+        return this;
+    }
+
     public File file() {
         return file;
     }
 
+    public SQLiteOpts sqlite() {
+        return sqlite;
+    }
+
     public Map<Key<?>,Object> toMap() {
         Map<Key<?>,Object> map = new LinkedHashMap<Key<?>, Object>();
         map.put(FILE, file);
+        sqlite.toMap(map);
         return map;
     }
 
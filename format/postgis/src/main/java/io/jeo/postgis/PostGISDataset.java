@@ -31,7 +31,9 @@ import java.util.Locale;
 import java.util.Map;
 
 import io.jeo.data.Driver;
+import io.jeo.data.Sort;
 import io.jeo.geom.Bounds;
+import io.jeo.geom.Simplify;
 import io.jeo.vector.FeatureAppendCursor;
 import io.jeo.vector.FeatureCursor;
 import io.jeo.vector.FeatureWriteCursor;
@@ -178,7 +180,7 @@ public class PostGISDataset implements VectorDataset {
             if (q.fields().isEmpty()) {
                 //grab all from the schema
                 for (Field f : schema()) {
-                    encodeFieldForSelect(f, sql);
+                    encodeFieldForSelect(f, q, qp, sql);
                     sql.add(", ");
                 }
                 sql.trim(2);
@@ -194,7 +196,7 @@ public class PostGISDataset implements VectorDataset {
                         throw new IllegalArgumentException("No such field: " + prop);
                     }
     
-                    encodeFieldForSelect(f, sql);
+                    encodeFieldForSelect(f, q, qp, sql);
                     sql.add(", ");
     
                     geom = geom || f.geometry();
@@ -203,7 +205,7 @@ public class PostGISDataset implements VectorDataset {
     
                 
                 if (!geom && schema.geometry() != null) {
-                    encodeFieldForSelect(schema.geometry(), sql.add(", "));
+                    encodeFieldForSelect(schema.geometry(), q, qp, sql.add(", "));
                 }
             }
     
@@ -213,14 +215,14 @@ public class PostGISDataset implements VectorDataset {
 
             // if filter refers to properties not in the schema, defer to CQL filter
             if (!missingProperties(q)) {
-                encodeQuery(sql, q, qp, args);
+                encodeQuery(sql, q, qp, args, true);
             }
 
             pg.logQuery(sql, args);
 
             try {
                 PreparedStatement st = pg.prepareStatement(sql, args, cx);
-                return qp.apply(new PostGISCursor(st.executeQuery(), cx, this));
+                return qp.apply(new PostGISCursor(st.executeQuery(), cx, this), schema);
             }
             catch(SQLException e) {
                 cx.close();
@@ -246,11 +248,26 @@ public class PostGISDataset implements VectorDataset {
     public void close() {
     }
 
-    void encodeFieldForSelect(Field f, SQL sql) {
+    void encodeFieldForSelect(Field f, VectorQuery q, VectorQueryPlan qp, SQL sql) {
         if (f.geometry()) {
             //TODO: force 2d
             //TODO: base64 encode
-            sql.add("ST_AsBinary(").name(f.name()).add(") as ").name(f.name());
+            sql.add("ST_AsBinary(");
+
+            // simplification tolerance is in units of the query results, so only handle it
+            // natively when not reprojecting
+            Double tol = q.reproject() == null ? q.simplify() : null;
+            if (tol != null && tol > 0) {
+                sql.add(q.simplifyMethod() == Simplify.DOUGLAS_PEUCKER
+                    ? "ST_Simplify(" : "ST_SimplifyPreserveTopology(")
+                    .name(f.name()).add(", ").add(tol).add(")");
+                qp.simplified();
+            }
+            else {
+                sql.name(f.name());
+            }
+
+            sql.add(") as ").name(f.name());
         }
         else {
             sql.name(f.name());
@@ -258,6 +275,10 @@ public class PostGISDataset implements VectorDataset {
     }
 
     void encodeQuery(SQL sql, VectorQuery q, VectorQueryPlan qp, List<Pair<Object,Integer>> args) {
+        encodeQuery(sql, q, qp, args, false);
+    }
+
+    void encodeQuery(SQL sql, VectorQuery q, VectorQueryPlan qp, List<Pair<Object,Integer>> args, boolean sort) {
         Schema schema = schema();
 
         if (schema.geometry() != null && !Bounds.isNull(q.bounds())) {
@@ -296,6 +317,15 @@ public class PostGISDataset implements VectorDataset {
             }
         }
 
+        if (sort && q.sort() != null) {
+            encodeSort(sql, q, qp);
+        }
+
+        // offset and limit only apply natively if the results are sorted natively as well
+        if (q.sort() != null && !qp.isSorted()) {
+            return;
+        }
+
         Integer offset = q.offset();
         if (offset != null) {
             qp.offsetted();
@@ -311,6 +341,26 @@ public class PostGISDataset implements VectorDataset {
 
     }
 
+    void encodeSort(SQL sql, VectorQuery q, VectorQueryPlan qp) {
+        Schema schema = schema();
+
+        // only sort natively on non geometry fields, geometry ordering in the database differs
+        // from the ordering of geometry objects
+        for (Sort s : q.sort()) {
+            Field f = schema.field(s.getProperty());
+            if (f == null || f.geometry()) {
+                return;
+            }
+        }
+
+        sql.add(" ORDER BY ");
+        for (Sort s : q.sort()) {
+            sql.name(s.getProperty()).add(s.isAscending() ? " ASC" : " DESC").add(", ");
+        }
+        sql.trim(2);
+        qp.sorted();
+    }
+
     void doUpdate(final Feature f, final Map<String,Object> changed, Connection cx) throws IOException {
         pg.run(new DbOP<Boolean>() {
             @Override
@@ -109,6 +109,19 @@ public abstract class Backend implements Closeable {
      */
     public abstract Session session() throws IOException;
 
+    /**
+     * Open a new Session for read only queries.
+     * <p>
+     * Backends may hand out pooled or read only connections for such sessions. The default
+     * implementation returns {@link #session()}.
+     * </p>
+     * @return non-null Session ready for use
+     * @throws java.io.IOException if an error occurs
+     */
+    public Session readSession() throws IOException {
+        return session();
+    }
+
     /**
      * Execute a SQL statement calling {@link String.format} with the provided query and
      * optional args.
@@ -177,7 +190,7 @@ public abstract class Backend implements Closeable {
      */
     public Results query(String query, Object... args) throws IOException {
         String sql = String.format(Locale.ROOT, query, args);
-        Session s = session();
+        Session s = readSession();
         // chain the session to the query so it's closed, too
         return s.query(sql).closeSession(s);
     }
@@ -189,7 +202,7 @@ public abstract class Backend implements Closeable {
      * @throws java.io.IOException
      */
     public Results queryPrepared(String query, Object... args) throws IOException {
-        Session s = session();
+        Session s = readSession();
         // chain the session to the query so it's closed, too
         return s.queryPrepared(query, args).closeSession(s);
     }
@@ -291,6 +304,21 @@ public abstract class Backend implements Closeable {
          */
         public abstract void executePrepared(String sql, Object... args) throws IOException;
 
+        /**
+         * Prepare a statement using placeholders to be executed repeatedly in batches.
+         * <p>
+         * The default implementation executes each set of arguments with
+         * {@link #executePrepared(String, Object...)}, implementations should override to
+         * reuse a single prepared statement.
+         * </p>
+         * @param sql the SQL with placeholders
+         * @return non-null Batch
+         * @throws java.io.IOException
+         */
+        public Batch prepareBatch(String sql) throws IOException {
+            return open(new Batch(this, sql));
+        }
+
         /**
          * Execute a query.
          * @param sql the SQL to execute
@@ -321,6 +349,56 @@ public abstract class Backend implements Closeable {
 
     }
 
+    /**
+     * A prepared statement executed in batches of arguments.
+     */
+    public class Batch implements Closeable {
+
+        private final Session session;
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>();
+
+        protected Batch(Session session, String sql) {
+            this.session = session;
+            this.sql = sql;
+        }
+
+        /**
+         * Add a set of arguments to the batch.
+         * @param args the arguments
+         * @throws java.io.IOException
+         */
+        public void add(Object... args) throws IOException {
+            rows.add(args.clone());
+        }
+
+        /**
+         * The number of argument sets added since the batch was last executed.
+         */
+        public int size() {
+            return rows.size();
+        }
+
+        /**
+         * Execute the statement for all argument sets added since the last execution.
+         * @throws java.io.IOException
+         */
+        public void execute() throws IOException {
+            for (Object[] args : rows) {
+                session.executePrepared(sql, args);
+            }
+            rows.clear();
+        }
+
+        /**
+         * Release the batch, discarding any arguments not executed.
+         */
+        @Override
+        public void close() {
+            rows.clear();
+        }
+    }
+
     /**
      * Wrapper for database API result set or cursor. Column access is 0-based
      * unlike JDBC.
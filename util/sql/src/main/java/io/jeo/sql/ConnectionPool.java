@@ -0,0 +1,319 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.sql;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of connections obtained from a data source.
+ * <p>
+ * The pool opens at most <tt>size</tt> connections. When all of them are in use
+ * {@link #acquire()} blocks until one is released, failing after <tt>timeout</tt> milliseconds.
+ * A pool of size one therefore serializes its users on a single connection. Closing a connection
+ * obtained from {@link #acquire()} rolls back any pending transaction and returns it to the pool.
+ * </p>
+ * <p>
+ * Acquiring a connection from a thread that already holds one returns the same underlying
+ * connection, which is released once every acquisition has been closed. Nested reads, such as a
+ * count issued while iterating over results, thus neither wait on the pool nor deadlock a full
+ * one, and nested writes join the transaction of the enclosing one.
+ * </p>
+ * <p>
+ * Statements passed as <tt>init</tt>, such as SQLite <tt>PRAGMA</tt> statements, are executed
+ * once on every newly opened connection.
+ * </p>
+ */
+public class ConnectionPool implements Closeable {
+
+    static final Logger LOG = LoggerFactory.getLogger(ConnectionPool.class);
+
+    final DataSource db;
+    final int size;
+    final long timeout;
+    final List<String> init;
+
+    final Deque<Connection> idle = new ArrayDeque<>();
+    int open;
+    boolean closed;
+
+    final ThreadLocal<Lease> leases = new ThreadLocal<>();
+
+    /**
+     * Creates a new pool.
+     *
+     * @param db The data source to obtain connections from.
+     * @param size The maximum number of connections to open.
+     * @param timeout The maximum time in milliseconds to wait for a connection.
+     * @param init Statements to execute on newly opened connections.
+     */
+    public ConnectionPool(DataSource db, int size, long timeout, List<String> init) {
+        if (size < 1) {
+            throw new IllegalArgumentException("pool size must be positive");
+        }
+        this.db = db;
+        this.size = size;
+        this.timeout = timeout;
+        this.init = new ArrayList<>(init);
+    }
+
+    /**
+     * The data source connections are obtained from.
+     */
+    public DataSource dataSource() {
+        return db;
+    }
+
+    /**
+     * Obtains a connection from the pool, closing the connection returns it to the pool.
+     * <p>
+     * If the calling thread already holds a connection from the pool that connection is shared,
+     * otherwise this method waits for a connection to become available.
+     * </p>
+     */
+    public Connection acquire() throws SQLException {
+        Lease lease = leases.get();
+        if (lease == null || !lease.retain()) {
+            lease = new Lease(take());
+            leases.set(lease);
+        }
+
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{Connection.class}, new Pooled(lease));
+    }
+
+    /**
+     * The number of idle connections in the pool.
+     */
+    public synchronized int idle() {
+        return idle.size();
+    }
+
+    /**
+     * Opens and initializes a new connection.
+     */
+    protected Connection open() throws SQLException {
+        Connection cx = db.getConnection();
+        try (Statement st = cx.createStatement()) {
+            for (String sql : init) {
+                Backend.log(sql);
+                st.execute(sql);
+            }
+        }
+        catch(SQLException e) {
+            cx.close();
+            throw e;
+        }
+        return cx;
+    }
+
+    /**
+     * Takes an idle connection, opens a new one, or waits for one to be released.
+     */
+    Connection take() throws SQLException {
+        synchronized (this) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (true) {
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+
+                Connection cx = idle.poll();
+                if (cx != null) {
+                    return cx;
+                }
+                if (open < size) {
+                    open++;
+                    break;
+                }
+
+                long wait = deadline - System.nanoTime();
+                if (wait <= 0) {
+                    throw new SQLException(String.format(Locale.ROOT,
+                        "Timed out after %d ms waiting for one of %d connections", timeout, size));
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, wait);
+                }
+                catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException(e);
+                }
+            }
+        }
+
+        try {
+            return open();
+        }
+        catch(SQLException|RuntimeException e) {
+            synchronized (this) {
+                open--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    void release(Lease lease) throws SQLException {
+        if (!lease.release()) {
+            return;
+        }
+        if (lease.owner == Thread.currentThread() && leases.get() == lease) {
+            leases.remove();
+        }
+
+        Connection cx = lease.cx;
+        boolean reset = false, pooled = false;
+        try {
+            if (!cx.isClosed() && !cx.getAutoCommit()) {
+                cx.rollback();
+                cx.setAutoCommit(true);
+            }
+            reset = true;
+        }
+        finally {
+            synchronized (this) {
+                if (reset && !closed && !cx.isClosed()) {
+                    idle.push(cx);
+                    pooled = true;
+                }
+                else {
+                    open--;
+                }
+                notifyAll();
+            }
+            if (!pooled) {
+                cx.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        List<Connection> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            open -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+
+        for (Connection cx : toClose) {
+            try {
+                cx.close();
+            }
+            catch(SQLException e) {
+                LOG.debug("Error closing connection", e);
+            }
+        }
+    }
+
+    /**
+     * A connection held by a thread, along with the number of times the thread acquired it.
+     */
+    static class Lease {
+
+        final Connection cx;
+        final Thread owner = Thread.currentThread();
+        int count = 1;
+
+        Lease(Connection cx) {
+            this.cx = cx;
+        }
+
+        /**
+         * Acquires the connection again, returning <code>false</code> if it was already released.
+         */
+        synchronized boolean retain() {
+            if (count == 0) {
+                return false;
+            }
+            count++;
+            return true;
+        }
+
+        /**
+         * Releases one acquisition, returning <code>true</code> if it was the last one.
+         */
+        synchronized boolean release() {
+            return --count == 0;
+        }
+    }
+
+    /**
+     * Handler for pooled connections, intercepting close.
+     */
+    class Pooled implements InvocationHandler {
+
+        Lease lease;
+
+        Pooled(Lease lease) {
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name) && method.getParameterTypes().length == 0) {
+                if (lease != null) {
+                    Lease l = lease;
+                    lease = null;
+                    release(l);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return lease == null || lease.cx.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "Pooled[" + (lease != null ? lease.cx : null) + "]";
+            }
+            if (lease == null) {
+                throw new SQLException("Connection is closed");
+            }
+
+            try {
+                return method.invoke(lease.cx, args);
+            }
+            catch(InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
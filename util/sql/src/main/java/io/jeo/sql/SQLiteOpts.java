@@ -0,0 +1,228 @@
+/* Copyright 2015 The jeo project. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jeo.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import io.jeo.util.Key;
+
+/**
+ * Connection options for SQLite based formats.
+ * <p>
+ * SQLite formats read through a pool of read only connections and write through a single
+ * dedicated connection, see {@link ConnectionPool}. These options control the size of the read
+ * pool, how long to wait for a connection, and the <tt>PRAGMA</tt> statements applied to every
+ * connection.
+ * </p>
+ */
+public class SQLiteOpts {
+
+    /**
+     * Maximum number of read connections, defaults to 4.
+     */
+    public static final Key<Integer> READERS = new Key<>("readers", Integer.class, 4);
+
+    /**
+     * Maximum time in milliseconds to wait for a read connection or for the write connection,
+     * defaults to 30 seconds.
+     */
+    public static final Key<Long> TIMEOUT = new Key<>("timeout", Long.class, 30000L);
+
+    /**
+     * Size in bytes of the memory map used for reads, <tt>PRAGMA mmap_size</tt>. Defaults to 0,
+     * meaning no memory mapping.
+     */
+    public static final Key<Long> MMAP_SIZE = new Key<>("mmap_size", Long.class, 0L);
+
+    /**
+     * Page cache size, <tt>PRAGMA cache_size</tt>. Positive values are a number of pages,
+     * negative values a number of kibibytes. Defaults to the SQLite default.
+     */
+    public static final Key<Integer> CACHE_SIZE = new Key<>("cache_size", Integer.class);
+
+    /**
+     * Whether to switch the database to write ahead logging, <tt>PRAGMA journal_mode=WAL</tt>,
+     * allowing reads to proceed concurrently with writes. Defaults to false.
+     */
+    public static final Key<Boolean> WAL = new Key<>("wal", Boolean.class, false);
+
+    /**
+     * Whether read connections reject writes, <tt>PRAGMA query_only</tt>. Defaults to true.
+     */
+    public static final Key<Boolean> QUERY_ONLY = new Key<>("query_only", Boolean.class, true);
+
+    /**
+     * Where temporary tables and indices are stored, <tt>PRAGMA temp_store</tt>, one of
+     * "default", "file" or "memory". Defaults to the SQLite default.
+     */
+    public static final Key<String> TEMP_STORE = new Key<>("temp_store", String.class);
+
+    /**
+     * All of the option keys.
+     */
+    public static final List<Key<?>> KEYS = (List) Arrays.asList(
+        READERS, TIMEOUT, MMAP_SIZE, CACHE_SIZE, WAL, QUERY_ONLY, TEMP_STORE);
+
+    int readers = READERS.def();
+    long timeout = TIMEOUT.def();
+    long mmapSize = MMAP_SIZE.def();
+    Integer cacheSize;
+    boolean wal = WAL.def();
+    boolean queryOnly = QUERY_ONLY.def();
+    String tempStore;
+
+    public static SQLiteOpts fromMap(Map<?,Object> map) {
+        SQLiteOpts opts = new SQLiteOpts();
+        if (READERS.in(map)) {
+            opts.readers(READERS.get(map));
+        }
+        if (TIMEOUT.in(map)) {
+            opts.timeout(TIMEOUT.get(map));
+        }
+        if (MMAP_SIZE.in(map)) {
+            opts.mmapSize(MMAP_SIZE.get(map));
+        }
+        if (WAL.in(map)) {
+            opts.wal(WAL.get(map));
+        }
+        if (QUERY_ONLY.in(map)) {
+            opts.queryOnly(QUERY_ONLY.get(map));
+        }
+        return opts.cacheSize(CACHE_SIZE.get(map)).tempStore(TEMP_STORE.get(map));
+    }
+
+    public SQLiteOpts readers(int readers) {
+        this.readers = readers;
+        return this;
+    }
+
+    public SQLiteOpts timeout(long timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public SQLiteOpts mmapSize(long mmapSize) {
+        this.mmapSize = mmapSize;
+        return this;
+    }
+
+    public SQLiteOpts cacheSize(Integer cacheSize) {
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    public SQLiteOpts wal(boolean wal) {
+        this.wal = wal;
+        return this;
+    }
+
+    public SQLiteOpts queryOnly(boolean queryOnly) {
+        this.queryOnly = queryOnly;
+        return this;
+    }
+
+    public SQLiteOpts tempStore(String tempStore) {
+        if (tempStore != null && !tempStore.matches("(?i)default|file|memory")) {
+            throw new IllegalArgumentException("temp_store must be one of default, file, memory");
+        }
+        this.tempStore = tempStore;
+        return this;
+    }
+
+    public int getReaders() {
+        return readers;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public long getMmapSize() {
+        return mmapSize;
+    }
+
+    public Integer getCacheSize() {
+        return cacheSize;
+    }
+
+    public boolean isWal() {
+        return wal;
+    }
+
+    public boolean isQueryOnly() {
+        return queryOnly;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    /**
+     * The statements to execute on newly opened connections.
+     *
+     * @param reader Whether the statements are for a read connection.
+     */
+    public List<String> pragmas(boolean reader) {
+        List<String> pragmas = new ArrayList<>();
+        if (wal) {
+            // must come before query_only, the journal mode is persisted in the database file
+            pragmas.add("PRAGMA journal_mode=WAL");
+        }
+        if (mmapSize > 0) {
+            pragmas.add("PRAGMA mmap_size=" + mmapSize);
+        }
+        if (cacheSize != null) {
+            pragmas.add("PRAGMA cache_size=" + cacheSize);
+        }
+        if (tempStore != null) {
+            pragmas.add("PRAGMA temp_store=" + tempStore.toUpperCase(Locale.ROOT));
+        }
+        if (reader && queryOnly) {
+            pragmas.add("PRAGMA query_only=1");
+        }
+        return pragmas;
+    }
+
+    /**
+     * Adds the options that differ from the defaults to a map.
+     */
+    public void toMap(Map<Key<?>,Object> map) {
+        if (readers != READERS.def()) {
+            map.put(READERS, readers);
+        }
+        if (timeout != TIMEOUT.def()) {
+            map.put(TIMEOUT, timeout);
+        }
+        if (mmapSize != MMAP_SIZE.def()) {
+            map.put(MMAP_SIZE, mmapSize);
+        }
+        if (cacheSize != null) {
+            map.put(CACHE_SIZE, cacheSize);
+        }
+        if (wal != WAL.def()) {
+            map.put(WAL, wal);
+        }
+        if (queryOnly != QUERY_ONLY.def()) {
+            map.put(QUERY_ONLY, queryOnly);
+        }
+        if (tempStore != null) {
+            map.put(TEMP_STORE, tempStore);
+        }
+    }
+}